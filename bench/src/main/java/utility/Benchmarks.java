@@ -0,0 +1,174 @@
+package utility;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * <p>
+ * runs the JMH benchmarks of this module and keeps a baseline of their results. build the module with maven
+ * in the bench folder and run from there:
+ * </p>
+ * <pre>
+ * java -jar target/benchmarks.jar [-save results] [-baseline file] [JMH options] [benchmark regex...]
+ * </pre>
+ * <p>
+ * -save writes one row per benchmark and thread count, -baseline compares the results with a saved file such as
+ * baseline.txt and exits with 1 if any benchmark got slower by more than 10%. every other argument goes to JMH,
+ * for example IntersectBenchmark runs only the intersect benchmarks and -f 3 forks three JVMs per benchmark.
+ * each benchmark runs in its own forked JVM, so the profile of one benchmark does not leak into the next.
+ * </p>
+ * <p>
+ * benchmarks are {@link IntersectBenchmark}, {@link TransformBenchmark}, {@link SpatialBenchmark},
+ * {@link PointBenchmark} and {@link RandBenchmark}. contention benchmarks run on {@link #THREADS} threads.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public final class Benchmarks{
+
+	/**
+	 * seed of all generated scenes
+	 */
+	static final long SEED = 20261018;
+
+	/**
+	 * number of cases in each scene, a power of 2 so index can wrap with a mask
+	 */
+	static final int CASES = 1024;
+
+	static final double WIDTH = 1000, HEIGHT = 1000;
+
+	/**
+	 * number of threads of contention benchmarks, results are saved and compared by name and thread count
+	 */
+	static final int THREADS = 4;
+
+	/**
+	 * allowed slow down against the baseline, 0.1 is 10%
+	 */
+	private static final double TOLERANCE = 0.1;
+
+	private Benchmarks(){}
+
+	public static void main( String[] args) throws IOException, RunnerException, CommandLineOptionException{
+		Path output = null, baseline = null;
+		List< String> options = new ArrayList<>();
+		for( int i = 0; i < args.length; i++){
+			switch( args[i]){
+				case "-save":
+					output = Paths.get( args[++i]);
+					break;
+				case "-baseline":
+					baseline = Paths.get( args[++i]);
+					break;
+				default:
+					options.add( args[i]);
+			}
+		}
+		CommandLineOptions jmh = new CommandLineOptions( options.toArray( new String[0]));
+		Runner runner = new Runner( jmh);
+		// same as the JMH main for options which do not run benchmarks
+		if( jmh.shouldHelp()){
+			jmh.showHelp();
+			return;
+		}
+		if( jmh.shouldList()){
+			runner.list();
+			return;
+		}
+		if( jmh.shouldListWithParams()){
+			runner.listWithParams( jmh);
+			return;
+		}
+		if( jmh.shouldListProfilers()){
+			jmh.listProfilers();
+			return;
+		}
+		if( jmh.shouldListResultFormats()){
+			jmh.listResultFormats();
+			return;
+		}
+		Collection< RunResult> runs = runner.run();
+		List< String> rows = new ArrayList<>();
+		for( RunResult run : runs)
+			rows.add( row( run));
+		if( output != null)
+			save( output, rows);
+		if( baseline != null && compare( baseline, rows) > 0)
+			System.exit( 1);
+	}
+
+	/**
+	 * format the result of one benchmark as name, threads, score and error
+	 */
+	private static String row( RunResult run){
+		String name = run.getParams().getBenchmark();
+		name = name.substring( name.lastIndexOf( '.', name.lastIndexOf( '.') - 1) + 1);
+		Result< ?> result = run.getPrimaryResult();
+		return String.format( Locale.ROOT, "%-40s %3d %12.3f %10.3f", name, run.getParams().getThreads(), result.getScore(),
+				result.getScoreError());
+	}
+
+	/**
+	 * write rows so they can be used as a baseline later
+	 * @param file - file to write
+	 * @param rows - rows of results
+	 * @throws IOException if file cannot be written
+	 */
+	private static void save( Path file, List< String> rows) throws IOException{
+		List< String> lines = new ArrayList<>();
+		lines.add( "# benchmark                             threads   ns/op        error   java " + System.getProperty( "java.version")
+				+ " " + System.getProperty( "os.arch") + " cores " + Runtime.getRuntime().availableProcessors());
+		lines.addAll( rows);
+		Files.write( file, lines, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * print each row next to its baseline and flag those slower by more than {@link #TOLERANCE}
+	 * @param baseline - file written by {@link #save(Path, List)}
+	 * @param rows - rows of results
+	 * @return number of regressions
+	 * @throws IOException if baseline cannot be read
+	 */
+	private static int compare( Path baseline, List< String> rows) throws IOException{
+		Map< String, Double> old = new LinkedHashMap<>();
+		for( String line : Files.readAllLines( baseline, StandardCharsets.UTF_8)){
+			String[] values = line.trim().split( "\\s+");
+			if( line.startsWith( "#") || values.length < 3)
+				continue;
+			old.put( values[0] + "@" + values[1], Double.parseDouble( values[2]));
+		}
+		int regressions = 0;
+		for( String row : rows){
+			String[] values = row.trim().split( "\\s+");
+			Double before = old.get( values[0] + "@" + values[1]);
+			if( before == null){
+				System.out.println( row + "   no baseline");
+				continue;
+			}
+			double change = Double.parseDouble( values[2]) / before - 1;
+			boolean regressed = change > TOLERANCE;
+			if( regressed)
+				regressions++;
+			System.out.println( String.format( Locale.ROOT, "%s   %+7.1f%%%s", row, change * 100, regressed ? "   REGRESSION" : ""));
+		}
+		return regressions;
+	}
+}
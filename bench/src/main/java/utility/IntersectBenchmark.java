@@ -0,0 +1,127 @@
+package utility;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * one ray against one segment, when they hit, when the ray points away and when they are parallel, with rounded
+ * scalers and with exact predicates. one ray against 1000 segments, and a dense angular sweep from the middle of
+ * the scene one ray at a time and {@link RayPacket#MAX_RAYS} rays at a time. one operation is one ray.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@State( Scope.Thread)
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork( 2)
+public class IntersectBenchmark{
+
+	/**
+	 * number of rays in one turn of the sweep benchmarks, a power of 2 and a multiple of {@link RayPacket#MAX_RAYS}
+	 */
+	private static final int SWEEP_RAYS = 4096;
+
+	private static final double STEP = Math.PI * 2 / SWEEP_RAYS, LENGTH = Benchmarks.WIDTH + Benchmarks.HEIGHT;
+
+	private double[] hits, misses, parallels, rays;
+	private SegmentSet segments;
+	private final double[] result = new double[4];
+	private final RayPacket packet = new RayPacket();
+
+	/**
+	 * index of the next case or ray
+	 */
+	private int index;
+
+	@Setup
+	public void setUp(){
+		SceneGenerator generator = new SceneGenerator( Benchmarks.SEED, Benchmarks.WIDTH, Benchmarks.HEIGHT);
+		hits = generator.hits( Benchmarks.CASES);
+		misses = generator.misses( Benchmarks.CASES);
+		parallels = generator.parallels( Benchmarks.CASES);
+		segments = generator.segments( 1000, 50);
+		rays = generator.misses( Benchmarks.CASES);
+	}
+
+	@Benchmark
+	public boolean hit(){
+		return intersect( hits);
+	}
+
+	@Benchmark
+	public boolean miss(){
+		return intersect( misses);
+	}
+
+	@Benchmark
+	public boolean parallel(){
+		return intersect( parallels);
+	}
+
+	@Benchmark
+	public boolean robustHit(){
+		return intersectRobust( hits);
+	}
+
+	@Benchmark
+	public boolean robustMiss(){
+		return intersectRobust( misses);
+	}
+
+	@Benchmark
+	public boolean robustParallel(){
+		return intersectRobust( parallels);
+	}
+
+	@Benchmark
+	public int closest1000(){
+		int o = next() * SceneGenerator.STRIDE;
+		return IntersectUtil.getClosestIntersection( result, rays[o], rays[o + 1], rays[o + 2], rays[o + 3], segments);
+	}
+
+	@Benchmark
+	public int sweepScalar(){
+		double a = (index = (index + 1) & (SWEEP_RAYS - 1)) * STEP;
+		double lx = Benchmarks.WIDTH / 2, ly = Benchmarks.HEIGHT / 2;
+		return IntersectUtil.getClosestIntersection( result, lx, ly, lx + Math.cos( a) * LENGTH, ly + Math.sin( a) * LENGTH, segments);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation( RayPacket.MAX_RAYS)
+	public int sweepPacket(){
+		double a = (index = (index + RayPacket.MAX_RAYS) & (SWEEP_RAYS - 1)) * STEP;
+		return packet.fan( Benchmarks.WIDTH / 2, Benchmarks.HEIGHT / 2, a, STEP, RayPacket.MAX_RAYS, LENGTH).cast( segments);
+	}
+
+	private boolean intersect( double[] cases){
+		int o = next() * SceneGenerator.STRIDE;
+		return IntersectUtil.getIntersection( result, cases[o], cases[o + 1], cases[o + 2], cases[o + 3], cases[o + 4], cases[o + 5],
+				cases[o + 6], cases[o + 7]);
+	}
+
+	private boolean intersectRobust( double[] cases){
+		int o = next() * SceneGenerator.STRIDE;
+		return IntersectUtil.getIntersectionRobust( result, cases[o], cases[o + 1], cases[o + 2], cases[o + 3], cases[o + 4],
+				cases[o + 5], cases[o + 6], cases[o + 7]);
+	}
+
+	private int next(){
+		return index = (index + 1) & (Benchmarks.CASES - 1);
+	}
+}
@@ -0,0 +1,98 @@
+package utility;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.beans.value.ChangeListener;
+
+/**
+ * <p>
+ * creating and moving a {@link Point}, with no listener, with a change listener on each property and with one
+ * invalidation listener on the point, which is notified once per move. {@link Point#randomPoint(double)} draws from
+ * the shared random of {@link RandUtil}. one operation is one point created or one move.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@State( Scope.Thread)
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork( 2)
+public class PointBenchmark{
+
+	private final Point plain = new Point( 0, 0);
+	private final Point changed = new Point( 0, 0);
+	private final Point invalidated = new Point( 0, 0);
+	private final Point center = new Point( Benchmarks.WIDTH / 2, Benchmarks.HEIGHT / 2);
+
+	/**
+	 * number of notifications, read by benchmarks so listeners are not dead code
+	 */
+	private long notified;
+
+	/**
+	 * value of the next set
+	 */
+	private int i;
+
+	@Setup
+	public void setUp(){
+		ChangeListener< Number> listener = ( o, before, after) -> notified++;
+		changed.xProperty().addListener( listener);
+		changed.yProperty().addListener( listener);
+		invalidated.addListener( o -> notified++);
+	}
+
+	@Benchmark
+	public Point newPoint(){
+		return new Point( i, ++i);
+	}
+
+	@Benchmark
+	public double translate(){
+		plain.translate( 1, -1);
+		return plain.x();
+	}
+
+	@Benchmark
+	public long translateListeners(){
+		changed.translate( 1, -1);
+		return notified;
+	}
+
+	@Benchmark
+	public long translateInvalidation(){
+		invalidated.translate( 1, -1);
+		return notified;
+	}
+
+	@Benchmark
+	public double set(){
+		plain.set( ++i, -i);
+		return plain.x();
+	}
+
+	@Benchmark
+	public long setListeners(){
+		changed.set( ++i, -i);
+		return notified;
+	}
+
+	@Benchmark
+	public Point randomPoint(){
+		return center.randomPoint( 50);
+	}
+}
@@ -0,0 +1,65 @@
+package utility;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * random numbers from the one shared {@link java.util.Random} in {@link RandUtil}, alone and from
+ * {@link Benchmarks#THREADS} threads at the same time. {@link ThreadLocalRandom} is measured next to it as a reference
+ * without contention. the score of a contended benchmark is the time per operation seen by each thread, so contention
+ * shows as a higher score. threads sharing fewer cores than there are threads measure time slicing, not contention.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork( 2)
+public class RandBenchmark{
+
+	@Benchmark
+	public double getDouble(){
+		return RandUtil.getDouble( 0, 1);
+	}
+
+	@Benchmark
+	@Threads( Benchmarks.THREADS)
+	public double getDoubleContended(){
+		return RandUtil.getDouble( 0, 1);
+	}
+
+	@Benchmark
+	public int getInt(){
+		return RandUtil.getInt( 0, 100);
+	}
+
+	@Benchmark
+	@Threads( Benchmarks.THREADS)
+	public int getIntContended(){
+		return RandUtil.getInt( 0, 100);
+	}
+
+	@Benchmark
+	public double threadLocal(){
+		return ThreadLocalRandom.current().nextDouble();
+	}
+
+	@Benchmark
+	@Threads( Benchmarks.THREADS)
+	public double threadLocalContended(){
+		return ThreadLocalRandom.current().nextDouble();
+	}
+}
@@ -0,0 +1,140 @@
+package utility;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * reproducible rays and segments for benchmarks. the same seed always creates the same scene on every machine,
+ * so results can be compared between runs. each case is 8 doubles in a row: rsx, rsy, rex, rey, ssx, ssy, sex, sey.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+final class SceneGenerator{
+
+	/**
+	 * number of doubles per case
+	 */
+	static final int STRIDE = 8;
+
+	private final Random rand;
+	private final double width, height;
+
+	/**
+	 * create a new generator
+	 * @param seed - seed of random numbers
+	 * @param width - width of scene
+	 * @param height - height of scene
+	 */
+	SceneGenerator( long seed, double width, double height){
+		this.rand = new Random( seed);
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * cases where the ray hits the segment
+	 * @param count - number of cases
+	 * @return cases in rows of {@link #STRIDE}
+	 */
+	double[] hits( int count){
+		double[] cases = new double[count * STRIDE];
+		for( int i = 0; i < count; i++){
+			int o = i * STRIDE;
+			segment( cases, o + 4);
+			double u = rand.nextDouble();
+			double px = cases[o + 4] + (cases[o + 6] - cases[o + 4]) * u;
+			double py = cases[o + 5] + (cases[o + 7] - cases[o + 5]) * u;
+			double rsx = x(), rsy = y();
+			// ray end anywhere from short of the segment to past it
+			double t = 0.25 + rand.nextDouble() * 1.5;
+			set( cases, o, rsx, rsy, rsx + (px - rsx) * t, rsy + (py - rsy) * t);
+		}
+		return cases;
+	}
+
+	/**
+	 * cases where the ray points away from the segment
+	 * @param count - number of cases
+	 * @return cases in rows of {@link #STRIDE}
+	 */
+	double[] misses( int count){
+		double[] cases = new double[count * STRIDE];
+		for( int i = 0; i < count; i++){
+			int o = i * STRIDE;
+			segment( cases, o + 4);
+			double u = rand.nextDouble();
+			double px = cases[o + 4] + (cases[o + 6] - cases[o + 4]) * u;
+			double py = cases[o + 5] + (cases[o + 7] - cases[o + 5]) * u;
+			double rsx = x(), rsy = y();
+			double t = 0.25 + rand.nextDouble();
+			set( cases, o, rsx, rsy, rsx - (px - rsx) * t, rsy - (py - rsy) * t);
+		}
+		return cases;
+	}
+
+	/**
+	 * cases where the ray is parallel to the segment
+	 * @param count - number of cases
+	 * @return cases in rows of {@link #STRIDE}
+	 */
+	double[] parallels( int count){
+		double[] cases = new double[count * STRIDE];
+		for( int i = 0; i < count; i++){
+			int o = i * STRIDE;
+			segment( cases, o + 4);
+			double dx = cases[o + 6] - cases[o + 4], dy = cases[o + 7] - cases[o + 5];
+			double rsx = x(), rsy = y();
+			double k = rand.nextDouble() * 2 - 1;
+			set( cases, o, rsx, rsy, rsx + dx * k, rsy + dy * k);
+		}
+		return cases;
+	}
+
+	/**
+	 * a scene of random short segments inside four walls around the scene
+	 * @param count - number of segments including walls
+	 * @param maxLength - max length of each segment
+	 * @return new scene
+	 */
+	SegmentSet segments( int count, double maxLength){
+		SegmentSet segments = new SegmentSet( count);
+		segments.add( 0, 0, width, 0);
+		segments.add( width, 0, width, height);
+		segments.add( width, height, 0, height);
+		segments.add( 0, height, 0, 0);
+		while( segments.size() < count){
+			double x = x(), y = y(), a = rand.nextDouble() * Math.PI * 2, l = rand.nextDouble() * maxLength;
+			segments.add( x, y, x + Math.cos( a) * l, y + Math.sin( a) * l);
+		}
+		return segments;
+	}
+
+	/**
+	 * random x inside scene
+	 * @return x
+	 */
+	double x(){
+		return rand.nextDouble() * width;
+	}
+
+	/**
+	 * random y inside scene
+	 * @return y
+	 */
+	double y(){
+		return rand.nextDouble() * height;
+	}
+
+	private void segment( double[] cases, int o){
+		set( cases, o, x(), y(), x(), y());
+	}
+
+	private static void set( double[] cases, int o, double a, double b, double c, double d){
+		cases[o] = a;
+		cases[o + 1] = b;
+		cases[o + 2] = c;
+		cases[o + 3] = d;
+	}
+}
@@ -0,0 +1,109 @@
+package utility;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * radius and nearest queries over 10k points, by a scan of every point and by {@link PointKdTree} and {@link PointHash},
+ * and moving points of the hash. one operation is one query or one move.
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@State( Scope.Thread)
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork( 2)
+public class SpatialBenchmark{
+
+	private static final int COUNT = 10_000;
+
+	private static final double RADIUS = 25;
+
+	private PointBuffer points;
+	private double[] queries;
+	private PointKdTree tree;
+	private PointHash hash;
+	private final int[] result = new int[COUNT];
+
+	/**
+	 * index of the next query or point to move
+	 */
+	private int index;
+
+	@Setup
+	public void setUp(){
+		Random rand = new Random( Benchmarks.SEED);
+		points = new PointBuffer( COUNT);
+		for( int i = 0; i < COUNT; i++)
+			points.add( rand.nextDouble() * Benchmarks.WIDTH, rand.nextDouble() * Benchmarks.HEIGHT);
+		queries = new double[Benchmarks.CASES * 2];
+		for( int i = 0; i < queries.length; i++)
+			queries[i] = rand.nextDouble() * Benchmarks.WIDTH;
+		tree = new PointKdTree( points);
+		hash = new PointHash( points, RADIUS);
+	}
+
+	@Benchmark
+	public int scanRadius(){
+		int c = next() * 2;
+		double qx = queries[c], qy = queries[c + 1];
+		int found = 0;
+		for( int p = 0; p < COUNT; p++){
+			double dx = points.x( p) - qx, dy = points.y( p) - qy;
+			if( dx * dx + dy * dy <= RADIUS * RADIUS)
+				found++;
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int kdtreeRadius(){
+		int c = next() * 2;
+		return tree.inRadius( result, queries[c], queries[c + 1], RADIUS);
+	}
+
+	@Benchmark
+	public int hashRadius(){
+		int c = next() * 2;
+		return hash.inRadius( result, queries[c], queries[c + 1], RADIUS);
+	}
+
+	@Benchmark
+	public int kdtreeNearest8(){
+		int c = next() * 2;
+		return tree.nearest( result, queries[c], queries[c + 1], 8);
+	}
+
+	@Benchmark
+	public int hashNearest8(){
+		int c = next() * 2;
+		return hash.nearest( result, queries[c], queries[c + 1], 8);
+	}
+
+	@Benchmark
+	public double hashMove(){
+		// each point moves right on even passes and back left on odd ones
+		int id = index = (index + 1) % (COUNT * 2);
+		int point = id % COUNT;
+		hash.move( point, hash.x( point) + (id < COUNT ? 3 : -3), hash.y( point));
+		return hash.x( point);
+	}
+
+	private int next(){
+		return index = (index + 1) & (Benchmarks.CASES - 1);
+	}
+}
@@ -0,0 +1,59 @@
+package utility;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * moving and rotating a buffer of 100k points in place with {@link TransformUtil}, one operation is the whole buffer.
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@State( Scope.Thread)
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement( iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork( 2)
+public class TransformBenchmark{
+
+	private static final int COUNT = 100_000;
+
+	private PointBuffer points;
+
+	/**
+	 * direction of the next translate, points move back and forth so they stay in the scene
+	 */
+	private double dx = 1;
+
+	@Setup
+	public void setUp(){
+		Random rand = new Random( Benchmarks.SEED);
+		points = new PointBuffer( COUNT);
+		for( int i = 0; i < COUNT; i++)
+			points.add( rand.nextDouble() * Benchmarks.WIDTH, rand.nextDouble() * Benchmarks.HEIGHT);
+	}
+
+	@Benchmark
+	public double translate100k(){
+		TransformUtil.translate( points, dx = -dx, 0);
+		return points.x( 0);
+	}
+
+	@Benchmark
+	public double rotate100k(){
+		TransformUtil.rotate( points, 0.01, Benchmarks.WIDTH / 2, Benchmarks.HEIGHT / 2);
+		return points.x( 0);
+	}
+}
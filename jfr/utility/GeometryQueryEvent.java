@@ -0,0 +1,53 @@
+package utility;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>
+ * flight recorder event of one slow geometry query, see {@link GeometryMetrics}. this class is only loaded when
+ * metrics are enabled and the JVM has {@code jdk.jfr}.
+ * it is in the {@code jfr} source folder, not {@code src}, since it needs {@code jdk.jfr} to compile.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@Name( "utility.GeometryQuery")
+@Label( "Geometry Query")
+@Category( "Geometry")
+@Description( "A geometry query slower than utility.metrics.slowNanos")
+@StackTrace( false)
+final class GeometryQueryEvent extends Event{
+
+	@Label( "Kind")
+	String kind;
+
+	@Label( "Hits")
+	long hits;
+
+	@Label( "Latency")
+	@Timespan( Timespan.NANOSECONDS)
+	long latency;
+
+	/**
+	 * record one slow query if flight recorder is recording this event
+	 * @param kind - name of kind of query
+	 * @param hits - number of hits
+	 * @param latency - nanoseconds taken by the query
+	 */
+	static void commit( String kind, long hits, long latency){
+		GeometryQueryEvent event = new GeometryQueryEvent();
+		if( !event.isEnabled())
+			return;
+		event.kind = kind;
+		event.hits = hits;
+		event.latency = latency;
+		event.commit();
+	}
+}
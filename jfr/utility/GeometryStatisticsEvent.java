@@ -0,0 +1,65 @@
+package utility;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>
+ * periodic flight recorder event with the totals of one kind of geometry query, see {@link GeometryMetrics}.
+ * one event per kind is recorded every second. this class is only loaded when metrics are enabled and the JVM
+ * has {@code jdk.jfr}.
+ * like every class of the {@code jfr} source folder it needs {@code jdk.jfr} to compile.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+@Name( "utility.GeometryStatistics")
+@Label( "Geometry Statistics")
+@Category( "Geometry")
+@Description( "Totals of one kind of geometry query since start or last reset")
+@Period( "1 s")
+@StackTrace( false)
+final class GeometryStatisticsEvent extends Event{
+
+	@Label( "Kind")
+	String kind;
+
+	@Label( "Calls")
+	long calls;
+
+	@Label( "Hits")
+	long hits;
+
+	@Label( "Median Latency")
+	@Timespan( Timespan.NANOSECONDS)
+	long p50;
+
+	@Label( "99th Percentile Latency")
+	@Timespan( Timespan.NANOSECONDS)
+	long p99;
+
+	/**
+	 * add the hook which records one event per kind every period
+	 */
+	static void register(){
+		FlightRecorder.addPeriodicEvent( GeometryStatisticsEvent.class, () -> {
+			for( int k = 0; k < GeometryMetrics.KINDS.length; k++){
+				GeometryStatisticsEvent event = new GeometryStatisticsEvent();
+				event.kind = GeometryMetrics.KINDS[k];
+				event.calls = GeometryMetrics.calls( k);
+				event.hits = GeometryMetrics.hits( k);
+				event.p50 = GeometryMetrics.percentile( k, 50);
+				event.p99 = GeometryMetrics.percentile( k, 99);
+				event.commit();
+			}
+		});
+	}
+}
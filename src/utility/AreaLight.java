@@ -0,0 +1,233 @@
+package utility;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * a round light with a size, which casts soft shadows. the light is sampled at jittered points spread evenly over its
+ * disk and the visibility polygon of every sample is added to a {@link LightMapRasterizer} with a share of the intensity,
+ * so the penumbra is where only some samples see.
+ * </p>
+ * <p>
+ * samples are much cheaper than separate hard lights:
+ * </p>
+ * <ul>
+ * <li>no {@link Point} or property is created and the jitter comes from a {@link SplittableRandom} made for each call,
+ * not from {@link RandUtil#RAND}, so threads never contend and the same seed always gives the same shadows.</li>
+ * <li>samples are visited in order around the light and split into batches, one task per batch. within a batch
+ * each sample reuses the sorted segment ends of the previous one, see {@link VisibilityPolygon#move(double, double, SegmentSet)},
+ * since nearby samples see the ends in almost the same order.</li>
+ * <li>all samples are filled in one pass over the tiles of the light map, which only counts how many samples
+ * cover each pixel and applies fall off once, see {@link LightMapRasterizer#addSamples(double[][], double, double, float, double)}.</li>
+ * </ul>
+ *
+ * <pre>
+ * new AreaLight( x, y, 8).render( map, 16, frame, 1, 600, segments);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class AreaLight{
+
+	/**
+	 * golden angle in radians, consecutive samples turn by it so they never line up
+	 */
+	private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt( 5));
+
+	/**
+	 * default number of samples computed by one task
+	 */
+	private static final int DEFAULT_BATCH = 4;
+
+	/**
+	 * engine of each thread, every batch starts with a full compute so it does not matter what it held before
+	 */
+	private static final ThreadLocal< VisibilityPolygon> VISIBILITY = ThreadLocal.withInitial( VisibilityPolygon::new);
+
+	/**
+	 * center and radius of light
+	 */
+	private final double x, y, radius;
+
+	/**
+	 * pool used to run the tasks
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * number of samples computed by one task
+	 */
+	private final int batch;
+
+	/**
+	 * create an area light which runs on {@link ForkJoinPool#commonPool()}
+	 * @param x - center x
+	 * @param y - center y
+	 * @param radius - radius of light disk
+	 */
+	public AreaLight( double x, double y, double radius){
+		this( x, y, radius, ForkJoinPool.commonPool(), DEFAULT_BATCH);
+	}
+
+	/**
+	 * create an area light which runs on given pool
+	 * @param x - center x
+	 * @param y - center y
+	 * @param radius - radius of light disk
+	 * @param pool - pool to run tasks on
+	 * @param batch - number of samples computed by one task
+	 */
+	public AreaLight( double x, double y, double radius, ForkJoinPool pool, int batch){
+		if( pool == null)
+			throw new NullPointerException( "pool cannot be null");
+		if( !(radius >= 0))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		if( batch < 1)
+			throw new IllegalArgumentException( "batch must be positive: " + batch);
+		this.x = x;
+		this.y = y;
+		this.radius = radius;
+		this.pool = pool;
+		this.batch = batch;
+	}
+
+	/**
+	 * get center x
+	 * @return center x
+	 */
+	public double x(){
+		return x;
+	}
+
+	/**
+	 * get center y
+	 * @return center y
+	 */
+	public double y(){
+		return y;
+	}
+
+	/**
+	 * get radius of light disk
+	 * @return radius
+	 */
+	public double radius(){
+		return radius;
+	}
+
+	/**
+	 * <p>
+	 * get jittered sample points over the light disk, ordered around the center. each sample falls in its own ring
+	 * of equal area, turned by the golden angle from the previous one. a sample behind a segment, seen from the center,
+	 * is pulled back half way to that segment so light never leaks through a wall.
+	 * </p>
+	 * @param samples - number of samples
+	 * @param seed - seed of jitter, use the same seed for the same shadows
+	 * @param segments - segments which block the light
+	 * @return samples as [x1,y1,x2,y2,...]
+	 */
+	public double[] samples( int samples, long seed, SegmentSet segments){
+		if( samples < 1)
+			throw new IllegalArgumentException( "samples must be positive: " + samples);
+		SplittableRandom rand = new SplittableRandom( seed);
+		double[] offsets = new double[samples * 2];
+		double[] angles = new double[samples];
+		int[] order = new int[samples];
+		for( int i = 0; i < samples; i++){
+			double r = radius * Math.sqrt( (i + rand.nextDouble()) / samples);
+			double a = i * GOLDEN_ANGLE + (rand.nextDouble() - 0.5) * GOLDEN_ANGLE;
+			offsets[i * 2] = r * Math.cos( a);
+			offsets[i * 2 + 1] = r * Math.sin( a);
+			angles[i] = VisibilityPolygon.pseudoAngle( offsets[i * 2], offsets[i * 2 + 1]);
+			order[i] = i;
+		}
+		// insertion sort by angle, samples are few
+		for( int i = 1; i < samples; i++){
+			int o = order[i];
+			int j = i - 1;
+			while( j >= 0 && angles[order[j]] > angles[o]){
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = o;
+		}
+		double[] points = new double[samples * 2];
+		double[] result = new double[4];
+		for( int i = 0; i < samples; i++){
+			double dx = offsets[order[i] * 2], dy = offsets[order[i] * 2 + 1];
+			if( (dx != 0 || dy != 0) && segments.getClosestIntersection( result, x, y, x + dx, y + dy, 1) != -1){
+				dx *= result[2] / 2;
+				dy *= result[2] / 2;
+			}
+			points[i * 2] = x + dx;
+			points[i * 2 + 1] = y + dy;
+		}
+		return points;
+	}
+
+	/**
+	 * compute the visibility polygon of each sample
+	 * @param points - samples from {@link #samples(int, long, SegmentSet)}
+	 * @param segments - segments which block the light, must not change until this returns
+	 * @return for each sample an array of [x1,y1,x2,y2,...] polygon vertices
+	 */
+	public double[][] computePolygons( double[] points, SegmentSet segments){
+		double[][] polygons = new double[points.length / 2][];
+		pool.invoke( new SampleTask( points, segments, polygons, 0, polygons.length));
+		return polygons;
+	}
+
+	/**
+	 * add the soft light of this area light to given light map
+	 * @param map - light map to add to
+	 * @param samples - number of samples, more gives smoother penumbra
+	 * @param seed - seed of jitter, use the same seed for the same shadows
+	 * @param intensity - total intensity of the light, split evenly between samples
+	 * @param falloff - distance where intensity falls to 0, 0 or infinity for no fall off
+	 * @param segments - segments which block the light, must not change until this returns
+	 */
+	public void render( LightMapRasterizer map, int samples, long seed, float intensity, double falloff, SegmentSet segments){
+		map.addSamples( computePolygons( samples( samples, seed, segments), segments), x, y, intensity, falloff);
+	}
+
+	/**
+	 * computes the polygons of a range of samples, one batch per task so each batch can reuse the order of events
+	 */
+	private class SampleTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] points;
+		private final SegmentSet segments;
+		private final double[][] polygons;
+		private final int from, to;
+
+		SampleTask( double[] points, SegmentSet segments, double[][] polygons, int from, int to){
+			this.points = points;
+			this.segments = segments;
+			this.polygons = polygons;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if( to - from > batch){
+				int mid = (from + to) >>> 1;
+				invokeAll( new SampleTask( points, segments, polygons, from, mid), new SampleTask( points, segments, polygons, mid, to));
+				return;
+			}
+			VisibilityPolygon visibility = VISIBILITY.get();
+			for( int i = from; i < to; i++){
+				if( i == from)
+					visibility.compute( points[i * 2], points[i * 2 + 1], segments);
+				else
+					visibility.move( points[i * 2], points[i * 2 + 1], segments);
+				polygons[i] = visibility.toArray();
+			}
+		}
+	}
+}
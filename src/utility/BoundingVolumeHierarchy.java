@@ -0,0 +1,234 @@
+package utility;
+
+/**
+ * <p>
+ * a flat bounding volume hierarchy over axis aligned boxes. nodes are stored in depth first order in
+ * parallel arrays, left child of an inner node is always the next node and {@link #start} holds the index of
+ * right child. a leaf holds {@link #count} items starting at {@link #start} in {@link #items}.
+ * this class only builds the tree, each user traverses it with its own primitive test.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+final class BoundingVolumeHierarchy{
+
+	/**
+	 * max number of items in one leaf
+	 */
+	static final int LEAF_SIZE = 4;
+
+	/**
+	 * relative amount each node box is grown by so rounding in the slab test never misses an item on the box border
+	 */
+	private static final double PAD = 1e-12;
+
+	/**
+	 * max depth of the tree, median split keeps the depth at log2 of item count
+	 */
+	static final int MAX_DEPTH = 64;
+
+	/**
+	 * bounding box of each node
+	 */
+	final double[] minX, minY, maxX, maxY;
+
+	/**
+	 * first item of a leaf or right child of an inner node
+	 */
+	final int[] start;
+
+	/**
+	 * number of items in a leaf or 0 for an inner node
+	 */
+	final int[] count;
+
+	/**
+	 * item indices ordered so each leaf is a continuous range
+	 */
+	final int[] items;
+
+	/**
+	 * number of nodes
+	 */
+	private int nodeCount;
+
+	/**
+	 * center of each item box, only used while building
+	 */
+	private final double[] centerX, centerY;
+
+	/**
+	 * item boxes, only used while building
+	 */
+	private final double[] itemMinX, itemMinY, itemMaxX, itemMaxY;
+
+	/**
+	 * build a new tree over the given item boxes
+	 * @param minX - min x of each item
+	 * @param minY - min y of each item
+	 * @param maxX - max x of each item
+	 * @param maxY - max y of each item
+	 * @param size - number of items
+	 */
+	BoundingVolumeHierarchy( double[] minX, double[] minY, double[] maxX, double[] maxY, int size){
+		// median split leaves at least 2 items per leaf so 2 * size nodes is always enough
+		int capacity = Math.max( 1, 2 * size);
+		this.minX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxX = new double[capacity];
+		this.maxY = new double[capacity];
+		this.start = new int[capacity];
+		this.count = new int[capacity];
+		this.items = new int[size];
+		this.itemMinX = minX;
+		this.itemMinY = minY;
+		this.itemMaxX = maxX;
+		this.itemMaxY = maxY;
+		centerX = new double[size];
+		centerY = new double[size];
+		for( int i = 0; i < size; i++){
+			items[i] = i;
+			centerX[i] = (minX[i] + maxX[i]) * 0.5;
+			centerY[i] = (minY[i] + maxY[i]) * 0.5;
+		}
+		build( 0, size);
+	}
+
+	/**
+	 * get number of nodes in the tree
+	 * @return number of nodes
+	 */
+	int nodeCount(){
+		return nodeCount;
+	}
+
+	/**
+	 * check if the tree has no items, its root is then an empty leaf whose box no ray can be tested against
+	 * @return true if there are no items
+	 */
+	boolean isEmpty(){
+		return items.length == 0;
+	}
+
+	/**
+	 * build a node over the given item range and all its children
+	 * @param from - first item inclusive
+	 * @param to - last item exclusive
+	 * @return index of the new node
+	 */
+	private int build( int from, int to){
+		int node = nodeCount++;
+		double nMinX = Double.POSITIVE_INFINITY, nMinY = Double.POSITIVE_INFINITY;
+		double nMaxX = Double.NEGATIVE_INFINITY, nMaxY = Double.NEGATIVE_INFINITY;
+		double cMinX = Double.POSITIVE_INFINITY, cMinY = Double.POSITIVE_INFINITY;
+		double cMaxX = Double.NEGATIVE_INFINITY, cMaxY = Double.NEGATIVE_INFINITY;
+		for( int i = from; i < to; i++){
+			int item = items[i];
+			nMinX = Math.min( nMinX, itemMinX[item]);
+			nMinY = Math.min( nMinY, itemMinY[item]);
+			nMaxX = Math.max( nMaxX, itemMaxX[item]);
+			nMaxY = Math.max( nMaxY, itemMaxY[item]);
+			cMinX = Math.min( cMinX, centerX[item]);
+			cMinY = Math.min( cMinY, centerY[item]);
+			cMaxX = Math.max( cMaxX, centerX[item]);
+			cMaxY = Math.max( cMaxY, centerY[item]);
+		}
+		if( to > from){
+			double padX = (Math.abs( nMinX) + Math.abs( nMaxX) + 1) * PAD;
+			double padY = (Math.abs( nMinY) + Math.abs( nMaxY) + 1) * PAD;
+			nMinX -= padX;
+			nMaxX += padX;
+			nMinY -= padY;
+			nMaxY += padY;
+		}
+		minX[node] = nMinX;
+		minY[node] = nMinY;
+		maxX[node] = nMaxX;
+		maxY[node] = nMaxY;
+
+		if( to - from <= LEAF_SIZE){
+			start[node] = from;
+			count[node] = to - from;
+			return node;
+		}
+
+		// split at the median center along the longer axis
+		boolean splitX = cMaxX - cMinX >= cMaxY - cMinY;
+		int mid = (from + to) >>> 1;
+		select( splitX ? centerX : centerY, from, to - 1, mid);
+		build( from, mid);
+		start[node] = build( mid, to);
+		count[node] = 0;
+		return node;
+	}
+
+	/**
+	 * quick select items so the item at k has its center at the median of given range
+	 * @param center - center x or center y of all items
+	 * @param low - first index inclusive
+	 * @param high - last index inclusive
+	 * @param k - index of median
+	 */
+	private void select( double[] center, int low, int high, int k){
+		while( low < high){
+			int mid = (low + high) >>> 1;
+			double pivot = center[items[mid]];
+			int i = low, j = high;
+			while( i <= j){
+				while( center[items[i]] < pivot)
+					i++;
+				while( center[items[j]] > pivot)
+					j--;
+				if( i <= j){
+					int temp = items[i];
+					items[i++] = items[j];
+					items[j--] = temp;
+				}
+			}
+			if( k <= j)
+				high = j;
+			else if( k >= i)
+				low = i;
+			else
+				return;
+		}
+	}
+
+	/**
+	 * <p>
+	 * find the ray scaler at which a ray enters given node using the slab method.
+	 * </p>
+	 * @param node - index of node
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param invX - 1 divided by ray direction x
+	 * @param invY - 1 divided by ray direction y
+	 * @param tMax - farthest ray scaler of interest
+	 * @return entry ray scaler or {@link Double#POSITIVE_INFINITY} if ray misses the box before tMax
+	 */
+	double enter( int node, double rsx, double rsy, double invX, double invY, double tMax){
+		double tEnter = 0;
+		double tExit = tMax;
+		if( Double.isInfinite( invX)){
+			// ray runs parallel to x slabs
+			if( rsx < minX[node] || rsx > maxX[node])
+				return Double.POSITIVE_INFINITY;
+		}else{
+			double t1 = (minX[node] - rsx) * invX;
+			double t2 = (maxX[node] - rsx) * invX;
+			tEnter = Math.max( tEnter, Math.min( t1, t2));
+			tExit = Math.min( tExit, Math.max( t1, t2));
+		}
+		if( Double.isInfinite( invY)){
+			if( rsy < minY[node] || rsy > maxY[node])
+				return Double.POSITIVE_INFINITY;
+		}else{
+			double t1 = (minY[node] - rsy) * invY;
+			double t2 = (maxY[node] - rsy) * invY;
+			tEnter = Math.max( tEnter, Math.min( t1, t2));
+			tExit = Math.min( tExit, Math.max( t1, t2));
+		}
+		return tEnter <= tExit ? tEnter : Double.POSITIVE_INFINITY;
+	}
+}
@@ -0,0 +1,210 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * a packed set of line segments like {@link SegmentSet} but stored in single precision. each segment takes 16 bytes
+ * instead of 32, so twice as many segments fit in cache and a vector register holds twice as many lanes.
+ * queries run entirely in float, see {@link IntersectUtil#getClosestIntersection(float[], float, float, float, float, FloatSegmentSet, float)}.
+ * </p>
+ * <p>
+ * error bounds against the double reference of {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)},
+ * with u the unit roundoff of float, 2<sup>-24</sup> or about 6e-8, and M the largest coordinate magnitude:
+ * </p>
+ * <ul>
+ * <li>storing a coordinate moves it by at most M * u, 0.000244 for M = 4096. whole numbers below 2<sup>24</sup>
+ * and halves below 2<sup>23</sup> are stored exactly.</li>
+ * <li>the intersect point is off by at most about 4 * M * u * (1 + t) / sin(a), where t is the ray scaler and a is the angle
+ * between ray and segment. with rays as long as the scene, so t stays near 1 or below, a scene within 4096 pixels and
+ * a &gt;= 1 degree that is under 0.12 pixel. a ray of length 1 hitting a wall 1000 pixels away has t = 1000 and is
+ * a thousand times worse, so scale ray directions to the size of the scene before querying in float.</li>
+ * <li>hit or miss can only differ from double when the intersect point is within that distance of a segment end
+ * or the ray start, or when ray and segment are parallel to within about u.</li>
+ * </ul>
+ * <p>
+ * for large worlds, or where hits exactly on segment ends matter, use {@link SegmentSet}.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class FloatSegmentSet implements SegmentIndex{
+
+	/**
+	 * default capacity used when no capacity is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * start x, start y, end x and end y of all segments
+	 */
+	float[] ssx, ssy, sex, sey;
+
+	/**
+	 * number of segments in this set
+	 */
+	int size;
+
+	/**
+	 * create an empty set with default capacity
+	 */
+	public FloatSegmentSet(){
+		this( DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * create an empty set which can hold given number of segments before growing
+	 * @param capacity - initial number of segments this set can hold
+	 */
+	public FloatSegmentSet( int capacity){
+		if( capacity < 0)
+			throw new IllegalArgumentException( "capacity cannot be negative: " + capacity);
+		ssx = new float[capacity];
+		ssy = new float[capacity];
+		sex = new float[capacity];
+		sey = new float[capacity];
+	}
+
+	/**
+	 * copy given segments, rounding every coordinate to the nearest float
+	 * @param segments - segments to copy
+	 * @return new set
+	 */
+	public static FloatSegmentSet of( SegmentSet segments){
+		FloatSegmentSet set = new FloatSegmentSet( segments.size);
+		for( int i = 0; i < segments.size; i++)
+			set.add( (float) segments.ssx[i], (float) segments.ssy[i], (float) segments.sex[i], (float) segments.sey[i]);
+		return set;
+	}
+
+	/**
+	 * add a new segment to the end of this set
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return index of the new segment
+	 */
+	public int add( float ssx, float ssy, float sex, float sey){
+		if( size == this.ssx.length)
+			grow( size + 1);
+		put( size, ssx, ssy, sex, sey);
+		return size++;
+	}
+
+	/**
+	 * replace the segment at given index
+	 * @param index - index of segment to replace
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 */
+	public void set( int index, float ssx, float ssy, float sex, float sey){
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+		put( index, ssx, ssy, sex, sey);
+	}
+
+	/**
+	 * write a segment at given index without checks, index must be below capacity
+	 */
+	private void put( int index, float ssx, float ssy, float sex, float sey){
+		this.ssx[index] = ssx;
+		this.ssy[index] = ssy;
+		this.sex[index] = sex;
+		this.sey[index] = sey;
+	}
+
+	/**
+	 * remove all segments, capacity is kept
+	 */
+	public void clear(){
+		size = 0;
+	}
+
+	/**
+	 * get number of segments in this set
+	 * @return number of segments
+	 */
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get start x of segment at given index
+	 * @param index - index of segment
+	 * @return start x
+	 */
+	public float ssx( int index){
+		return ssx[index];
+	}
+
+	/**
+	 * get start y of segment at given index
+	 * @param index - index of segment
+	 * @return start y
+	 */
+	public float ssy( int index){
+		return ssy[index];
+	}
+
+	/**
+	 * get end x of segment at given index
+	 * @param index - index of segment
+	 * @return end x
+	 */
+	public float sex( int index){
+		return sex[index];
+	}
+
+	/**
+	 * get end y of segment at given index
+	 * @param index - index of segment
+	 * @return end y
+	 */
+	public float sey( int index){
+		return sey[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * the ray is rounded to float and the query runs in float, the result is widened back to double.
+	 * </p>
+	 */
+	@Override
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		return IntersectUtil.getClosestIntersection( result, (float) rsx, (float) rsy, (float) rex, (float) rey, this, (float) tMax);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * the ray is rounded to float and the query runs in float.
+	 * </p>
+	 */
+	@Override
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		return IntersectUtil.getAnyIntersection( (float) rsx, (float) rsy, (float) rex, (float) rey, this, (float) tMax);
+	}
+
+	/**
+	 * make sure the arrays can hold at least given number of segments
+	 * @param minCapacity - min number of segments
+	 */
+	private void grow( int minCapacity){
+		int capacity = Math.max( minCapacity, ssx.length + (ssx.length >> 1) + 1);
+		ssx = Arrays.copyOf( ssx, capacity);
+		ssy = Arrays.copyOf( ssy, capacity);
+		sex = Arrays.copyOf( sex, capacity);
+		sey = Arrays.copyOf( sey, capacity);
+	}
+
+	@Override
+	public String toString(){
+		return "FloatSegmentSet[size=" + size + "]";
+	}
+}
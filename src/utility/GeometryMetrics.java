@@ -0,0 +1,353 @@
+package utility;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * opt in counters and latency histograms of geometry queries. start the JVM with {@code -Dutility.metrics=true}
+ * to turn them on, otherwise {@link #ENABLED} is a constant false and the JIT removes every guarded call, so the
+ * instrumentation can stay compiled in production builds.
+ * </p>
+ * <p>
+ * for each kind of query this keeps number of calls, number of hits and a histogram of latency in power of 2
+ * buckets of nanoseconds. counters are {@link LongAdder}, striped per thread, so parallel casting does not
+ * contend on them. the fastest queries, one ray against one segment, are only counted and not timed since
+ * reading the clock would cost more than the query.
+ * </p>
+ * <p>
+ * when enabled the numbers are published as the MXBean {@value #OBJECT_NAME}, see {@link GeometryMetricsMXBean}.
+ * if the JVM has flight recorder, {@code jdk.jfr}, and the classes of the {@code jfr} source folder are on the class
+ * path, queries slower than {@code -Dutility.metrics.slowNanos}, 1 ms by default, are recorded as
+ * {@code utility.GeometryQuery} events and a {@code utility.GeometryStatistics} event per kind is recorded every
+ * second. the events are only reached by reflection, so this class and the rest of {@code src} compile on Java 8.
+ * </p>
+ *
+ * <pre>
+ * long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+ * ...
+ * if( GeometryMetrics.ENABLED)
+ * 	GeometryMetrics.record( GeometryMetrics.PACKET, begin, hits);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public final class GeometryMetrics{
+
+	/**
+	 * true if metrics are collected, read once from system property utility.metrics
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean( "utility.metrics");
+
+	/**
+	 * kinds of query. one ray against one segment, closest hit of one ray, any hit of one ray, one {@link RayPacket} cast,
+	 * one {@link VisibilityPolygon}, one batch of {@link LineOfSight}.
+	 */
+	public static final int INTERSECT = 0, CLOSEST = 1, ANY = 2, PACKET = 3, VISIBILITY = 4, LINE_OF_SIGHT = 5;
+
+	/**
+	 * names of each kind, used by JMX and flight recorder
+	 */
+	static final String[] KINDS = { "intersect", "closest", "any", "packet", "visibility", "lineOfSight"};
+
+	/**
+	 * name of the MXBean
+	 */
+	public static final String OBJECT_NAME = "utility:type=GeometryMetrics";
+
+	/**
+	 * number of latency buckets, bucket i counts latencies from 2^(i-1) to 2^i - 1 nanoseconds
+	 */
+	static final int BUCKETS = 64;
+
+	/**
+	 * queries at least this slow are recorded as flight recorder events
+	 */
+	private static final long SLOW_NANOS = Long.getLong( "utility.metrics.slowNanos", 1_000_000);
+
+	/**
+	 * commit of {@code GeometryQueryEvent}, null unless metrics are enabled and flight recorder is available
+	 */
+	private static final MethodHandle QUERY_EVENT = ENABLED
+			? event( "utility.GeometryQueryEvent", "commit", MethodType.methodType( void.class, String.class, long.class, long.class))
+			: null;
+
+	/**
+	 * true if metrics are enabled and flight recorder is available
+	 */
+	static final boolean JFR = QUERY_EVENT != null;
+
+	/**
+	 * set when committing an event failed, no more events are recorded after that
+	 */
+	private static volatile boolean jfrFailed;
+
+	/**
+	 * counters of each kind
+	 */
+	private static final LongAdder[] CALLS = adders( KINDS.length), HITS = adders( KINDS.length), NANOS = adders( KINDS.length);
+
+	/**
+	 * latency histogram of each kind, kind times {@link #BUCKETS} plus bucket
+	 */
+	private static final LongAdder[] LATENCY = adders( KINDS.length * BUCKETS);
+
+	static{
+		// starting the platform MBean server and flight recorder takes hundreds of milliseconds,
+		// do it off the thread of the first query so it does not show up as its latency
+		if( ENABLED){
+			Thread publisher = new Thread( GeometryMetrics::publish, "GeometryMetrics");
+			publisher.setDaemon( true);
+			publisher.start();
+		}
+	}
+
+	private GeometryMetrics(){}
+
+	/**
+	 * count a query which is too fast to time
+	 * @param kind - kind of query
+	 * @param hits - number of hits
+	 */
+	public static void count( int kind, long hits){
+		CALLS[kind].increment();
+		if( hits != 0)
+			HITS[kind].add( hits);
+	}
+
+	/**
+	 * count and time a query
+	 * @param kind - kind of query
+	 * @param start - {@link System#nanoTime()} when the query started
+	 * @param hits - number of hits
+	 */
+	public static void record( int kind, long start, long hits){
+		long nanos = Math.max( 0, System.nanoTime() - start);
+		count( kind, hits);
+		NANOS[kind].add( nanos);
+		LATENCY[kind * BUCKETS + bucket( nanos)].increment();
+		if( JFR && nanos >= SLOW_NANOS && !jfrFailed)
+			slow( kind, hits, nanos);
+	}
+
+	/**
+	 * record a slow query as a flight recorder event. a failure never reaches the query, it turns events off
+	 * and is logged once.
+	 */
+	private static void slow( int kind, long hits, long nanos){
+		try{
+			QUERY_EVENT.invokeExact( KINDS[kind], hits, nanos);
+		}catch( Throwable e){
+			if( !jfrFailed){
+				jfrFailed = true;
+				Logger.getLogger( GeometryMetrics.class.getName()).log( Level.WARNING, "flight recorder events are turned off", e);
+			}
+		}
+	}
+
+	/**
+	 * record a single ray query if enabled and pass its answer through, so every return of a query can be wrapped
+	 * @param kind - kind of query
+	 * @param start - {@link System#nanoTime()} when the query started, ignored when disabled
+	 * @param index - index found by the query or -1
+	 * @return given index
+	 */
+	static int found( int kind, long start, int index){
+		if( ENABLED)
+			record( kind, start, index != -1 ? 1 : 0);
+		return index;
+	}
+
+	/**
+	 * get the histogram bucket of a latency
+	 * @param nanos - latency in nanoseconds
+	 * @return bucket index
+	 */
+	static int bucket( long nanos){
+		return Math.min( BUCKETS - 1, 64 - Long.numberOfLeadingZeros( nanos));
+	}
+
+	/**
+	 * get number of calls of a kind
+	 * @param kind - kind of query
+	 * @return number of calls
+	 */
+	public static long calls( int kind){
+		return CALLS[kind].sum();
+	}
+
+	/**
+	 * get number of hits of a kind
+	 * @param kind - kind of query
+	 * @return number of hits
+	 */
+	public static long hits( int kind){
+		return HITS[kind].sum();
+	}
+
+	/**
+	 * get total timed nanoseconds of a kind
+	 * @param kind - kind of query
+	 * @return sum of latencies
+	 */
+	public static long nanos( int kind){
+		return NANOS[kind].sum();
+	}
+
+	/**
+	 * estimate a percentile of latency from the histogram, the answer is the upper end of its bucket
+	 * @param kind - kind of query
+	 * @param percentile - between 0 and 100
+	 * @return latency in nanoseconds, 0 if nothing was timed
+	 */
+	public static long percentile( int kind, double percentile){
+		if( !(percentile >= 0 && percentile <= 100))
+			throw new IllegalArgumentException( "percentile must be between 0 and 100: " + percentile);
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for( int b = 0; b < BUCKETS; b++){
+			counts[b] = LATENCY[kind * BUCKETS + b].sum();
+			total += counts[b];
+		}
+		if( total == 0)
+			return 0;
+		long rank = Math.max( 1, (long) Math.ceil( total * percentile / 100));
+		long seen = 0;
+		for( int b = 0; b < BUCKETS; b++){
+			seen += counts[b];
+			if( seen >= rank)
+				return b == BUCKETS - 1 ? Long.MAX_VALUE : (1L << b) - 1;
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * set all counters and histograms back to 0
+	 */
+	public static void reset(){
+		for( LongAdder[] adders : new LongAdder[][]{ CALLS, HITS, NANOS, LATENCY})
+			for( LongAdder adder : adders)
+				adder.reset();
+	}
+
+	/**
+	 * publish the MXBean and the periodic flight recorder event, called once when metrics are enabled
+	 */
+	private static void publish(){
+		try{
+			ManagementFactory.getPlatformMBeanServer().registerMBean( new MXBean(), new ObjectName( OBJECT_NAME));
+		}catch( JMException e){
+			// already registered by another class loader, metrics still work without it
+		}
+		MethodHandle register = JFR ? event( "utility.GeometryStatisticsEvent", "register", MethodType.methodType( void.class)) : null;
+		if( register != null){
+			try{
+				register.invokeExact();
+			}catch( Throwable e){
+				// flight recorder refused the periodic event, slow query events still work
+			}
+		}
+	}
+
+	/**
+	 * find a static method of a flight recorder event class
+	 * @param name - name of event class
+	 * @param method - name of static method
+	 * @param type - type of method
+	 * @return method, null if the JVM has no flight recorder or the event class is not on the class path
+	 */
+	private static MethodHandle event( String name, String method, MethodType type){
+		try{
+			return MethodHandles.lookup().findStatic( Class.forName( name), method, type);
+		}catch( ReflectiveOperationException | LinkageError e){
+			return null;
+		}
+	}
+
+	private static LongAdder[] adders( int count){
+		LongAdder[] adders = new LongAdder[count];
+		for( int i = 0; i < count; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+
+	/**
+	 * view of the counters for JMX, one array element per kind in the order of {@link GeometryMetricsMXBean#getKinds()}
+	 */
+	static final class MXBean implements GeometryMetricsMXBean{
+
+		@Override
+		public String[] getKinds(){
+			return KINDS.clone();
+		}
+
+		@Override
+		public long[] getCalls(){
+			long[] values = new long[KINDS.length];
+			for( int k = 0; k < values.length; k++)
+				values[k] = calls( k);
+			return values;
+		}
+
+		@Override
+		public long[] getHits(){
+			long[] values = new long[KINDS.length];
+			for( int k = 0; k < values.length; k++)
+				values[k] = hits( k);
+			return values;
+		}
+
+		@Override
+		public double[] getHitRates(){
+			double[] values = new double[KINDS.length];
+			for( int k = 0; k < values.length; k++){
+				long calls = calls( k);
+				values[k] = calls == 0 ? 0 : (double) hits( k) / calls;
+			}
+			return values;
+		}
+
+		@Override
+		public double[] getMeanNanos(){
+			double[] values = new double[KINDS.length];
+			for( int k = 0; k < values.length; k++){
+				long timed = 0;
+				for( int b = 0; b < BUCKETS; b++)
+					timed += LATENCY[k * BUCKETS + b].sum();
+				values[k] = timed == 0 ? 0 : (double) nanos( k) / timed;
+			}
+			return values;
+		}
+
+		@Override
+		public long[] getP50Nanos(){
+			return percentiles( 50);
+		}
+
+		@Override
+		public long[] getP99Nanos(){
+			return percentiles( 99);
+		}
+
+		private long[] percentiles( double percentile){
+			long[] values = new long[KINDS.length];
+			for( int k = 0; k < values.length; k++)
+				values[k] = percentile( k, percentile);
+			return values;
+		}
+
+		@Override
+		public void reset(){
+			GeometryMetrics.reset();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package utility;
+
+/**
+ * <p>
+ * JMX view of {@link GeometryMetrics}, published as {@value GeometryMetrics#OBJECT_NAME} when metrics are enabled.
+ * every array holds one value per kind of query, in the order of {@link #getKinds()}.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public interface GeometryMetricsMXBean{
+
+	/**
+	 * get the names of each kind of query
+	 * @return names of kinds
+	 */
+	String[] getKinds();
+
+	/**
+	 * get number of calls of each kind
+	 * @return calls per kind
+	 */
+	long[] getCalls();
+
+	/**
+	 * get number of hits of each kind
+	 * @return hits per kind
+	 */
+	long[] getHits();
+
+	/**
+	 * get hits divided by calls of each kind
+	 * @return hit rate per kind
+	 */
+	double[] getHitRates();
+
+	/**
+	 * get mean latency of each timed kind
+	 * @return mean nanoseconds per kind, 0 if not timed
+	 */
+	double[] getMeanNanos();
+
+	/**
+	 * get median latency of each timed kind, upper end of its power of 2 bucket
+	 * @return median nanoseconds per kind, 0 if not timed
+	 */
+	long[] getP50Nanos();
+
+	/**
+	 * get 99th percentile latency of each timed kind, upper end of its power of 2 bucket
+	 * @return 99th percentile nanoseconds per kind, 0 if not timed
+	 */
+	long[] getP99Nanos();
+
+	/**
+	 * set all counters and histograms back to 0
+	 */
+	void reset();
+}
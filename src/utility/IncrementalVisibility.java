@@ -0,0 +1,158 @@
+package utility;
+
+import javafx.beans.InvalidationListener;
+
+/**
+ * <p>
+ * keep the {@link VisibilityPolygon} of a moving light up to date without starting from scratch every frame.
+ * the light is usually a {@link Point} bound to a moving entity with {@link Point#bind(Point)}, this class listens
+ * to its properties and only does work in {@link #update()} when something changed.
+ * </p>
+ * <ul>
+ * <li>if nothing changed the last polygon is returned as is.</li>
+ * <li>if the light moved, segment ends keep their last angular order and are re sorted with insertion sort.
+ * a light which moves a few pixels only swaps the few ends whose order really changed, so the re sort is close to
+ * O(n). if too many ends moved the events are sorted again from scratch. the polygon is then swept again over all
+ * events, which is still O(n log n), only the sort is saved.</li>
+ * <li>segments added or removed with {@link #addSegment(double, double, double, double)} and {@link #removeSegment(int)}
+ * are patched into the sorted events instead of rebuilding them.</li>
+ * </ul>
+ * <p>
+ * if the {@link SegmentSet} is changed directly, not through this class, the next update rebuilds everything.
+ * this class is not thread safe, like the properties it listens to it should be used from one thread.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class IncrementalVisibility{
+
+	/**
+	 * light to follow
+	 */
+	private final Point light;
+
+	/**
+	 * segments which block the light
+	 */
+	private final SegmentSet segments;
+
+	/**
+	 * engine which holds the sorted events and the polygon
+	 */
+	private final VisibilityPolygon visibility = new VisibilityPolygon();
+
+	/**
+	 * version of {@link #segments} the events were built from, -1 before the first update
+	 */
+	private long version = -1;
+
+	/**
+	 * true if the light may have moved since last update
+	 */
+	private boolean lightChanged = true;
+
+	/**
+	 * true if events changed since last sweep
+	 */
+	private boolean eventsChanged = true;
+
+	/**
+	 * listener added to light, invalidated once per move
+	 */
+	private final InvalidationListener lightListener = o -> lightChanged = true;
+
+	/**
+	 * create a new incremental visibility which follows given light
+	 * @param light - light to follow, it may be bound to another point
+	 * @param segments - segments which block the light
+	 */
+	public IncrementalVisibility( Point light, SegmentSet segments){
+		if( light == null || segments == null)
+			throw new NullPointerException( "light and segments cannot be null");
+		this.light = light;
+		this.segments = segments;
+		light.addListener( lightListener);
+	}
+
+	/**
+	 * bring the polygon up to date with the light and segments, only doing the work needed
+	 * @return up to date polygon, the same instance is returned every time
+	 */
+	public VisibilityPolygon update(){
+		// reading the light validates its properties again so the listener fires on next change
+		double lx = light.x(), ly = light.y();
+		if( version != segments.version()){
+			visibility.compute( lx, ly, segments);
+			version = segments.version();
+			lightChanged = false;
+			eventsChanged = false;
+			return visibility;
+		}
+		if( lightChanged){
+			lightChanged = false;
+			if( lx != visibility.lx || ly != visibility.ly){
+				visibility.move( lx, ly, segments);
+				eventsChanged = false;
+			}
+		}
+		if( eventsChanged){
+			visibility.sweep();
+			eventsChanged = false;
+		}
+		return visibility;
+	}
+
+	/**
+	 * add a new segment, its events are merged into the sorted events on next {@link #update()}
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return index of the new segment
+	 */
+	public int addSegment( double ssx, double ssy, double sex, double sey){
+		boolean upToDate = version == segments.version();
+		int index = segments.add( ssx, ssy, sex, sey);
+		if( upToDate){
+			visibility.ensureSegmentCapacity( index + 1);
+			visibility.segmentCount = index + 1;
+			visibility.prepare( index, ssx, ssy, sex, sey);
+			visibility.insertSegmentEvents( index);
+			version = segments.version();
+			eventsChanged = true;
+		}
+		return index;
+	}
+
+	/**
+	 * remove a segment, the last segment is moved into its place, see {@link SegmentSet#remove(int)}
+	 * @param index - index of segment to remove
+	 * @return old index of the segment which now lives at given index, or -1 if the last segment was removed
+	 */
+	public int removeSegment( int index){
+		boolean upToDate = version == segments.version();
+		int moved = segments.remove( index);
+		if( upToDate){
+			visibility.removeSegmentEvents( index, moved);
+			version = segments.version();
+			eventsChanged = true;
+		}
+		return moved;
+	}
+
+	/**
+	 * get the segments used by this instance
+	 * @return segments which block the light
+	 */
+	public SegmentSet segments(){
+		return segments;
+	}
+
+	/**
+	 * stop listening to the light, this instance should not be used after
+	 */
+	public void dispose(){
+		light.removeListener( lightListener);
+	}
+}
@@ -0,0 +1,177 @@
+package utility;
+
+/**
+ * <p>
+ * a data parallel version of {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet)}.
+ * the math of {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+ * is split in two passes over blocks of segments. the first pass only does arithmetic, cross products and the two divides,
+ * with no branches so the JIT can turn it into SIMD instructions working on 2, 4 or 8 segments at once.
+ * the second pass does the range checks and keeps the closest hit.
+ * </p>
+ * <p>
+ * results are identical to {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet)},
+ * which stays the scalar fallback. the same kernel runs in single precision over a {@link FloatSegmentSet}, where each vector
+ * holds twice as many segments. an instance keeps scratch arrays and is not thread safe, use one instance per thread.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class IntersectKernel{
+
+	/**
+	 * number of segments processed by each pass, small enough for scratch arrays to stay in L1 cache
+	 */
+	static final int BLOCK = 256;
+
+	/**
+	 * ray scaler and segment scaler of the current block
+	 */
+	private final double[] rayScalers = new double[BLOCK], segmentScalers = new double[BLOCK];
+
+	/**
+	 * scratch arrays of the single precision kernel, created on first use
+	 */
+	private float[] floatRayScalers, floatSegmentScalers;
+
+	/**
+	 * find the closest intersection of a light ray with all line segments in given {@link SegmentSet}.
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @return index of the closest segment in given {@link SegmentSet} or -1 if ray does not intersect any segment.
+	 */
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, SegmentSet segments){
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		int closest = -1;
+		double closestRay = Double.POSITIVE_INFINITY;
+		double closestSegment = 0;
+		for( int from = 0; from < segments.size; from += BLOCK){
+			int count = Math.min( BLOCK, segments.size - from);
+			getScalers( rayScalers, segmentScalers, rsx, rsy, rx, ry, segments, from, count);
+			for( int i = 0; i < count; i++){
+				double t = rayScalers[i];
+				double u = segmentScalers[i];
+				// parallel lines give infinite or NaN scalers which fail these checks, same as rs != 0
+				if( t >= 0 && t < closestRay && u >= 0 && u <= 1){
+					closest = from + i;
+					closestRay = t;
+					closestSegment = u;
+				}
+			}
+		}
+		if( closest != -1){
+			result[0] = rsx + rx * closestRay;
+			result[1] = rsy + ry * closestRay;
+			result[2] = closestRay;
+			result[3] = closestSegment;
+		}
+		return closest;
+	}
+
+	/**
+	 * <p>
+	 * compute the ray scaler and segment scaler of a ray against a range of segments without any checks.
+	 * the loop has no branches and reads and writes arrays in order, this is what lets the JIT vectorize it.
+	 * </p>
+	 * @param rayScalers - output ray scaler of each segment, starting at 0
+	 * @param segmentScalers - output segment scaler of each segment, starting at 0
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param segments - packed line segments to test against
+	 * @param from - first segment
+	 * @param count - number of segments
+	 */
+	public static void getScalers( double[] rayScalers, double[] segmentScalers, double rsx, double rsy, double rx, double ry, SegmentSet segments, int from, int count){
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		for( int i = 0; i < count; i++){
+			int s = from + i;
+			double qpx = rsx - ssx[s];
+			double qpy = rsy - ssy[s];
+			double sx = sex[s] - ssx[s];
+			double sy = sey[s] - ssy[s];
+			double rs = rx * sy - sx * ry;
+			rayScalers[i] = -(qpx * sy - sx * qpy) / rs;
+			segmentScalers[i] = -(qpx * ry - rx * qpy) / rs;
+		}
+	}
+
+	/**
+	 * single precision version of {@link #getClosestIntersection(double[], double, double, double, double, SegmentSet)},
+	 * results are identical to {@link IntersectUtil#getClosestIntersection(float[], float, float, float, float, FloatSegmentSet, float)}
+	 * with no bound.
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @return index of the closest segment in given {@link FloatSegmentSet} or -1 if ray does not intersect any segment.
+	 */
+	public int getClosestIntersection( float[] result, float rsx, float rsy, float rex, float rey, FloatSegmentSet segments){
+		if( floatRayScalers == null){
+			floatRayScalers = new float[BLOCK];
+			floatSegmentScalers = new float[BLOCK];
+		}
+		final float[] rayScalers = floatRayScalers, segmentScalers = floatSegmentScalers;
+		float rx = rex - rsx;
+		float ry = rey - rsy;
+		int closest = -1;
+		float closestRay = Float.POSITIVE_INFINITY;
+		float closestSegment = 0;
+		for( int from = 0; from < segments.size; from += BLOCK){
+			int count = Math.min( BLOCK, segments.size - from);
+			getScalers( rayScalers, segmentScalers, rsx, rsy, rx, ry, segments, from, count);
+			for( int i = 0; i < count; i++){
+				float t = rayScalers[i];
+				float u = segmentScalers[i];
+				if( t >= 0 && t < closestRay && u >= 0 && u <= 1){
+					closest = from + i;
+					closestRay = t;
+					closestSegment = u;
+				}
+			}
+		}
+		if( closest != -1){
+			result[0] = rsx + rx * closestRay;
+			result[1] = rsy + ry * closestRay;
+			result[2] = closestRay;
+			result[3] = closestSegment;
+		}
+		return closest;
+	}
+
+	/**
+	 * single precision version of {@link #getScalers(double[], double[], double, double, double, double, SegmentSet, int, int)}
+	 * @param rayScalers - output ray scaler of each segment, starting at 0
+	 * @param segmentScalers - output segment scaler of each segment, starting at 0
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param segments - packed line segments to test against
+	 * @param from - first segment
+	 * @param count - number of segments
+	 */
+	public static void getScalers( float[] rayScalers, float[] segmentScalers, float rsx, float rsy, float rx, float ry, FloatSegmentSet segments, int from, int count){
+		final float[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		for( int i = 0; i < count; i++){
+			int s = from + i;
+			float qpx = rsx - ssx[s];
+			float qpy = rsy - ssy[s];
+			float sx = sex[s] - ssx[s];
+			float sy = sey[s] - ssy[s];
+			float rs = rx * sy - sx * ry;
+			rayScalers[i] = -(qpx * sy - sx * qpy) / rs;
+			segmentScalers[i] = -(qpx * ry - rx * qpy) / rs;
+		}
+	}
+}
@@ -0,0 +1,529 @@
+package utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * intersect cases loaded from a CSV file in the layout of test/resources/data.csv:
+ * </p>
+ * <pre>
+ * RSx,RSy,REx,REy,SSx,SSy,SEx,SEy,Intersects,Px,Py,Ray Scalar
+ * 100,100,200,100,150,100,150,200,TRUE,150,100,0.5
+ * </pre>
+ * <p>
+ * rows are parsed straight from bytes into primitive arrays, there is no {@link java.util.Scanner},
+ * no split and no boxed numbers. {@link #read(Path)} streams the file through a small buffer and
+ * {@link #readParallel(Path, int)} maps the file into memory and parses chunks of lines on the common {@link ForkJoinPool}.
+ * blank lines and lines which start with a letter, such as titles and column names, are skipped. every other line is
+ * a row. empty or missing values are rejected, only Px, Py and Ray Scalar of a row which does not intersect may be
+ * empty, they are then 0.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class IntersectTable{
+
+	/**
+	 * number of bytes read at once when streaming
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * max number of bytes mapped for one chunk
+	 */
+	private static final long MAX_CHUNK = 1L << 30;
+
+	/**
+	 * largest mantissa a double holds exactly
+	 */
+	private static final long MAX_EXACT = 1L << 53;
+
+	/**
+	 * exact powers of ten, doubles are exact up to 10^22
+	 */
+	private static final double[] POWERS = new double[23];
+
+	static{
+		POWERS[0] = 1;
+		for( int i = 1; i < POWERS.length; i++)
+			POWERS[i] = POWERS[i - 1] * 10;
+	}
+
+	/**
+	 * ray start and end of each row, stored as segments
+	 */
+	private final SegmentSet rays;
+
+	/**
+	 * line segment of each row
+	 */
+	private final SegmentSet segments;
+
+	/**
+	 * expected result of each row
+	 */
+	private boolean[] intersects;
+
+	/**
+	 * expected x, y and ray scaler of each row
+	 */
+	private double[] px, py, rayScalers;
+
+	/**
+	 * number of rows
+	 */
+	private int size;
+
+	/**
+	 * create an empty table
+	 * @param capacity - number of rows before growing
+	 */
+	public IntersectTable( int capacity){
+		rays = new SegmentSet( capacity);
+		segments = new SegmentSet( capacity);
+		intersects = new boolean[capacity];
+		px = new double[capacity];
+		py = new double[capacity];
+		rayScalers = new double[capacity];
+	}
+
+	/**
+	 * read a CSV file with one pass through a small buffer
+	 * @param file - CSV file to read
+	 * @return rows of file
+	 * @throws IOException if file cannot be read
+	 * @throws IllegalArgumentException if a row is malformed
+	 */
+	public static IntersectTable read( Path file) throws IOException{
+		try( InputStream in = Files.newInputStream( file)){
+			return read( in);
+		}
+	}
+
+	/**
+	 * read CSV rows from given stream, the stream is not closed
+	 * @param in - stream to read
+	 * @return rows of stream
+	 * @throws IOException if stream cannot be read
+	 * @throws IllegalArgumentException if a row is malformed
+	 */
+	public static IntersectTable read( InputStream in) throws IOException{
+		IntersectTable table = new IntersectTable( 1024);
+		byte[] bytes = new byte[BUFFER_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap( bytes);
+		int length = 0;
+		while( true){
+			int read = in.read( bytes, length, bytes.length - length);
+			if( read == -1)
+				break;
+			length += read;
+			int lastLine = lastIndexOf( bytes, '\n', length);
+			if( lastLine == -1){
+				// line longer than buffer
+				if( length == bytes.length){
+					bytes = Arrays.copyOf( bytes, bytes.length * 2);
+					buffer = ByteBuffer.wrap( bytes);
+				}
+				continue;
+			}
+			table.parse( buffer, 0, lastLine + 1);
+			length -= lastLine + 1;
+			System.arraycopy( bytes, lastLine + 1, bytes, 0, length);
+		}
+		table.parse( buffer, 0, length);
+		return table;
+	}
+
+	/**
+	 * read a CSV file by mapping it into memory and parsing chunks of lines in parallel
+	 * @param file - CSV file to read
+	 * @param chunks - number of chunks, usually number of cores, more are used for files over 1GB
+	 * @return rows of file in the same order as the file
+	 * @throws IOException if file cannot be read
+	 * @throws IllegalArgumentException if a row is malformed
+	 */
+	public static IntersectTable readParallel( Path file, int chunks) throws IOException{
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ)){
+			long fileSize = channel.size();
+			chunks = (int) Math.max( Math.max( 1, chunks), (fileSize + MAX_CHUNK - 1) / MAX_CHUNK);
+
+			// split at the first line end after each even cut
+			List< long[]> ranges = new ArrayList<>();
+			long start = 0;
+			for( int c = 1; c <= chunks && start < fileSize; c++){
+				long end = c == chunks ? fileSize : Math.min( fileSize, Math.max( start, fileSize * c / chunks));
+				end = nextLine( channel, end, fileSize);
+				if( end - start > Integer.MAX_VALUE)
+					throw new IOException( "line too long near byte " + start);
+				if( end > start)
+					ranges.add( new long[]{ start, end});
+				start = end;
+			}
+
+			List< RecursiveTask< IntersectTable>> tasks = new ArrayList<>();
+			for( long[] range : ranges){
+				ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+				tasks.add( new RecursiveTask< IntersectTable>(){
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected IntersectTable compute(){
+						IntersectTable table = new IntersectTable( Math.max( 16, buffer.capacity() / 48));
+						table.parse( buffer, 0, buffer.capacity());
+						return table;
+					}
+				});
+			}
+			List< IntersectTable> parts = new ArrayList<>();
+			for( RecursiveTask< IntersectTable> task : ForkJoinTask.invokeAll( tasks))
+				parts.add( task.join());
+			return concat( parts);
+		}
+	}
+
+	/**
+	 * get number of rows
+	 * @return number of rows
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get the light rays of all rows, ray start is segment start and ray end is segment end
+	 * @return rays of all rows
+	 */
+	public SegmentSet rays(){
+		return rays;
+	}
+
+	/**
+	 * get the line segments of all rows
+	 * @return line segments of all rows
+	 */
+	public SegmentSet segments(){
+		return segments;
+	}
+
+	/**
+	 * get the expected result of given row
+	 * @param row - index of row
+	 * @return true if ray and segment are expected to intersect
+	 */
+	public boolean intersects( int row){
+		return intersects[row];
+	}
+
+	/**
+	 * get the expected x of intersect point of given row
+	 * @param row - index of row
+	 * @return expected x
+	 */
+	public double px( int row){
+		return px[row];
+	}
+
+	/**
+	 * get the expected y of intersect point of given row
+	 * @param row - index of row
+	 * @return expected y
+	 */
+	public double py( int row){
+		return py[row];
+	}
+
+	/**
+	 * get the expected ray scaler of given row
+	 * @param row - index of row
+	 * @return expected ray scaler
+	 */
+	public double rayScaler( int row){
+		return rayScalers[row];
+	}
+
+	/**
+	 * run {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+	 * on every row and compare with expected results
+	 * @param delta - max difference allowed for point and ray scaler
+	 * @return number of rows which do not match
+	 */
+	public int verify( double delta){
+		double[] result = new double[4];
+		int failed = 0;
+		for( int i = 0; i < size; i++){
+			boolean intersect = IntersectUtil.getIntersection( result, rays.ssx[i], rays.ssy[i], rays.sex[i], rays.sey[i],
+					segments.ssx[i], segments.ssy[i], segments.sex[i], segments.sey[i]);
+			if( intersect != intersects[i] || intersect && (Math.abs( result[0] - px[i]) > delta
+					|| Math.abs( result[1] - py[i]) > delta || Math.abs( result[2] - rayScalers[i]) > delta))
+				failed++;
+		}
+		return failed;
+	}
+
+	/**
+	 * add a new row
+	 * @return index of new row
+	 */
+	public int add( double rsx, double rsy, double rex, double rey, double ssx, double ssy, double sex, double sey,
+			boolean intersects, double px, double py, double rayScaler){
+		if( size == this.px.length){
+			int capacity = Math.max( 16, size + (size >> 1));
+			this.intersects = Arrays.copyOf( this.intersects, capacity);
+			this.px = Arrays.copyOf( this.px, capacity);
+			this.py = Arrays.copyOf( this.py, capacity);
+			this.rayScalers = Arrays.copyOf( this.rayScalers, capacity);
+		}
+		rays.add( rsx, rsy, rex, rey);
+		segments.add( ssx, ssy, sex, sey);
+		this.intersects[size] = intersects;
+		this.px[size] = px;
+		this.py[size] = py;
+		this.rayScalers[size] = rayScaler;
+		return size++;
+	}
+
+	/**
+	 * parse all lines between given positions
+	 * @param buffer - bytes to parse
+	 * @param from - first byte inclusive, start of a line
+	 * @param to - last byte exclusive, end of a line or end of data
+	 */
+	private void parse( ByteBuffer buffer, int from, int to){
+		Parser parser = new Parser( buffer, from, to);
+		double[] row = new double[11];
+		while( parser.position < to){
+			if( parser.isText()){
+				parser.skipLine();
+				continue;
+			}
+			for( int i = 0; i < 8; i++)
+				row[i] = parser.number( false);
+			boolean intersect = parser.bool();
+			// a row which does not intersect has no point, its last values may be empty
+			for( int i = 8; i < 11; i++)
+				row[i] = parser.number( !intersect);
+			parser.skipLine();
+			add( row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7], intersect, row[8], row[9], row[10]);
+		}
+	}
+
+	/**
+	 * join tables in order
+	 */
+	private static IntersectTable concat( List< IntersectTable> parts){
+		int total = 0;
+		for( IntersectTable part : parts)
+			total += part.size;
+		IntersectTable table = new IntersectTable( total);
+		for( IntersectTable part : parts){
+			for( int i = 0; i < part.size; i++)
+				table.add( part.rays.ssx[i], part.rays.ssy[i], part.rays.sex[i], part.rays.sey[i],
+						part.segments.ssx[i], part.segments.ssy[i], part.segments.sex[i], part.segments.sey[i],
+						part.intersects[i], part.px[i], part.py[i], part.rayScalers[i]);
+		}
+		return table;
+	}
+
+	/**
+	 * find position just after the first line end at or after given position
+	 */
+	private static long nextLine( FileChannel channel, long position, long fileSize) throws IOException{
+		if( position == 0 || position >= fileSize)
+			return position;
+		ByteBuffer probe = ByteBuffer.allocate( 4096);
+		// start one byte back so a cut right after a line end stays there
+		long at = position - 1;
+		while( at < fileSize){
+			probe.clear();
+			int read = channel.read( probe, at);
+			if( read <= 0)
+				break;
+			for( int i = 0; i < read; i++)
+				if( probe.get( i) == '\n')
+					return at + i + 1;
+			at += read;
+		}
+		return fileSize;
+	}
+
+	private static int lastIndexOf( byte[] bytes, char c, int length){
+		for( int i = length - 1; i >= 0; i--)
+			if( bytes[i] == c)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * reads values of one line at a time from bytes, each value is followed by a comma or a line end
+	 */
+	private static final class Parser{
+
+		private final ByteBuffer buffer;
+		private final int end;
+		int position;
+
+		Parser( ByteBuffer buffer, int from, int to){
+			this.buffer = buffer;
+			this.position = from;
+			this.end = to;
+		}
+
+		/**
+		 * check if current line is blank or starts with a letter, so it is not a row, skipping a byte order mark
+		 */
+		boolean isText(){
+			if( position + 2 < end && (buffer.get( position) & 0xFF) == 0xEF && (buffer.get( position + 1) & 0xFF) == 0xBB
+					&& (buffer.get( position + 2) & 0xFF) == 0xBF)
+				position += 3;
+			if( position >= end)
+				return true;
+			byte b = buffer.get( position);
+			return b == '\r' || b == '\n' || b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z';
+		}
+
+		void skipLine(){
+			while( position < end && buffer.get( position++) != '\n'){
+				// skip
+			}
+		}
+
+		/**
+		 * read TRUE or FALSE in any case, then the comma after it
+		 */
+		boolean bool(){
+			int start = position;
+			byte b = position < end ? buffer.get( position) : 0;
+			skipValue();
+			if( b == 'T' || b == 't')
+				return true;
+			if( b == 'F' || b == 'f')
+				return false;
+			throw error( "expected TRUE or FALSE", start);
+		}
+
+		/**
+		 * read a decimal number, then the comma after it
+		 * @param empty - true if the value may be empty or missing, it is then 0
+		 */
+		double number( boolean empty){
+			int start = position;
+			boolean negative = false;
+			byte b = peek();
+			if( b == '-' || b == '+'){
+				negative = b == '-';
+				position++;
+			}
+			long mantissa = 0;
+			int digits = 0, scale = 0;
+			boolean any = false, dropped = false;
+			while( (b = peek()) >= '0' && b <= '9'){
+				any = true;
+				if( digits < 18){
+					mantissa = mantissa * 10 + (b - '0');
+					if( mantissa != 0)
+						digits++;
+				}else{
+					dropped = true;
+					scale--;
+				}
+				position++;
+			}
+			if( b == '.'){
+				position++;
+				while( (b = peek()) >= '0' && b <= '9'){
+					any = true;
+					if( digits < 18){
+						mantissa = mantissa * 10 + (b - '0');
+						if( mantissa != 0)
+							digits++;
+						scale++;
+					}else
+						dropped = true;
+					position++;
+				}
+			}
+			if( b == 'e' || b == 'E' || dropped || mantissa > MAX_EXACT){
+				// rare, let the JDK round it correctly
+				skipValue();
+				return slowNumber( start);
+			}
+			if( !any){
+				if( empty && isValueEnd( b) && position == start){
+					skipValue();
+					return 0;
+				}
+				throw error( "expected a number", start);
+			}
+			if( !isValueEnd( b))
+				throw error( "expected a number", start);
+			skipValue();
+			// mantissa below 2^53 and power up to 10^22 are exact so one division rounds correctly
+			if( scale >= POWERS.length)
+				return slowNumber( start);
+			double value = mantissa / POWERS[scale];
+			return negative ? -value : value;
+		}
+
+		private double slowNumber( int start){
+			int end = position;
+			while( end > start && isValueEnd( buffer.get( end - 1)))
+				end--;
+			byte[] text = new byte[end - start];
+			for( int i = 0; i < text.length; i++)
+				text[i] = buffer.get( start + i);
+			try{
+				return Double.parseDouble( new String( text, StandardCharsets.US_ASCII).trim());
+			}catch( NumberFormatException e){
+				throw error( "expected a number", start);
+			}
+		}
+
+		private byte peek(){
+			return position < end ? buffer.get( position) : (byte) '\n';
+		}
+
+		private static boolean isValueEnd( byte b){
+			return b == ',' || b == '\n' || b == '\r';
+		}
+
+		/**
+		 * move past the rest of current value and the comma after it, stop before a line end
+		 */
+		private void skipValue(){
+			while( position < end){
+				byte b = buffer.get( position);
+				if( b == ','){
+					position++;
+					return;
+				}
+				if( b == '\n' || b == '\r')
+					return;
+				position++;
+			}
+		}
+
+		private IllegalArgumentException error( String message, int at){
+			int to = at;
+			while( to < end && !isValueEnd( buffer.get( to)))
+				to++;
+			byte[] text = new byte[to - at];
+			for( int i = 0; i < text.length; i++)
+				text[i] = buffer.get( at + i);
+			return new IllegalArgumentException( message + ": \"" + new String( text, StandardCharsets.US_ASCII) + "\"");
+		}
+	}
+}
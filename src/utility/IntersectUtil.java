@@ -22,6 +22,29 @@ public class IntersectUtil{
 	 * @return true if intersect and data stored in {@link AnimatorSingleRay#RESULT} array else false.
 	 */
 	public static boolean getIntersection( double[] result, double rsx, double rsy, double rex, double rey, double ssx, double ssy, double sex, double sey){
+		boolean intersect = intersect( result, rsx, rsy, rex, rey, ssx, ssy, sex, sey);
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.count( GeometryMetrics.INTERSECT, intersect ? 1 : 0);
+		return intersect;
+	}
+
+	/**
+	 * <p>
+	 * the math of {@link #getIntersection(double[], double, double, double, double, double, double, double, double)} without
+	 * counting it in {@link GeometryMetrics}, used by indexes to store the result of a query which was already counted.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, distance of intersect point from start and point scaler on line segment
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return true if intersect
+	 */
+	static boolean intersect( double[] result, double rsx, double rsy, double rex, double rey, double ssx, double ssy, double sex, double sey){
 		// given 2 line segments as vectors their intersect will q + tr or p + us where
 		// q and p are the starting point in from of (x, y),
 		// r and s are the distance of end point to start point in form of ( x2-x1, y2-y1),
@@ -59,4 +82,822 @@ public class IntersectUtil{
 
 		return rs != 0 && rayScaler >= 0 && segmentScaler >= 0 && segmentScaler <= 1;
 	}
+
+	/**
+	 * <p>
+	 * Determine if a light ray and a line segment intersect, deciding with exact {@link Predicates} instead of rounded scalers.
+	 * {@link #getIntersection(double[], double, double, double, double, double, double, double, double)} can answer
+	 * differently for a ray aimed exactly at an end shared by two segments, or a segment almost along the ray, because
+	 * its scalers are rounded before they are compared to 0 and 1. here the hit only depends on which side of the ray
+	 * line each segment end is and which side of the segment line the ray start is, all decided exactly.
+	 * </p>
+	 * <p>
+	 * a ray which passes through a segment end hits it, with the segment scaler and point snapped exactly to that end.
+	 * a ray starting on the segment hits it at ray scaler 0. parallel and collinear segments are not hit, same as
+	 * getIntersection. the values stored in result are rounded like getIntersection but clamped to the hit segment.
+	 * the three predicates share their products with the scalers and are checked against their error bounds together,
+	 * only nearly collinear inputs decide each predicate on its own with the exact fallback.
+	 * </p>
+	 *
+	 * @param result - must be an array of size 4, this array will hold in order x, y, distance of intersect point from start and point scaler on line segment.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return true if intersect and data stored in result array else false.
+	 */
+	public static boolean getIntersectionRobust( double[] result, double rsx, double rsy, double rex, double rey, double ssx, double ssy, double sex, double sey){
+		boolean intersect = intersectRobust( result, rsx, rsy, rex, rey, ssx, ssy, sex, sey);
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.count( GeometryMetrics.INTERSECT, intersect ? 1 : 0);
+		return intersect;
+	}
+
+	/**
+	 * the math of {@link #getIntersectionRobust(double[], double, double, double, double, double, double, double, double)}
+	 * without counting it in {@link GeometryMetrics}
+	 * @param result - array of size 4, see getIntersectionRobust
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return true if intersect
+	 */
+	static boolean intersectRobust( double[] result, double rsx, double rsy, double rex, double rey, double ssx, double ssy, double sex, double sey){
+		double qpx = rsx - ssx;
+		double qpy = rsy - ssy;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double sx = sex - ssx;
+		double sy = sey - ssy;
+
+		// the three orientations as pairs of products, the sides of the ray line the segment start and end are on and
+		// the side of the segment line the ray start is on. the first and last are also the cross products of the scalers.
+		// when they pass their error bounds no sign is 0 and the signs of the products are exact
+		double startLeft = qpx * ry, startRight = qpy * rx;
+		double endLeft = (rsx - sex) * ry, endRight = (rsy - sey) * rx;
+		if( Predicates.isCertain( startLeft, startRight) & Predicates.isCertain( endLeft, endRight)){
+			// the ends must be on different sides, then r x s has the sign of end
+			boolean endSide = endLeft > endRight;
+			if( (startLeft > startRight) == endSide)
+				return false;
+			double sideLeft = sx * qpy, sideRight = qpx * sy;
+			if( Predicates.isCertain( sideLeft, sideRight)){
+				// the ray start must be on the side of the segment line matching r x s
+				if( (sideLeft > sideRight) != endSide)
+					return false;
+				// same math as intersect, on the products already computed
+				double rs = rx * sy - sx * ry;
+				double rayScaler = -(sideRight - sideLeft) / rs;
+				double segmentScaler = -(startLeft - startRight) / rs;
+				result[0] = rsx + rx * rayScaler;
+				result[1] = rsy + ry * rayScaler;
+				result[2] = rayScaler > 0 ? rayScaler : 0;
+				result[3] = segmentScaler > 0 ? segmentScaler < 1 ? segmentScaler : 1 : 0;
+				return true;
+			}
+		}
+		return intersectNearlyCollinear( result, rsx, rsy, rex, rey, ssx, ssy, sex, sey);
+	}
+
+	/**
+	 * the slow path of {@link #intersectRobust(double[], double, double, double, double, double, double, double, double)}
+	 * when one of its orientations is too close to 0 for the error bound, each side is decided on its own exactly.
+	 * kept apart so the fast path stays small enough to be inlined.
+	 * @return true if intersect
+	 */
+	private static boolean intersectNearlyCollinear( double[] result, double rsx, double rsy, double rex, double rey, double ssx, double ssy,
+			double sex, double sey){
+		int start = Predicates.orient2d( rsx, rsy, rex, rey, ssx, ssy);
+		int end = Predicates.orient2d( rsx, rsy, rex, rey, sex, sey);
+		if( start == end || start * end > 0)
+			return false;
+		// r x s is the difference of the two, so its sign is exact. ray scaler is the side of the ray start over r x s,
+		// it is not negative when the ray start is on the segment line or on the side matching the sign of r x s
+		int rs = Integer.signum( end - start);
+		int side = Predicates.orient2d( ssx, ssy, sex, sey, rsx, rsy);
+		if( side != 0 && side != rs)
+			return false;
+
+		if( side == 0){
+			result[0] = rsx;
+			result[1] = rsy;
+			result[2] = 0;
+			result[3] = Math.min( 1, Math.max( 0, project( rsx, rsy, ssx, ssy, sex, sey)));
+		}else if( start == 0 || end == 0){
+			result[0] = start == 0 ? ssx : sex;
+			result[1] = start == 0 ? ssy : sey;
+			result[2] = Math.max( 0, project( result[0], result[1], rsx, rsy, rex, rey));
+			result[3] = start == 0 ? 0 : 1;
+		}else{
+			intersect( result, rsx, rsy, rex, rey, ssx, ssy, sex, sey);
+			result[2] = Math.max( 0, result[2]);
+			result[3] = Math.min( 1, Math.max( 0, result[3]));
+		}
+		return true;
+	}
+
+	/**
+	 * project a point onto the line through a start and end, used for points already known to be on it
+	 * @param px - point x
+	 * @param py - point y
+	 * @param sx - line start x
+	 * @param sy - line start y
+	 * @param ex - line end x
+	 * @param ey - line end y
+	 * @return scaler of the point from start toward end
+	 */
+	private static double project( double px, double py, double sx, double sy, double ex, double ey){
+		double dx = ex - sx;
+		double dy = ey - sy;
+		return ((px - sx) * dx + (py - sy) * dy) / (dx * dx + dy * dy);
+	}
+
+	/**
+	 * <p>
+	 * Find the closest intersection of a light ray with all line segments in given {@link SegmentSet}.
+	 * the segments are visited once in a single pass over the packed arrays and no objects are created.
+	 * the result array is only written once, after the closest segment has been found.
+	 * </p>
+	 * 
+	 * @see #getIntersection(double[], double, double, double, double, double, double, double, double)
+	 * 
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @return index of the closest segment in given {@link SegmentSet} or -1 if ray does not intersect any segment.
+	 */
+	public static int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, SegmentSet segments){
+		return getClosestIntersection( result, rsx, rsy, rex, rey, segments, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * <p>
+	 * Find the closest intersection of a light ray with all line segments in given {@link SegmentSet}, ignoring
+	 * intersects with a ray scaler of tMax or more. the bound shrinks to the closest hit found so far, so farther
+	 * segments are rejected after one division, before the segment scaler is computed.
+	 * </p>
+	 * 
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @param tMax - only intersects with a ray scaler less than this are found, 1 stops at ray end
+	 * @return index of the closest segment in given {@link SegmentSet} or -1 if ray does not intersect any segment before tMax.
+	 */
+	public static int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, SegmentSet segments, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final double[] ssx = segments.ssx;
+		final double[] ssy = segments.ssy;
+		final double[] sex = segments.sex;
+		final double[] sey = segments.sey;
+		final int size = segments.size;
+
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+
+		int closest = -1;
+		double closestRay = tMax;
+		double closestSegment = 0;
+
+		for( int i = 0; i < size; i++){
+			// same math as getIntersection, segment scaler is only checked when ray scaler is closer
+			double qpx = rsx - ssx[i];
+			double qpy = rsy - ssy[i];
+			double sx = sex[i] - ssx[i];
+			double sy = sey[i] - ssy[i];
+
+			double rs = rx * sy - sx * ry;
+			// parallel gives infinity or NaN which fails too
+			double rayScaler = (sx * qpy - qpx * sy) / rs;
+			if( !(rayScaler >= 0 && rayScaler < closestRay))
+				continue;
+
+			double segmentRs = rx * qpy - qpx * ry;
+			if( !isOnSegment( rs, segmentRs))
+				continue;
+
+			closest = i;
+			closestRay = rayScaler;
+			closestSegment = segmentRs / rs;
+		}
+
+		if( closest != -1){
+			result[0] = rsx + rx * closestRay;
+			result[1] = rsy + ry * closestRay;
+			result[2] = closestRay;
+			result[3] = closestSegment;
+		}
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	/**
+	 * <p>
+	 * Find any line segment in given {@link SegmentSet} which a light ray hits before tMax. this is all an occlusion or shadow test
+	 * needs, so it stops at the first blocker in the order of segments and does not compute the intersect point.
+	 * </p>
+	 * 
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @param tMax - only intersects with a ray scaler less than this count, 1 tests the segment from ray start to ray end
+	 * @return index of the first blocking segment in given {@link SegmentSet} or -1 if nothing blocks the ray before tMax.
+	 */
+	public static int getAnyIntersection( double rsx, double rsy, double rex, double rey, SegmentSet segments, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final double[] ssx = segments.ssx;
+		final double[] ssy = segments.ssy;
+		final double[] sex = segments.sex;
+		final double[] sey = segments.sey;
+		final int size = segments.size;
+
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+
+		for( int i = 0; i < size; i++){
+			if( getRayScaler( rsx, rsy, rx, ry, ssx[i], ssy[i], sex[i], sey[i], tMax) >= 0)
+				return GeometryMetrics.found( GeometryMetrics.ANY, begin, i);
+		}
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	/**
+	 * <p>
+	 * same math as {@link #getIntersection(double[], double, double, double, double, double, double, double, double)} but
+	 * only the ray scaler is computed and nothing is stored. used by {@link SegmentIndex} implementations to pick
+	 * the closest segment before storing the result once.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return ray scaler of intersect point or -1 if they do not intersect
+	 */
+	static double getRayScaler( double rsx, double rsy, double rx, double ry, double ssx, double ssy, double sex, double sey){
+		return getRayScaler( rsx, rsy, rx, ry, ssx, ssy, sex, sey, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * <p>
+	 * same as {@link #getRayScaler(double, double, double, double, double, double, double, double)} but intersects with
+	 * a ray scaler of tMax or more are rejected, before the segment scaler is computed.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return ray scaler of intersect point or -1 if they do not intersect before tMax
+	 */
+	static double getRayScaler( double rsx, double rsy, double rx, double ry, double ssx, double ssy, double sex, double sey, double tMax){
+		double qpx = rsx - ssx;
+		double qpy = rsy - ssy;
+		double sx = sex - ssx;
+		double sy = sey - ssy;
+
+		double rs = rx * sy - sx * ry;
+		// parallel gives infinity or NaN which fails too
+		double rayScaler = (sx * qpy - qpx * sy) / rs;
+		if( !(rayScaler >= 0 && rayScaler < tMax))
+			return -1;
+		return isOnSegment( rs, rx * qpy - qpx * ry) ? rayScaler : -1;
+	}
+
+	/**
+	 * <p>
+	 * check 0 <= segment scaler <= 1 while it is still multiplied by rs, saving the division.
+	 * a division keeps the sign and order of its numerator, so this gives exactly the same answer as dividing first.
+	 * </p>
+	 * @param rs - cross product of ray and segment, not 0
+	 * @param segmentRs - segment scaler times rs
+	 * @return true if intersect point is on segment
+	 */
+	private static boolean isOnSegment( double rs, double segmentRs){
+		return rs > 0 ? segmentRs >= 0 && segmentRs <= rs : segmentRs <= 0 && segmentRs >= rs;
+	}
+
+	/**
+	 * <p>
+	 * determine where a light ray first crosses the outline of a circle. the circle is an outline like a ring of
+	 * segments, so a ray starting inside hits where it leaves.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and position on the outline
+	 *                 as a fraction of a counter clockwise turn starting at +x. it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param cx - circle center x
+	 * @param cy - circle center y
+	 * @param radius - circle radius
+	 * @return true if intersect and data stored in result array else false.
+	 */
+	public static boolean getCircleIntersection( double[] result, double rsx, double rsy, double rex, double rey, double cx, double cy, double radius){
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double t = getCircleRayScaler( rsx, rsy, rx, ry, cx, cy, radius, Double.POSITIVE_INFINITY);
+		if( t < 0)
+			return false;
+		storeCircle( result, rsx + rx * t, rsy + ry * t, t, cx, cy);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * determine where a light ray first crosses the outline of an axis aligned box, a ray starting inside hits where it leaves.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and position on the outline
+	 *                 as edge index plus scaler on that edge. edges go counter clockwise from min x min y, bottom is 0.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param minX - box min x
+	 * @param minY - box min y
+	 * @param maxX - box max x
+	 * @param maxY - box max y
+	 * @return true if intersect and data stored in result array else false.
+	 */
+	public static boolean getBoxIntersection( double[] result, double rsx, double rsy, double rex, double rey, double minX, double minY, double maxX, double maxY){
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double t = getBoxRayScaler( rsx, rsy, rx, ry, minX, minY, maxX, maxY, Double.POSITIVE_INFINITY);
+		if( t < 0)
+			return false;
+		storeBox( result, rsx + rx * t, rsy + ry * t, t, minX, minY, maxX, maxY);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * determine where a light ray first crosses the outline of a convex polygon, a ray starting inside hits where it leaves.
+	 * vertices may be in either order, the polygon must be convex and not collapsed to a line.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and position on the outline
+	 *                 as edge index plus scaler on that edge, edge i goes from vertex i to vertex i+1. it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param polygon - vertices as [x1,y1,x2,y2,...], at least 3
+	 * @return true if intersect and data stored in result array else false.
+	 */
+	public static boolean getPolygonIntersection( double[] result, double rsx, double rsy, double rex, double rey, double[] polygon){
+		int count = polygon.length / 2;
+		if( count < 3)
+			throw new IllegalArgumentException( "polygon needs at least 3 vertices: " + count);
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double t = getPolygonRayScaler( rsx, rsy, rx, ry, polygon, 0, count, Math.signum( area( polygon, 0, count)), Double.POSITIVE_INFINITY);
+		if( t < 0)
+			return false;
+		storePolygon( result, rsx + rx * t, rsy + ry * t, t, polygon, 0, count);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * ray scaler of the first crossing of a circle outline, the roots are computed so no two close numbers are subtracted.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param cx - circle center x
+	 * @param cy - circle center y
+	 * @param radius - circle radius
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return ray scaler of intersect point or -1 if they do not intersect before tMax
+	 */
+	static double getCircleRayScaler( double rsx, double rsy, double rx, double ry, double cx, double cy, double radius, double tMax){
+		double ox = rsx - cx;
+		double oy = rsy - cy;
+		double a = rx * rx + ry * ry;
+		double b = rx * ox + ry * oy;
+		double c = ox * ox + oy * oy - radius * radius;
+		double discriminant = b * b - a * c;
+		if( !(discriminant >= 0) || a == 0)
+			return -1;
+		double q = b >= 0 ? -(b + Math.sqrt( discriminant)) : Math.sqrt( discriminant) - b;
+		double t0 = q / a;
+		double t1 = c / q;
+		if( t0 > t1){
+			double temp = t0;
+			t0 = t1;
+			t1 = temp;
+		}
+		if( t0 >= 0 && t0 < tMax)
+			return t0;
+		// 0 divided by 0 is NaN and fails too
+		return t1 >= 0 && t1 < tMax ? t1 : -1;
+	}
+
+	/**
+	 * <p>
+	 * ray scaler of the first crossing of a box outline using the slab method.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param minX - box min x
+	 * @param minY - box min y
+	 * @param maxX - box max x
+	 * @param maxY - box max y
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return ray scaler of intersect point or -1 if they do not intersect before tMax
+	 */
+	static double getBoxRayScaler( double rsx, double rsy, double rx, double ry, double minX, double minY, double maxX, double maxY, double tMax){
+		double tEnter = Double.NEGATIVE_INFINITY;
+		double tExit = Double.POSITIVE_INFINITY;
+		if( rx == 0){
+			if( rsx < minX || rsx > maxX)
+				return -1;
+		}else{
+			double t1 = (minX - rsx) / rx;
+			double t2 = (maxX - rsx) / rx;
+			tEnter = Math.min( t1, t2);
+			tExit = Math.max( t1, t2);
+		}
+		if( ry == 0){
+			if( rsy < minY || rsy > maxY)
+				return -1;
+		}else{
+			double t1 = (minY - rsy) / ry;
+			double t2 = (maxY - rsy) / ry;
+			tEnter = Math.max( tEnter, Math.min( t1, t2));
+			tExit = Math.min( tExit, Math.max( t1, t2));
+		}
+		return crossing( tEnter, tExit, tMax);
+	}
+
+	/**
+	 * <p>
+	 * ray scaler of the first crossing of a convex polygon outline, clipping the ray by the inner side of every edge.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param polygon - vertices as [x1,y1,x2,y2,...]
+	 * @param offset - index of x of first vertex in polygon
+	 * @param count - number of vertices
+	 * @param orientation - 1 if vertices are counter clockwise, -1 if clockwise
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return ray scaler of intersect point or -1 if they do not intersect before tMax
+	 */
+	static double getPolygonRayScaler( double rsx, double rsy, double rx, double ry, double[] polygon, int offset, int count, double orientation, double tMax){
+		double tEnter = Double.NEGATIVE_INFINITY;
+		double tExit = Double.POSITIVE_INFINITY;
+		int last = offset + count * 2 - 2;
+		double vx = polygon[last], vy = polygon[last + 1];
+		for( int i = offset; i <= last; i += 2){
+			double ex = polygon[i] - vx;
+			double ey = polygon[i + 1] - vy;
+			// positive on the inner side of the edge, along the ray it changes by den per unit of ray scaler
+			double num = (ex * (rsy - vy) - ey * (rsx - vx)) * orientation;
+			double den = (ex * ry - ey * rx) * orientation;
+			vx = polygon[i];
+			vy = polygon[i + 1];
+			if( den == 0){
+				if( num < 0)
+					return -1;
+			}else if( den > 0)
+				tEnter = Math.max( tEnter, -num / den);
+			else
+				tExit = Math.min( tExit, -num / den);
+		}
+		return crossing( tEnter, tExit, tMax);
+	}
+
+	/**
+	 * pick the first crossing of an outline from where the ray enters and leaves the shape
+	 * @param tEnter - ray scaler where ray enters the shape
+	 * @param tExit - ray scaler where ray leaves the shape
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return enter if in front of the ray, else exit if the ray starts inside, else -1
+	 */
+	private static double crossing( double tEnter, double tExit, double tMax){
+		if( !(tEnter <= tExit))
+			return -1;
+		double t = tEnter >= 0 ? tEnter : tExit;
+		return t >= 0 && t < tMax ? t : -1;
+	}
+
+	/**
+	 * twice the signed area of a polygon, positive if counter clockwise
+	 * @param polygon - vertices as [x1,y1,x2,y2,...]
+	 * @param offset - index of x of first vertex in polygon
+	 * @param count - number of vertices
+	 * @return twice the signed area
+	 */
+	static double area( double[] polygon, int offset, int count){
+		double sum = 0;
+		int last = offset + count * 2 - 2;
+		double vx = polygon[last], vy = polygon[last + 1];
+		for( int i = offset; i <= last; i += 2){
+			sum += vx * polygon[i + 1] - polygon[i] * vy;
+			vx = polygon[i];
+			vy = polygon[i + 1];
+		}
+		return sum;
+	}
+
+	/**
+	 * store a circle intersect in result
+	 * @param result - array of size 4 to store x, y, ray scaler and position on the outline
+	 * @param x - intersect x
+	 * @param y - intersect y
+	 * @param t - ray scaler
+	 * @param cx - circle center x
+	 * @param cy - circle center y
+	 */
+	static void storeCircle( double[] result, double x, double y, double t, double cx, double cy){
+		double turn = Math.atan2( y - cy, x - cx) / (2 * Math.PI);
+		result[0] = x;
+		result[1] = y;
+		result[2] = t;
+		result[3] = turn < 0 ? turn + 1 : turn;
+	}
+
+	/**
+	 * store a box intersect in result, the edge is the side closest to the intersect point
+	 * @param result - array of size 4 to store x, y, ray scaler and position on the outline
+	 * @param x - intersect x
+	 * @param y - intersect y
+	 * @param t - ray scaler
+	 * @param minX - box min x
+	 * @param minY - box min y
+	 * @param maxX - box max x
+	 * @param maxY - box max y
+	 */
+	static void storeBox( double[] result, double x, double y, double t, double minX, double minY, double maxX, double maxY){
+		double bottom = Math.abs( y - minY), right = Math.abs( x - maxX), top = Math.abs( y - maxY), left = Math.abs( x - minX);
+		double min = Math.min( Math.min( bottom, right), Math.min( top, left));
+		double outline;
+		if( min == bottom)
+			outline = maxX > minX ? (x - minX) / (maxX - minX) : 0;
+		else if( min == right)
+			outline = 1 + (maxY > minY ? (y - minY) / (maxY - minY) : 0);
+		else if( min == top)
+			outline = 2 + (maxX > minX ? (maxX - x) / (maxX - minX) : 0);
+		else
+			outline = 3 + (maxY > minY ? (maxY - y) / (maxY - minY) : 0);
+		result[0] = x;
+		result[1] = y;
+		result[2] = t;
+		result[3] = outline;
+	}
+
+	/**
+	 * store a polygon intersect in result, the edge is the one closest to the intersect point
+	 * @param result - array of size 4 to store x, y, ray scaler and position on the outline
+	 * @param x - intersect x
+	 * @param y - intersect y
+	 * @param t - ray scaler
+	 * @param polygon - vertices as [x1,y1,x2,y2,...]
+	 * @param offset - index of x of first vertex in polygon
+	 * @param count - number of vertices
+	 */
+	static void storePolygon( double[] result, double x, double y, double t, double[] polygon, int offset, int count){
+		int edge = 0;
+		double closest = Double.POSITIVE_INFINITY, scaler = 0;
+		for( int i = 0; i < count; i++){
+			int a = offset + i * 2, b = offset + (i + 1) % count * 2;
+			double ex = polygon[b] - polygon[a], ey = polygon[b + 1] - polygon[a + 1];
+			double length2 = ex * ex + ey * ey;
+			if( length2 == 0)
+				continue;
+			double u = Math.max( 0, Math.min( 1, ((x - polygon[a]) * ex + (y - polygon[a + 1]) * ey) / length2));
+			double dx = polygon[a] + ex * u - x, dy = polygon[a + 1] + ey * u - y;
+			double distance = dx * dx + dy * dy;
+			if( distance < closest){
+				closest = distance;
+				edge = i;
+				scaler = u;
+			}
+		}
+		result[0] = x;
+		result[1] = y;
+		result[2] = t;
+		result[3] = edge + scaler;
+	}
+
+	/**
+	 * <p>
+	 * single precision version of {@link #getIntersection(double[], double, double, double, double, double, double, double, double)},
+	 * same math and same result convention. see {@link FloatSegmentSet} for error bounds against the double version.
+	 * </p>
+	 * 
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of intersect point
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return true if intersect
+	 */
+	public static boolean getIntersection( float[] result, float rsx, float rsy, float rex, float rey, float ssx, float ssy, float sex, float sey){
+		float qpx = rsx - ssx;
+		float qpy = rsy - ssy;
+
+		float rx = rex - rsx;
+		float ry = rey - rsy;
+		float sx = sex - ssx;
+		float sy = sey - ssy;
+
+		float qps = qpx * sy - sx * qpy;
+		float qpr = qpx * ry - rx * qpy;
+
+		float rs = rx * sy - sx * ry;
+
+		float rayScaler = -qps / rs;
+		float segmentScaler = -qpr / rs;
+
+		result[0] = rsx + rx * rayScaler;
+		result[1] = rsy + ry * rayScaler;
+		result[2] = rayScaler;
+		result[3] = segmentScaler;
+
+		return rs != 0 && rayScaler >= 0 && segmentScaler >= 0 && segmentScaler <= 1;
+	}
+
+	/**
+	 * <p>
+	 * single precision version of {@link #getClosestIntersection(double[], double, double, double, double, SegmentSet, double)}.
+	 * </p>
+	 * 
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @param tMax - only intersects with a ray scaler less than this are found, 1 stops at ray end
+	 * @return index of the closest segment in given {@link FloatSegmentSet} or -1 if ray does not intersect any segment before tMax.
+	 */
+	public static int getClosestIntersection( float[] result, float rsx, float rsy, float rex, float rey, FloatSegmentSet segments, float tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		int closest = getClosestIndex( rsx, rsy, rex, rey, segments, tMax);
+		if( closest != -1){
+			float rx = rex - rsx;
+			float ry = rey - rsy;
+			float rayScaler = getRayScaler( rsx, rsy, rx, ry, segments, closest);
+			result[0] = rsx + rx * rayScaler;
+			result[1] = rsy + ry * rayScaler;
+			result[2] = rayScaler;
+			result[3] = getSegmentScaler( rsx, rsy, rx, ry, segments, closest);
+		}
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	/**
+	 * same as {@link #getClosestIntersection(float[], float, float, float, float, FloatSegmentSet, float)} but the
+	 * result is widened into a double array, so a double query on a {@link FloatSegmentSet} needs no float array.
+	 */
+	static int getClosestIntersection( double[] result, float rsx, float rsy, float rex, float rey, FloatSegmentSet segments, float tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		int closest = getClosestIndex( rsx, rsy, rex, rey, segments, tMax);
+		if( closest != -1){
+			float rx = rex - rsx;
+			float ry = rey - rsy;
+			float rayScaler = getRayScaler( rsx, rsy, rx, ry, segments, closest);
+			result[0] = rsx + rx * rayScaler;
+			result[1] = rsy + ry * rayScaler;
+			result[2] = rayScaler;
+			result[3] = getSegmentScaler( rsx, rsy, rx, ry, segments, closest);
+		}
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	/**
+	 * find the closest segment hit by a ray in single precision, scalers of the hit are found again afterwards
+	 * with {@link #getRayScaler} and {@link #getSegmentScaler} which repeat the same float operations.
+	 * @return index of the closest segment or -1 if ray does not intersect any segment before tMax.
+	 */
+	private static int getClosestIndex( float rsx, float rsy, float rex, float rey, FloatSegmentSet segments, float tMax){
+		final float[] ssx = segments.ssx;
+		final float[] ssy = segments.ssy;
+		final float[] sex = segments.sex;
+		final float[] sey = segments.sey;
+		final int size = segments.size;
+
+		float rx = rex - rsx;
+		float ry = rey - rsy;
+
+		int closest = -1;
+		float closestRay = tMax;
+
+		for( int i = 0; i < size; i++){
+			float qpx = rsx - ssx[i];
+			float qpy = rsy - ssy[i];
+			float sx = sex[i] - ssx[i];
+			float sy = sey[i] - ssy[i];
+
+			float rs = rx * sy - sx * ry;
+			float rayScaler = (sx * qpy - qpx * sy) / rs;
+			if( !(rayScaler >= 0 && rayScaler < closestRay))
+				continue;
+
+			float segmentRs = rx * qpy - qpx * ry;
+			if( !isOnSegment( rs, segmentRs))
+				continue;
+
+			closest = i;
+			closestRay = rayScaler;
+		}
+		return closest;
+	}
+
+	private static float getRayScaler( float rsx, float rsy, float rx, float ry, FloatSegmentSet segments, int i){
+		float qpx = rsx - segments.ssx[i];
+		float qpy = rsy - segments.ssy[i];
+		float sx = segments.sex[i] - segments.ssx[i];
+		float sy = segments.sey[i] - segments.ssy[i];
+		return (sx * qpy - qpx * sy) / (rx * sy - sx * ry);
+	}
+
+	private static float getSegmentScaler( float rsx, float rsy, float rx, float ry, FloatSegmentSet segments, int i){
+		float qpx = rsx - segments.ssx[i];
+		float qpy = rsy - segments.ssy[i];
+		float sx = segments.sex[i] - segments.ssx[i];
+		float sy = segments.sey[i] - segments.ssy[i];
+		return (rx * qpy - qpx * ry) / (rx * sy - sx * ry);
+	}
+
+	/**
+	 * <p>
+	 * single precision version of {@link #getAnyIntersection(double, double, double, double, SegmentSet, double)}.
+	 * </p>
+	 * 
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param segments - packed line segments to test against
+	 * @param tMax - only intersects with a ray scaler less than this count, 1 tests the segment from ray start to ray end
+	 * @return index of the first blocking segment in given {@link FloatSegmentSet} or -1 if nothing blocks the ray before tMax.
+	 */
+	public static int getAnyIntersection( float rsx, float rsy, float rex, float rey, FloatSegmentSet segments, float tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final float[] ssx = segments.ssx;
+		final float[] ssy = segments.ssy;
+		final float[] sex = segments.sex;
+		final float[] sey = segments.sey;
+		final int size = segments.size;
+
+		float rx = rex - rsx;
+		float ry = rey - rsy;
+
+		for( int i = 0; i < size; i++){
+			float qpx = rsx - ssx[i];
+			float qpy = rsy - ssy[i];
+			float sx = sex[i] - ssx[i];
+			float sy = sey[i] - ssy[i];
+
+			float rs = rx * sy - sx * ry;
+			float rayScaler = (sx * qpy - qpx * sy) / rs;
+			if( rayScaler >= 0 && rayScaler < tMax && isOnSegment( rs, rx * qpy - qpx * ry))
+				return GeometryMetrics.found( GeometryMetrics.ANY, begin, i);
+		}
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	/**
+	 * single precision version of {@link #isOnSegment(double, double)}
+	 */
+	private static boolean isOnSegment( float rs, float segmentRs){
+		return rs > 0 ? segmentRs >= 0 && segmentRs <= rs : segmentRs <= 0 && segmentRs >= rs;
+	}
 }
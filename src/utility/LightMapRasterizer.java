@@ -0,0 +1,457 @@
+package utility;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * a headless light map. visibility polygons of many lights are filled into a float buffer of light intensity per
+ * pixel, overlapping lights add up. nothing here uses JavaFX so it can run on a server.
+ * </p>
+ * <p>
+ * each polygon is first turned into sorted spans per pixel row, one task per polygon. the image is then split into
+ * square tiles and each tile is filled by one task, going through the polygons in order. a tile is only written by
+ * its own task, so there is no locking and the result is the same on any number of threads. a pixel is inside
+ * a polygon if its center is, the same rule used by most rasterizers, so polygons which share an edge never add
+ * twice to the same pixel.
+ * </p>
+ *
+ * <pre>
+ * LightMapRasterizer map = new LightMapRasterizer( 3840, 2160);
+ * map.addLights( lightX, lightY, intensity, 600, segments);
+ * int[] argb = map.toArgb( null, 0xFFE0A0);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class LightMapRasterizer{
+
+	/**
+	 * default width and height of a tile in pixels
+	 */
+	private static final int DEFAULT_TILE = 64;
+
+	/**
+	 * number of rows each task converts in {@link #toArgb(int[], int)}
+	 */
+	private static final int ROW_CHUNK = 16;
+
+	/**
+	 * pool used to run the tasks
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * size of image and tiles in pixels
+	 */
+	private final int width, height, tile;
+
+	/**
+	 * number of tiles in each direction
+	 */
+	private final int tilesX, tilesY;
+
+	/**
+	 * intensity of each pixel, row by row
+	 */
+	private final float[] pixels;
+
+	/**
+	 * create a light map which runs on {@link ForkJoinPool#commonPool()}
+	 * @param width - width of image in pixels
+	 * @param height - height of image in pixels
+	 */
+	public LightMapRasterizer( int width, int height){
+		this( width, height, ForkJoinPool.commonPool(), DEFAULT_TILE);
+	}
+
+	/**
+	 * create a light map which runs on given pool
+	 * @param width - width of image in pixels
+	 * @param height - height of image in pixels
+	 * @param pool - pool to run tasks on
+	 * @param tile - width and height of each tile in pixels
+	 */
+	public LightMapRasterizer( int width, int height, ForkJoinPool pool, int tile){
+		if( pool == null)
+			throw new NullPointerException( "pool cannot be null");
+		if( width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException( "bad image size: " + width + "x" + height);
+		if( tile < 1)
+			throw new IllegalArgumentException( "tile must be positive: " + tile);
+		this.pool = pool;
+		this.width = width;
+		this.height = height;
+		this.tile = tile;
+		this.tilesX = (width + tile - 1) / tile;
+		this.tilesY = (height + tile - 1) / tile;
+		this.pixels = new float[width * height];
+	}
+
+	/**
+	 * get width of image
+	 * @return width in pixels
+	 */
+	public int width(){
+		return width;
+	}
+
+	/**
+	 * get height of image
+	 * @return height in pixels
+	 */
+	public int height(){
+		return height;
+	}
+
+	/**
+	 * get the intensity buffer, pixel x, y is at index y * width + x
+	 * @return intensity of each pixel, not a copy
+	 */
+	public float[] pixels(){
+		return pixels;
+	}
+
+	/**
+	 * get intensity of one pixel
+	 * @param x - column of pixel
+	 * @param y - row of pixel
+	 * @return intensity of pixel
+	 */
+	public float get( int x, int y){
+		return pixels[y * width + x];
+	}
+
+	/**
+	 * set every pixel to 0
+	 */
+	public void clear(){
+		Arrays.fill( pixels, 0);
+	}
+
+	/**
+	 * add the light of one visibility polygon
+	 * @param polygon - computed visibility polygon
+	 * @param intensity - intensity at the light
+	 * @param radius - distance where intensity falls to 0, 0 or infinity for no fall off
+	 */
+	public void add( VisibilityPolygon polygon, float intensity, double radius){
+		add( new double[][]{ polygon.toArray()}, new double[]{ polygon.lightX()}, new double[]{ polygon.lightY()}, new float[]{ intensity}, radius);
+	}
+
+	/**
+	 * compute the visibility polygon of each light with {@link MultiLightCaster} and add their light
+	 * @param lightX - x of each light
+	 * @param lightY - y of each light
+	 * @param intensity - intensity at each light
+	 * @param radius - distance where intensity falls to 0, 0 or infinity for no fall off
+	 * @param segments - segments which block the light
+	 */
+	public void addLights( double[] lightX, double[] lightY, float[] intensity, double radius, SegmentSet segments){
+		add( new MultiLightCaster( pool).computePolygons( lightX, lightY, segments), lightX, lightY, intensity, radius);
+	}
+
+	/**
+	 * add the light of many polygons, such as from {@link MultiLightCaster#computePolygons(double[], double[], SegmentSet)}.
+	 * intensity falls off linearly with distance from the light.
+	 * @param polygons - for each light an array of [x1,y1,x2,y2,...] polygon vertices
+	 * @param lightX - x of each light
+	 * @param lightY - y of each light
+	 * @param intensity - intensity at each light
+	 * @param radius - distance where intensity falls to 0, 0 or infinity for no fall off
+	 */
+	public void add( double[][] polygons, double[] lightX, double[] lightY, float[] intensity, double radius){
+		int count = polygons.length;
+		if( lightX.length != count || lightY.length != count || intensity.length != count)
+			throw new IllegalArgumentException( "polygons, lightX, lightY and intensity must have the same length");
+		if( radius < 0 || Double.isNaN( radius))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		double falloff = radius == 0 || Double.isInfinite( radius) ? 0 : 1 / radius;
+		Spans[] spans = new Spans[count];
+		pool.invoke( new RangeTask( 0, count, 1, ( from, to) -> {
+			for( int i = from; i < to; i++)
+				spans[i] = spans( polygons[i], lightX[i], lightY[i], intensity[i], falloff);
+		}));
+		pool.invoke( new RangeTask( 0, tilesX * tilesY, 1, ( from, to) -> {
+			for( int t = from; t < to; t++)
+				fillTile( t % tilesX * tile, t / tilesX * tile, spans, falloff);
+		}));
+	}
+
+	/**
+	 * <p>
+	 * add the light of one area light sampled as many polygons, such as from {@link AreaLight}. each polygon adds an
+	 * equal share of intensity. pixels of a tile first count how many polygons cover them, then fall off is applied
+	 * once per pixel from the center of the light instead of once per polygon, which looks the same for a light much
+	 * smaller than its radius and costs about as much as one hard light.
+	 * </p>
+	 * @param polygons - for each sample an array of [x1,y1,x2,y2,...] polygon vertices
+	 * @param lx - center x of light
+	 * @param ly - center y of light
+	 * @param intensity - total intensity of the light
+	 * @param radius - distance where intensity falls to 0, 0 or infinity for no fall off
+	 */
+	public void addSamples( double[][] polygons, double lx, double ly, float intensity, double radius){
+		int count = polygons.length;
+		if( radius < 0 || Double.isNaN( radius))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		if( count == 0)
+			return;
+		double falloff = radius == 0 || Double.isInfinite( radius) ? 0 : 1 / radius;
+		Spans[] spans = new Spans[count];
+		pool.invoke( new RangeTask( 0, count, 1, ( from, to) -> {
+			for( int i = from; i < to; i++)
+				spans[i] = spans( polygons[i], lx, ly, intensity, falloff);
+		}));
+		float share = intensity / count;
+		pool.invoke( new RangeTask( 0, tilesX * tilesY, 1, ( from, to) -> {
+			int[] coverage = new int[tile * (tile + 1)];
+			for( int t = from; t < to; t++)
+				fillTileCoverage( t % tilesX * tile, t / tilesX * tile, spans, coverage, lx, ly, share, falloff);
+		}));
+	}
+
+	/**
+	 * convert intensities to colors, intensity 1 or more gives given color and 0 gives black
+	 * @param argb - array to fill, null or too small to create a new one
+	 * @param rgb - color of full light as 0xRRGGBB
+	 * @return array of opaque colors in the same order as {@link #pixels()}
+	 */
+	public int[] toArgb( int[] argb, int rgb){
+		final int[] out = argb == null || argb.length < pixels.length ? new int[pixels.length] : argb;
+		final float red = rgb >> 16 & 0xFF, green = rgb >> 8 & 0xFF, blue = rgb & 0xFF;
+		pool.invoke( new RangeTask( 0, height, ROW_CHUNK, ( from, to) -> {
+			for( int i = from * width, end = to * width; i < end; i++){
+				float v = Math.min( 1, Math.max( 0, pixels[i]));
+				// v is never negative so adding 0.5 and truncating rounds
+				out[i] = 0xFF000000 | (int) (red * v + 0.5f) << 16 | (int) (green * v + 0.5f) << 8 | (int) (blue * v + 0.5f);
+			}
+		}));
+		return out;
+	}
+
+	/**
+	 * add every polygon which overlaps given tile to its pixels
+	 */
+	private void fillTile( int tx0, int ty0, Spans[] spans, double falloff){
+		final float[] pixels = this.pixels;
+		int tx1 = Math.min( width, tx0 + tile), ty1 = Math.min( height, ty0 + tile);
+		for( Spans s : spans){
+			if( s == null || s.maxX < tx0 || s.minX >= tx1)
+				continue;
+			for( int row = Math.max( ty0, s.firstRow), lastRow = Math.min( ty1, s.endRow); row < lastRow; row++){
+				int r = row - s.firstRow;
+				double dy2 = (row + 0.5 - s.ly) * (row + 0.5 - s.ly);
+				int offset = row * width;
+				for( int k = s.rowStart[r], end = s.rowStart[r + 1]; k + 1 < end; k += 2){
+					int x0 = Math.max( tx0, (int) Math.ceil( s.xs[k] - 0.5));
+					int x1 = Math.min( tx1, (int) Math.ceil( s.xs[k + 1] - 0.5));
+					if( falloff == 0){
+						for( int x = x0; x < x1; x++)
+							pixels[offset + x] += s.intensity;
+					}else{
+						for( int x = x0; x < x1; x++){
+							double dx = x + 0.5 - s.lx;
+							double v = 1 - Math.sqrt( dx * dx + dy2) * falloff;
+							if( v > 0)
+								pixels[offset + x] += (float) (s.intensity * v);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * count polygons covering each pixel of given tile, then add their share of light.
+	 * each span only marks where it starts and ends in its row, a running sum over the row gives the count.
+	 */
+	private void fillTileCoverage( int tx0, int ty0, Spans[] spans, int[] coverage, double lx, double ly, float share, double falloff){
+		final float[] pixels = this.pixels;
+		final int stride = tile + 1;
+		int tx1 = Math.min( width, tx0 + tile), ty1 = Math.min( height, ty0 + tile);
+		boolean any = false;
+		for( Spans s : spans){
+			if( s == null || s.maxX < tx0 || s.minX >= tx1 || s.endRow <= ty0 || s.firstRow >= ty1)
+				continue;
+			any = true;
+			for( int row = Math.max( ty0, s.firstRow), lastRow = Math.min( ty1, s.endRow); row < lastRow; row++){
+				int r = row - s.firstRow;
+				int offset = (row - ty0) * stride - tx0;
+				for( int k = s.rowStart[r], end = s.rowStart[r + 1]; k + 1 < end; k += 2){
+					int x0 = Math.max( tx0, (int) Math.ceil( s.xs[k] - 0.5));
+					int x1 = Math.min( tx1, (int) Math.ceil( s.xs[k + 1] - 0.5));
+					if( x0 < x1){
+						coverage[offset + x0]++;
+						coverage[offset + x1]--;
+					}
+				}
+			}
+		}
+		if( !any)
+			return;
+		for( int row = ty0; row < ty1; row++){
+			double dy2 = (row + 0.5 - ly) * (row + 0.5 - ly);
+			int offset = (row - ty0) * stride - tx0;
+			int covered = 0;
+			for( int x = tx0; x < tx1; x++){
+				covered += coverage[offset + x];
+				coverage[offset + x] = 0;
+				if( covered == 0)
+					continue;
+				if( falloff == 0){
+					pixels[row * width + x] += share * covered;
+				}else{
+					double dx = x + 0.5 - lx;
+					double v = 1 - Math.sqrt( dx * dx + dy2) * falloff;
+					if( v > 0)
+						pixels[row * width + x] += (float) (share * covered * v);
+				}
+			}
+			coverage[offset + tx1] = 0;
+		}
+	}
+
+	/**
+	 * turn a polygon into sorted crossings of each pixel row center
+	 * @return spans of polygon or null if it covers no pixel
+	 */
+	private Spans spans( double[] xy, double lx, double ly, float intensity, double falloff){
+		int n = xy.length / 2;
+		if( n < 3 || intensity == 0)
+			return null;
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for( int i = 0; i < n; i++){
+			minX = Math.min( minX, xy[i * 2]);
+			maxX = Math.max( maxX, xy[i * 2]);
+			minY = Math.min( minY, xy[i * 2 + 1]);
+			maxY = Math.max( maxY, xy[i * 2 + 1]);
+		}
+		if( falloff != 0){
+			// nothing is lit past the radius
+			double radius = 1 / falloff;
+			minX = Math.max( minX, lx - radius);
+			maxX = Math.min( maxX, lx + radius);
+			minY = Math.max( minY, ly - radius);
+			maxY = Math.min( maxY, ly + radius);
+		}
+		int firstRow = Math.max( 0, row( minY)), endRow = Math.min( height, row( maxY));
+		if( firstRow >= endRow || maxX < 0 || minX >= width)
+			return null;
+
+		// count crossings of each row, then fill them
+		int rows = endRow - firstRow;
+		int[] rowStart = new int[rows + 1];
+		for( int i = 0, j = n - 1; i < n; j = i++){
+			double ay = xy[j * 2 + 1], by = xy[i * 2 + 1];
+			int from = Math.max( firstRow, row( Math.min( ay, by))), to = Math.min( endRow, row( Math.max( ay, by)));
+			for( int row = from; row < to; row++)
+				rowStart[row - firstRow + 1]++;
+		}
+		for( int r = 0; r < rows; r++)
+			rowStart[r + 1] += rowStart[r];
+		double[] xs = new double[rowStart[rows]];
+		int[] fill = Arrays.copyOf( rowStart, rows);
+		for( int i = 0, j = n - 1; i < n; j = i++){
+			double ax = xy[j * 2], ay = xy[j * 2 + 1], bx = xy[i * 2], by = xy[i * 2 + 1];
+			int from = Math.max( firstRow, row( Math.min( ay, by))), to = Math.min( endRow, row( Math.max( ay, by)));
+			double slope = (bx - ax) / (by - ay);
+			for( int row = from; row < to; row++)
+				xs[fill[row - firstRow]++] = ax + (row + 0.5 - ay) * slope;
+		}
+		for( int r = 0; r < rows; r++)
+			sort( xs, rowStart[r], rowStart[r + 1]);
+		return new Spans( firstRow, endRow, rowStart, xs, (int) Math.floor( minX), (int) Math.ceil( maxX), lx, ly, intensity);
+	}
+
+	/**
+	 * first row whose center is at or below given y
+	 */
+	private static int row( double y){
+		return (int) Math.max( Integer.MIN_VALUE / 2, Math.min( Integer.MAX_VALUE / 2, Math.ceil( y - 0.5)));
+	}
+
+	/**
+	 * sort a row of crossings, rows of convex parts only have 2
+	 */
+	private static void sort( double[] xs, int from, int to){
+		if( to - from > 16){
+			Arrays.sort( xs, from, to);
+			return;
+		}
+		for( int i = from + 1; i < to; i++){
+			double x = xs[i];
+			int j = i - 1;
+			while( j >= from && xs[j] > x){
+				xs[j + 1] = xs[j];
+				j--;
+			}
+			xs[j + 1] = x;
+		}
+	}
+
+	/**
+	 * sorted crossings of pixel row centers with the edges of one polygon, each pair is a span inside the polygon
+	 */
+	private static final class Spans{
+
+		final int firstRow, endRow;
+		final int[] rowStart;
+		final double[] xs;
+		final int minX, maxX;
+		final double lx, ly;
+		final float intensity;
+
+		Spans( int firstRow, int endRow, int[] rowStart, double[] xs, int minX, int maxX, double lx, double ly, float intensity){
+			this.firstRow = firstRow;
+			this.endRow = endRow;
+			this.rowStart = rowStart;
+			this.xs = xs;
+			this.minX = minX;
+			this.maxX = maxX;
+			this.lx = lx;
+			this.ly = ly;
+			this.intensity = intensity;
+		}
+	}
+
+	/**
+	 * work on a range of indices
+	 */
+	@FunctionalInterface
+	private interface Range{
+		void run( int from, int to);
+	}
+
+	/**
+	 * splits a range in half until it is no longer than grain
+	 */
+	private static final class RangeTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to, grain;
+		private final Range range;
+
+		RangeTask( int from, int to, int grain, Range range){
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.range = range;
+		}
+
+		@Override
+		protected void compute(){
+			if( to - from > grain){
+				int mid = (from + to) >>> 1;
+				invokeAll( new RangeTask( from, mid, grain, range), new RangeTask( mid, to, grain, range));
+				return;
+			}
+			if( from < to)
+				range.run( from, to);
+		}
+	}
+}
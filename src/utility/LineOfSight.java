@@ -0,0 +1,350 @@
+package utility;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * answer many "can a see b" questions at once. a sees b if no segment crosses the line between them, the same as
+ * {@link SegmentIndex#getAnyIntersection(double, double, double, double, double)} with a bound of 1 finding nothing.
+ * </p>
+ * <p>
+ * segments are rasterized into a coarse occupancy grid of one bit per cell, each cell a segment touches is marked,
+ * with a little padding so rounding never leaves a touched cell unmarked. a short line whose bounding box only
+ * covers empty cells cannot cross any segment and is accepted right away by checking a few bit ranges, one per row.
+ * other lines, near walls or long, are tested exactly with a {@link SegmentGrid} which only tests segments in the
+ * cells along the line.
+ * </p>
+ * <p>
+ * there is no fast reject: a line through a marked cell may still pass beside the segment in it, and the occupancy
+ * grid does not know which side of the segment each end is on. batches are split into ranges of 64 queries, one
+ * word of the result each, and run on a {@link ForkJoinPool}.
+ * </p>
+ * <p>
+ * like {@link SegmentGrid} this is a snapshot, if the segments change a new instance must be built.
+ * queries may run on many threads at once.
+ * </p>
+ *
+ * <pre>
+ * LineOfSight sight = new LineOfSight( walls);
+ * BitSet visible = sight.canSee( agents, targets);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class LineOfSight{
+
+	/**
+	 * default number of occupancy cells along the longer side of the scene
+	 */
+	private static final int DEFAULT_RESOLUTION = 256;
+
+	/**
+	 * max number of rows the box of a line may cover to be checked in the occupancy grid
+	 */
+	private static final int MAX_BOX_ROWS = 8;
+
+	/**
+	 * default number of result words, each 64 queries, computed by one task
+	 */
+	private static final int DEFAULT_GRAIN = 16;
+
+	/**
+	 * relative amount each rasterized range is grown by, far above the rounding error of the math
+	 */
+	private static final double PAD = 1e-9;
+
+	/**
+	 * exact index used near walls
+	 */
+	private final SegmentGrid grid;
+
+	/**
+	 * bottom left corner of the occupancy grid and size of each cell
+	 */
+	private final double minX, minY, cellSize;
+
+	/**
+	 * number of columns and rows of the occupancy grid
+	 */
+	private final int cols, rows;
+
+	/**
+	 * occupancy bits, each row starts at a new word
+	 */
+	private final long[] occupied;
+
+	/**
+	 * number of words in each row
+	 */
+	private final int wordsPerRow;
+
+	/**
+	 * pool used to run batches
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * create a new instance which runs batches on {@link ForkJoinPool#commonPool()}
+	 * @param segments - segments which block sight
+	 */
+	public LineOfSight( SegmentSet segments){
+		this( segments, autoCellSize( segments), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * create a new instance
+	 * @param segments - segments which block sight
+	 * @param cellSize - width and height of each occupancy cell, smaller cells accept more lines right away but cost more bits
+	 * @param pool - pool to run batches on
+	 */
+	public LineOfSight( SegmentSet segments, double cellSize, ForkJoinPool pool){
+		if( pool == null)
+			throw new NullPointerException( "pool cannot be null");
+		if( !(cellSize > 0) || Double.isInfinite( cellSize))
+			throw new IllegalArgumentException( "cell size must be positive: " + cellSize);
+		this.pool = pool;
+		this.cellSize = cellSize;
+		this.grid = new SegmentGrid( segments);
+		int size = segments.size;
+		double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+		double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+		for( int i = 0; i < size; i++){
+			x1 = Math.min( x1, Math.min( segments.ssx[i], segments.sex[i]));
+			y1 = Math.min( y1, Math.min( segments.ssy[i], segments.sey[i]));
+			x2 = Math.max( x2, Math.max( segments.ssx[i], segments.sex[i]));
+			y2 = Math.max( y2, Math.max( segments.ssy[i], segments.sey[i]));
+		}
+		if( size == 0){
+			x1 = y1 = x2 = y2 = 0;
+		}
+		minX = x1;
+		minY = y1;
+		long longCols = (long) ((x2 - x1) / cellSize) + 1;
+		long longRows = (long) ((y2 - y1) / cellSize) + 1;
+		if( (longCols + 63 >>> 6) * longRows > Integer.MAX_VALUE - 1)
+			throw new IllegalArgumentException( "cell size " + cellSize + " creates too many cells");
+		cols = (int) longCols;
+		rows = (int) longRows;
+		wordsPerRow = cols + 63 >>> 6;
+		occupied = new long[wordsPerRow * rows];
+		for( int i = 0; i < size; i++)
+			rasterize( segments.ssx[i], segments.ssy[i], segments.sex[i], segments.sey[i]);
+	}
+
+	/**
+	 * check if a can see b
+	 * @param ax - x of a
+	 * @param ay - y of a
+	 * @param bx - x of b
+	 * @param by - y of b
+	 * @return true if no segment crosses the line between a and b
+	 */
+	public boolean canSee( double ax, double ay, double bx, double by){
+		return !boxOccupied( ax, ay, bx, by) || grid.getAnyIntersection( ax, ay, bx, by, 1) == -1;
+	}
+
+	/**
+	 * check if each a can see its b, in parallel
+	 * @param from - points a as [x1,y1,x2,y2,...]
+	 * @param to - points b as [x1,y1,x2,y2,...], same length as from
+	 * @return bit i is set if a i can see b i
+	 */
+	public BitSet canSee( double[] from, double[] to){
+		if( from.length != to.length || from.length % 2 != 0)
+			throw new IllegalArgumentException( "from and to must hold the same number of x and y pairs: " + from.length + ", " + to.length);
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		int count = from.length / 2;
+		long[] words = new long[count + 63 >>> 6];
+		pool.invoke( new BatchTask( from, to, count, words, 0, words.length));
+		BitSet visible = BitSet.valueOf( words);
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.record( GeometryMetrics.LINE_OF_SIGHT, begin, visible.cardinality());
+		return visible;
+	}
+
+	/**
+	 * answer the queries of a range of result words
+	 * @param from - points a
+	 * @param to - points b
+	 * @param count - number of queries
+	 * @param words - result words
+	 * @param fromWord - first word inclusive
+	 * @param toWord - last word exclusive
+	 */
+	private void canSee( double[] from, double[] to, int count, long[] words, int fromWord, int toWord){
+		for( int w = fromWord; w < toWord; w++){
+			long bits = 0;
+			for( int b = 0, q = w << 6; b < 64 && q < count; b++, q++)
+				if( canSee( from[q * 2], from[q * 2 + 1], to[q * 2], to[q * 2 + 1]))
+					bits |= 1L << b;
+			words[w] = bits;
+		}
+	}
+
+	/**
+	 * <p>
+	 * mark the occupancy cells a segment touches. in each row the segment covers one range of columns,
+	 * found from where it enters and leaves the band of the row and grown by a little padding.
+	 * </p>
+	 * @param ax - segment start x
+	 * @param ay - segment start y
+	 * @param bx - segment end x
+	 * @param by - segment end y
+	 */
+	private void rasterize( double ax, double ay, double bx, double by){
+		final double invCell = 1 / cellSize;
+		double pad = (Math.abs( ax) + Math.abs( ay) + Math.abs( bx) + Math.abs( by) + cellSize) * PAD;
+		double dx = bx - ax, dy = by - ay;
+		double lowY = Math.min( ay, by) - pad, highY = Math.max( ay, by) + pad;
+		double lowX = Math.min( ax, bx), highX = Math.max( ax, bx);
+		boolean flat = Math.abs( dy) <= pad;
+		double slope = flat ? 0 : dx / dy;
+		// clamped before the cast so truncation is floor
+		int firstRow = (int) Math.max( 0, (lowY - minY) * invCell);
+		int lastRow = (int) Math.min( rows - 1, Math.floor( (highY - minY) * invCell));
+		for( int row = firstRow; row <= lastRow; row++){
+			double x0 = lowX, x1 = highX;
+			if( !flat){
+				// a flat segment covers all its columns in every row it touches, others only where they cross the band
+				double bandLow = Math.max( lowY, minY + row * cellSize - pad);
+				double bandHigh = Math.min( highY, minY + (row + 1) * cellSize + pad);
+				double xLow = ax + (bandLow - ay) * slope, xHigh = ax + (bandHigh - ay) * slope;
+				x0 = Math.max( lowX, Math.min( xLow, xHigh));
+				x1 = Math.min( highX, Math.max( xLow, xHigh));
+			}
+			int c0 = (int) Math.max( 0, (x0 - pad - minX) * invCell);
+			int c1 = (int) Math.min( cols - 1, Math.floor( (x1 + pad - minX) * invCell));
+			if( c0 <= c1)
+				setRange( row, c0, c1);
+		}
+	}
+
+	/**
+	 * <p>
+	 * check if any occupancy cell under the bounding box of a line is marked. boxes taller than {@value #MAX_BOX_ROWS}
+	 * rows are not checked and count as marked, long lines almost always pass a wall cell and checking them costs
+	 * more than it saves.
+	 * </p>
+	 * @param ax - line start x
+	 * @param ay - line start y
+	 * @param bx - line end x
+	 * @param by - line end y
+	 * @return false if every cell under the box is empty
+	 */
+	private boolean boxOccupied( double ax, double ay, double bx, double by){
+		final double invCell = 1 / cellSize;
+		double pad = (Math.abs( ax) + Math.abs( ay) + Math.abs( bx) + Math.abs( by) + cellSize) * PAD;
+		int firstRow = (int) Math.max( 0, (Math.min( ay, by) - pad - minY) * invCell);
+		int lastRow = (int) Math.min( rows - 1, Math.max( -1, Math.floor( (Math.max( ay, by) + pad - minY) * invCell)));
+		int c0 = (int) Math.max( 0, (Math.min( ax, bx) - pad - minX) * invCell);
+		int c1 = (int) Math.min( cols - 1, Math.max( -1, Math.floor( (Math.max( ax, bx) + pad - minX) * invCell)));
+		if( c0 > c1 || firstRow > lastRow)
+			return false;
+		if( lastRow - firstRow >= MAX_BOX_ROWS)
+			return true;
+		for( int row = firstRow; row <= lastRow; row++)
+			if( anyInRange( row, c0, c1))
+				return true;
+		return false;
+	}
+
+	/**
+	 * set the bits of given columns in a row
+	 * @param row - row index
+	 * @param c0 - first column inclusive
+	 * @param c1 - last column inclusive
+	 */
+	private void setRange( int row, int c0, int c1){
+		int base = row * wordsPerRow;
+		for( int w = c0 >>> 6, last = c1 >>> 6; w <= last; w++)
+			occupied[base + w] |= mask( w, c0, c1);
+	}
+
+	/**
+	 * check if any bit of given columns in a row is set
+	 * @param row - row index
+	 * @param c0 - first column inclusive
+	 * @param c1 - last column inclusive
+	 * @return true if any cell is marked
+	 */
+	private boolean anyInRange( int row, int c0, int c1){
+		int base = row * wordsPerRow;
+		for( int w = c0 >>> 6, last = c1 >>> 6; w <= last; w++)
+			if( (occupied[base + w] & mask( w, c0, c1)) != 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * bits of word w which fall between columns c0 and c1 inclusive
+	 */
+	private static long mask( int w, int c0, int c1){
+		long low = w == c0 >>> 6 ? -1L << (c0 & 63) : -1L;
+		long high = w == c1 >>> 6 ? -1L >>> (63 - (c1 & 63)) : -1L;
+		return low & high;
+	}
+
+	/**
+	 * get the fraction of occupancy cells marked, lines through a scene with a high fraction are rarely accepted right away
+	 * @return marked cells divided by all cells
+	 */
+	public double occupancy(){
+		long marked = 0;
+		for( long word : occupied)
+			marked += Long.bitCount( word);
+		return (double) marked / ((long) cols * rows);
+	}
+
+	/**
+	 * pick a cell size so the longer side of the scene has {@value #DEFAULT_RESOLUTION} cells
+	 * @param segments - segments which block sight
+	 * @return cell size
+	 */
+	private static double autoCellSize( SegmentSet segments){
+		double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+		double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+		for( int i = 0; i < segments.size; i++){
+			x1 = Math.min( x1, Math.min( segments.ssx[i], segments.sex[i]));
+			y1 = Math.min( y1, Math.min( segments.ssy[i], segments.sey[i]));
+			x2 = Math.max( x2, Math.max( segments.ssx[i], segments.sex[i]));
+			y2 = Math.max( y2, Math.max( segments.ssy[i], segments.sey[i]));
+		}
+		double cellSize = Math.max( x2 - x1, y2 - y1) / DEFAULT_RESOLUTION;
+		return cellSize > 0 && !Double.isInfinite( cellSize) ? cellSize : 1;
+	}
+
+	/**
+	 * splits a range of result words in half until it is no longer than {@link #DEFAULT_GRAIN}
+	 */
+	private final class BatchTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] from, to;
+		private final int count;
+		private final long[] words;
+		private final int fromWord, toWord;
+
+		BatchTask( double[] from, double[] to, int count, long[] words, int fromWord, int toWord){
+			this.from = from;
+			this.to = to;
+			this.count = count;
+			this.words = words;
+			this.fromWord = fromWord;
+			this.toWord = toWord;
+		}
+
+		@Override
+		protected void compute(){
+			if( toWord - fromWord > DEFAULT_GRAIN){
+				int mid = (fromWord + toWord) >>> 1;
+				invokeAll( new BatchTask( from, to, count, words, fromWord, mid), new BatchTask( from, to, count, words, mid, toWord));
+				return;
+			}
+			canSee( from, to, count, words, fromWord, toWord);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package utility;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * cast rays from many lights at once on a {@link ForkJoinPool}. work is split by light and by angular range
+ * of rays, each task writes into its own part of the result arrays so no locking is needed.
+ * the {@link SegmentIndex} is only read and can be shared by all tasks.
+ * </p>
+ *
+ * <pre>
+ * MultiLightCaster caster = new MultiLightCaster();
+ * double[][] hits = caster.cast( lightX, lightY, 360, new SegmentBVH( segments));
+ * // hits[light][ray * 2] and hits[light][ray * 2 + 1] are x and y of each hit
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class MultiLightCaster{
+
+	/**
+	 * default number of rays each task casts before it stops splitting
+	 */
+	private static final int DEFAULT_CHUNK = 256;
+
+	/**
+	 * pool used to run the tasks
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * number of rays each task casts before it stops splitting
+	 */
+	private final int chunk;
+
+	/**
+	 * per thread engine used by {@link #computePolygons(double[], double[], SegmentSet)}
+	 */
+	private final ThreadLocal< VisibilityPolygon> visibility = ThreadLocal.withInitial( VisibilityPolygon::new);
+
+	/**
+	 * create a caster which runs on {@link ForkJoinPool#commonPool()}
+	 */
+	public MultiLightCaster(){
+		this( ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * create a caster which runs on given pool
+	 * @param pool - pool to run tasks on
+	 */
+	public MultiLightCaster( ForkJoinPool pool){
+		this( pool, DEFAULT_CHUNK);
+	}
+
+	/**
+	 * create a caster which runs on given pool
+	 * @param pool - pool to run tasks on
+	 * @param chunk - number of rays each task casts before it stops splitting
+	 */
+	public MultiLightCaster( ForkJoinPool pool, int chunk){
+		if( pool == null)
+			throw new NullPointerException( "pool cannot be null");
+		if( chunk < 1)
+			throw new IllegalArgumentException( "chunk must be positive: " + chunk);
+		this.pool = pool;
+		this.chunk = chunk;
+	}
+
+	/**
+	 * cast given number of evenly spaced rays around each light
+	 * @param lightX - x of each light
+	 * @param lightY - y of each light
+	 * @param rays - number of rays per light
+	 * @param index - segments which block the light
+	 * @return for each light an array of [x1,y1,x2,y2,...] hit points, NaN if a ray hits nothing
+	 */
+	public double[][] cast( double[] lightX, double[] lightY, int rays, SegmentIndex index){
+		double[][] hits = new double[lightX.length][rays * 2];
+		cast( lightX, lightY, rays, index, hits);
+		return hits;
+	}
+
+	/**
+	 * cast given number of evenly spaced rays around each light into existing arrays
+	 * @param lightX - x of each light
+	 * @param lightY - y of each light
+	 * @param rays - number of rays per light
+	 * @param index - segments which block the light
+	 * @param hits - for each light an array of at least rays * 2, filled with [x1,y1,x2,y2,...] hit points, NaN if a ray hits nothing
+	 */
+	public void cast( double[] lightX, double[] lightY, int rays, SegmentIndex index, double[][] hits){
+		if( lightX.length != lightY.length || hits.length < lightX.length)
+			throw new IllegalArgumentException( "lightX, lightY and hits must have the same length");
+		double[] cos = new double[rays], sin = new double[rays];
+		for( int r = 0; r < rays; r++){
+			double angle = 2 * Math.PI * r / rays;
+			cos[r] = Math.cos( angle);
+			sin[r] = Math.sin( angle);
+		}
+		pool.invoke( new CastTask( lightX, lightY, rays, cos, sin, index, hits, 0, (long) lightX.length * rays));
+	}
+
+	/**
+	 * compute the {@link VisibilityPolygon} of each light, one task per light
+	 * @param lightX - x of each light
+	 * @param lightY - y of each light
+	 * @param segments - segments which block the light
+	 * @return for each light an array of [x1,y1,x2,y2,...] polygon vertices
+	 */
+	public double[][] computePolygons( double[] lightX, double[] lightY, SegmentSet segments){
+		if( lightX.length != lightY.length)
+			throw new IllegalArgumentException( "lightX and lightY must have the same length");
+		double[][] polygons = new double[lightX.length][];
+		pool.invoke( new PolygonTask( lightX, lightY, segments, polygons, 0, lightX.length));
+		return polygons;
+	}
+
+	/**
+	 * casts a range of rays, rays of all lights are numbered light * rays + ray
+	 */
+	private class CastTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] lightX, lightY, cos, sin;
+		private final int rays;
+		private final SegmentIndex index;
+		private final double[][] hits;
+		private final long from, to;
+
+		CastTask( double[] lightX, double[] lightY, int rays, double[] cos, double[] sin, SegmentIndex index, double[][] hits, long from, long to){
+			this.lightX = lightX;
+			this.lightY = lightY;
+			this.rays = rays;
+			this.cos = cos;
+			this.sin = sin;
+			this.index = index;
+			this.hits = hits;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if( to - from > chunk){
+				long mid = (from + to) >>> 1;
+				invokeAll( new CastTask( lightX, lightY, rays, cos, sin, index, hits, from, mid),
+						new CastTask( lightX, lightY, rays, cos, sin, index, hits, mid, to));
+				return;
+			}
+			double[] result = new double[4];
+			for( long i = from; i < to; i++){
+				int light = (int) (i / rays);
+				int ray = (int) (i % rays);
+				double lx = lightX[light], ly = lightY[light];
+				double[] lightHits = hits[light];
+				if( index.getClosestIntersection( result, lx, ly, lx + cos[ray], ly + sin[ray]) != -1){
+					lightHits[ray * 2] = result[0];
+					lightHits[ray * 2 + 1] = result[1];
+				}else{
+					lightHits[ray * 2] = Double.NaN;
+					lightHits[ray * 2 + 1] = Double.NaN;
+				}
+			}
+		}
+	}
+
+	/**
+	 * computes the visibility polygon of a range of lights
+	 */
+	private class PolygonTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] lightX, lightY;
+		private final SegmentSet segments;
+		private final double[][] polygons;
+		private final int from, to;
+
+		PolygonTask( double[] lightX, double[] lightY, SegmentSet segments, double[][] polygons, int from, int to){
+			this.lightX = lightX;
+			this.lightY = lightY;
+			this.segments = segments;
+			this.polygons = polygons;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if( to - from > 1){
+				int mid = (from + to) >>> 1;
+				invokeAll( new PolygonTask( lightX, lightY, segments, polygons, from, mid),
+						new PolygonTask( lightX, lightY, segments, polygons, mid, to));
+				return;
+			}
+			if( from < to)
+				polygons[from] = visibility.get().compute( lightX[from], lightY[from], segments).toArray();
+		}
+	}
+}
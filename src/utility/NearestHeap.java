@@ -0,0 +1,125 @@
+package utility;
+
+/**
+ * <p>
+ * the k closest points seen so far by a {@link PointIndex#nearest(int[], double, double, int)} query, kept in a max
+ * heap so the farthest of them is at the root and is the one replaced by a closer point. points are ordered by
+ * squared distance and then by index, so the result does not depend on the order points are offered in.
+ * a new heap is made for each query so many threads can query at once.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+final class NearestHeap{
+
+	/**
+	 * squared distance and index of each point in heap order
+	 */
+	private final double[] distance;
+	private final int[] items;
+
+	/**
+	 * number of points in heap
+	 */
+	private int size;
+
+	/**
+	 * create an empty heap
+	 * @param result - array the result is written to, checked here so every index fails the same way
+	 * @param k - max number of points to keep
+	 */
+	NearestHeap( int[] result, int k){
+		if( k < 0 || k > result.length)
+			throw new IllegalArgumentException( "k must be between 0 and " + result.length + ": " + k);
+		distance = new double[k];
+		items = new int[k];
+	}
+
+	/**
+	 * get the squared distance a point must beat to be kept
+	 * @return squared distance of the farthest point kept, infinity while fewer than k are kept or -1 if k is 0
+	 */
+	double worst(){
+		if( items.length == 0)
+			return -1;
+		return size < items.length ? Double.POSITIVE_INFINITY : distance[0];
+	}
+
+	/**
+	 * keep a point if it is closer than the farthest point kept
+	 * @param d - squared distance of point
+	 * @param item - index of point
+	 */
+	void offer( double d, int item){
+		if( size < items.length){
+			// sift up
+			int i = size++;
+			while( i > 0){
+				int parent = (i - 1) >>> 1;
+				if( !after( d, item, parent))
+					break;
+				distance[i] = distance[parent];
+				items[i] = items[parent];
+				i = parent;
+			}
+			distance[i] = d;
+			items[i] = item;
+		}else if( size > 0 && after( distance[0], items[0], d, item))
+			siftDown( d, item, size);
+	}
+
+	/**
+	 * write the points kept to result, closest first. the heap is empty after.
+	 * @param result - array to write to
+	 * @return number of points written
+	 */
+	int drain( int[] result){
+		int count = size;
+		// remove the farthest each time and write it from the end
+		while( size > 0){
+			int last = --size;
+			result[last] = items[0];
+			if( last > 0)
+				siftDown( distance[last], items[last], last);
+		}
+		return count;
+	}
+
+	/**
+	 * put a point at the root and move it down to its place
+	 * @param d - squared distance of point
+	 * @param item - index of point
+	 * @param size - number of points in heap
+	 */
+	private void siftDown( double d, int item, int size){
+		int i = 0;
+		int half = size >>> 1;
+		while( i < half){
+			int child = 2 * i + 1;
+			if( child + 1 < size && after( distance[child + 1], items[child + 1], child))
+				child++;
+			if( !after( distance[child], items[child], d, item))
+				break;
+			distance[i] = distance[child];
+			items[i] = items[child];
+			i = child;
+		}
+		distance[i] = d;
+		items[i] = item;
+	}
+
+	/**
+	 * check if a point comes after the point at given heap position
+	 */
+	private boolean after( double d, int item, int position){
+		return after( d, item, distance[position], items[position]);
+	}
+
+	/**
+	 * check if point 1 comes after point 2, farther or at the same distance with a higher index
+	 */
+	private static boolean after( double d1, int item1, double d2, int item2){
+		return d1 > d2 || d1 == d2 && item1 > item2;
+	}
+}
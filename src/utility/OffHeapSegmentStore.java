@@ -0,0 +1,324 @@
+package utility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * a set of line segments stored outside of the java heap. segments live in a direct {@link ByteBuffer},
+ * or in a file mapped into memory with {@link #map(Path)}, so a world of millions of segments costs no heap objects
+ * and the garbage collector never has to scan it. a mapped file is loaded by the operating system on demand,
+ * so even very large worlds open instantly.
+ * </p>
+ * <p>
+ * scene file layout, all little endian:
+ * </p>
+ * <pre>
+ * int    magic    'SEGS'
+ * int    version  1
+ * int    count    number of segments
+ * int    reserved 0
+ * double ssx, ssy, sex, sey of each segment, count times
+ * </pre>
+ * <p>
+ * a {@link ByteBuffer} is limited to 2GB, that is about 67 million segments per store.
+ * reading is safe from many threads, adding and changing segments is not.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class OffHeapSegmentStore implements SegmentIndex{
+
+	/**
+	 * 'SEGS' in ASCII
+	 */
+	static final int MAGIC = 0x53454753;
+
+	/**
+	 * current version of file layout
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * size of header in bytes
+	 */
+	static final int HEADER = 16;
+
+	/**
+	 * number of doubles per segment
+	 */
+	private static final int STRIDE = 4;
+
+	/**
+	 * max number of segments one buffer can hold
+	 */
+	private static final int MAX_SEGMENTS = (Integer.MAX_VALUE - HEADER) / (STRIDE * Double.BYTES);
+
+	/**
+	 * whole buffer including header
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * view of segment data after header
+	 */
+	private DoubleBuffer data;
+
+	/**
+	 * number of segments
+	 */
+	private int size;
+
+	/**
+	 * false for mapped files opened read only
+	 */
+	private final boolean writable;
+
+	/**
+	 * create an empty store in a direct buffer
+	 * @param capacity - number of segments this store can hold before growing
+	 */
+	public OffHeapSegmentStore( int capacity){
+		if( capacity < 0 || capacity > MAX_SEGMENTS)
+			throw new IllegalArgumentException( "capacity must be between 0 and " + MAX_SEGMENTS + ": " + capacity);
+		setBuffer( ByteBuffer.allocateDirect( HEADER + capacity * STRIDE * Double.BYTES));
+		writable = true;
+	}
+
+	/**
+	 * wrap a buffer which already holds a scene with header
+	 */
+	private OffHeapSegmentStore( ByteBuffer buffer, boolean writable){
+		buffer.order( ByteOrder.LITTLE_ENDIAN);
+		if( buffer.capacity() < HEADER)
+			throw new IllegalArgumentException( "segment scene is truncated, no header");
+		if( buffer.getInt( 0) != MAGIC)
+			throw new IllegalArgumentException( "not a segment scene, bad magic number");
+		if( buffer.getInt( 4) != VERSION)
+			throw new IllegalArgumentException( "unsupported segment scene version: " + buffer.getInt( 4));
+		int count = buffer.getInt( 8);
+		if( count < 0 || HEADER + (long) count * STRIDE * Double.BYTES > buffer.capacity())
+			throw new IllegalArgumentException( "segment scene is truncated, count: " + count);
+		setBuffer( buffer);
+		this.size = count;
+		this.writable = writable;
+	}
+
+	/**
+	 * copy given segments into a new off heap store
+	 * @param segments - segments to copy
+	 * @return new store
+	 */
+	public static OffHeapSegmentStore of( SegmentSet segments){
+		OffHeapSegmentStore store = new OffHeapSegmentStore( segments.size);
+		for( int i = 0; i < segments.size; i++)
+			store.add( segments.ssx[i], segments.ssy[i], segments.sex[i], segments.sey[i]);
+		return store;
+	}
+
+	/**
+	 * map a scene file into memory read only, nothing is read until segments are used
+	 * @param file - scene file written by {@link #write(Path)}
+	 * @return new store backed by the file
+	 * @throws IOException if file cannot be opened
+	 */
+	public static OffHeapSegmentStore map( Path file) throws IOException{
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ)){
+			if( channel.size() > Integer.MAX_VALUE)
+				throw new IOException( "segment scene is larger than 2GB: " + file);
+			// the mapping stays valid after the channel is closed
+			return new OffHeapSegmentStore( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size()), false);
+		}
+	}
+
+	/**
+	 * write given segments to a scene file
+	 * @param file - file to write, replaced if it exists
+	 * @param segments - segments to write
+	 * @throws IOException if file cannot be written
+	 */
+	public static void write( Path file, SegmentSet segments) throws IOException{
+		of( segments).write( file);
+	}
+
+	/**
+	 * write this store to a scene file
+	 * @param file - file to write, replaced if it exists
+	 * @throws IOException if file cannot be written
+	 */
+	public void write( Path file) throws IOException{
+		ByteBuffer out = buffer.duplicate().order( ByteOrder.LITTLE_ENDIAN);
+		out.clear().limit( HEADER + size * STRIDE * Double.BYTES);
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			while( out.hasRemaining())
+				channel.write( out);
+		}
+	}
+
+	/**
+	 * add a new segment to the end of this store
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return index of the new segment
+	 */
+	public int add( double ssx, double ssy, double sex, double sey){
+		checkWritable();
+		if( size == data.capacity() / STRIDE)
+			grow();
+		put( size, ssx, ssy, sex, sey);
+		buffer.putInt( 8, ++size);
+		return size - 1;
+	}
+
+	/**
+	 * replace the segment at given index
+	 * @param index - index of segment to replace
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 */
+	public void set( int index, double ssx, double ssy, double sex, double sey){
+		checkWritable();
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+		put( index, ssx, ssy, sex, sey);
+	}
+
+	/**
+	 * write a segment at given index without checks, index must be below capacity
+	 */
+	private void put( int index, double ssx, double ssy, double sex, double sey){
+		int offset = index * STRIDE;
+		data.put( offset, ssx);
+		data.put( offset + 1, ssy);
+		data.put( offset + 2, sex);
+		data.put( offset + 3, sey);
+	}
+
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get start x of segment at given index
+	 * @param index - index of segment
+	 * @return start x
+	 */
+	public double ssx( int index){
+		return data.get( index * STRIDE);
+	}
+
+	/**
+	 * get start y of segment at given index
+	 * @param index - index of segment
+	 * @return start y
+	 */
+	public double ssy( int index){
+		return data.get( index * STRIDE + 1);
+	}
+
+	/**
+	 * get end x of segment at given index
+	 * @param index - index of segment
+	 * @return end x
+	 */
+	public double sex( int index){
+		return data.get( index * STRIDE + 2);
+	}
+
+	/**
+	 * get end y of segment at given index
+	 * @param index - index of segment
+	 * @return end y
+	 */
+	public double sey( int index){
+		return data.get( index * STRIDE + 3);
+	}
+
+	/**
+	 * copy all segments to the heap
+	 * @return new {@link SegmentSet} with the same segments
+	 */
+	public SegmentSet toSegmentSet(){
+		SegmentSet segments = new SegmentSet( size);
+		for( int i = 0, offset = 0; i < size; i++, offset += STRIDE)
+			segments.add( data.get( offset), data.get( offset + 1), data.get( offset + 2), data.get( offset + 3));
+		return segments;
+	}
+
+	@Override
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final DoubleBuffer data = this.data;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		int closest = -1;
+		double closestRay = tMax;
+		for( int i = 0, offset = 0; i < size; i++, offset += STRIDE){
+			double t = IntersectUtil.getRayScaler( rsx, rsy, rx, ry, data.get( offset), data.get( offset + 1), data.get( offset + 2), data.get( offset + 3), closestRay);
+			if( t >= 0){
+				closestRay = t;
+				closest = i;
+			}
+		}
+		if( closest != -1)
+			IntersectUtil.intersect( result, rsx, rsy, rex, rey, ssx( closest), ssy( closest), sex( closest), sey( closest));
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	@Override
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final DoubleBuffer data = this.data;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		for( int i = 0, offset = 0; i < size; i++, offset += STRIDE){
+			if( IntersectUtil.getRayScaler( rsx, rsy, rx, ry, data.get( offset), data.get( offset + 1), data.get( offset + 2), data.get( offset + 3), tMax) >= 0)
+				return GeometryMetrics.found( GeometryMetrics.ANY, begin, i);
+		}
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	private void checkWritable(){
+		if( !writable)
+			throw new IllegalStateException( "segment store is mapped read only");
+	}
+
+	/**
+	 * move segments to a direct buffer twice as large
+	 */
+	private void grow(){
+		int capacity = (int) Math.min( MAX_SEGMENTS, Math.max( 16L, data.capacity() / STRIDE * 2L));
+		if( capacity == size)
+			throw new IllegalStateException( "segment store is full: " + size);
+		ByteBuffer bigger = ByteBuffer.allocateDirect( HEADER + capacity * STRIDE * Double.BYTES);
+		ByteBuffer old = buffer.duplicate();
+		old.clear().limit( HEADER + size * STRIDE * Double.BYTES);
+		bigger.put( old);
+		setBuffer( bigger);
+	}
+
+	private void setBuffer( ByteBuffer buffer){
+		buffer.order( ByteOrder.LITTLE_ENDIAN);
+		if( buffer.getInt( 0) != MAGIC){
+			buffer.putInt( 0, MAGIC);
+			buffer.putInt( 4, VERSION);
+			buffer.putInt( 8, 0);
+			buffer.putInt( 12, 0);
+		}
+		ByteBuffer slice = buffer.duplicate();
+		slice.position( HEADER);
+		this.buffer = buffer;
+		this.data = slice.slice().order( ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	}
+}
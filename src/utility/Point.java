@@ -1,41 +1,87 @@
 package utility;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 
 /**
  * this class represent a point of x and y. it is back by {@link DoubleProperty}.
  * it also also capable of producing random points.
+ * <p>
+ * the properties are only created the first time they are needed, by {@link #xProperty()}, {@link #yProperty()}
+ * or a bind. until then x and y are plain doubles, so points which are never observed or bound cost 2 doubles
+ * instead of 2 properties. once created a property holds the value for the rest of the life of the point.
+ * </p>
+ * <p>
+ * {@link #set(double, double)}, {@link #move(double, double)} and {@link #translate(double, double)} write x and y
+ * first and notify after, so no listener sees a point with only one of them changed. the point itself is an
+ * {@link Observable} whose listeners are invalidated once per change of x, y or both, a binding which depends on
+ * the point instead of its two properties is evaluated once per move. inside a {@link #batch()} all notifications
+ * are held until the batch is closed, then each changed point notifies once.
+ * </p>
+ * 
+ * <pre>
+ * try( Point.Batch batch = Point.batch()){
+ * 	for( Point p : vertices)
+ * 		p.translate( dx, dy);
+ * }
+ * </pre>
  * 
  * @author Shahriar (Shawn) Emami
  * @version Jan 12, 2019
  */
-public class Point{
+public class Point implements Observable{
 
 	/**
-	 * {@link DoubleProperty} value of x and y
+	 * bits of {@link #pending}, x changed, y changed and point is waiting in a batch
 	 */
-	private DoubleProperty x, y;
-	
+	private static final int X = 1, Y = 2, QUEUED = 4;
+
 	/**
-	 * create a new point at (0,0)
+	 * open batch of each thread, null if none
 	 */
-	public Point(){
-		this( new SimpleDoubleProperty(), new SimpleDoubleProperty());
-	}
+	private static final ThreadLocal< Batch> BATCH = new ThreadLocal<>();
 
 	/**
-	 * create a new point with {@link DoubleProperty} for x and y
-	 * @param x - value of x
-	 * @param y - value of y
+	 * number of batches open on all threads, {@link #BATCH} is only looked up while this is not 0
+	 */
+	private static final AtomicInteger OPEN_BATCHES = new AtomicInteger();
+
+	/**
+	 * value of x and y while their property is not created
+	 */
+	private double xValue, yValue;
+
+	/**
+	 * {@link DoubleProperty} value of x and y, null until first needed
+	 */
+	private Coordinate x, y;
+
+	/**
+	 * listeners of the point itself, null until the first is added
+	 */
+	private List< InvalidationListener> listeners;
+
+	/**
+	 * changes not notified yet, see {@link #X}, {@link #Y} and {@link #QUEUED}
+	 */
+	private int pending;
+
+	/**
+	 * depth of {@link #set(double, double)} calls running on this point, notifications wait until it is 0
+	 */
+	private int updating;
+	
+	/**
+	 * create a new point at (0,0)
 	 */
-	private Point( DoubleProperty x, DoubleProperty y){
-		Objects.requireNonNull( x, "x property cannot be null");
-		Objects.requireNonNull( y, "y property cannot be null");
-		this.x = x;
-		this.y = y;
+	public Point(){
 	}
 
 	/**
@@ -44,7 +90,8 @@ public class Point{
 	 * @param y - value of y
 	 */
 	public Point( double x, double y){
-		this( new SimpleDoubleProperty( x), new SimpleDoubleProperty( y));
+		this.xValue = x;
+		this.yValue = y;
 	}
 	
 	/**
@@ -55,26 +102,32 @@ public class Point{
 	}
 	
 	public Point bind(Point p){
-		x.bind( p.x);
-		y.bind( p.y);
+		xProperty().bind( p.xProperty());
+		yProperty().bind( p.yProperty());
 		return this;
 	}
 	
 	public Point unbind(){
-		x.unbind();
-		y.unbind();
+		// a point without properties was never bound
+		if( x != null)
+			x.unbind();
+		if( y != null)
+			y.unbind();
 		return this;
 	}
 	
 	public Point bindBidirectional(Point p){
-		x.bindBidirectional( p.x);
-		y.bindBidirectional( p.y);
+		xProperty().bindBidirectional( p.xProperty());
+		yProperty().bindBidirectional( p.yProperty());
 		return this;
 	}
 	
 	public Point unbindBidirectional(Point p){
-		x.unbindBidirectional( p.x);
-		y.unbindBidirectional( p.y);
+		Objects.requireNonNull( p, "p cannot be null");
+		if( x != null && p.x != null)
+			x.unbindBidirectional( p.x);
+		if( y != null && p.y != null)
+			y.unbindBidirectional( p.y);
 		return this;
 	}
 	
@@ -84,8 +137,7 @@ public class Point{
 	 * @param dy - amount to move in y direction
 	 */
 	public void translate( double dx, double dy){
-		x(x()+dx);
-		y(y()+dy);
+		set( x()+dx, y()+dy);
 	}
 
 	/**
@@ -106,13 +158,25 @@ public class Point{
 	}
 
 	/**
-	 * set the value of x and y
+	 * set the value of x and y, listeners are notified after both are written
 	 * @param x - new value of x
 	 * @param y - new value of y
 	 */
 	public void set( double x, double y){
-		x(x);
-		y(y);
+		if( this.x == null && this.y == null && listeners == null){
+			// nothing observes this point, no notification to hold back
+			xValue = x;
+			yValue = y;
+			return;
+		}
+		updating++;
+		try{
+			x(x);
+			y(y);
+		}finally{
+			if( --updating == 0)
+				release();
+		}
 	}
 
 	/**
@@ -120,7 +184,7 @@ public class Point{
 	 * @return value of x
 	 */
 	public double x(){
-		return x.get();
+		return x == null ? xValue : x.get();
 	}
 
 	/**
@@ -128,6 +192,8 @@ public class Point{
 	 * @return {@link DoubleProperty} of x value
 	 */
 	public DoubleProperty xProperty(){
+		if( x == null)
+			x = new Coordinate( "x", X, xValue);
 		return x;
 	}
 
@@ -136,7 +202,7 @@ public class Point{
 	 * @return value of y
 	 */
 	public double y(){
-		return y.get();
+		return y == null ? yValue : y.get();
 	}
 
 	/**
@@ -144,6 +210,8 @@ public class Point{
 	 * @return {@link DoubleProperty} of y value
 	 */
 	public DoubleProperty yProperty(){
+		if( y == null)
+			y = new Coordinate( "y", Y, yValue);
 		return y;
 	}
 
@@ -153,7 +221,14 @@ public class Point{
 	 * @return return the current instance of this point
 	 */
 	public Point x( double x){
-		this.x.set( x);
+		if( this.x != null)
+			this.x.set( x);
+		else if( xValue != x){
+			// same test as the property, without listeners there is no one to notify
+			xValue = x;
+			if( listeners != null)
+				changed( X);
+		}
 		return this;
 	}
 
@@ -163,9 +238,110 @@ public class Point{
 	 * @return return the current instance of this point
 	 */
 	public Point y( double y){
-		this.y.set( y);
+		if( this.y != null)
+			this.y.set( y);
+		else if( yValue != y){
+			yValue = y;
+			if( listeners != null)
+				changed( Y);
+		}
 		return this;
 	}
+
+	/**
+	 * add a listener which is invalidated once every time x, y or both change
+	 * @param listener - listener to add
+	 */
+	@Override
+	public void addListener( InvalidationListener listener){
+		Objects.requireNonNull( listener, "listener cannot be null");
+		if( listeners == null)
+			listeners = new ArrayList<>( 2);
+		listeners.add( listener);
+	}
+
+	/**
+	 * remove a listener added by {@link #addListener(InvalidationListener)}
+	 * @param listener - listener to remove
+	 */
+	@Override
+	public void removeListener( InvalidationListener listener){
+		if( listeners != null)
+			listeners.remove( listener);
+	}
+
+	/**
+	 * hold the notifications of all points changed on this thread until the returned batch is closed, then each
+	 * changed point notifies once. batches can be nested, notifications wait for the outer one. a batch must be
+	 * closed on the thread which opened it, best with try with resources.
+	 * @return batch to close
+	 */
+	public static Batch batch(){
+		Batch batch = BATCH.get();
+		if( batch == null){
+			batch = new Batch();
+			BATCH.set( batch);
+			OPEN_BATCHES.incrementAndGet();
+		}
+		batch.depth++;
+		return batch;
+	}
+
+	/**
+	 * record a change of x or y and notify unless a set or batch is running
+	 * @param bit - {@link #X} or {@link #Y}
+	 */
+	private void changed( int bit){
+		pending |= bit;
+		if( updating == 0)
+			release();
+	}
+
+	/**
+	 * notify pending changes now or queue them in the open batch
+	 */
+	private void release(){
+		if( pending == 0 || (pending & QUEUED) != 0)
+			return;
+		Batch batch = OPEN_BATCHES.get() == 0 ? null : BATCH.get();
+		if( batch != null){
+			pending |= QUEUED;
+			batch.points.add( this);
+		}else
+			notifyListeners();
+	}
+
+	/**
+	 * notify the listeners of each changed property, then the listeners of the point.
+	 * <p>
+	 * points bound to this one change once through x and once through y, a batch around the two properties
+	 * holds them so they notify once. like the listeners of JavaFX properties, an exception thrown by a listener
+	 * goes to the uncaught exception handler of the thread and the other listeners still run.
+	 * </p>
+	 */
+	private void notifyListeners(){
+		int bits = pending;
+		pending = 0;
+		boolean both = (bits & (X | Y)) == (X | Y) && x != null && y != null;
+		Batch batch = both ? batch() : null;
+		try{
+			if( (bits & X) != 0 && x != null)
+				x.notifyListeners();
+			if( (bits & Y) != 0 && y != null)
+				y.notifyListeners();
+		}finally{
+			if( batch != null)
+				batch.close();
+		}
+		if( listeners != null)
+			for( InvalidationListener listener : listeners.toArray( new InvalidationListener[listeners.size()]))
+				try{
+					listener.invalidated( this);
+				}catch( RuntimeException e){
+					Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException( thread, e);
+				}
+	}
 	
 	/**
 	 * get the angle between this point and given point
@@ -218,8 +394,8 @@ public class Point{
 	public int hashCode(){
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Double.hashCode( (x == null) ? 0 : x());
-		result = prime * result + Double.hashCode( (y == null) ? 0 : y());
+		result = prime * result + Double.hashCode( x());
+		result = prime * result + Double.hashCode( y());
 		return result;
 	}
 
@@ -237,17 +413,8 @@ public class Point{
 		if( !(obj instanceof Point))
 			return false;
 		Point other = (Point) obj;
-		if( x == null){
-			if( other.x != null)
-				return false;
-		}else if( x.get() != other.x.get())
-			return false;
-		if( y == null){
-			if( other.y != null)
-				return false;
-		}else if( y.get() != other.y.get())
-			return false;
-		return true;
+		// compare values, a point with properties equals one without
+		return x() == other.x() && y() == other.y();
 	}
 
 	@Override
@@ -279,4 +446,67 @@ public class Point{
 				.x( RandUtil.getDouble( marginX, w - marginX))
 				.y( RandUtil.getDouble( marginY, h - marginY));
 	}
+
+	/**
+	 * property of x or y which lets its point decide when its listeners are notified
+	 */
+	private final class Coordinate extends SimpleDoubleProperty{
+
+		/**
+		 * {@link Point#X} or {@link Point#Y}
+		 */
+		private final int bit;
+
+		Coordinate( String name, int bit, double value){
+			super( Point.this, name, value);
+			this.bit = bit;
+		}
+
+		@Override
+		protected void fireValueChangedEvent(){
+			changed( bit);
+		}
+
+		void notifyListeners(){
+			super.fireValueChangedEvent();
+		}
+	}
+
+	/**
+	 * notifications held by {@link Point#batch()}, closing the outer batch notifies every point changed in it
+	 */
+	public static final class Batch implements AutoCloseable{
+
+		/**
+		 * points with pending notifications in order of their first change
+		 */
+		private final List< Point> points = new ArrayList<>();
+
+		/**
+		 * number of times opened and not closed yet
+		 */
+		private int depth;
+
+		private Batch(){}
+
+		@Override
+		public void close(){
+			if( depth == 0)
+				throw new IllegalStateException( "batch is already closed");
+			if( --depth > 0)
+				return;
+			BATCH.remove();
+			OPEN_BATCHES.decrementAndGet();
+			// listeners may change points again, there is no batch now so those changes notify right away
+			try{
+				for( Point p : points)
+					p.notifyListeners();
+			}finally{
+				// points after one which threw are not queued anymore, their next change notifies them
+				for( Point p : points)
+					p.pending &= ~QUEUED;
+				points.clear();
+			}
+		}
+	}
 }
@@ -0,0 +1,316 @@
+package utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ * a packed list of points stored as two parallel arrays of x and y. a {@link Point} holds two {@link javafx.beans.property.DoubleProperty}
+ * which are well over 100 bytes with their listeners and bindings, here each point is 16 bytes in two arrays, so
+ * millions of points need no objects and loops over them read memory in order.
+ * </p>
+ * <p>
+ * points are read and written by index. use {@link Point} where a point has to be observed or bound, and convert
+ * with {@link #add(Point)}, {@link #addAll(Iterable)}, {@link #get(int, Point)} and {@link #toPoints()}.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class PointBuffer{
+
+	/**
+	 * default capacity used when no capacity is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * x and y of all points
+	 */
+	double[] x, y;
+
+	/**
+	 * number of points in this buffer
+	 */
+	int size;
+
+	/**
+	 * create an empty buffer with default capacity
+	 */
+	public PointBuffer(){
+		this( DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * create an empty buffer which can hold given number of points before growing
+	 * @param capacity - initial number of points this buffer can hold
+	 */
+	public PointBuffer( int capacity){
+		if( capacity < 0)
+			throw new IllegalArgumentException( "capacity cannot be negative: " + capacity);
+		x = new double[capacity];
+		y = new double[capacity];
+	}
+
+	/**
+	 * create a buffer holding given points
+	 * @param xy - points as [x1,y1,x2,y2,...]
+	 */
+	public PointBuffer( double[] xy){
+		this( xy.length / 2);
+		add( xy);
+	}
+
+	/**
+	 * add a new point to the end of this buffer
+	 * @param x - x of point
+	 * @param y - y of point
+	 * @return index of the new point
+	 */
+	public int add( double x, double y){
+		if( size == this.x.length)
+			grow( size + 1);
+		this.x[size] = x;
+		this.y[size] = y;
+		return size++;
+	}
+
+	/**
+	 * add the current value of a point to the end of this buffer
+	 * @param p - point to copy
+	 * @return index of the new point
+	 */
+	public int add( Point p){
+		return add( p.x(), p.y());
+	}
+
+	/**
+	 * add many points to the end of this buffer
+	 * @param xy - points as [x1,y1,x2,y2,...]
+	 * @return index of the first new point
+	 */
+	public int add( double[] xy){
+		if( xy.length % 2 != 0)
+			throw new IllegalArgumentException( "xy must hold pairs of x and y: " + xy.length);
+		int count = xy.length / 2;
+		int first = size;
+		ensureCapacity( size + count);
+		for( int i = 0, j = first; i < count; i++, j++){
+			x[j] = xy[i * 2];
+			y[j] = xy[i * 2 + 1];
+		}
+		size += count;
+		return first;
+	}
+
+	/**
+	 * add a range of points from another buffer to the end of this buffer
+	 * @param points - buffer to copy from, can be this buffer
+	 * @param from - index of first point to copy
+	 * @param count - number of points to copy
+	 * @return index of the first new point
+	 */
+	public int add( PointBuffer points, int from, int count){
+		checkRange( points, from, count);
+		int first = size;
+		ensureCapacity( size + count);
+		System.arraycopy( points.x, from, x, first, count);
+		System.arraycopy( points.y, from, y, first, count);
+		size += count;
+		return first;
+	}
+
+	/**
+	 * add the current value of each point to the end of this buffer
+	 * @param points - points to copy
+	 * @return index of the first new point
+	 */
+	public int addAll( Iterable< ? extends Point> points){
+		Objects.requireNonNull( points, "points cannot be null");
+		int first = size;
+		for( Point p : points)
+			add( p.x(), p.y());
+		return first;
+	}
+
+	/**
+	 * replace the point at given index
+	 * @param index - index of point to replace
+	 * @param x - new x
+	 * @param y - new y
+	 */
+	public void set( int index, double x, double y){
+		checkIndex( index);
+		this.x[index] = x;
+		this.y[index] = y;
+	}
+
+	/**
+	 * replace the point at given index with the current value of a point
+	 * @param index - index of point to replace
+	 * @param p - point to copy
+	 */
+	public void set( int index, Point p){
+		set( index, p.x(), p.y());
+	}
+
+	/**
+	 * copy a range of points from another buffer over points of this buffer, like {@link System#arraycopy}
+	 * @param index - index of first point to replace
+	 * @param points - buffer to copy from, can be this buffer
+	 * @param from - index of first point to copy
+	 * @param count - number of points to copy
+	 */
+	public void set( int index, PointBuffer points, int from, int count){
+		checkRange( points, from, count);
+		checkRange( this, index, count);
+		System.arraycopy( points.x, from, x, index, count);
+		System.arraycopy( points.y, from, y, index, count);
+	}
+
+	/**
+	 * get x of point at given index
+	 * @param index - index of point
+	 * @return x
+	 */
+	public double x( int index){
+		checkIndex( index);
+		return x[index];
+	}
+
+	/**
+	 * get y of point at given index
+	 * @param index - index of point
+	 * @return y
+	 */
+	public double y( int index){
+		checkIndex( index);
+		return y[index];
+	}
+
+	/**
+	 * move a point to the value of the point at given index, no new point is created. the point notifies once.
+	 * @param index - index of point
+	 * @param p - point to move
+	 * @return given point
+	 */
+	public Point get( int index, Point p){
+		checkIndex( index);
+		p.set( x[index], y[index]);
+		return p;
+	}
+
+	/**
+	 * create a new {@link Point} from the point at given index
+	 * @param index - index of point
+	 * @return a new point
+	 */
+	public Point toPoint( int index){
+		checkIndex( index);
+		return new Point( x[index], y[index]);
+	}
+
+	/**
+	 * create a new {@link Point} for every point in this buffer
+	 * @return list of new points
+	 */
+	public List< Point> toPoints(){
+		List< Point> points = new ArrayList<>( size);
+		for( int i = 0; i < size; i++)
+			points.add( new Point( x[i], y[i]));
+		return points;
+	}
+
+	/**
+	 * copy all points to an array
+	 * @return points as [x1,y1,x2,y2,...]
+	 */
+	public double[] toArray(){
+		double[] xy = new double[size * 2];
+		for( int i = 0; i < size; i++){
+			xy[i * 2] = x[i];
+			xy[i * 2 + 1] = y[i];
+		}
+		return xy;
+	}
+
+	/**
+	 * remove the point at given index. the last point is moved into its place so
+	 * the order of points is not kept.
+	 * @param index - index of point to remove
+	 * @return old index of the point which now lives at given index, or -1 if the last point was removed
+	 */
+	public int remove( int index){
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+		int last = --size;
+		if( index == last)
+			return -1;
+		x[index] = x[last];
+		y[index] = y[last];
+		return last;
+	}
+
+	/**
+	 * remove all points, capacity is kept
+	 */
+	public void clear(){
+		size = 0;
+	}
+
+	/**
+	 * get number of points in this buffer
+	 * @return number of points
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * make sure this buffer can hold at least given number of points without growing
+	 * @param minCapacity - min number of points
+	 */
+	public void ensureCapacity( int minCapacity){
+		if( minCapacity < 0)
+			throw new IllegalArgumentException( "too many points: " + minCapacity);
+		if( minCapacity > x.length)
+			grow( minCapacity);
+	}
+
+	/**
+	 * make sure the arrays can hold at least given number of points
+	 * @param minCapacity - min number of points
+	 */
+	private void grow( int minCapacity){
+		int capacity = Math.max( minCapacity, x.length + (x.length >> 1) + 1);
+		x = Arrays.copyOf( x, capacity);
+		y = Arrays.copyOf( y, capacity);
+	}
+
+	/**
+	 * check an index is of a point in this buffer
+	 * @param index - index of point
+	 */
+	private void checkIndex( int index){
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+	}
+
+	/**
+	 * check a range is inside the points of a buffer
+	 * @param points - buffer of range
+	 * @param from - first index of range
+	 * @param count - number of points in range
+	 */
+	private static void checkRange( PointBuffer points, int from, int count){
+		if( from < 0 || count < 0 || from > points.size - count)
+			throw new IndexOutOfBoundsException( "from: " + from + ", count: " + count + ", size: " + points.size);
+	}
+
+	@Override
+	public String toString(){
+		return "PointBuffer[size=" + size + "]";
+	}
+}
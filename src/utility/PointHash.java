@@ -0,0 +1,450 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * a {@link PointIndex} for points which are added, moved and removed all the time. space is split in square cells
+ * and each cell is hashed to a bucket which keeps a linked list of the points in it, so moving a point to another
+ * cell is two list updates and space has no bounds. a query only reads the buckets of the cells it covers, if it
+ * covers more cells than there are buckets every point is tested instead. cell size should be about the radius of
+ * the usual query, for points which do not move {@link PointKdTree} is faster to query.
+ * </p>
+ * <p>
+ * each point gets an id when added, which stays the same while it moves and is returned by queries. ids of removed
+ * points are given to points added later.
+ * </p>
+ *
+ * @see <a href="https://matthias-research.github.io/pages/publications/tetraederCollision.pdf">Optimized Spatial Hashing for Collision Detection of Deformable Objects</a>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class PointHash implements PointIndex{
+
+	/**
+	 * default capacity used when no capacity is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * value of {@link #prev} for ids which are not in use
+	 */
+	private static final int FREE = -2;
+
+	/**
+	 * width and height of each cell
+	 */
+	private final double cellSize;
+
+	/**
+	 * x and y of each point by id
+	 */
+	double[] x, y;
+
+	/**
+	 * cell of each point by id
+	 */
+	int[] cellX, cellY;
+
+	/**
+	 * next and previous point in the same bucket, -1 at the ends. for free ids next is the next free id
+	 * and prev is {@link #FREE}.
+	 */
+	private int[] next, prev;
+
+	/**
+	 * first point of each bucket or -1, length is a power of 2 and at least the number of points
+	 */
+	private int[] buckets;
+
+	/**
+	 * number of points in this index
+	 */
+	private int size;
+
+	/**
+	 * number of ids ever given, all ids are less than this
+	 */
+	private int end;
+
+	/**
+	 * first free id or -1
+	 */
+	private int free = -1;
+
+	/**
+	 * create an empty index with default capacity
+	 * @param cellSize - width and height of each cell
+	 */
+	public PointHash( double cellSize){
+		this( cellSize, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * create an empty index which can hold given number of points before growing
+	 * @param cellSize - width and height of each cell
+	 * @param capacity - initial number of points this index can hold
+	 */
+	public PointHash( double cellSize, int capacity){
+		if( !(cellSize > 0) || Double.isInfinite( cellSize))
+			throw new IllegalArgumentException( "cell size must be positive: " + cellSize);
+		if( capacity < 0)
+			throw new IllegalArgumentException( "capacity cannot be negative: " + capacity);
+		this.cellSize = cellSize;
+		x = new double[capacity];
+		y = new double[capacity];
+		cellX = new int[capacity];
+		cellY = new int[capacity];
+		next = new int[capacity];
+		prev = new int[capacity];
+		buckets = new int[bucketCount( capacity)];
+		Arrays.fill( buckets, -1);
+	}
+
+	/**
+	 * create an index holding given points, id of each point is its index in the buffer
+	 * @param points - points to add, later changes to the buffer are not seen by this index
+	 * @param cellSize - width and height of each cell
+	 */
+	public PointHash( PointBuffer points, double cellSize){
+		this( cellSize, points.size);
+		for( int i = 0; i < points.size; i++)
+			add( points.x[i], points.y[i]);
+	}
+
+	/**
+	 * add a new point
+	 * @param x - x of point
+	 * @param y - y of point
+	 * @return id of the new point
+	 */
+	public int add( double x, double y){
+		checkNumber( x, y);
+		int id;
+		if( free != -1){
+			id = free;
+			free = next[id];
+		}else{
+			if( end == this.x.length)
+				grow( end + 1);
+			id = end++;
+		}
+		this.x[id] = x;
+		this.y[id] = y;
+		link( id);
+		if( ++size > buckets.length)
+			rehash( bucketCount( size));
+		return id;
+	}
+
+	/**
+	 * move a point, it is only relinked if it changes cell
+	 * @param id - id of point
+	 * @param x - new x
+	 * @param y - new y
+	 */
+	public void move( int id, double x, double y){
+		checkId( id);
+		checkNumber( x, y);
+		this.x[id] = x;
+		this.y[id] = y;
+		if( cellX[id] != cell( x) || cellY[id] != cell( y)){
+			unlink( id);
+			link( id);
+		}
+	}
+
+	/**
+	 * remove a point, its id is given to a later point
+	 * @param id - id of point
+	 */
+	public void remove( int id){
+		checkId( id);
+		unlink( id);
+		prev[id] = FREE;
+		next[id] = free;
+		free = id;
+		size--;
+	}
+
+	/**
+	 * remove all points, capacity is kept
+	 */
+	public void clear(){
+		Arrays.fill( buckets, -1);
+		size = 0;
+		end = 0;
+		free = -1;
+	}
+
+	/**
+	 * check if an id belongs to a point in this index
+	 * @param id - id to check
+	 * @return true if the point was added and not removed
+	 */
+	public boolean contains( int id){
+		return id >= 0 && id < end && prev[id] != FREE;
+	}
+
+	/**
+	 * get x of point with given id
+	 * @param id - id of point
+	 * @return x
+	 */
+	public double x( int id){
+		checkId( id);
+		return x[id];
+	}
+
+	/**
+	 * get y of point with given id
+	 * @param id - id of point
+	 * @return y
+	 */
+	public double y( int id){
+		checkId( id);
+		return y[id];
+	}
+
+	/**
+	 * get width and height of each cell
+	 * @return cell size
+	 */
+	public double cellSize(){
+		return cellSize;
+	}
+
+	@Override
+	public int size(){
+		return size;
+	}
+
+	@Override
+	public int nearest( int[] result, double x, double y, int k){
+		NearestHeap heap = new NearestHeap( result, k);
+		if( k == 0 || size == 0)
+			return heap.drain( result);
+		int cx = cell( x), cy = cell( y);
+		int seen = 0;
+		// visit rings of cells around the query, every point outside ring r is at least r cells away
+		for( long ring = 0;; ring++){
+			long side = 2 * ring + 1;
+			if( side * side > buckets.length){
+				// rings cost more than testing every point, skip the ones already seen
+				for( int id = 0; id < end; id++)
+					if( prev[id] != FREE && Math.max( Math.abs( (long) cellX[id] - cx), Math.abs( (long) cellY[id] - cy)) >= ring)
+						offer( heap, x, y, id);
+				break;
+			}
+			if( ring == 0)
+				seen += nearest( heap, x, y, cx, cy);
+			else{
+				for( long i = -ring; i <= ring; i++){
+					seen += nearest( heap, x, y, cx + i, cy - ring);
+					seen += nearest( heap, x, y, cx + i, cy + ring);
+				}
+				for( long i = -ring + 1; i < ring; i++){
+					seen += nearest( heap, x, y, cx - ring, cy + i);
+					seen += nearest( heap, x, y, cx + ring, cy + i);
+				}
+			}
+			double bound = ring * cellSize;
+			if( seen == size || heap.worst() < bound * bound)
+				break;
+		}
+		return heap.drain( result);
+	}
+
+	/**
+	 * offer all points of one cell to heap
+	 * @return number of points offered
+	 */
+	private int nearest( NearestHeap heap, double qx, double qy, long cx, long cy){
+		if( cx != (int) cx || cy != (int) cy)
+			return 0;
+		int count = 0;
+		for( int id = buckets[bucket( (int) cx, (int) cy)]; id != -1; id = next[id]){
+			if( cellX[id] == cx && cellY[id] == cy){
+				offer( heap, qx, qy, id);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void offer( NearestHeap heap, double qx, double qy, int id){
+		double dx = x[id] - qx, dy = y[id] - qy;
+		heap.offer( dx * dx + dy * dy, id);
+	}
+
+	@Override
+	public int inRadius( int[] result, double x, double y, double radius){
+		if( !(radius >= 0))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		double radius2 = radius * radius;
+		int x1 = cell( x - radius), y1 = cell( y - radius), x2 = cell( x + radius), y2 = cell( y + radius);
+		int count = 0;
+		if( scan( x1, y1, x2, y2)){
+			for( int id = 0; id < end; id++)
+				if( prev[id] != FREE)
+					count = inRadius( result, count, x, y, radius2, id);
+			return count;
+		}
+		for( long cy = y1; cy <= y2; cy++){
+			for( long cx = x1; cx <= x2; cx++){
+				for( int id = buckets[bucket( (int) cx, (int) cy)]; id != -1; id = next[id])
+					if( cellX[id] == cx && cellY[id] == cy)
+						count = inRadius( result, count, x, y, radius2, id);
+			}
+		}
+		return count;
+	}
+
+	private int inRadius( int[] result, int count, double qx, double qy, double radius2, int id){
+		double dx = x[id] - qx, dy = y[id] - qy;
+		return dx * dx + dy * dy <= radius2 ? add( result, count, id) : count;
+	}
+
+	@Override
+	public int inRect( int[] result, double minX, double minY, double maxX, double maxY){
+		if( !(minX <= maxX && minY <= maxY))
+			return 0;
+		int x1 = cell( minX), y1 = cell( minY), x2 = cell( maxX), y2 = cell( maxY);
+		int count = 0;
+		if( scan( x1, y1, x2, y2)){
+			for( int id = 0; id < end; id++)
+				if( prev[id] != FREE)
+					count = inRect( result, count, minX, minY, maxX, maxY, id);
+			return count;
+		}
+		for( long cy = y1; cy <= y2; cy++){
+			for( long cx = x1; cx <= x2; cx++){
+				for( int id = buckets[bucket( (int) cx, (int) cy)]; id != -1; id = next[id])
+					if( cellX[id] == cx && cellY[id] == cy)
+						count = inRect( result, count, minX, minY, maxX, maxY, id);
+			}
+		}
+		return count;
+	}
+
+	private int inRect( int[] result, int count, double minX, double minY, double maxX, double maxY, int id){
+		return x[id] >= minX && x[id] <= maxX && y[id] >= minY && y[id] <= maxY ? add( result, count, id) : count;
+	}
+
+	/**
+	 * check if testing every point costs less than visiting the cells from x1, y1 to x2, y2.
+	 * <p>
+	 * each side is checked before the product, a side of saturated cells is 2<sup>32</sup> long and the product
+	 * of two such sides overflows a long.
+	 * </p>
+	 */
+	private boolean scan( int x1, int y1, int x2, int y2){
+		long w = (long) x2 - x1 + 1, h = (long) y2 - y1 + 1;
+		return w > buckets.length || h > buckets.length || w * h > buckets.length;
+	}
+
+	/**
+	 * write an id to result if it still has room
+	 * @return count plus one
+	 */
+	private static int add( int[] result, int count, int id){
+		if( count < result.length)
+			result[count] = id;
+		return count + 1;
+	}
+
+	/**
+	 * get the cell of a coordinate, coordinates too far for an int cell share the cell at the end
+	 */
+	private int cell( double v){
+		return (int) Math.floor( v / cellSize);
+	}
+
+	/**
+	 * get the bucket of a cell
+	 */
+	private int bucket( int cx, int cy){
+		int h = cx * 73856093 ^ cy * 19349663;
+		return (h ^ h >>> 16) & (buckets.length - 1);
+	}
+
+	/**
+	 * add a point to the front of the bucket of its cell
+	 */
+	private void link( int id){
+		int cx = cell( x[id]), cy = cell( y[id]);
+		cellX[id] = cx;
+		cellY[id] = cy;
+		int b = bucket( cx, cy);
+		int head = buckets[b];
+		next[id] = head;
+		prev[id] = -1;
+		if( head != -1)
+			prev[head] = id;
+		buckets[b] = id;
+	}
+
+	/**
+	 * remove a point from the bucket of its cell
+	 */
+	private void unlink( int id){
+		int p = prev[id], n = next[id];
+		if( p == -1)
+			buckets[bucket( cellX[id], cellY[id])] = n;
+		else
+			next[p] = n;
+		if( n != -1)
+			prev[n] = p;
+	}
+
+	/**
+	 * relink all points into a new number of buckets
+	 */
+	private void rehash( int count){
+		buckets = new int[count];
+		Arrays.fill( buckets, -1);
+		for( int id = 0; id < end; id++)
+			if( prev[id] != FREE)
+				link( id);
+	}
+
+	/**
+	 * smallest power of 2 which is at least given number of points and {@link #DEFAULT_CAPACITY}
+	 */
+	private static int bucketCount( int points){
+		int count = Integer.highestOneBit( Math.max( DEFAULT_CAPACITY, points) - 1) << 1;
+		if( count <= 0)
+			throw new IllegalArgumentException( "too many points: " + points);
+		return count;
+	}
+
+	/**
+	 * make sure the arrays can hold at least given number of points
+	 * @param minCapacity - min number of points
+	 */
+	private void grow( int minCapacity){
+		int capacity = Math.max( minCapacity, x.length + (x.length >> 1) + 1);
+		x = Arrays.copyOf( x, capacity);
+		y = Arrays.copyOf( y, capacity);
+		cellX = Arrays.copyOf( cellX, capacity);
+		cellY = Arrays.copyOf( cellY, capacity);
+		next = Arrays.copyOf( next, capacity);
+		prev = Arrays.copyOf( prev, capacity);
+	}
+
+	private void checkId( int id){
+		if( !contains( id))
+			throw new IndexOutOfBoundsException( "no point with id: " + id);
+	}
+
+	private static void checkNumber( double x, double y){
+		if( Double.isNaN( x) || Double.isNaN( y))
+			throw new IllegalArgumentException( "point is not a number: " + x + ", " + y);
+	}
+
+	@Override
+	public String toString(){
+		return "PointHash[size=" + size + ", cellSize=" + cellSize + "]";
+	}
+}
@@ -0,0 +1,77 @@
+package utility;
+
+/**
+ * <p>
+ * a structure which can find points near a location without testing every point.
+ * {@link PointKdTree} is built once from a {@link PointBuffer} and is fastest for points which do not move,
+ * {@link PointHash} keeps a grid of cells up to date as points are added, moved and removed.
+ * </p>
+ * <p>
+ * queries return indices of points into int arrays given by the caller, no objects are created per point.
+ * radius and rectangle queries write as many indices as fit in the array and return the number of points found,
+ * if that is more than the length of the array only the first ones were written and the query can be run again
+ * with a larger array. distances are euclidean and borders are inclusive. all implementations are safe to query from
+ * many threads as long as they are not changed.
+ * </p>
+ *
+ * <pre>
+ * int[] near = new int[64];
+ * int count = index.inRadius( near, p.x(), p.y(), 50);
+ * for( int i = 0; i &lt; Math.min( count, near.length); i++)
+ * 	hit( near[i]);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public interface PointIndex{
+
+	/**
+	 * find the closest point to a location
+	 * @param x - x of location
+	 * @param y - y of location
+	 * @return index of the closest point, the lower index if two are at the same distance, or -1 if index is empty
+	 */
+	default int nearest( double x, double y){
+		int[] result = new int[1];
+		return nearest( result, x, y, 1) == 0 ? -1 : result[0];
+	}
+
+	/**
+	 * find the k closest points to a location
+	 * @param result - array which will hold the indices of the closest points, closest first and lower index first
+	 *                 if two are at the same distance. its length must be at least k.
+	 * @param x - x of location
+	 * @param y - y of location
+	 * @param k - number of points to find
+	 * @return number of points found, k or size of index if it is smaller
+	 */
+	int nearest( int[] result, double x, double y, int k);
+
+	/**
+	 * find all points within given distance of a location, in no particular order
+	 * @param result - array which will hold the indices of the points found
+	 * @param x - x of location
+	 * @param y - y of location
+	 * @param radius - max distance from location, points at exactly this distance are found
+	 * @return number of points found, can be more than the length of result
+	 */
+	int inRadius( int[] result, double x, double y, double radius);
+
+	/**
+	 * find all points inside an axis aligned rectangle, in no particular order
+	 * @param result - array which will hold the indices of the points found
+	 * @param minX - left side of rectangle
+	 * @param minY - top side of rectangle
+	 * @param maxX - right side of rectangle
+	 * @param maxY - bottom side of rectangle
+	 * @return number of points found, can be more than the length of result
+	 */
+	int inRect( int[] result, double minX, double minY, double maxX, double maxY);
+
+	/**
+	 * get number of points in this index
+	 * @return number of points
+	 */
+	int size();
+}
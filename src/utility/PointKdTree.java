@@ -0,0 +1,264 @@
+package utility;
+
+/**
+ * <p>
+ * a {@link PointIndex} backed by a balanced 2d tree. points are copied into arrays in tree order, the median of each
+ * range on its wider axis sits in the middle of the range with smaller points before it and larger after, so the tree
+ * needs no nodes and building it is a quick select per level, O(n log n). ranges of {@link #LEAF_SIZE} points or less
+ * are tested one by one. queries only visit ranges which can hold a point closer than the ones found so far.
+ * </p>
+ * <p>
+ * the index is a snapshot, if the points change a new index must be built. for points which move every frame see
+ * {@link PointHash}. indices returned by queries are indices of the buffer this index was built from.
+ * </p>
+ *
+ * <pre>
+ * PointBuffer entities = new PointBuffer();
+ * entities.addAll( points);
+ * PointKdTree tree = new PointKdTree( entities);
+ * int closest = tree.nearest( mouse.x(), mouse.y());
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class PointKdTree implements PointIndex{
+
+	/**
+	 * max number of points in a range which is tested without splitting
+	 */
+	static final int LEAF_SIZE = 8;
+
+	/**
+	 * x and y of all points in tree order
+	 */
+	final double[] x, y;
+
+	/**
+	 * index in the source buffer of each point in tree order
+	 */
+	final int[] items;
+
+	/**
+	 * axis of the split at the middle of each range, true for x. only set at middles of ranges larger than {@link #LEAF_SIZE}.
+	 */
+	final boolean[] splitX;
+
+	/**
+	 * build a new index over given points
+	 * @param points - points to index, later changes to the buffer are not seen by this index
+	 */
+	public PointKdTree( PointBuffer points){
+		int size = points.size;
+		x = new double[size];
+		y = new double[size];
+		items = new int[size];
+		splitX = new boolean[size];
+		for( int i = 0; i < size; i++){
+			if( Double.isNaN( points.x[i]) || Double.isNaN( points.y[i]))
+				throw new IllegalArgumentException( "point " + i + " is not a number: " + points.x[i] + ", " + points.y[i]);
+			x[i] = points.x[i];
+			y[i] = points.y[i];
+			items[i] = i;
+		}
+		build( 0, size);
+	}
+
+	/**
+	 * split a range on the median of its wider axis, then split both halves
+	 * @param lo - first index inclusive
+	 * @param hi - last index exclusive
+	 */
+	private void build( int lo, int hi){
+		// only the left half recurses so the stack stays at log2 of point count
+		while( hi - lo > LEAF_SIZE){
+			double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+			double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+			for( int i = lo; i < hi; i++){
+				x1 = Math.min( x1, x[i]);
+				y1 = Math.min( y1, y[i]);
+				x2 = Math.max( x2, x[i]);
+				y2 = Math.max( y2, y[i]);
+			}
+			boolean byX = !(x2 - x1 < y2 - y1);
+			int mid = (lo + hi) >>> 1;
+			select( byX ? x : y, lo, hi - 1, mid);
+			splitX[mid] = byX;
+			build( lo, mid);
+			lo = mid + 1;
+		}
+	}
+
+	/**
+	 * move the points of a range so the point at k has the value it would have if the range was sorted on key,
+	 * points before it are not larger and points after it are not smaller. three way partition keeps it linear
+	 * when many points share a value.
+	 * @param key - x or y
+	 * @param lo - first index inclusive
+	 * @param hi - last index inclusive
+	 * @param k - index to place
+	 */
+	private void select( double[] key, int lo, int hi, int k){
+		while( hi > lo){
+			double a = key[lo], b = key[(lo + hi) >>> 1], c = key[hi];
+			double pivot = a < b ? (b < c ? b : Math.max( a, c)) : (a < c ? a : Math.max( b, c));
+			// [lo,lt) is less than pivot, [lt,i) is equal and (gt,hi] is greater
+			int lt = lo, i = lo, gt = hi;
+			while( i <= gt){
+				double v = key[i];
+				if( v < pivot)
+					swap( lt++, i++);
+				else if( v > pivot)
+					swap( i, gt--);
+				else
+					i++;
+			}
+			if( k < lt)
+				hi = lt - 1;
+			else if( k > gt)
+				lo = gt + 1;
+			else
+				return;
+		}
+	}
+
+	private void swap( int i, int j){
+		double t = x[i];
+		x[i] = x[j];
+		x[j] = t;
+		t = y[i];
+		y[i] = y[j];
+		y[j] = t;
+		int item = items[i];
+		items[i] = items[j];
+		items[j] = item;
+	}
+
+	@Override
+	public int nearest( int[] result, double x, double y, int k){
+		NearestHeap heap = new NearestHeap( result, k);
+		if( k > 0)
+			nearest( heap, x, y, 0, items.length);
+		return heap.drain( result);
+	}
+
+	/**
+	 * offer the points of a range to heap, closer half first. the other half is skipped when the split is
+	 * farther than the k-th closest point found so far.
+	 */
+	private void nearest( NearestHeap heap, double qx, double qy, int lo, int hi){
+		while( hi - lo > LEAF_SIZE){
+			int mid = (lo + hi) >>> 1;
+			double diff = splitX[mid] ? qx - x[mid] : qy - y[mid];
+			offer( heap, qx, qy, mid);
+			if( diff < 0){
+				nearest( heap, qx, qy, lo, mid);
+				lo = mid + 1;
+			}else{
+				nearest( heap, qx, qy, mid + 1, hi);
+				hi = mid;
+			}
+			// points at exactly the k-th distance can still win on a lower index
+			if( diff * diff > heap.worst())
+				return;
+		}
+		for( int i = lo; i < hi; i++)
+			offer( heap, qx, qy, i);
+	}
+
+	private void offer( NearestHeap heap, double qx, double qy, int i){
+		double dx = x[i] - qx, dy = y[i] - qy;
+		heap.offer( dx * dx + dy * dy, items[i]);
+	}
+
+	@Override
+	public int inRadius( int[] result, double x, double y, double radius){
+		if( !(radius >= 0))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		return inRadius( result, 0, x, y, radius, radius * radius, 0, items.length);
+	}
+
+	/**
+	 * add the points of a range which are within radius, skipping halves which are entirely farther
+	 * @return count plus number of points found
+	 */
+	private int inRadius( int[] result, int count, double qx, double qy, double radius, double radius2, int lo, int hi){
+		while( hi - lo > LEAF_SIZE){
+			int mid = (lo + hi) >>> 1;
+			double diff = splitX[mid] ? qx - x[mid] : qy - y[mid];
+			count = inRadius( result, count, qx, qy, radius2, mid);
+			boolean left = diff <= radius, right = diff >= -radius;
+			if( left && right){
+				count = inRadius( result, count, qx, qy, radius, radius2, lo, mid);
+				lo = mid + 1;
+			}else if( left)
+				hi = mid;
+			else if( right)
+				lo = mid + 1;
+			else
+				return count;
+		}
+		for( int i = lo; i < hi; i++)
+			count = inRadius( result, count, qx, qy, radius2, i);
+		return count;
+	}
+
+	private int inRadius( int[] result, int count, double qx, double qy, double radius2, int i){
+		double dx = x[i] - qx, dy = y[i] - qy;
+		return dx * dx + dy * dy <= radius2 ? add( result, count, items[i]) : count;
+	}
+
+	@Override
+	public int inRect( int[] result, double minX, double minY, double maxX, double maxY){
+		return inRect( result, 0, minX, minY, maxX, maxY, 0, items.length);
+	}
+
+	/**
+	 * add the points of a range which are inside the rectangle, skipping halves which are entirely outside
+	 * @return count plus number of points found
+	 */
+	private int inRect( int[] result, int count, double minX, double minY, double maxX, double maxY, int lo, int hi){
+		while( hi - lo > LEAF_SIZE){
+			int mid = (lo + hi) >>> 1;
+			count = inRect( result, count, minX, minY, maxX, maxY, mid);
+			double split = splitX[mid] ? x[mid] : y[mid];
+			boolean left = (splitX[mid] ? minX : minY) <= split, right = (splitX[mid] ? maxX : maxY) >= split;
+			if( left && right){
+				count = inRect( result, count, minX, minY, maxX, maxY, lo, mid);
+				lo = mid + 1;
+			}else if( left)
+				hi = mid;
+			else if( right)
+				lo = mid + 1;
+			else
+				return count;
+		}
+		for( int i = lo; i < hi; i++)
+			count = inRect( result, count, minX, minY, maxX, maxY, i);
+		return count;
+	}
+
+	private int inRect( int[] result, int count, double minX, double minY, double maxX, double maxY, int i){
+		return x[i] >= minX && x[i] <= maxX && y[i] >= minY && y[i] <= maxY ? add( result, count, items[i]) : count;
+	}
+
+	/**
+	 * write an index to result if it still has room
+	 * @return count plus one
+	 */
+	private static int add( int[] result, int count, int item){
+		if( count < result.length)
+			result[count] = item;
+		return count + 1;
+	}
+
+	@Override
+	public int size(){
+		return items.length;
+	}
+
+	@Override
+	public String toString(){
+		return "PointKdTree[size=" + items.length + "]";
+	}
+}
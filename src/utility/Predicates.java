@@ -0,0 +1,106 @@
+package utility;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * geometric predicates which always give the exact answer for the given doubles. each predicate first computes
+ * its result in plain floating point together with a bound on the rounding error of that computation. only when
+ * the result is smaller than the bound, so its sign could be wrong, it is computed again exactly with
+ * {@link BigDecimal}. for almost all inputs the fast path decides, the exact path runs on nearly collinear points.
+ * </p>
+ *
+ * @see <a href="https://www.cs.cmu.edu/~quake/robust.html">Adaptive Precision Floating-Point Arithmetic and Fast
+ *      Robust Geometric Predicates</a>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public final class Predicates{
+
+	/**
+	 * half of the distance from 1 to the next double, the relative error of one rounding
+	 */
+	private static final double EPSILON = 0x1p-53;
+
+	/**
+	 * relative error bound of the fast orientation, from Shewchuk's ccwerrboundA
+	 */
+	private static final double ORIENT_BOUND = (3 + 16 * EPSILON) * EPSILON;
+
+	/**
+	 * smallest sum of products the fast orientation trusts, well above where products lose bits to underflow
+	 */
+	private static final double MIN_FILTERED = 0x1p-900;
+
+	private Predicates(){}
+
+	/**
+	 * <p>
+	 * exact orientation of three points, the sign of (a - c) x (b - c). this is the side of line a to b which c is on,
+	 * the same side test every intersect in {@link IntersectUtil} is made of.
+	 * </p>
+	 * @param ax - a x
+	 * @param ay - a y
+	 * @param bx - b x
+	 * @param by - b y
+	 * @param cx - c x
+	 * @param cy - c y
+	 * @return 1 if a, b and c turn counter clockwise, -1 if clockwise, 0 if collinear or any coordinate is not finite
+	 */
+	public static int orient2d( double ax, double ay, double bx, double by, double cx, double cy){
+		double acx = ax - cx;
+		double bcy = by - cy;
+		double acy = ay - cy;
+		double bcx = bx - cx;
+		double left = acx * bcy;
+		double right = acy * bcx;
+		if( isCertain( left, right))
+			return left > right ? 1 : -1;
+		// a difference of doubles is 0 only if they are equal, so two zero products make det exactly 0.
+		// infinity and NaN fail the filter and go to the exact path
+		if( (acx == 0 || bcy == 0) && (acy == 0 || bcx == 0))
+			return 0;
+		return orient2dExact( ax, ay, bx, by, cx, cy);
+	}
+
+	/**
+	 * <p>
+	 * the filter of {@link #orient2d(double, double, double, double, double, double)} on products which are already
+	 * computed, so a caller which needs the products for more than the sign does not multiply twice. left and right must
+	 * each be a product of two differences of inputs, each difference one subtraction, and left - right must be exactly
+	 * an orientation, such as (a - c) x (b - a). if this returns true the sign of left - right is the exact sign and
+	 * it is not 0. it has no branches, so a few of them can be combined with &amp; and tested once.
+	 * </p>
+	 * @param left - first product
+	 * @param right - second product
+	 * @return true if rounding cannot have changed the sign of left - right
+	 */
+	static boolean isCertain( double left, double right){
+		double sum = Math.abs( left) + Math.abs( right);
+		return sum >= MIN_FILTERED & Math.abs( left - right) > ORIENT_BOUND * sum;
+	}
+
+	/**
+	 * orientation of three points computed exactly, the slow path of {@link #orient2d(double, double, double, double, double, double)}
+	 * @param ax - a x
+	 * @param ay - a y
+	 * @param bx - b x
+	 * @param by - b y
+	 * @param cx - c x
+	 * @param cy - c y
+	 * @return 1 if a, b and c turn counter clockwise, -1 if clockwise, 0 if collinear or any coordinate is not finite
+	 */
+	static int orient2dExact( double ax, double ay, double bx, double by, double cx, double cy){
+		if( !Double.isFinite( ax) || !Double.isFinite( ay) || !Double.isFinite( bx) || !Double.isFinite( by) || !Double.isFinite( cx)
+				|| !Double.isFinite( cy))
+			return 0;
+		// a double converts to BigDecimal without rounding and add, subtract and multiply never round
+		BigDecimal c = new BigDecimal( cx), d = new BigDecimal( cy);
+		BigDecimal acx = new BigDecimal( ax).subtract( c);
+		BigDecimal bcy = new BigDecimal( by).subtract( d);
+		BigDecimal acy = new BigDecimal( ay).subtract( d);
+		BigDecimal bcx = new BigDecimal( bx).subtract( c);
+		return acx.multiply( bcy).subtract( acy.multiply( bcx)).signum();
+	}
+}
@@ -0,0 +1,308 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * a packet of up to {@value #MAX_RAYS} light rays which share one start point, cast together against a {@link SegmentSet}.
+ * rays of one light at neighbouring angles hit nearly the same segments, so instead of looping over all segments once
+ * per ray as {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet, double)} does,
+ * each segment is visited once for the whole packet:
+ * </p>
+ * <ul>
+ * <li>everything which only depends on the segment and the shared start, the segment vector, the start offset and
+ * the numerator of the ray scaler, is computed once per segment instead of once per ray.</li>
+ * <li>a segment whose bounding box misses the bounding box of the packet, which shrinks as closer hits are found,
+ * is skipped without touching any ray.</li>
+ * <li>if the rays span less than half a turn, a segment entirely on the outer side of the first or last ray is skipped too.</li>
+ * </ul>
+ * <p>
+ * both culls are slightly widened, and never applied to a segment almost in line with the start, so they never skip a
+ * segment the scalar loop would hit, even one it hits only through rounding. the result of every ray is
+ * identical to {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet, double)}.
+ * an instance is reused between casts and is not thread safe, use one instance per thread.
+ * </p>
+ *
+ * <pre>
+ * RayPacket packet = new RayPacket();
+ * packet.fan( light.x(), light.y(), angle, step, 8, 10000).cast( segments);
+ * for( int i = 0; i &lt; packet.size(); i++)
+ * 	if( packet.index( i) != -1)
+ * 		gc.lineTo( packet.x( i), packet.y( i));
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class RayPacket{
+
+	/**
+	 * max number of rays in a packet
+	 */
+	public static final int MAX_RAYS = 16;
+
+	/**
+	 * relative amount the culls are widened by, far above the rounding error of the cross products
+	 */
+	private static final double CULL_MARGIN = 1e-9;
+
+	/**
+	 * shared start of all rays
+	 */
+	private double ox, oy;
+
+	/**
+	 * vector of each ray, end minus start
+	 */
+	private final double[] rx = new double[MAX_RAYS], ry = new double[MAX_RAYS];
+
+	/**
+	 * number of rays
+	 */
+	private int size;
+
+	/**
+	 * result of the last cast, closest ray scaler or bound, segment scaler and segment index of each ray
+	 */
+	private final double[] rayScalers = new double[MAX_RAYS], segmentScalers = new double[MAX_RAYS];
+	private final int[] indices = new int[MAX_RAYS];
+
+	/**
+	 * bounding box of the packet, start and every ray up to its current closest ray scaler
+	 */
+	private double minX, minY, maxX, maxY;
+
+	/**
+	 * start the packet over with a new start point and no rays
+	 * @param ox - start x shared by all rays
+	 * @param oy - start y shared by all rays
+	 * @return the current instance of this class
+	 */
+	public RayPacket reset( double ox, double oy){
+		this.ox = ox;
+		this.oy = oy;
+		size = 0;
+		return this;
+	}
+
+	/**
+	 * add a ray from the shared start to given end
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @return the current instance of this class
+	 */
+	public RayPacket add( double rex, double rey){
+		if( size == MAX_RAYS)
+			throw new IllegalStateException( "packet already has " + MAX_RAYS + " rays");
+		rx[size] = rex - ox;
+		ry[size] = rey - oy;
+		indices[size] = -1;
+		size++;
+		return this;
+	}
+
+	/**
+	 * start the packet over with a fan of rays at evenly spaced angles, the usual packet of a dense angular sweep
+	 * @param ox - start x shared by all rays
+	 * @param oy - start y shared by all rays
+	 * @param angle - angle of first ray in radians
+	 * @param step - angle between two rays in radians
+	 * @param count - number of rays, at most {@value #MAX_RAYS}
+	 * @param length - length of each ray, should reach past the scene
+	 * @return the current instance of this class
+	 */
+	public RayPacket fan( double ox, double oy, double angle, double step, int count, double length){
+		if( count < 0 || count > MAX_RAYS)
+			throw new IllegalArgumentException( "count must be between 0 and " + MAX_RAYS + ": " + count);
+		reset( ox, oy);
+		for( int i = 0; i < count; i++){
+			double a = angle + i * step;
+			add( ox + Math.cos( a) * length, oy + Math.sin( a) * length);
+		}
+		return this;
+	}
+
+	/**
+	 * find the closest intersection of every ray with no bound
+	 * @param segments - packed line segments to test against
+	 * @return number of rays which hit a segment
+	 */
+	public int cast( SegmentSet segments){
+		return cast( segments, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * find the closest intersection of every ray with a ray scaler less than given bound
+	 * @param segments - packed line segments to test against
+	 * @param tMax - only hits with ray scaler less than this count, 1 stops at ray end
+	 * @return number of rays which hit a segment
+	 */
+	public int cast( SegmentSet segments, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		final double[] rx = this.rx, ry = this.ry, rayScalers = this.rayScalers, segmentScalers = this.segmentScalers;
+		final int[] indices = this.indices;
+		final int n = size;
+		final double ox = this.ox, oy = this.oy;
+		Arrays.fill( rayScalers, 0, n, tMax);
+		Arrays.fill( indices, 0, n, -1);
+		updateBounds();
+
+		// outer edges of the wedge, widened a little, or no wedge cull if the rays span half a turn or more
+		double lox = 0, loy = 0, hix = 0, hiy = 0;
+		boolean wedge = false;
+		int first = -1;
+		for( int i = 0; i < n && first == -1; i++)
+			if( rx[i] != 0 || ry[i] != 0)
+				first = i;
+		if( first != -1){
+			double lo = 0, hi = 0;
+			for( int i = first + 1; i < n; i++){
+				double a = Math.atan2( rx[first] * ry[i] - ry[first] * rx[i], rx[first] * rx[i] + ry[first] * ry[i]);
+				lo = Math.min( lo, a);
+				hi = Math.max( hi, a);
+			}
+			lo -= CULL_MARGIN;
+			hi += CULL_MARGIN;
+			if( hi - lo < Math.PI){
+				double base = Math.atan2( ry[first], rx[first]);
+				lox = Math.cos( base + lo);
+				loy = Math.sin( base + lo);
+				hix = Math.cos( base + hi);
+				hiy = Math.sin( base + hi);
+				wedge = true;
+			}
+		}
+
+		for( int s = 0, count = segments.size; s < count; s++){
+			double ax = ssx[s], ay = ssy[s], bx = sex[s], by = sey[s];
+			// same math as IntersectUtil.getClosestIntersection, the start offset, segment vector and
+			// ray scaler numerator are shared by all rays
+			double qpx = ox - ax;
+			double qpy = oy - ay;
+			double sx = bx - ax;
+			double sy = by - ay;
+			double numerator = sx * qpy - qpx * sy;
+			// a start almost in line with the segment can round to a hit at ray scaler 0 in the scalar loop even if the
+			// segment is outside of the packet, such segments are never culled
+			boolean inLine = Math.abs( numerator) <= (Math.abs( sx * qpy) + Math.abs( qpx * sy)) * CULL_MARGIN;
+			if( !inLine && (Math.max( ax, bx) < minX || Math.min( ax, bx) > maxX || Math.max( ay, by) < minY || Math.min( ay, by) > maxY))
+				continue;
+			if( wedge && !inLine){
+				double epx = bx - ox, epy = by - oy;
+				if( (lox * qpy - loy * qpx > 0 && lox * epy - loy * epx < 0) || (hix * qpy - hiy * qpx < 0 && hix * epy - hiy * epx > 0))
+					continue;
+			}
+			boolean hit = false;
+			for( int i = 0; i < n; i++){
+				double rs = rx[i] * sy - sx * ry[i];
+				double rayScaler = numerator / rs;
+				if( !(rayScaler >= 0 && rayScaler < rayScalers[i]))
+					continue;
+				double segmentRs = rx[i] * qpy - qpx * ry[i];
+				if( !(rs > 0 ? segmentRs >= 0 && segmentRs <= rs : segmentRs <= 0 && segmentRs >= rs))
+					continue;
+				indices[i] = s;
+				rayScalers[i] = rayScaler;
+				segmentScalers[i] = segmentRs / rs;
+				hit = true;
+			}
+			if( hit)
+				updateBounds();
+		}
+
+		int hits = 0;
+		for( int i = 0; i < n; i++)
+			if( indices[i] != -1)
+				hits++;
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.record( GeometryMetrics.PACKET, begin, hits);
+		return hits;
+	}
+
+	/**
+	 * recompute the bounding box of the packet from the current ray scaler of every ray, widened a little
+	 */
+	private void updateBounds(){
+		double x0 = ox, y0 = oy, x1 = ox, y1 = oy;
+		for( int i = 0; i < size; i++){
+			double t = rayScalers[i];
+			// 0 times infinity is NaN, a ray which does not move on an axis stays at the start
+			double ex = rx[i] == 0 ? ox : ox + rx[i] * t;
+			double ey = ry[i] == 0 ? oy : oy + ry[i] * t;
+			x0 = Math.min( x0, ex);
+			x1 = Math.max( x1, ex);
+			y0 = Math.min( y0, ey);
+			y1 = Math.max( y1, ey);
+		}
+		double pad = (Math.abs( ox) + Math.abs( oy) + (x1 - x0) + (y1 - y0)) * CULL_MARGIN;
+		minX = x0 - pad;
+		maxX = x1 + pad;
+		minY = y0 - pad;
+		maxY = y1 + pad;
+	}
+
+	/**
+	 * get number of rays
+	 * @return number of rays
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get the segment hit by a ray in the last cast
+	 * @param ray - index of ray
+	 * @return index of the closest segment or -1 if the ray hit nothing
+	 */
+	public int index( int ray){
+		return indices[check( ray)];
+	}
+
+	/**
+	 * get x of the closest intersect of a ray, only valid if {@link #index(int)} is not -1
+	 * @param ray - index of ray
+	 * @return intersect x
+	 */
+	public double x( int ray){
+		return ox + rx[check( ray)] * rayScalers[ray];
+	}
+
+	/**
+	 * get y of the closest intersect of a ray, only valid if {@link #index(int)} is not -1
+	 * @param ray - index of ray
+	 * @return intersect y
+	 */
+	public double y( int ray){
+		return oy + ry[check( ray)] * rayScalers[ray];
+	}
+
+	/**
+	 * copy the closest intersect of a ray in the same form as {@link IntersectUtil}
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param ray - index of ray
+	 * @return index of the closest segment or -1 if the ray hit nothing
+	 */
+	public int getClosestIntersection( double[] result, int ray){
+		int index = indices[check( ray)];
+		if( index != -1){
+			result[0] = x( ray);
+			result[1] = y( ray);
+			result[2] = rayScalers[ray];
+			result[3] = segmentScalers[ray];
+		}
+		return index;
+	}
+
+	/**
+	 * check the index of a ray
+	 * @param ray - index of ray
+	 * @return given index
+	 */
+	private int check( int ray){
+		if( ray < 0 || ray >= size)
+			throw new IndexOutOfBoundsException( "ray " + ray + " of " + size);
+		return ray;
+	}
+}
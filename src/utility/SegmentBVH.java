@@ -0,0 +1,165 @@
+package utility;
+
+/**
+ * <p>
+ * a {@link SegmentIndex} backed by a bounding volume hierarchy. segments are grouped into nested boxes
+ * and a ray only tests segments in boxes it passes through, closer boxes first. boxes farther than
+ * the closest hit so far are skipped. this works best for maps where segments are clustered, for
+ * evenly spread segments see {@link SegmentGrid}.
+ * </p>
+ * <p>
+ * the index is a snapshot, if the segments change a new index must be built.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class SegmentBVH implements SegmentIndex{
+
+	/**
+	 * segments this index was built from
+	 */
+	private final SegmentSet segments;
+
+	/**
+	 * hierarchy over the bounding box of each segment
+	 */
+	private final BoundingVolumeHierarchy tree;
+
+	/**
+	 * build a new index over given segments
+	 * @param segments - segments to index
+	 */
+	public SegmentBVH( SegmentSet segments){
+		this.segments = segments;
+		int size = segments.size;
+		double[] minX = new double[size], minY = new double[size];
+		double[] maxX = new double[size], maxY = new double[size];
+		for( int i = 0; i < size; i++){
+			minX[i] = Math.min( segments.ssx[i], segments.sex[i]);
+			minY[i] = Math.min( segments.ssy[i], segments.sey[i]);
+			maxX[i] = Math.max( segments.ssx[i], segments.sex[i]);
+			maxY[i] = Math.max( segments.ssy[i], segments.sey[i]);
+		}
+		tree = new BoundingVolumeHierarchy( minX, minY, maxX, maxY, size);
+	}
+
+	@Override
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		if( tree.isEmpty())
+			return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, -1);
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		final int[] items = tree.items, start = tree.start, count = tree.count;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double invX = 1 / rx;
+		double invY = 1 / ry;
+
+		int closest = -1;
+		double closestRay = tMax;
+
+		// nodes to visit and their entry ray scaler, small enough for escape analysis to keep them off the heap
+		int[] stack = new int[BoundingVolumeHierarchy.MAX_DEPTH];
+		double[] stackEnter = new double[BoundingVolumeHierarchy.MAX_DEPTH];
+		int top = 0;
+		double tRoot = tree.enter( 0, rsx, rsy, invX, invY, closestRay);
+		if( tRoot != Double.POSITIVE_INFINITY){
+			stackEnter[top] = tRoot;
+			stack[top++] = 0;
+		}
+		while( top > 0){
+			int node = stack[--top];
+			if( stackEnter[top] > closestRay)
+				continue;
+			if( count[node] > 0){
+				for( int i = start[node], end = i + count[node]; i < end; i++){
+					int s = items[i];
+					// equal ray scalers must pass too so the lower index wins ties
+					double t = IntersectUtil.getRayScaler( rsx, rsy, rx, ry, ssx[s], ssy[s], sex[s], sey[s], Math.nextUp( closestRay));
+					if( t >= 0 && (t < closestRay || (t == closestRay && s < closest))){
+						closestRay = t;
+						closest = s;
+					}
+				}
+				continue;
+			}
+			int left = node + 1;
+			int right = start[node];
+			double tLeft = tree.enter( left, rsx, rsy, invX, invY, closestRay);
+			double tRight = tree.enter( right, rsx, rsy, invX, invY, closestRay);
+			// push the farther child first so the closer one is visited first
+			if( tLeft <= tRight){
+				if( tRight != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tRight;
+					stack[top++] = right;
+				}
+				if( tLeft != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tLeft;
+					stack[top++] = left;
+				}
+			}else{
+				if( tLeft != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tLeft;
+					stack[top++] = left;
+				}
+				stackEnter[top] = tRight;
+				stack[top++] = right;
+			}
+		}
+
+		if( closest != -1)
+			IntersectUtil.intersect( result, rsx, rsy, rex, rey, ssx[closest], ssy[closest], sex[closest], sey[closest]);
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	@Override
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		if( tree.isEmpty())
+			return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		final int[] items = tree.items, start = tree.start, count = tree.count;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double invX = 1 / rx;
+		double invY = 1 / ry;
+
+		// order of visit does not matter, the first blocker found is returned
+		int[] stack = new int[BoundingVolumeHierarchy.MAX_DEPTH];
+		int top = 0;
+		if( tree.enter( 0, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+			stack[top++] = 0;
+		while( top > 0){
+			int node = stack[--top];
+			if( count[node] > 0){
+				for( int i = start[node], end = i + count[node]; i < end; i++){
+					int s = items[i];
+					if( IntersectUtil.getRayScaler( rsx, rsy, rx, ry, ssx[s], ssy[s], sex[s], sey[s], tMax) >= 0)
+						return GeometryMetrics.found( GeometryMetrics.ANY, begin, s);
+				}
+				continue;
+			}
+			int left = node + 1;
+			int right = start[node];
+			if( tree.enter( right, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+				stack[top++] = right;
+			if( tree.enter( left, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+				stack[top++] = left;
+		}
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	@Override
+	public int size(){
+		return segments.size;
+	}
+
+	/**
+	 * get the segments this index was built from
+	 * @return segments of this index
+	 */
+	public SegmentSet segments(){
+		return segments;
+	}
+}
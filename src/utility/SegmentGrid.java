@@ -0,0 +1,325 @@
+package utility;
+
+/**
+ * <p>
+ * a {@link SegmentIndex} backed by a uniform grid. every cell keeps the segments which pass through it
+ * and a ray walks the cells along its path in order (DDA), stopping at the first cell which holds a hit.
+ * this works best for dense maps where segments are spread evenly, for clustered maps see {@link SegmentBVH}.
+ * </p>
+ * <p>
+ * the index is a snapshot, if the segments change a new index must be built.
+ * </p>
+ *
+ * @see <a href="http://www.cse.yorku.ca/~amana/research/grid.pdf">A Fast Voxel Traversal Algorithm for Ray Tracing</a>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class SegmentGrid implements SegmentIndex{
+
+	/**
+	 * relative tolerance used when deciding if a hit is inside the current cell
+	 */
+	private static final double CELL_TOLERANCE = 1e-9;
+
+	/**
+	 * segments this index was built from
+	 */
+	private final SegmentSet segments;
+
+	/**
+	 * bottom left corner of the grid and size of each cell
+	 */
+	final double minX, minY, cellSize;
+
+	/**
+	 * number of columns and rows
+	 */
+	final int cols, rows;
+
+	/**
+	 * segments of cell i are cellItems[cellStart[i]] to cellItems[cellStart[i + 1] - 1]
+	 */
+	final int[] cellStart, cellItems;
+
+	/**
+	 * build a new index over given segments, cell size is picked so there is about one cell per segment
+	 * @param segments - segments to index
+	 */
+	public SegmentGrid( SegmentSet segments){
+		this( segments, autoCellSize( segments));
+	}
+
+	/**
+	 * build a new index over given segments
+	 * @param segments - segments to index
+	 * @param cellSize - width and height of each cell
+	 */
+	public SegmentGrid( SegmentSet segments, double cellSize){
+		if( !(cellSize > 0))
+			throw new IllegalArgumentException( "cell size must be positive: " + cellSize);
+		this.segments = segments;
+		this.cellSize = cellSize;
+		int size = segments.size;
+		double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+		double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+		for( int i = 0; i < size; i++){
+			x1 = Math.min( x1, Math.min( segments.ssx[i], segments.sex[i]));
+			y1 = Math.min( y1, Math.min( segments.ssy[i], segments.sey[i]));
+			x2 = Math.max( x2, Math.max( segments.ssx[i], segments.sex[i]));
+			y2 = Math.max( y2, Math.max( segments.ssy[i], segments.sey[i]));
+		}
+		if( size == 0){
+			x1 = y1 = x2 = y2 = 0;
+		}
+		minX = x1;
+		minY = y1;
+		// one extra cell so segments on the max border are still inside
+		long longCols = (long) ((x2 - x1) / cellSize) + 1;
+		long longRows = (long) ((y2 - y1) / cellSize) + 1;
+		if( longCols * longRows > Integer.MAX_VALUE - 1)
+			throw new IllegalArgumentException( "cell size " + cellSize + " creates too many cells");
+		cols = (int) longCols;
+		rows = (int) longRows;
+
+		// count segments per cell, then fill
+		cellStart = new int[cols * rows + 1];
+		for( int i = 0; i < size; i++)
+			visitCells( i, null);
+		int total = 0;
+		for( int c = 0; c <= cols * rows; c++){
+			int count = cellStart[c];
+			cellStart[c] = total;
+			total += count;
+		}
+		cellItems = new int[total];
+		int[] fill = new int[cols * rows];
+		for( int i = 0; i < size; i++)
+			visitCells( i, fill);
+	}
+
+	/**
+	 * walk all cells covered by a segment, either counting it into {@link #cellStart} or adding it to {@link #cellItems}.
+	 * @param segment - index of segment
+	 * @param fill - null to count, else number of items already added to each cell
+	 */
+	private void visitCells( int segment, int[] fill){
+		double x0 = segments.ssx[segment], y0 = segments.ssy[segment];
+		double x1 = segments.sex[segment], y1 = segments.sey[segment];
+		int cx = cellX( x0), cy = cellY( y0);
+		int ex = cellX( x1), ey = cellY( y1);
+		double dx = x1 - x0, dy = y1 - y0;
+		int stepX = dx > 0 ? 1 : -1;
+		int stepY = dy > 0 ? 1 : -1;
+		double tDeltaX = dx != 0 ? cellSize / Math.abs( dx) : Double.POSITIVE_INFINITY;
+		double tDeltaY = dy != 0 ? cellSize / Math.abs( dy) : Double.POSITIVE_INFINITY;
+		double tMaxX = dx != 0 ? (minX + (cx + (dx > 0 ? 1 : 0)) * cellSize - x0) / dx : Double.POSITIVE_INFINITY;
+		double tMaxY = dy != 0 ? (minY + (cy + (dy > 0 ? 1 : 0)) * cellSize - y0) / dy : Double.POSITIVE_INFINITY;
+		int steps = Math.abs( ex - cx) + Math.abs( ey - cy);
+		addToCell( cy * cols + cx, segment, fill);
+		for( int s = 0; s < steps; s++){
+			if( tMaxX < tMaxY && cx != ex || cy == ey){
+				cx += stepX;
+				tMaxX += tDeltaX;
+			}else{
+				cy += stepY;
+				tMaxY += tDeltaY;
+			}
+			addToCell( cy * cols + cx, segment, fill);
+		}
+	}
+
+	private void addToCell( int cell, int segment, int[] fill){
+		if( fill == null)
+			cellStart[cell]++;
+		else
+			cellItems[cellStart[cell] + fill[cell]++] = segment;
+	}
+
+	@Override
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		Walk walk = walk( rsx, rsy, rx, ry, tMax);
+		if( walk == null)
+			return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, -1);
+
+		do{
+			// hits beyond this cell may be beaten by segments in later cells, they are found again there
+			double tCell = walk.exit();
+			double tLimit = tCell + CELL_TOLERANCE * Math.max( 1, Math.abs( tCell));
+			int closest = -1;
+			double closestRay = tMax;
+			int cell = walk.cell();
+			for( int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++){
+				int s = cellItems[i];
+				double t = IntersectUtil.getRayScaler( rsx, rsy, rx, ry, ssx[s], ssy[s], sex[s], sey[s], tMax);
+				if( t >= 0 && t <= tLimit && (t < closestRay || (t == closestRay && s < closest))){
+					closestRay = t;
+					closest = s;
+				}
+			}
+			if( closest != -1){
+				IntersectUtil.intersect( result, rsx, rsy, rex, rey, ssx[closest], ssy[closest], sex[closest], sey[closest]);
+				return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+			}
+		}while( walk.exit() < tMax && walk.next());
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, -1);
+	}
+
+	@Override
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final double[] ssx = segments.ssx, ssy = segments.ssy, sex = segments.sex, sey = segments.sey;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		Walk walk = walk( rsx, rsy, rx, ry, tMax);
+		if( walk == null)
+			return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+
+		do{
+			// any blocker will do, even one which lies past this cell
+			int cell = walk.cell();
+			for( int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++){
+				int s = cellItems[i];
+				if( IntersectUtil.getRayScaler( rsx, rsy, rx, ry, ssx[s], ssy[s], sex[s], sey[s], tMax) >= 0)
+					return GeometryMetrics.found( GeometryMetrics.ANY, begin, s);
+			}
+		}while( walk.exit() < tMax && walk.next());
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	/**
+	 * clip a ray to the grid and start walking its cells
+	 * @return walk at first cell or null if ray misses the grid before tMax
+	 */
+	private Walk walk( double rsx, double rsy, double rx, double ry, double tMax){
+		double maxX = minX + cols * cellSize;
+		double maxY = minY + rows * cellSize;
+		double tEnter = 0, tExit = tMax;
+		if( rx != 0){
+			double t1 = (minX - rsx) / rx, t2 = (maxX - rsx) / rx;
+			tEnter = Math.max( tEnter, Math.min( t1, t2));
+			tExit = Math.min( tExit, Math.max( t1, t2));
+		}else if( rsx < minX || rsx > maxX)
+			return null;
+		if( ry != 0){
+			double t1 = (minY - rsy) / ry, t2 = (maxY - rsy) / ry;
+			tEnter = Math.max( tEnter, Math.min( t1, t2));
+			tExit = Math.min( tExit, Math.max( t1, t2));
+		}else if( rsy < minY || rsy > maxY)
+			return null;
+		if( tEnter > tExit || rx == 0 && ry == 0)
+			return null;
+		return new Walk( rsx, rsy, rx, ry, tEnter);
+	}
+
+	@Override
+	public int size(){
+		return segments.size;
+	}
+
+	/**
+	 * get the segments this index was built from
+	 * @return segments of this index
+	 */
+	public SegmentSet segments(){
+		return segments;
+	}
+
+	/**
+	 * get the column of given x, clamped to the grid
+	 */
+	int cellX( double x){
+		return clamp( (int) Math.floor( (x - minX) / cellSize), cols);
+	}
+
+	/**
+	 * get the row of given y, clamped to the grid
+	 */
+	int cellY( double y){
+		return clamp( (int) Math.floor( (y - minY) / cellSize), rows);
+	}
+
+	private static int clamp( int cell, int count){
+		return cell < 0 ? 0 : cell >= count ? count - 1 : cell;
+	}
+
+	/**
+	 * pick a cell size which gives about one cell per segment
+	 * @param segments - segments to index
+	 * @return cell size
+	 */
+	private static double autoCellSize( SegmentSet segments){
+		int size = Math.max( 1, segments.size);
+		double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+		double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+		for( int i = 0; i < segments.size; i++){
+			x1 = Math.min( x1, Math.min( segments.ssx[i], segments.sex[i]));
+			y1 = Math.min( y1, Math.min( segments.ssy[i], segments.sey[i]));
+			x2 = Math.max( x2, Math.max( segments.ssx[i], segments.sex[i]));
+			y2 = Math.max( y2, Math.max( segments.ssy[i], segments.sey[i]));
+		}
+		double w = x2 - x1, h = y2 - y1;
+		double cellSize = Math.max( Math.sqrt( w * h / size), Math.max( w, h) / size);
+		return cellSize > 0 && !Double.isInfinite( cellSize) ? cellSize : 1;
+	}
+
+	/**
+	 * cells crossed by one ray in order, a new walk is made for each query so many threads can query at once.
+	 * it is small and short lived, so escape analysis usually keeps it off the heap.
+	 */
+	private final class Walk{
+
+		private int cx, cy;
+		private final int stepX, stepY;
+		private final double tDeltaX, tDeltaY;
+		private double tMaxX, tMaxY;
+
+		Walk( double rsx, double rsy, double rx, double ry, double tEnter){
+			cx = cellX( rsx + rx * tEnter);
+			cy = cellY( rsy + ry * tEnter);
+			stepX = rx > 0 ? 1 : -1;
+			stepY = ry > 0 ? 1 : -1;
+			tDeltaX = rx != 0 ? cellSize / Math.abs( rx) : Double.POSITIVE_INFINITY;
+			tDeltaY = ry != 0 ? cellSize / Math.abs( ry) : Double.POSITIVE_INFINITY;
+			tMaxX = rx != 0 ? (minX + (cx + (rx > 0 ? 1 : 0)) * cellSize - rsx) / rx : Double.POSITIVE_INFINITY;
+			tMaxY = ry != 0 ? (minY + (cy + (ry > 0 ? 1 : 0)) * cellSize - rsy) / ry : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * index of current cell
+		 */
+		int cell(){
+			return cy * cols + cx;
+		}
+
+		/**
+		 * ray scaler where ray leaves current cell
+		 */
+		double exit(){
+			return Math.min( tMaxX, tMaxY);
+		}
+
+		/**
+		 * move to next cell
+		 * @return false if ray left the grid
+		 */
+		boolean next(){
+			if( tMaxX < tMaxY){
+				cx += stepX;
+				if( cx < 0 || cx >= cols)
+					return false;
+				tMaxX += tDeltaX;
+			}else{
+				cy += stepY;
+				if( cy < 0 || cy >= rows)
+					return false;
+				tMaxY += tDeltaY;
+			}
+			return true;
+		}
+	}
+}
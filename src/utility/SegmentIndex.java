@@ -0,0 +1,67 @@
+package utility;
+
+/**
+ * <p>
+ * a structure which can find the closest line segment hit by a light ray.
+ * {@link SegmentSet} and {@link OffHeapSegmentStore} test every segment, {@link SegmentGrid} and {@link SegmentBVH} only test segments near the ray.
+ * all implementations keep the result convention of {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+ * and are safe to query from many threads as long as they are not changed.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public interface SegmentIndex{
+
+	/**
+	 * <p>
+	 * find the closest intersection of a light ray with the segments of this index.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @return index of the closest segment or -1 if ray does not intersect any segment.
+	 */
+	default int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey){
+		return getClosestIntersection( result, rsx, rsy, rex, rey, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * <p>
+	 * find the closest intersection of a light ray with the segments of this index, ignoring intersects with a ray scaler
+	 * of tMax or more. segments farther than the closest hit so far are skipped without computing their scalers.
+	 * </p>
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and segment scaler of the closest intersect point.
+	 *                 it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param tMax - only intersects with a ray scaler less than this are found, 1 stops at ray end
+	 * @return index of the closest segment or -1 if ray does not intersect any segment before tMax.
+	 */
+	int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax);
+
+	/**
+	 * <p>
+	 * find any segment of this index which blocks a light ray before tMax. used for shadow and occlusion tests,
+	 * it stops at the first blocker found, which is not always the closest one.
+	 * </p>
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param tMax - only intersects with a ray scaler less than this count, 1 tests the segment from ray start to ray end
+	 * @return index of a blocking segment or -1 if nothing blocks the ray before tMax.
+	 */
+	int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax);
+
+	/**
+	 * get number of segments in this index
+	 * @return number of segments
+	 */
+	int size();
+}
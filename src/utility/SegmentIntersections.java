@@ -0,0 +1,468 @@
+package utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * find every crossing among the segments of a {@link SegmentSet} with a sweep line (Bentley-Ottmann).
+ * a vertical line sweeps from left to right and only segments next to each other on the sweep line are tested,
+ * which takes O((n + k) log n) for n segments and k crossings instead of testing all O(n^2) pairs.
+ * </p>
+ * <p>
+ * two segments cross when {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+ * math puts the point on both of them, touching ends count. parallel segments never cross, even if they overlap.
+ * each pair is reported once, in order of the sweep. segments which are steep but not vertical, such as walls built
+ * with {@code Math.cos( Math.PI / 2)}, are tested against every segment after the sweep and their crossings come last.
+ * </p>
+ *
+ * <pre>
+ * SegmentIntersections crossings = SegmentIntersections.find( segments);
+ * for( int i = 0; i &lt; crossings.size(); i++)
+ * 	System.out.println( crossings.first( i) + " x " + crossings.second( i) + " at " + crossings.x( i) + "," + crossings.y( i));
+ * </pre>
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Bentley%E2%80%93Ottmann_algorithm">Bentley-Ottmann algorithm</a>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class SegmentIntersections{
+
+	/**
+	 * relative tolerance used to decide if a segment passes through an event point
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	/**
+	 * segments with a larger slope which are not vertical are not swept. their x extent is so small that their y
+	 * interpolated on the sweep line, and the x of their crossings, are off by more than {@link #TOLERANCE}.
+	 */
+	private static final double STEEP = 1e6;
+
+	/**
+	 * stands for the current event point when searching the sweep line
+	 */
+	private static final int POINT = -1;
+
+	/**
+	 * pairs of crossing segments, smaller index first
+	 */
+	private int[] pairs = new int[16];
+
+	/**
+	 * x and y of each crossing
+	 */
+	private double[] points = new double[16];
+
+	/**
+	 * number of crossings
+	 */
+	private int size;
+
+	/**
+	 * segment ends ordered so start is left of end, or below it for vertical segments
+	 */
+	private double[] sx, sy, ex, ey;
+
+	/**
+	 * current event point
+	 */
+	private double px, py;
+
+	/**
+	 * true to order segments through the event point as they are just after it, false for just before it
+	 */
+	private boolean after;
+
+	/**
+	 * segments under the sweep line ordered from bottom to top
+	 */
+	private final TreeSet< Integer> status = new TreeSet<>( this::compare);
+
+	/**
+	 * event points ordered by x then y
+	 */
+	private final TreeSet< Event> queue = new TreeSet<>();
+
+	/**
+	 * pairs already reported, used when rounding splits one crossing into events a few ulps apart
+	 */
+	private final HashSet< Long> reported = new HashSet<>();
+
+	private SegmentIntersections(){}
+
+	/**
+	 * find all crossings among given segments
+	 * @param segments - segments to test
+	 * @return all crossings
+	 */
+	public static SegmentIntersections find( SegmentSet segments){
+		SegmentIntersections intersections = new SegmentIntersections();
+		intersections.sweep( segments);
+		return intersections;
+	}
+
+	/**
+	 * get number of crossings
+	 * @return number of crossings
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get the smaller segment index of given crossing
+	 * @param index - index of crossing
+	 * @return index of first segment
+	 */
+	public int first( int index){
+		return pairs[index * 2];
+	}
+
+	/**
+	 * get the larger segment index of given crossing
+	 * @param index - index of crossing
+	 * @return index of second segment
+	 */
+	public int second( int index){
+		return pairs[index * 2 + 1];
+	}
+
+	/**
+	 * get x of given crossing
+	 * @param index - index of crossing
+	 * @return x of crossing point
+	 */
+	public double x( int index){
+		return points[index * 2];
+	}
+
+	/**
+	 * get y of given crossing
+	 * @param index - index of crossing
+	 * @return y of crossing point
+	 */
+	public double y( int index){
+		return points[index * 2 + 1];
+	}
+
+	/**
+	 * copy the segment pairs to a new array
+	 * @return an array of [first1,second1,first2,second2,...]
+	 */
+	public int[] pairs(){
+		return Arrays.copyOf( pairs, size * 2);
+	}
+
+	/**
+	 * copy the crossing points to a new array
+	 * @return an array of [x1,y1,x2,y2,...]
+	 */
+	public double[] points(){
+		return Arrays.copyOf( points, size * 2);
+	}
+
+	/**
+	 * run the sweep over all segments
+	 * @param segments - segments to test
+	 */
+	private void sweep( SegmentSet segments){
+		int n = segments.size;
+		List< Integer> steep = new ArrayList<>();
+		sx = new double[n];
+		sy = new double[n];
+		ex = new double[n];
+		ey = new double[n];
+		for( int i = 0; i < n; i++){
+			double x1 = segments.ssx[i], y1 = segments.ssy[i], x2 = segments.sex[i], y2 = segments.sey[i];
+			// zero length segments never cross anything, same as getIntersection
+			if( x1 == x2 && y1 == y2)
+				continue;
+			if( x1 > x2 || x1 == x2 && y1 > y2){
+				sx[i] = x2; sy[i] = y2; ex[i] = x1; ey[i] = y1;
+			}else{
+				sx[i] = x1; sy[i] = y1; ex[i] = x2; ey[i] = y2;
+			}
+			if( sx[i] != ex[i] && Math.abs( ey[i] - sy[i]) > (ex[i] - sx[i]) * STEEP){
+				steep.add( i);
+				continue;
+			}
+			event( sx[i], sy[i]).addStart( i);
+			event( ex[i], ey[i]).addEnd( i);
+		}
+
+		List< Integer> through = new ArrayList<>();
+		List< Integer> crossing = new ArrayList<>();
+		while( !queue.isEmpty()){
+			Event event = queue.pollFirst();
+			px = event.x;
+			py = event.y;
+
+			// segments which pass through the point, not starting or ending at it
+			after = false;
+			crossing.clear();
+			for( Integer s : status.tailSet( POINT, false)){
+				if( !contains( s))
+					break;
+				if( ex[s] != px || ey[s] != py)
+					crossing.add( s);
+			}
+
+			through.clear();
+			for( int i = 0; i < event.endCount; i++)
+				through.add( event.ends[i]);
+			through.addAll( crossing);
+			for( int i = 0; i < event.startCount; i++)
+				through.add( event.starts[i]);
+			if( through.size() > 1)
+				report( through);
+
+			for( int i = 0; i < event.endCount; i++)
+				remove( event.ends[i]);
+			for( Integer s : crossing)
+				remove( s);
+
+			// put them back in the order they have right after the point
+			after = true;
+			for( Integer s : crossing)
+				status.add( s);
+			for( int i = 0; i < event.startCount; i++)
+				status.add( event.starts[i]);
+
+			if( crossing.isEmpty() && event.startCount == 0){
+				check( status.lower( POINT), status.higher( POINT));
+			}else{
+				Integer lowest = status.higher( POINT);
+				Integer highest = lowest;
+				for( Integer s : status.tailSet( lowest, false)){
+					if( !contains( s))
+						break;
+					highest = s;
+				}
+				check( status.lower( lowest), lowest);
+				check( highest, status.higher( highest));
+			}
+		}
+
+		double[] result = new double[4];
+		for( int a : steep){
+			for( int b = 0; b < n; b++){
+				// zero length segments are left at 0, two steep segments are tested once
+				if( b == a || sx[b] == ex[b] && sy[b] == ey[b] || b < a && steep.contains( b))
+					continue;
+				if( intersect( result, Math.min( a, b), Math.max( a, b)))
+					add( Math.min( a, b), Math.max( a, b), result[0], result[1]);
+			}
+		}
+	}
+
+	/**
+	 * remove a segment from the sweep line. if rounding left the sweep line slightly out of order
+	 * and the search cannot find it, fall back to a linear search.
+	 */
+	private void remove( Integer segment){
+		if( !status.remove( segment))
+			status.removeIf( s -> s.intValue() == segment.intValue());
+	}
+
+	/**
+	 * report every pair among given segments which all pass through current event point
+	 * @param through - segments through current event point
+	 */
+	private void report( List< Integer> through){
+		double[] result = new double[4];
+		for( int i = 0; i < through.size(); i++){
+			for( int j = i + 1; j < through.size(); j++){
+				int a = Math.min( through.get( i), through.get( j));
+				int b = Math.max( through.get( i), through.get( j));
+				if( intersect( result, a, b) && reported.add( (long) a << 32 | b))
+					add( a, b, px, py);
+			}
+		}
+	}
+
+	/**
+	 * add a crossing
+	 * @param a - smaller segment index
+	 * @param b - larger segment index
+	 * @param x - x of crossing
+	 * @param y - y of crossing
+	 */
+	private void add( int a, int b, double x, double y){
+		if( size * 2 == pairs.length){
+			pairs = Arrays.copyOf( pairs, pairs.length * 2);
+			points = Arrays.copyOf( points, points.length * 2);
+		}
+		pairs[size * 2] = a;
+		pairs[size * 2 + 1] = b;
+		points[size * 2] = x;
+		points[size * 2 + 1] = y;
+		size++;
+	}
+
+	/**
+	 * if two neighbours on the sweep line cross right of the current event point, add the crossing as a new event
+	 * @param a - lower segment or null
+	 * @param b - upper segment or null
+	 */
+	private void check( Integer a, Integer b){
+		if( a == null || b == null)
+			return;
+		double[] result = new double[4];
+		if( !intersect( result, Math.min( a, b), Math.max( a, b)))
+			return;
+		double x = result[0], y = result[1];
+		if( x > px || x == px && y > py)
+			event( x, y);
+	}
+
+	/**
+	 * <p>
+	 * find where two segments cross using the math of {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}.
+	 * scalers within rounding of 0 or 1 snap to the exact segment end so touching ends land on existing events.
+	 * a crossing with a vertical segment takes its exact x, y comes from the other segment. x is clamped to the x
+	 * extent of both segments, so the crossing is an event while both are on the sweep line.
+	 * </p>
+	 * @param result - array of size 4, x and y of crossing are stored in first two
+	 * @param a - first segment
+	 * @param b - second segment
+	 * @return true if they cross
+	 */
+	private boolean intersect( double[] result, int a, int b){
+		double rx = ex[a] - sx[a], ry = ey[a] - sy[a];
+		double qx = ex[b] - sx[b], qy = ey[b] - sy[b];
+		double rs = rx * qy - qx * ry;
+		if( rs == 0)
+			return false;
+		double dx = sx[a] - sx[b], dy = sy[a] - sy[b];
+		double t = -(dx * qy - qx * dy) / rs;
+		double u = -(dx * ry - rx * dy) / rs;
+		if( t < -TOLERANCE || t > 1 + TOLERANCE || u < -TOLERANCE || u > 1 + TOLERANCE)
+			return false;
+		if( Math.abs( t) <= TOLERANCE){
+			result[0] = sx[a]; result[1] = sy[a];
+		}else if( Math.abs( t - 1) <= TOLERANCE){
+			result[0] = ex[a]; result[1] = ey[a];
+		}else if( Math.abs( u) <= TOLERANCE){
+			result[0] = sx[b]; result[1] = sy[b];
+		}else if( Math.abs( u - 1) <= TOLERANCE){
+			result[0] = ex[b]; result[1] = ey[b];
+		}else if( rx == 0){
+			// x interpolated along the other segment can be an ulp off the vertical one and miss it on the sweep line
+			result[0] = sx[a];
+			result[1] = sy[b] + (sx[a] - sx[b]) * qy / qx;
+		}else if( qx == 0){
+			result[0] = sx[b];
+			result[1] = sy[a] + (sx[b] - sx[a]) * ry / rx;
+		}else{
+			result[0] = sx[a] + rx * t;
+			result[1] = sy[a] + ry * t;
+		}
+		result[0] = Math.max( Math.max( sx[a], sx[b]), Math.min( result[0], Math.min( ex[a], ex[b])));
+		return true;
+	}
+
+	/**
+	 * get the event at given point, creating it if needed
+	 */
+	private Event event( double x, double y){
+		Event probe = new Event( x, y);
+		Event event = queue.ceiling( probe);
+		if( event != null && event.x == x && event.y == y)
+			return event;
+		queue.add( probe);
+		return probe;
+	}
+
+	/**
+	 * check if segment passes through current event point
+	 */
+	private boolean contains( int s){
+		return Math.abs( key( s) - py) <= tolerance();
+	}
+
+	private double tolerance(){
+		return TOLERANCE * (1 + Math.abs( px) + Math.abs( py));
+	}
+
+	/**
+	 * get y of segment on the sweep line. vertical segments use the event point, clamped to the segment.
+	 */
+	private double key( int s){
+		if( s == POINT)
+			return py;
+		if( px == sx[s])
+			return sx[s] == ex[s] ? Math.max( sy[s], Math.min( ey[s], py)) : sy[s];
+		if( px == ex[s])
+			return ey[s];
+		return sy[s] + (px - sx[s]) * (ey[s] - sy[s]) / (ex[s] - sx[s]);
+	}
+
+	/**
+	 * slope of segment, vertical segments are steepest
+	 */
+	private double slope( int s){
+		return sx[s] == ex[s] ? Double.POSITIVE_INFINITY : (ey[s] - sy[s]) / (ex[s] - sx[s]);
+	}
+
+	/**
+	 * order two segments on the sweep line at current event point. segments through the point are ordered by
+	 * slope as they are just after the point, or reversed as they are just before it.
+	 * {@link #POINT} comes before all segments through the point.
+	 */
+	private int compare( Integer a, Integer b){
+		if( a.intValue() == b.intValue())
+			return 0;
+		double ya = key( a), yb = key( b);
+		double tolerance = tolerance();
+		if( ya < yb - tolerance)
+			return -1;
+		if( ya > yb + tolerance)
+			return 1;
+		if( a.intValue() == POINT)
+			return -1;
+		if( b.intValue() == POINT)
+			return 1;
+		int bySlope = Double.compare( slope( a), slope( b));
+		if( bySlope != 0)
+			return after ? bySlope : -bySlope;
+		return Integer.compare( a, b);
+	}
+
+	/**
+	 * a point where the sweep line stops, with segments starting and ending at it
+	 */
+	private static final class Event implements Comparable< Event>{
+
+		final double x, y;
+		int[] starts = new int[1], ends = new int[1];
+		int startCount, endCount;
+
+		Event( double x, double y){
+			this.x = x;
+			this.y = y;
+		}
+
+		void addStart( int segment){
+			if( startCount == starts.length)
+				starts = Arrays.copyOf( starts, startCount * 2);
+			starts[startCount++] = segment;
+		}
+
+		void addEnd( int segment){
+			if( endCount == ends.length)
+				ends = Arrays.copyOf( ends, endCount * 2);
+			ends[endCount++] = segment;
+		}
+
+		@Override
+		public int compareTo( Event other){
+			int byX = Double.compare( x, other.x);
+			return byX != 0 ? byX : Double.compare( y, other.y);
+		}
+	}
+}
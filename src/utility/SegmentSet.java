@@ -0,0 +1,224 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * a packed set of line segments stored as structure of arrays. start x, start y, end x and end y
+ * of each segment are kept in four parallel arrays so a ray can be tested against the whole set
+ * in one pass without creating any objects, see {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet)}.
+ * as a {@link SegmentIndex} it tests every segment, which is fastest for small sets.
+ * </p>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class SegmentSet implements SegmentIndex{
+
+	/**
+	 * default capacity used when no capacity is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * start x, start y, end x and end y of all segments
+	 */
+	double[] ssx, ssy, sex, sey;
+
+	/**
+	 * number of segments in this set
+	 */
+	int size;
+
+	/**
+	 * incremented every time a segment is added, changed or removed
+	 */
+	private long version;
+
+	/**
+	 * create an empty set with default capacity
+	 */
+	public SegmentSet(){
+		this( DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * create an empty set which can hold given number of segments before growing
+	 * @param capacity - initial number of segments this set can hold
+	 */
+	public SegmentSet( int capacity){
+		if( capacity < 0)
+			throw new IllegalArgumentException( "capacity cannot be negative: " + capacity);
+		ssx = new double[capacity];
+		ssy = new double[capacity];
+		sex = new double[capacity];
+		sey = new double[capacity];
+	}
+
+	/**
+	 * add a new segment to the end of this set
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return index of the new segment
+	 */
+	public int add( double ssx, double ssy, double sex, double sey){
+		if( size == this.ssx.length)
+			grow( size + 1);
+		put( size, ssx, ssy, sex, sey);
+		version++;
+		return size++;
+	}
+
+	/**
+	 * add a new segment to the end of this set
+	 * @param start - start point of segment
+	 * @param end - end point of segment
+	 * @return index of the new segment
+	 */
+	public int add( Point start, Point end){
+		return add( start.x(), start.y(), end.x(), end.y());
+	}
+
+	/**
+	 * replace the segment at given index
+	 * @param index - index of segment to replace
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 */
+	public void set( int index, double ssx, double ssy, double sex, double sey){
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+		put( index, ssx, ssy, sex, sey);
+		version++;
+	}
+
+	/**
+	 * write a segment at given index without checks, index must be below capacity
+	 */
+	private void put( int index, double ssx, double ssy, double sex, double sey){
+		this.ssx[index] = ssx;
+		this.ssy[index] = ssy;
+		this.sex[index] = sex;
+		this.sey[index] = sey;
+	}
+
+	/**
+	 * remove the segment at given index. the last segment is moved into its place so
+	 * the order of segments is not kept.
+	 * @param index - index of segment to remove
+	 * @return old index of the segment which now lives at given index, or -1 if the last segment was removed
+	 */
+	public int remove( int index){
+		if( index < 0 || index >= size)
+			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + size);
+		int last = --size;
+		version++;
+		if( index == last)
+			return -1;
+		ssx[index] = ssx[last];
+		ssy[index] = ssy[last];
+		sex[index] = sex[last];
+		sey[index] = sey[last];
+		return last;
+	}
+
+	/**
+	 * remove all segments, capacity is kept
+	 */
+	public void clear(){
+		size = 0;
+		version++;
+	}
+
+	/**
+	 * get number of segments in this set
+	 * @return number of segments
+	 */
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get the version of this set, it changes every time segments are added, changed or removed.
+	 * structures built from this set can compare versions to know when they are out of date.
+	 * @return current version
+	 */
+	public long version(){
+		return version;
+	}
+
+	/**
+	 * change the version after segments were written directly to the arrays, see {@link TransformUtil}
+	 */
+	void changed(){
+		version++;
+	}
+
+	/**
+	 * get start x of segment at given index
+	 * @param index - index of segment
+	 * @return start x
+	 */
+	public double ssx( int index){
+		return ssx[index];
+	}
+
+	/**
+	 * get start y of segment at given index
+	 * @param index - index of segment
+	 * @return start y
+	 */
+	public double ssy( int index){
+		return ssy[index];
+	}
+
+	/**
+	 * get end x of segment at given index
+	 * @param index - index of segment
+	 * @return end x
+	 */
+	public double sex( int index){
+		return sex[index];
+	}
+
+	/**
+	 * get end y of segment at given index
+	 * @param index - index of segment
+	 * @return end y
+	 */
+	public double sey( int index){
+		return sey[index];
+	}
+
+	@Override
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		return IntersectUtil.getClosestIntersection( result, rsx, rsy, rex, rey, this, tMax);
+	}
+
+	@Override
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		return IntersectUtil.getAnyIntersection( rsx, rsy, rex, rey, this, tMax);
+	}
+
+	/**
+	 * make sure the arrays can hold at least given number of segments
+	 * @param minCapacity - min number of segments
+	 */
+	private void grow( int minCapacity){
+		int capacity = Math.max( minCapacity, ssx.length + (ssx.length >> 1) + 1);
+		ssx = Arrays.copyOf( ssx, capacity);
+		ssy = Arrays.copyOf( ssy, capacity);
+		sex = Arrays.copyOf( sex, capacity);
+		sey = Arrays.copyOf( sey, capacity);
+	}
+
+	@Override
+	public String toString(){
+		return "SegmentSet[size=" + size + "]";
+	}
+}
@@ -0,0 +1,440 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * a scene of mixed shapes which block light: line segments, circles, axis aligned boxes and convex polygons.
+ * round pillars and box obstacles no longer need to be split into dozens of segments, each shape is tested
+ * with its own routine in {@link IntersectUtil} and all of them sit in one {@link BoundingVolumeHierarchy},
+ * so a ray only tests shapes whose box it passes through, closer boxes first.
+ * </p>
+ * <p>
+ * shapes are outlines, the same as the segments they replace: a ray starting inside a shape hits where it leaves.
+ * the result array holds x, y and ray scaler as for segments, the last value is the position on the outline of the
+ * shape hit, see {@link IntersectUtil#getCircleIntersection(double[], double, double, double, double, double, double, double)},
+ * {@link IntersectUtil#getBoxIntersection(double[], double, double, double, double, double, double, double, double)} and
+ * {@link IntersectUtil#getPolygonIntersection(double[], double, double, double, double, double[])}.
+ * </p>
+ * <p>
+ * the hierarchy is built on the first query after shapes are added. queries may run on many threads at once,
+ * but shapes must not be added while any thread is querying.
+ * </p>
+ *
+ * <pre>
+ * ShapeScene scene = new ShapeScene();
+ * scene.addSegments( walls);
+ * scene.addCircle( 300, 200, 25);
+ * scene.addBox( 500, 100, 560, 180);
+ * int shape = scene.getClosestIntersection( result, light.x(), light.y(), x, y);
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class ShapeScene{
+
+	/**
+	 * kinds of shape, see {@link #kind(int)}
+	 */
+	public static final int SEGMENT = 0, CIRCLE = 1, BOX = 2, POLYGON = 3;
+
+	/**
+	 * number of shapes a new scene can hold before growing
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * kind of each shape and where its values start in {@link #data}
+	 */
+	private int[] kinds, offsets;
+
+	/**
+	 * values of all shapes in a row. segment is start x, start y, end x, end y. circle is center x, center y, radius.
+	 * box is min x, min y, max x, max y. polygon is its vertices in counter clockwise order, the number of vertices
+	 * is known from the offset of the next shape.
+	 */
+	private double[] data;
+
+	/**
+	 * number of shapes and number of values used in {@link #data}
+	 */
+	private int size, dataSize;
+
+	/**
+	 * hierarchy over the bounding box of each shape, null if shapes were added since it was built
+	 */
+	private volatile BoundingVolumeHierarchy tree;
+
+	/**
+	 * create an empty scene
+	 */
+	public ShapeScene(){
+		kinds = new int[DEFAULT_CAPACITY];
+		offsets = new int[DEFAULT_CAPACITY + 1];
+		data = new double[DEFAULT_CAPACITY * 4];
+	}
+
+	/**
+	 * add a line segment
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 * @return index of the new shape
+	 */
+	public int addSegment( double ssx, double ssy, double sex, double sey){
+		int o = add( SEGMENT, 4);
+		data[o] = ssx;
+		data[o + 1] = ssy;
+		data[o + 2] = sex;
+		data[o + 3] = sey;
+		return size - 1;
+	}
+
+	/**
+	 * add all segments of a set, in order
+	 * @param segments - segments to add
+	 * @return index of the shape of the first segment
+	 */
+	public int addSegments( SegmentSet segments){
+		int first = size;
+		for( int i = 0; i < segments.size; i++)
+			addSegment( segments.ssx[i], segments.ssy[i], segments.sex[i], segments.sey[i]);
+		return first;
+	}
+
+	/**
+	 * add a circle
+	 * @param cx - circle center x
+	 * @param cy - circle center y
+	 * @param radius - circle radius
+	 * @return index of the new shape
+	 */
+	public int addCircle( double cx, double cy, double radius){
+		if( !(radius >= 0))
+			throw new IllegalArgumentException( "radius cannot be negative: " + radius);
+		int o = add( CIRCLE, 3);
+		data[o] = cx;
+		data[o + 1] = cy;
+		data[o + 2] = radius;
+		return size - 1;
+	}
+
+	/**
+	 * add an axis aligned box
+	 * @param minX - box min x
+	 * @param minY - box min y
+	 * @param maxX - box max x
+	 * @param maxY - box max y
+	 * @return index of the new shape
+	 */
+	public int addBox( double minX, double minY, double maxX, double maxY){
+		if( !(minX <= maxX && minY <= maxY))
+			throw new IllegalArgumentException( "min cannot be more than max: " + minX + ", " + minY + ", " + maxX + ", " + maxY);
+		int o = add( BOX, 4);
+		data[o] = minX;
+		data[o + 1] = minY;
+		data[o + 2] = maxX;
+		data[o + 3] = maxY;
+		return size - 1;
+	}
+
+	/**
+	 * add a convex polygon, vertices may be in either order and are copied. clockwise vertices are stored in reverse,
+	 * so the position on the outline of a hit always counts edges counter clockwise.
+	 * @param vertices - vertices as [x1,y1,x2,y2,...], at least 3
+	 * @return index of the new shape
+	 */
+	public int addPolygon( double[] vertices){
+		int count = vertices.length / 2;
+		if( count < 3 || vertices.length % 2 != 0)
+			throw new IllegalArgumentException( "polygon needs at least 3 vertices as x and y pairs: " + vertices.length);
+		double area = IntersectUtil.area( vertices, 0, count);
+		if( !(area != 0))
+			throw new IllegalArgumentException( "polygon has no area");
+		double orientation = Math.signum( area);
+		for( int i = 0; i < count; i++){
+			int a = i * 2, b = (i + 1) % count * 2, c = (i + 2) % count * 2;
+			double turn = (vertices[b] - vertices[a]) * (vertices[c + 1] - vertices[b + 1]) - (vertices[b + 1] - vertices[a + 1]) * (vertices[c] - vertices[b]);
+			if( turn * orientation < 0)
+				throw new IllegalArgumentException( "polygon is not convex at vertex " + (i + 1) % count);
+		}
+		int o = add( POLYGON, count * 2);
+		for( int i = 0; i < count; i++){
+			// stored counter clockwise so queries do not need the orientation
+			int from = orientation > 0 ? i : count - 1 - i;
+			data[o + i * 2] = vertices[from * 2];
+			data[o + i * 2 + 1] = vertices[from * 2 + 1];
+		}
+		return size - 1;
+	}
+
+	/**
+	 * make room for a new shape and invalidate the hierarchy
+	 * @param kind - kind of new shape
+	 * @param values - number of values of new shape
+	 * @return offset of its values in {@link #data}
+	 */
+	private int add( int kind, int values){
+		if( size == kinds.length){
+			int capacity = Math.max( size * 2, DEFAULT_CAPACITY);
+			kinds = Arrays.copyOf( kinds, capacity);
+			offsets = Arrays.copyOf( offsets, capacity + 1);
+		}
+		if( dataSize + values > data.length)
+			data = Arrays.copyOf( data, Math.max( data.length * 2, dataSize + values));
+		int o = dataSize;
+		kinds[size] = kind;
+		offsets[size] = o;
+		dataSize += values;
+		offsets[++size] = dataSize;
+		tree = null;
+		return o;
+	}
+
+	/**
+	 * get number of shapes
+	 * @return number of shapes
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * get the kind of a shape
+	 * @param shape - index of shape
+	 * @return {@link #SEGMENT}, {@link #CIRCLE}, {@link #BOX} or {@link #POLYGON}
+	 */
+	public int kind( int shape){
+		if( shape < 0 || shape >= size)
+			throw new IndexOutOfBoundsException( "index: " + shape + ", size: " + size);
+		return kinds[shape];
+	}
+
+	/**
+	 * build the hierarchy if shapes were added since it was last built
+	 * @return up to date hierarchy
+	 */
+	private BoundingVolumeHierarchy tree(){
+		BoundingVolumeHierarchy tree = this.tree;
+		if( tree != null)
+			return tree;
+		synchronized( this){
+			if( this.tree == null){
+				double[] minX = new double[size], minY = new double[size];
+				double[] maxX = new double[size], maxY = new double[size];
+				for( int s = 0; s < size; s++){
+					int o = offsets[s];
+					switch( kinds[s]){
+						case CIRCLE:
+							minX[s] = data[o] - data[o + 2];
+							minY[s] = data[o + 1] - data[o + 2];
+							maxX[s] = data[o] + data[o + 2];
+							maxY[s] = data[o + 1] + data[o + 2];
+							break;
+						default:
+							// segment and box are two corners, polygon is all its vertices
+							minX[s] = minY[s] = Double.POSITIVE_INFINITY;
+							maxX[s] = maxY[s] = Double.NEGATIVE_INFINITY;
+							for( int i = o; i < offsets[s + 1]; i += 2){
+								minX[s] = Math.min( minX[s], data[i]);
+								minY[s] = Math.min( minY[s], data[i + 1]);
+								maxX[s] = Math.max( maxX[s], data[i]);
+								maxY[s] = Math.max( maxY[s], data[i + 1]);
+							}
+					}
+				}
+				this.tree = new BoundingVolumeHierarchy( minX, minY, maxX, maxY, size);
+			}
+			return this.tree;
+		}
+	}
+
+	/**
+	 * ray scaler of the first crossing of a ray with a shape
+	 * @param shape - index of shape
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rx - light ray end x minus start x
+	 * @param ry - light ray end y minus start y
+	 * @param tMax - upper bound of ray scaler, exclusive
+	 * @return ray scaler of intersect point or -1 if they do not intersect before tMax
+	 */
+	private double getRayScaler( int shape, double rsx, double rsy, double rx, double ry, double tMax){
+		final double[] data = this.data;
+		int o = offsets[shape];
+		switch( kinds[shape]){
+			case SEGMENT:
+				return IntersectUtil.getRayScaler( rsx, rsy, rx, ry, data[o], data[o + 1], data[o + 2], data[o + 3], tMax);
+			case CIRCLE:
+				return IntersectUtil.getCircleRayScaler( rsx, rsy, rx, ry, data[o], data[o + 1], data[o + 2], tMax);
+			case BOX:
+				return IntersectUtil.getBoxRayScaler( rsx, rsy, rx, ry, data[o], data[o + 1], data[o + 2], data[o + 3], tMax);
+			default:
+				return IntersectUtil.getPolygonRayScaler( rsx, rsy, rx, ry, data, o, (offsets[shape + 1] - o) / 2, 1, tMax);
+		}
+	}
+
+	/**
+	 * find the closest intersection of a light ray with all shapes, with no bound
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and position on the outline
+	 *                 of the closest intersect point. it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @return index of the closest shape or -1 if ray does not intersect any shape.
+	 */
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey){
+		return getClosestIntersection( result, rsx, rsy, rex, rey, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * find the closest intersection of a light ray with all shapes, if two shapes are hit at the same ray scaler the lower index wins
+	 * @param result - must be an array of size 4, this array will hold in order x, y, ray scaler and position on the outline
+	 *                 of the closest intersect point. it is not changed if there is no intersect.
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param tMax - only hits with ray scaler less than this count, 1 stops at ray end
+	 * @return index of the closest shape or -1 if ray does not intersect any shape before tMax.
+	 */
+	public int getClosestIntersection( double[] result, double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final BoundingVolumeHierarchy tree = tree();
+		if( tree.isEmpty())
+			return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, -1);
+		final int[] items = tree.items, start = tree.start, count = tree.count;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double invX = 1 / rx;
+		double invY = 1 / ry;
+
+		int closest = -1;
+		double closestRay = tMax;
+
+		// same traversal as SegmentBVH, closer child first and boxes past the closest hit are skipped
+		int[] stack = new int[BoundingVolumeHierarchy.MAX_DEPTH];
+		double[] stackEnter = new double[BoundingVolumeHierarchy.MAX_DEPTH];
+		int top = 0;
+		double tRoot = tree.enter( 0, rsx, rsy, invX, invY, closestRay);
+		if( tRoot != Double.POSITIVE_INFINITY){
+			stackEnter[top] = tRoot;
+			stack[top++] = 0;
+		}
+		while( top > 0){
+			int node = stack[--top];
+			if( stackEnter[top] > closestRay)
+				continue;
+			if( count[node] > 0){
+				for( int i = start[node], end = i + count[node]; i < end; i++){
+					int s = items[i];
+					// equal ray scalers must pass too so the lower index wins ties
+					double t = getRayScaler( s, rsx, rsy, rx, ry, Math.nextUp( closestRay));
+					if( t >= 0 && (t < closestRay || (t == closestRay && s < closest))){
+						closestRay = t;
+						closest = s;
+					}
+				}
+				continue;
+			}
+			int left = node + 1;
+			int right = start[node];
+			double tLeft = tree.enter( left, rsx, rsy, invX, invY, closestRay);
+			double tRight = tree.enter( right, rsx, rsy, invX, invY, closestRay);
+			if( tLeft <= tRight){
+				if( tRight != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tRight;
+					stack[top++] = right;
+				}
+				if( tLeft != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tLeft;
+					stack[top++] = left;
+				}
+			}else{
+				if( tLeft != Double.POSITIVE_INFINITY){
+					stackEnter[top] = tLeft;
+					stack[top++] = left;
+				}
+				stackEnter[top] = tRight;
+				stack[top++] = right;
+			}
+		}
+
+		if( closest != -1)
+			store( result, closest, rsx, rsy, rex, rey, closestRay);
+		return GeometryMetrics.found( GeometryMetrics.CLOSEST, begin, closest);
+	}
+
+	/**
+	 * find any shape a light ray crosses before tMax, faster than the closest when only blocked or not matters
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param tMax - only hits with ray scaler less than this count, 1 stops at ray end
+	 * @return index of a shape hit before tMax or -1 if there is none
+	 */
+	public int getAnyIntersection( double rsx, double rsy, double rex, double rey, double tMax){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		final BoundingVolumeHierarchy tree = tree();
+		if( tree.isEmpty())
+			return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+		final int[] items = tree.items, start = tree.start, count = tree.count;
+		double rx = rex - rsx;
+		double ry = rey - rsy;
+		double invX = 1 / rx;
+		double invY = 1 / ry;
+
+		int[] stack = new int[BoundingVolumeHierarchy.MAX_DEPTH];
+		int top = 0;
+		if( tree.enter( 0, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+			stack[top++] = 0;
+		while( top > 0){
+			int node = stack[--top];
+			if( count[node] > 0){
+				for( int i = start[node], end = i + count[node]; i < end; i++)
+					if( getRayScaler( items[i], rsx, rsy, rx, ry, tMax) >= 0)
+						return GeometryMetrics.found( GeometryMetrics.ANY, begin, items[i]);
+				continue;
+			}
+			int left = node + 1;
+			int right = start[node];
+			if( tree.enter( right, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+				stack[top++] = right;
+			if( tree.enter( left, rsx, rsy, invX, invY, tMax) != Double.POSITIVE_INFINITY)
+				stack[top++] = left;
+		}
+		return GeometryMetrics.found( GeometryMetrics.ANY, begin, -1);
+	}
+
+	/**
+	 * store the intersect of a ray with a shape in result
+	 * @param result - array of size 4
+	 * @param shape - index of shape hit
+	 * @param rsx - light ray start x
+	 * @param rsy - light ray start y
+	 * @param rex - light ray end x
+	 * @param rey - light ray end y
+	 * @param t - ray scaler of intersect
+	 */
+	private void store( double[] result, int shape, double rsx, double rsy, double rex, double rey, double t){
+		int o = offsets[shape];
+		double x = rsx + (rex - rsx) * t, y = rsy + (rey - rsy) * t;
+		switch( kinds[shape]){
+			case SEGMENT:
+				IntersectUtil.intersect( result, rsx, rsy, rex, rey, data[o], data[o + 1], data[o + 2], data[o + 3]);
+				break;
+			case CIRCLE:
+				IntersectUtil.storeCircle( result, x, y, t, data[o], data[o + 1]);
+				break;
+			case BOX:
+				IntersectUtil.storeBox( result, x, y, t, data[o], data[o + 1], data[o + 2], data[o + 3]);
+				break;
+			default:
+				IntersectUtil.storePolygon( result, x, y, t, data, o, (offsets[shape + 1] - o) / 2);
+		}
+	}
+}
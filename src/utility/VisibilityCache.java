@@ -0,0 +1,278 @@
+package utility;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * a bounded cache of {@link VisibilityPolygon} results, for lights which stand still or move back and forth over
+ * the same few positions. lights are snapped to a grid of given quantum and the polygon is computed from the snapped
+ * position, so every light in the same cell gets exactly the same polygon. a quantum of half a pixel or less is not
+ * visible on screen. a light which a segment separates from the centre of its cell, because it stands next to a
+ * wall, would get the polygon of the other side, its polygon is computed from its real position and not cached.
+ * </p>
+ * <p>
+ * entries remember the {@link SegmentSet#version()} they were computed from, when segments change the whole cache
+ * is dropped on the next call. least recently used entries are evicted when there are more than the max entries
+ * or the polygons hold more than the max vertices in total.
+ * </p>
+ * <p>
+ * all methods are thread safe. polygons are computed outside the lock, so two threads which miss the same cell
+ * at the same time may both compute it. returned arrays are shared and must not be changed.
+ * </p>
+ *
+ * <pre>
+ * VisibilityCache cache = new VisibilityCache( segments, 0.5, 256, 1 &lt;&lt; 20);
+ * double[] polygon = cache.get( light.x(), light.y());
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class VisibilityCache{
+
+	/**
+	 * engine of each thread used on a miss
+	 */
+	private static final ThreadLocal< VisibilityPolygon> VISIBILITY = ThreadLocal.withInitial( VisibilityPolygon::new);
+
+	/**
+	 * segments which block the light
+	 */
+	private final SegmentSet segments;
+
+	/**
+	 * size of a cell light positions are snapped to
+	 */
+	private final double quantum;
+
+	/**
+	 * max number of polygons and max number of vertices of all polygons
+	 */
+	private final int maxEntries;
+	private final long maxVertices;
+
+	/**
+	 * cached polygons in access order, least recently used first
+	 */
+	private final LinkedHashMap< Cell, double[]> cache = new LinkedHashMap<>( 16, 0.75f, true);
+
+	/**
+	 * version of {@link #segments} the cached polygons were computed from
+	 */
+	private long version;
+
+	/**
+	 * number of vertices of all cached polygons
+	 */
+	private long vertices;
+
+	/**
+	 * statistics since creation or last {@link #resetStatistics()}
+	 */
+	private long hits, misses, evictions, invalidations;
+
+	/**
+	 * create a new cache
+	 * @param segments - segments which block the light, they must not change while a polygon is being computed
+	 * @param quantum - size of cell light positions are snapped to, must be positive
+	 * @param maxEntries - max number of cached polygons
+	 * @param maxVertices - max number of vertices of all cached polygons
+	 */
+	public VisibilityCache( SegmentSet segments, double quantum, int maxEntries, long maxVertices){
+		if( segments == null)
+			throw new NullPointerException( "segments cannot be null");
+		if( !(quantum > 0) || Double.isInfinite( quantum))
+			throw new IllegalArgumentException( "quantum must be positive: " + quantum);
+		if( maxEntries < 1 || maxVertices < 1)
+			throw new IllegalArgumentException( "max entries and max vertices must be positive: " + maxEntries + ", " + maxVertices);
+		this.segments = segments;
+		this.quantum = quantum;
+		this.maxEntries = maxEntries;
+		this.maxVertices = maxVertices;
+		this.version = segments.version();
+	}
+
+	/**
+	 * get the visibility polygon of a light, computing it if it is not cached. a light which can not see the centre
+	 * of its cell gets the polygon of its real position, which is not cached
+	 * @param lx - light x
+	 * @param ly - light y
+	 * @return an array of [x1,y1,x2,y2,...] in counter clockwise order, must not be changed
+	 */
+	public double[] get( double lx, double ly){
+		Cell cell = new Cell( Math.round( lx / quantum), Math.round( ly / quantum));
+		double cx = cell.x * quantum, cy = cell.y * quantum;
+		// a wall between the light and the centre of its cell, or through the centre, the cell polygon is the wrong one
+		if( segments.getAnyIntersection( lx, ly, cx, cy, Math.nextUp( 1.0)) != -1){
+			synchronized( this){
+				validate();
+				misses++;
+			}
+			return VISIBILITY.get().compute( lx, ly, segments).toArray();
+		}
+		long computedVersion;
+		synchronized( this){
+			validate();
+			double[] polygon = cache.get( cell);
+			if( polygon != null){
+				hits++;
+				return polygon;
+			}
+			misses++;
+			computedVersion = version;
+		}
+		double[] polygon = VISIBILITY.get().compute( cx, cy, segments).toArray();
+		synchronized( this){
+			validate();
+			// segments changed while computing, the polygon may be wrong for the new segments so do not keep it
+			if( version != computedVersion)
+				return polygon;
+			double[] old = cache.put( cell, polygon);
+			if( old != null)
+				vertices -= old.length / 2;
+			vertices += polygon.length / 2;
+			evict();
+		}
+		return polygon;
+	}
+
+	/**
+	 * drop all cached polygons if segments changed since they were computed
+	 */
+	private void validate(){
+		if( version == segments.version())
+			return;
+		version = segments.version();
+		if( !cache.isEmpty())
+			invalidations++;
+		cache.clear();
+		vertices = 0;
+	}
+
+	/**
+	 * remove least recently used polygons until the cache is within its bounds, the newest entry is always kept
+	 */
+	private void evict(){
+		Iterator< Map.Entry< Cell, double[]>> it = cache.entrySet().iterator();
+		while( cache.size() > 1 && (cache.size() > maxEntries || vertices > maxVertices)){
+			vertices -= it.next().getValue().length / 2;
+			it.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * drop all cached polygons, statistics are kept
+	 */
+	public synchronized void clear(){
+		cache.clear();
+		vertices = 0;
+	}
+
+	/**
+	 * get the number of cached polygons
+	 * @return number of cached polygons
+	 */
+	public synchronized int size(){
+		return cache.size();
+	}
+
+	/**
+	 * get the number of vertices of all cached polygons
+	 * @return number of cached vertices
+	 */
+	public synchronized long vertices(){
+		return vertices;
+	}
+
+	/**
+	 * get the number of calls which found their polygon in the cache
+	 * @return number of hits
+	 */
+	public synchronized long hits(){
+		return hits;
+	}
+
+	/**
+	 * get the number of calls which had to compute their polygon
+	 * @return number of misses
+	 */
+	public synchronized long misses(){
+		return misses;
+	}
+
+	/**
+	 * get the number of polygons removed to stay within bounds
+	 * @return number of evictions
+	 */
+	public synchronized long evictions(){
+		return evictions;
+	}
+
+	/**
+	 * get the number of times the cache was dropped because segments changed
+	 * @return number of invalidations
+	 */
+	public synchronized long invalidations(){
+		return invalidations;
+	}
+
+	/**
+	 * get the fraction of calls which were hits
+	 * @return hits divided by all calls, 0 if there was no call
+	 */
+	public synchronized double hitRate(){
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * set all statistics back to 0
+	 */
+	public synchronized void resetStatistics(){
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		invalidations = 0;
+	}
+
+	@Override
+	public synchronized String toString(){
+		return String.format( "VisibilityCache[size=%d, vertices=%d, hits=%d, misses=%d, evictions=%d, invalidations=%d]", cache.size(),
+				vertices, hits, misses, evictions, invalidations);
+	}
+
+	/**
+	 * a cell of the quantized grid, used as key of the cache
+	 */
+	private static final class Cell{
+
+		private final long x, y;
+
+		Cell( long x, long y){
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public int hashCode(){
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + Long.hashCode( x);
+			result = prime * result + Long.hashCode( y);
+			return result;
+		}
+
+		@Override
+		public boolean equals( Object obj){
+			if( this == obj)
+				return true;
+			if( !(obj instanceof Cell))
+				return false;
+			Cell other = (Cell) obj;
+			return x == other.x && y == other.y;
+		}
+	}
+}
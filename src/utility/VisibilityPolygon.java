@@ -0,0 +1,665 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * compute the lit area around a light as a polygon, the result of "Sight and Light" technique.
+ * instead of casting a ray toward every segment end with {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+ * this class sorts all segment ends by their angle around the light and sweeps them once counter clockwise.
+ * segments under the sweep are kept in a binary heap ordered by their distance from the light along the current
+ * direction so the closest segment is always on top. a vertex is only added when the closest segment changes.
+ * this makes each light O(n log n) instead of O(n^2).
+ * </p>
+ * <p>
+ * segments must not cross each other, only touch at their ends, see {@link SegmentIntersections}.
+ * the light must also be enclosed by the segments, for example by the four borders of the canvas.
+ * directions which escape the scene collapse to the light position.
+ * an instance reuses its arrays between calls and is not thread safe, use one instance per thread.
+ * </p>
+ *
+ * <pre>
+ * VisibilityPolygon visibility = new VisibilityPolygon();
+ * visibility.compute( light, segments);
+ * for( int i = 0; i &lt; visibility.size(); i++)
+ * 	gc.lineTo( visibility.x( i), visibility.y( i));
+ * </pre>
+ *
+ * @see <a href="https://ncase.me/sight-and-light/">Sight and Light</a>
+ * @see <a href="https://www.redblobgames.com/articles/visibility/">2d Visibility</a>
+ *
+ * @author agent
+ * @version Oct 18, 2026
+ */
+public class VisibilityPolygon{
+
+	/**
+	 * relative tolerance under which two distances are considered the same
+	 */
+	private static final double TIE = 1e-9;
+
+	/**
+	 * max number of moved events per event during re sort before falling back to a full sort
+	 */
+	private static final int RESORT_BUDGET = 16;
+
+	/**
+	 * position of the last light
+	 */
+	double lx, ly;
+
+	/**
+	 * segment ends relative to the light, ordered so a to b is counter clockwise around the light
+	 */
+	double[] ax = new double[0], ay = ax, bx = ax, by = ax;
+
+	/**
+	 * true if segment at the same index faces the light, degenerate segments are ignored
+	 */
+	boolean[] visible = new boolean[0];
+
+	/**
+	 * number of segments prepared
+	 */
+	int segmentCount;
+
+	/**
+	 * pseudo angle of each event, see {@link #pseudoAngle(double, double)}
+	 */
+	double[] eventAngle = new double[0];
+
+	/**
+	 * event data, segment index shifted left once, lowest bit is 1 for end of segment and 0 for start of segment
+	 */
+	int[] eventData = new int[0];
+
+	/**
+	 * number of events
+	 */
+	int eventCount;
+
+	/**
+	 * binary min heap of segment indices and position of each segment in the heap or -1
+	 */
+	private int[] heap = new int[0], heapIndex = new int[0];
+
+	/**
+	 * number of segments in the heap
+	 */
+	private int heapSize;
+
+	/**
+	 * current sweep direction, not normalized
+	 */
+	private double dx, dy;
+
+	/**
+	 * polygon vertices in order of x and y
+	 */
+	private double[] vertices = new double[16];
+
+	/**
+	 * number of vertices
+	 */
+	private int vertexCount;
+
+	/**
+	 * compute the visibility polygon of given light
+	 * @param light - position of light
+	 * @param segments - segments which block the light
+	 * @return the current instance of this class
+	 */
+	public VisibilityPolygon compute( Point light, SegmentSet segments){
+		return compute( light.x(), light.y(), segments);
+	}
+
+	/**
+	 * compute the visibility polygon of given light
+	 * @param lx - light x
+	 * @param ly - light y
+	 * @param segments - segments which block the light
+	 * @return the current instance of this class
+	 */
+	public VisibilityPolygon compute( double lx, double ly, SegmentSet segments){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		prepare( lx, ly, segments);
+		createEvents();
+		sortEvents( 0, eventCount - 1);
+		sweep();
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.record( GeometryMetrics.VISIBILITY, begin, vertexCount);
+		return this;
+	}
+
+	/**
+	 * compute the polygon again after the light moved, reusing the angular order of events from the last call.
+	 * a light which moved a little only swaps the few ends whose order really changed, so the re sort is close to O(n).
+	 * if too many ends moved the events are sorted again from scratch. the sweep then runs over all events as in
+	 * {@link #compute(double, double, SegmentSet)}, so this is still O(n log n).
+	 * segments must be the same and unchanged since the last call.
+	 * @param lx - light x
+	 * @param ly - light y
+	 * @param segments - segments used by the last call
+	 * @return the current instance of this class
+	 */
+	VisibilityPolygon move( double lx, double ly, SegmentSet segments){
+		long begin = GeometryMetrics.ENABLED ? System.nanoTime() : 0;
+		prepare( lx, ly, segments);
+		refreshEventAngles();
+		int last = eventCount - 1;
+		if( !insertionSortEvents( 0, last, (long) RESORT_BUDGET * eventCount))
+			sortEvents( 0, last);
+		sweep();
+		if( GeometryMetrics.ENABLED)
+			GeometryMetrics.record( GeometryMetrics.VISIBILITY, begin, vertexCount);
+		return this;
+	}
+
+	/**
+	 * get number of vertices in the polygon
+	 * @return number of vertices
+	 */
+	public int size(){
+		return vertexCount;
+	}
+
+	/**
+	 * get x of vertex at given index
+	 * @param index - index of vertex
+	 * @return x of vertex
+	 */
+	public double x( int index){
+		return vertices[index * 2];
+	}
+
+	/**
+	 * get y of vertex at given index
+	 * @param index - index of vertex
+	 * @return y of vertex
+	 */
+	public double y( int index){
+		return vertices[index * 2 + 1];
+	}
+
+	/**
+	 * get x of last light
+	 * @return x of last light
+	 */
+	public double lightX(){
+		return lx;
+	}
+
+	/**
+	 * get y of last light
+	 * @return y of last light
+	 */
+	public double lightY(){
+		return ly;
+	}
+
+	/**
+	 * copy the polygon to a new array
+	 * @return an array of [x1,y1,x2,y2,...] in counter clockwise order
+	 */
+	public double[] toArray(){
+		return Arrays.copyOf( vertices, vertexCount * 2);
+	}
+
+	/**
+	 * store the segment ends relative to the given light and orient them counter clockwise
+	 * @param lx - light x
+	 * @param ly - light y
+	 * @param segments - segments which block the light
+	 */
+	void prepare( double lx, double ly, SegmentSet segments){
+		this.lx = lx;
+		this.ly = ly;
+		ensureSegmentCapacity( segments.size);
+		segmentCount = segments.size;
+		for( int i = 0; i < segmentCount; i++)
+			prepare( i, segments.ssx[i], segments.ssy[i], segments.sex[i], segments.sey[i]);
+	}
+
+	/**
+	 * store one segment relative to the light
+	 * @param i - index of segment
+	 * @param ssx - line segment start x
+	 * @param ssy - line segment start y
+	 * @param sex - line segment end x
+	 * @param sey - line segment end y
+	 */
+	void prepare( int i, double ssx, double ssy, double sex, double sey){
+		double x1 = ssx - lx, y1 = ssy - ly;
+		double x2 = sex - lx, y2 = sey - ly;
+		// exact side of the light, a rounded cross product of a segment almost in line with the light can have the
+		// wrong sign and swap its ends
+		int sign = Predicates.orient2d( x1, y1, x2, y2, 0, 0);
+		if( sign >= 0){
+			ax[i] = x1; ay[i] = y1;
+			bx[i] = x2; by[i] = y2;
+		}else{
+			ax[i] = x2; ay[i] = y2;
+			bx[i] = x1; by[i] = y1;
+		}
+		// a segment crossing the negative x direction starts after it ends, any other must start before it ends.
+		// rounded pseudo angles of a segment a tiny angle wide can tie or swap, it is skipped like a segment seen edge on
+		boolean wraps = ay[i] >= 0 && by[i] < 0;
+		visible[i] = sign != 0 && (wraps || pseudoAngle( ax[i], ay[i]) < pseudoAngle( bx[i], by[i]));
+	}
+
+	/**
+	 * create one start and one end event for every segment. events of segments which do not face the light
+	 * are kept so they can become visible when the light moves, {@link #sweep()} skips them.
+	 */
+	void createEvents(){
+		eventCount = 0;
+		for( int i = 0; i < segmentCount; i++){
+			eventData[eventCount] = i << 1;
+			eventAngle[eventCount] = eventAngle( i << 1);
+			eventCount++;
+			eventData[eventCount] = i << 1 | 1;
+			eventAngle[eventCount] = eventAngle( i << 1 | 1);
+			eventCount++;
+		}
+	}
+
+	/**
+	 * recompute the angle of every event after the light moved, the order of events is kept
+	 */
+	void refreshEventAngles(){
+		for( int e = 0; e < eventCount; e++)
+			eventAngle[e] = eventAngle( eventData[e]);
+	}
+
+	/**
+	 * get the pseudo angle of given event
+	 * @param data - event data
+	 * @return pseudo angle of event or 0 if segment end is on the light
+	 */
+	private double eventAngle( int data){
+		int s = data >> 1;
+		double angle = (data & 1) == 0 ? pseudoAngle( ax[s], ay[s]) : pseudoAngle( bx[s], by[s]);
+		return Double.isNaN( angle) ? 0 : angle;
+	}
+
+	/**
+	 * add the two events of a segment which was added after events were sorted, keeping them sorted
+	 * @param segment - index of new segment, must already be prepared
+	 */
+	void insertSegmentEvents( int segment){
+		insertEvent( segment << 1);
+		insertEvent( segment << 1 | 1);
+	}
+
+	private void insertEvent( int data){
+		double angle = eventAngle( data);
+		int low = 0, high = eventCount;
+		while( low < high){
+			int mid = (low + high) >>> 1;
+			if( eventAngle[mid] <= angle)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		System.arraycopy( eventAngle, low, eventAngle, low + 1, eventCount - low);
+		System.arraycopy( eventData, low, eventData, low + 1, eventCount - low);
+		eventAngle[low] = angle;
+		eventData[low] = data;
+		eventCount++;
+	}
+
+	/**
+	 * remove the events of a removed segment and point the events of the segment moved into its place to the new index,
+	 * see {@link SegmentSet#remove(int)}
+	 * @param removed - index of removed segment
+	 * @param moved - old index of segment moved to removed index, or -1
+	 */
+	void removeSegmentEvents( int removed, int moved){
+		int count = 0;
+		for( int e = 0; e < eventCount; e++){
+			int segment = eventData[e] >> 1;
+			if( segment == removed)
+				continue;
+			eventAngle[count] = eventAngle[e];
+			eventData[count] = segment == moved ? removed << 1 | (eventData[e] & 1) : eventData[e];
+			count++;
+		}
+		eventCount = count;
+		if( moved != -1){
+			ax[removed] = ax[moved];
+			ay[removed] = ay[moved];
+			bx[removed] = bx[moved];
+			by[removed] = by[moved];
+			visible[removed] = visible[moved];
+		}
+		segmentCount--;
+	}
+
+	/**
+	 * sweep all sorted events counter clockwise starting from negative x direction and add
+	 * a vertex every time the closest segment changes.
+	 */
+	void sweep(){
+		vertexCount = 0;
+		heapSize = 0;
+		Arrays.fill( heapIndex, 0, segmentCount, -1);
+
+		// segments crossing the negative x direction are active before the first event
+		dx = -1;
+		dy = 0;
+		for( int i = 0; i < segmentCount; i++){
+			if( visible[i] && pseudoAngle( ax[i], ay[i]) > pseudoAngle( bx[i], by[i]))
+				heapInsert( i);
+		}
+
+		int i = 0;
+		while( i < eventCount){
+			if( !visible[eventData[i] >> 1]){
+				i++;
+				continue;
+			}
+			double angle = eventAngle[i];
+			// ties are in no fixed order after a re sort, the direction of the group comes from its lowest visible
+			// event so a moved light gives the same vertices as one computed from scratch
+			int key = eventData[i];
+			int end = i;
+			for( ; end < eventCount && eventAngle[end] == angle; end++){
+				if( eventData[end] < key && visible[eventData[end] >> 1])
+					key = eventData[end];
+			}
+
+			int first = key >> 1;
+			if( (key & 1) == 0){
+				dx = ax[first];
+				dy = ay[first];
+			}else{
+				dx = bx[first];
+				dy = by[first];
+			}
+
+			int before = heapSize > 0 ? heap[0] : -1;
+			for( int e = i; e < end; e++){
+				int segment = eventData[e] >> 1;
+				if( (eventData[e] & 1) == 1 && heapIndex[segment] != -1)
+					heapRemove( segment);
+			}
+			for( int e = i; e < end; e++){
+				int segment = eventData[e] >> 1;
+				if( (eventData[e] & 1) == 0 && visible[segment] && heapIndex[segment] == -1)
+					heapInsert( segment);
+			}
+			int after = heapSize > 0 ? heap[0] : -1;
+
+			if( before != after){
+				addVertex( before, i, end);
+				addVertex( after, i, end);
+			}
+			i = end;
+		}
+	}
+
+	/**
+	 * add the point where current direction hits the given segment. if the segment starts or ends
+	 * in the current event group the exact end point is used.
+	 * @param segment - index of segment or -1 for the light position
+	 * @param from - first event of current group
+	 * @param to - one past last event of current group
+	 */
+	private void addVertex( int segment, int from, int to){
+		double x, y;
+		if( segment == -1){
+			x = lx;
+			y = ly;
+		}else{
+			double px = Double.NaN, py = Double.NaN;
+			for( int e = from; e < to; e++){
+				if( eventData[e] >> 1 == segment){
+					boolean isEnd = (eventData[e] & 1) == 1;
+					px = isEnd ? bx[segment] : ax[segment];
+					py = isEnd ? by[segment] : ay[segment];
+					break;
+				}
+			}
+			if( Double.isNaN( px)){
+				double t = distance( segment, dx, dy);
+				px = dx * t;
+				py = dy * t;
+			}
+			x = lx + px;
+			y = ly + py;
+		}
+		if( vertexCount > 0 && vertices[vertexCount * 2 - 2] == x && vertices[vertexCount * 2 - 1] == y)
+			return;
+		if( vertexCount * 2 == vertices.length)
+			vertices = Arrays.copyOf( vertices, vertices.length * 2);
+		vertices[vertexCount * 2] = x;
+		vertices[vertexCount * 2 + 1] = y;
+		vertexCount++;
+	}
+
+	/**
+	 * distance of given segment along given direction, in units of the direction length.
+	 * @param s - index of segment
+	 * @param dx - direction x
+	 * @param dy - direction y
+	 * @return scaler of direction at which it hits the line of segment
+	 */
+	private double distance( int s, double dx, double dy){
+		double sx = bx[s] - ax[s];
+		double sy = by[s] - ay[s];
+		double ds = dx * sy - dy * sx;
+		if( ds == 0){
+			// direction runs along the segment, use the closer end
+			double d = Math.min( ax[s] * ax[s] + ay[s] * ay[s], bx[s] * bx[s] + by[s] * by[s]);
+			return Math.sqrt( d / (dx * dx + dy * dy));
+		}
+		return (ax[s] * sy - ay[s] * sx) / ds;
+	}
+
+	/**
+	 * compare the distance of two segments along the current direction. if both are at the same distance,
+	 * usually because they share an end, the one in front is decided exactly with {@link #front(int, int)}.
+	 * @param s1 - first segment
+	 * @param s2 - second segment
+	 * @return negative if s1 is closer, positive if s2 is closer
+	 */
+	private int compare( int s1, int s2){
+		double d1 = distance( s1, dx, dy);
+		double d2 = distance( s2, dx, dy);
+		if( Math.abs( d1 - d2) > TIE * Math.max( Math.abs( d1), Math.abs( d2)))
+			return d1 < d2 ? -1 : 1;
+		int front = front( s1, s2);
+		return front != 0 ? front : Integer.compare( s1, s2);
+	}
+
+	/**
+	 * <p>
+	 * decide which of two segments which do not cross is in front, closer to the light wherever both are hit.
+	 * if both ends of one segment are on one side of the line of the other, it is in front when that is the side of the
+	 * light. the light is at the origin and on the left of every visible segment from a to b, so that side is positive.
+	 * </p>
+	 * @param s1 - first segment
+	 * @param s2 - second segment
+	 * @return negative if s1 is in front, positive if s2 is in front, 0 if both are on one line
+	 */
+	private int front( int s1, int s2){
+		int a = Predicates.orient2d( ax[s1], ay[s1], bx[s1], by[s1], ax[s2], ay[s2]);
+		int b = Predicates.orient2d( ax[s1], ay[s1], bx[s1], by[s1], bx[s2], by[s2]);
+		if( a >= 0 && b >= 0 && (a | b) != 0)
+			return 1;
+		if( a <= 0 && b <= 0 && (a | b) != 0)
+			return -1;
+		a = Predicates.orient2d( ax[s2], ay[s2], bx[s2], by[s2], ax[s1], ay[s1]);
+		b = Predicates.orient2d( ax[s2], ay[s2], bx[s2], by[s2], bx[s1], by[s1]);
+		if( a >= 0 && b >= 0 && (a | b) != 0)
+			return -1;
+		if( a <= 0 && b <= 0 && (a | b) != 0)
+			return 1;
+		return 0;
+	}
+
+	private void heapInsert( int segment){
+		heap[heapSize] = segment;
+		heapIndex[segment] = heapSize;
+		siftUp( heapSize++);
+	}
+
+	private void heapRemove( int segment){
+		int index = heapIndex[segment];
+		heapIndex[segment] = -1;
+		int last = heap[--heapSize];
+		if( index == heapSize)
+			return;
+		heap[index] = last;
+		heapIndex[last] = index;
+		siftDown( index);
+		siftUp( heapIndex[last]);
+	}
+
+	private void siftUp( int index){
+		int segment = heap[index];
+		while( index > 0){
+			int parent = (index - 1) >> 1;
+			if( compare( segment, heap[parent]) >= 0)
+				break;
+			heap[index] = heap[parent];
+			heapIndex[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = segment;
+		heapIndex[segment] = index;
+	}
+
+	private void siftDown( int index){
+		int segment = heap[index];
+		int half = heapSize >> 1;
+		while( index < half){
+			int child = 2 * index + 1;
+			if( child + 1 < heapSize && compare( heap[child + 1], heap[child]) < 0)
+				child++;
+			if( compare( segment, heap[child]) <= 0)
+				break;
+			heap[index] = heap[child];
+			heapIndex[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = segment;
+		heapIndex[segment] = index;
+	}
+
+	/**
+	 * quick sort events by angle between the given inclusive indices
+	 * @param low - first index
+	 * @param high - last index
+	 */
+	void sortEvents( int low, int high){
+		while( high - low > 16){
+			int mid = (low + high) >>> 1;
+			if( eventAngle[mid] < eventAngle[low])
+				swapEvents( mid, low);
+			if( eventAngle[high] < eventAngle[low])
+				swapEvents( high, low);
+			if( eventAngle[high] < eventAngle[mid])
+				swapEvents( high, mid);
+			double pivot = eventAngle[mid];
+			int i = low, j = high;
+			while( i <= j){
+				while( eventAngle[i] < pivot)
+					i++;
+				while( eventAngle[j] > pivot)
+					j--;
+				if( i <= j)
+					swapEvents( i++, j--);
+			}
+			// recurse into the smaller half to keep the stack shallow
+			if( j - low < high - i){
+				sortEvents( low, j);
+				low = i;
+			}else{
+				sortEvents( i, high);
+				high = j;
+			}
+		}
+		insertionSortEvents( low, high);
+	}
+
+	/**
+	 * insertion sort events by angle between the given inclusive indices, fast on nearly sorted events
+	 * @param low - first index
+	 * @param high - last index
+	 */
+	void insertionSortEvents( int low, int high){
+		insertionSortEvents( low, high, Long.MAX_VALUE);
+	}
+
+	/**
+	 * insertion sort events by angle between the given inclusive indices but give up after given number of moves.
+	 * events are still a valid permutation when it gives up.
+	 * @param low - first index
+	 * @param high - last index
+	 * @param budget - max number of events moved
+	 * @return true if events are sorted, false if budget ran out
+	 */
+	boolean insertionSortEvents( int low, int high, long budget){
+		for( int i = low + 1; i <= high; i++){
+			double angle = eventAngle[i];
+			int data = eventData[i];
+			int j = i - 1;
+			while( j >= low && eventAngle[j] > angle){
+				eventAngle[j + 1] = eventAngle[j];
+				eventData[j + 1] = eventData[j];
+				j--;
+				budget--;
+			}
+			eventAngle[j + 1] = angle;
+			eventData[j + 1] = data;
+			if( budget < 0)
+				return false;
+		}
+		return true;
+	}
+
+	private void swapEvents( int i, int j){
+		double angle = eventAngle[i];
+		eventAngle[i] = eventAngle[j];
+		eventAngle[j] = angle;
+		int data = eventData[i];
+		eventData[i] = eventData[j];
+		eventData[j] = data;
+	}
+
+	/**
+	 * make sure all per segment arrays can hold given number of segments
+	 * @param capacity - number of segments
+	 */
+	void ensureSegmentCapacity( int capacity){
+		if( ax.length >= capacity)
+			return;
+		int length = Math.max( capacity, ax.length * 2);
+		ax = Arrays.copyOf( ax, length);
+		ay = Arrays.copyOf( ay, length);
+		bx = Arrays.copyOf( bx, length);
+		by = Arrays.copyOf( by, length);
+		visible = Arrays.copyOf( visible, length);
+		heap = Arrays.copyOf( heap, length);
+		heapIndex = Arrays.copyOf( heapIndex, length);
+		eventAngle = Arrays.copyOf( eventAngle, length * 2);
+		eventData = Arrays.copyOf( eventData, length * 2);
+	}
+
+	/**
+	 * <p>
+	 * a cheap replacement of {@link Math#atan2(double, double)} which keeps the same order.
+	 * result is between -2 exclusive and 2 inclusive, negative x direction is 2.
+	 * </p>
+	 * @param x - direction x
+	 * @param y - direction y
+	 * @return pseudo angle of given direction
+	 */
+	static double pseudoAngle( double x, double y){
+		double r = y / (Math.abs( x) + Math.abs( y));
+		if( x >= 0)
+			return r;
+		return y >= 0 ? 2 - r : -2 - r;
+	}
+}
@@ -0,0 +1,87 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link AreaLight} and the incremental {@link VisibilityPolygon#move(double, double, SegmentSet)} it uses.
+ */
+class AreaLightTest{
+
+	/**
+	 * a room with a few random walls.
+	 */
+	private static SegmentSet room( long seed){
+		Random rand = new Random( seed);
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 200, 0);
+		segments.add( 200, 0, 200, 120);
+		segments.add( 200, 120, 0, 120);
+		segments.add( 0, 120, 0, 0);
+		for( int i = 0; i < 40; i++){
+			double x = 10 + rand.nextDouble() * 180, y = 10 + rand.nextDouble() * 100;
+			segments.add( x, y, x + rand.nextDouble() * 20 - 10, y + rand.nextDouble() * 20 - 10);
+		}
+		return segments;
+	}
+
+	/**
+	 * same seed gives same samples, all within the disk and never behind a wall.
+	 */
+	@Test
+	final void testSamples(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 103, 90, 103, 110);
+		AreaLight light = new AreaLight( 100, 100, 8);
+		double[] points = light.samples( 32, 7, segments);
+		assertArrayEquals( points, light.samples( 32, 7, segments));
+		for( int i = 0; i < points.length; i += 2){
+			assertTrue( Math.hypot( points[i] - 100, points[i + 1] - 100) <= 8, "sample " + i / 2);
+			assertTrue( points[i] < 103, "sample " + i / 2);
+		}
+	}
+
+	/**
+	 * moving the engine between nearby lights gives the same polygon as computing it again.
+	 */
+	@Test
+	final void testMoveMatchesCompute(){
+		SegmentSet segments = room( 8);
+		VisibilityPolygon moved = new VisibilityPolygon(), computed = new VisibilityPolygon();
+		moved.compute( 60, 60, segments);
+		Random rand = new Random( 9);
+		double x = 60, y = 60;
+		for( int i = 0; i < 200; i++){
+			x = Math.min( 195, Math.max( 5, x + rand.nextDouble() * 6 - 3));
+			y = Math.min( 115, Math.max( 5, y + rand.nextDouble() * 6 - 3));
+			assertArrayEquals( computed.compute( x, y, segments).toArray(), moved.move( x, y, segments).toArray(), 1e-9, "step " + i);
+		}
+	}
+
+	/**
+	 * open space gets the full intensity, a small blocker next to the light casts a penumbra with partial light.
+	 */
+	@Test
+	final void testPenumbra(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 200, 0);
+		segments.add( 200, 0, 200, 120);
+		segments.add( 200, 120, 0, 120);
+		segments.add( 0, 120, 0, 0);
+		segments.add( 60, 55, 60, 65);
+		LightMapRasterizer map = new LightMapRasterizer( 200, 120, ForkJoinPool.commonPool(), 16);
+		new AreaLight( 40, 60, 6, ForkJoinPool.commonPool(), 3).render( map, 32, 1, 1, 0, segments);
+		assertEquals( 1, map.get( 20, 60), 1e-4);
+		assertEquals( 1, map.get( 100, 10), 1e-4);
+		// right behind the blocker no sample sees, far behind it some do
+		assertEquals( 0f, map.get( 62, 60));
+		float edge = map.get( 190, 84);
+		assertTrue( edge > 0.05f && edge < 0.95f, "penumbra " + edge);
+	}
+}
@@ -0,0 +1,129 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet)} and {@link IntersectKernel}.
+ * results are compared against calling {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}
+ * on every segment.
+ */
+class ClosestIntersectionTest{
+
+	private double[] intersect;
+	private SegmentSet segments;
+
+	@BeforeEach
+	void setUp() throws Exception{
+		intersect = new double[4];
+		segments = new SegmentSet( 2);
+		segments.add( 200, 100, 200, 200);
+		segments.add( 150, 100, 150, 200);
+		segments.add( 100, 150, 200, 150);
+		segments.add( 120, 0, 120, 50);
+	}
+
+	/**
+	 * ray from 100,100 toward 200,100 passes 150,100 before 200,100.
+	 */
+	@Test
+	final void testClosest(){
+		int index = IntersectUtil.getClosestIntersection( intersect, 100, 100, 200, 100, segments);
+		assertEquals( 1, index);
+		assertEquals( 150, intersect[0], 0.0001);
+		assertEquals( 100, intersect[1], 0.0001);
+		assertEquals( 0.5, intersect[2], 0.0001);
+		assertEquals( 0, intersect[3], 0.0001);
+	}
+
+	/**
+	 * ray going away from all segments must return -1 and not touch the result.
+	 */
+	@Test
+	final void testMiss(){
+		intersect[0] = -7;
+		int index = IntersectUtil.getClosestIntersection( intersect, 100, 100, 0, 100, segments);
+		assertEquals( -1, index);
+		assertEquals( -7, intersect[0], 0);
+	}
+
+	/**
+	 * random rays against random segments must agree with a loop over getIntersection.
+	 */
+	@Test
+	final void testAgainstGetIntersection(){
+		Random rand = new Random( 42);
+		SegmentSet set = new SegmentSet();
+		for( int i = 0; i < 200; i++)
+			set.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000);
+		double[] expected = new double[4];
+		for( int r = 0; r < 500; r++){
+			double rsx = rand.nextDouble() * 1000, rsy = rand.nextDouble() * 1000;
+			double rex = rand.nextDouble() * 1000, rey = rand.nextDouble() * 1000;
+			int expectedIndex = -1;
+			double best = Double.POSITIVE_INFINITY;
+			for( int i = 0; i < set.size(); i++){
+				if( IntersectUtil.getIntersection( intersect, rsx, rsy, rex, rey, set.ssx( i), set.ssy( i), set.sex( i), set.sey( i)) && intersect[2] < best){
+					best = intersect[2];
+					expectedIndex = i;
+					System.arraycopy( intersect, 0, expected, 0, 4);
+				}
+			}
+			assertEquals( expectedIndex, IntersectUtil.getClosestIntersection( intersect, rsx, rsy, rex, rey, set));
+			if( expectedIndex != -1)
+				for( int i = 0; i < 4; i++)
+					assertEquals( expected[i], intersect[i], 1e-9);
+		}
+	}
+
+	/**
+	 * the vectorizable kernel must give exactly the same results as the scalar version,
+	 * including parallel segments and more segments than one block.
+	 */
+	@Test
+	final void testKernelMatchesScalar(){
+		Random rand = new Random( 3);
+		SegmentSet set = new SegmentSet();
+		for( int i = 0; i < IntersectKernel.BLOCK * 3 + 17; i++){
+			if( i % 10 == 0)
+				set.add( i, 0, i, 1000);
+			else
+				set.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000);
+		}
+		IntersectKernel kernel = new IntersectKernel();
+		double[] expected = new double[4];
+		for( int r = 0; r < 500; r++){
+			double rsx = rand.nextDouble() * 1000, rsy = rand.nextDouble() * 1000;
+			double rex = r % 5 == 0 ? rsx : rand.nextDouble() * 1000, rey = rand.nextDouble() * 1000;
+			int expectedIndex = IntersectUtil.getClosestIntersection( expected, rsx, rsy, rex, rey, set);
+			assertEquals( expectedIndex, kernel.getClosestIntersection( intersect, rsx, rsy, rex, rey, set));
+			if( expectedIndex != -1)
+				for( int i = 0; i < 4; i++)
+					assertEquals( expected[i], intersect[i], 0);
+		}
+	}
+
+	/**
+	 * only segments which were added can be replaced, slots left after remove or clear are not segments.
+	 */
+	@Test
+	final void testSetBounds(){
+		segments.remove( 3);
+		long version = segments.version();
+		assertThrows( IndexOutOfBoundsException.class, () -> segments.set( 3, 0, 0, 1, 1));
+		assertThrows( IndexOutOfBoundsException.class, () -> segments.set( -1, 0, 0, 1, 1));
+		segments.clear();
+		assertThrows( IndexOutOfBoundsException.class, () -> segments.set( 0, 0, 0, 1, 1));
+		assertEquals( version + 1, segments.version());
+		segments.add( 0, 0, 1, 1);
+		assertEquals( version + 2, segments.version());
+		segments.set( 0, 2, 2, 3, 3);
+		assertEquals( version + 3, segments.version());
+		assertEquals( 2, segments.ssx( 0));
+	}
+}
@@ -0,0 +1,120 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for the single precision intersect of {@link FloatSegmentSet}, {@link IntersectUtil} and {@link IntersectKernel}
+ * against the double reference, within the error bounds documented in {@link FloatSegmentSet}.
+ */
+class FloatSegmentSetTest{
+
+	/**
+	 * unit roundoff of float
+	 */
+	private static final double U = Math.ulp( 1f) / 2;
+
+	/**
+	 * every case of data.csv uses whole numbers, which float holds exactly, so float must give the same answers.
+	 */
+	@Test
+	final void testData() throws IOException{
+		IntersectTable table = IntersectTable.read( Paths.get( "./test/resources/data.csv"));
+		SegmentSet rays = table.rays(), segments = table.segments();
+		float[] result = new float[4];
+		for( int i = 0; i < table.size(); i++){
+			boolean intersect = IntersectUtil.getIntersection( result, (float) rays.ssx( i), (float) rays.ssy( i), (float) rays.sex( i),
+					(float) rays.sey( i), (float) segments.ssx( i), (float) segments.ssy( i), (float) segments.sex( i), (float) segments.sey( i));
+			assertEquals( table.intersects( i), intersect, "row " + i);
+			if( intersect){
+				assertEquals( table.px( i), result[0], 0.0001, "row " + i);
+				assertEquals( table.py( i), result[1], 0.0001, "row " + i);
+				assertEquals( table.rayScaler( i), result[2], 0.0001, "row " + i);
+			}
+		}
+	}
+
+	/**
+	 * random scene length rays and segments within 4096 pixels, at least 1 degree apart.
+	 */
+	@Test
+	final void testErrorBound(){
+		Random rand = new Random( 4);
+		double m = 4096;
+		double[] expected = new double[4];
+		float[] actual = new float[4];
+		for( int n = 0; n < 200000; n++){
+			double[] v = new double[8];
+			for( int i = 0; i < v.length; i++)
+				v[i] = rand.nextDouble() * m;
+			double rx = v[2] - v[0], ry = v[3] - v[1], sx = v[6] - v[4], sy = v[7] - v[5];
+			double sin = Math.abs( rx * sy - sx * ry) / Math.hypot( rx, ry) / Math.hypot( sx, sy);
+			if( sin < Math.sin( Math.toRadians( 1)))
+				continue;
+			boolean hit = IntersectUtil.getIntersection( expected, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+			boolean floatHit = IntersectUtil.getIntersection( actual, (float) v[0], (float) v[1], (float) v[2], (float) v[3],
+					(float) v[4], (float) v[5], (float) v[6], (float) v[7]);
+			double bound = 4 * m * U * (1 + Math.abs( expected[2])) / sin;
+			if( hit != floatHit){
+				// only allowed next to segment ends or ray start
+				double near = Math.min( Math.hypot( expected[0] - v[0], expected[1] - v[1]),
+						Math.min( Math.hypot( expected[0] - v[4], expected[1] - v[5]), Math.hypot( expected[0] - v[6], expected[1] - v[7])));
+				assertTrue( near <= bound, "case " + n);
+			}else if( hit)
+				assertTrue( Math.hypot( expected[0] - actual[0], expected[1] - actual[1]) <= bound, "case " + n);
+		}
+	}
+
+	/**
+	 * the float kernel must find exactly what the scalar float loop finds, and bounded queries must agree.
+	 */
+	@Test
+	final void testKernelMatchesScalar(){
+		Random rand = new Random( 5);
+		FloatSegmentSet set = new FloatSegmentSet();
+		for( int i = 0; i < IntersectKernel.BLOCK * 2 + 33; i++)
+			set.add( rand.nextFloat() * 1000, rand.nextFloat() * 1000, rand.nextFloat() * 1000, rand.nextFloat() * 1000);
+		IntersectKernel kernel = new IntersectKernel();
+		float[] expected = new float[4], actual = new float[4];
+		double[] wide = new double[4];
+		for( int r = 0; r < 500; r++){
+			float rsx = rand.nextFloat() * 1000, rsy = rand.nextFloat() * 1000;
+			float rex = rand.nextFloat() * 1000, rey = rand.nextFloat() * 1000;
+			int index = IntersectUtil.getClosestIntersection( expected, rsx, rsy, rex, rey, set, Float.POSITIVE_INFINITY);
+			assertEquals( index, kernel.getClosestIntersection( actual, rsx, rsy, rex, rey, set));
+			if( index == -1)
+				continue;
+			for( int i = 0; i < 4; i++)
+				assertEquals( expected[i], actual[i]);
+			assertEquals( index, set.getClosestIntersection( wide, rsx, rsy, rex, rey));
+			for( int i = 0; i < 4; i++)
+				assertEquals( expected[i], wide[i]);
+			assertEquals( -1, set.getClosestIntersection( wide, rsx, rsy, rex, rey, expected[2]));
+			assertEquals( -1, set.getAnyIntersection( rsx, rsy, rex, rey, expected[2]));
+			assertTrue( set.getAnyIntersection( rsx, rsy, rex, rey, Math.nextUp( expected[2])) != -1);
+		}
+	}
+
+	/**
+	 * only segments which were added can be replaced, slots left after clear are not segments.
+	 */
+	@Test
+	final void testSetBounds(){
+		FloatSegmentSet set = new FloatSegmentSet( 4);
+		set.add( 0, 0, 1, 1);
+		set.set( 0, 2, 2, 3, 3);
+		assertEquals( 2, set.ssx( 0));
+		assertThrows( IndexOutOfBoundsException.class, () -> set.set( 1, 0, 0, 1, 1));
+		assertThrows( IndexOutOfBoundsException.class, () -> set.set( -1, 0, 0, 1, 1));
+		set.clear();
+		assertThrows( IndexOutOfBoundsException.class, () -> set.set( 0, 0, 0, 1, 1));
+		assertEquals( 0, set.size());
+	}
+}
@@ -0,0 +1,167 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * tests for {@link GeometryMetrics}, the counters work even when metrics are not enabled.
+ * {@link GeometryMetrics#ENABLED} is read once per JVM, so real queries are checked in a child JVM started with it on.
+ */
+class GeometryMetricsTest{
+
+	/**
+	 * counted queries add calls and hits but no latency.
+	 */
+	@Test
+	final void testCount(){
+		GeometryMetrics.reset();
+		GeometryMetrics.count( GeometryMetrics.INTERSECT, 1);
+		GeometryMetrics.count( GeometryMetrics.INTERSECT, 0);
+		GeometryMetrics.count( GeometryMetrics.INTERSECT, 1);
+		assertEquals( 3, GeometryMetrics.calls( GeometryMetrics.INTERSECT));
+		assertEquals( 2, GeometryMetrics.hits( GeometryMetrics.INTERSECT));
+		assertEquals( 0, GeometryMetrics.nanos( GeometryMetrics.INTERSECT));
+		assertEquals( 0, GeometryMetrics.percentile( GeometryMetrics.INTERSECT, 50));
+	}
+
+	/**
+	 * found passes the index through and reset clears everything.
+	 */
+	@Test
+	final void testFoundAndReset(){
+		GeometryMetrics.reset();
+		assertEquals( 7, GeometryMetrics.found( GeometryMetrics.CLOSEST, System.nanoTime(), 7));
+		assertEquals( -1, GeometryMetrics.found( GeometryMetrics.ANY, System.nanoTime(), -1));
+		GeometryMetrics.record( GeometryMetrics.PACKET, System.nanoTime(), 5);
+		assertEquals( 1, GeometryMetrics.calls( GeometryMetrics.PACKET));
+		assertEquals( 5, GeometryMetrics.hits( GeometryMetrics.PACKET));
+		GeometryMetrics.reset();
+		for( int k = 0; k < GeometryMetrics.KINDS.length; k++){
+			assertEquals( 0, GeometryMetrics.calls( k));
+			assertEquals( 0, GeometryMetrics.hits( k));
+			assertEquals( 0, GeometryMetrics.nanos( k));
+		}
+	}
+
+	/**
+	 * buckets are powers of 2 and percentiles give the upper end of their bucket.
+	 */
+	@Test
+	final void testPercentile(){
+		assertEquals( 0, GeometryMetrics.bucket( 0));
+		assertEquals( 1, GeometryMetrics.bucket( 1));
+		assertEquals( 2, GeometryMetrics.bucket( 3));
+		assertEquals( 3, GeometryMetrics.bucket( 4));
+		assertEquals( 63, GeometryMetrics.bucket( Long.MAX_VALUE));
+
+		GeometryMetrics.reset();
+		// start in the future so each latency is clamped to 0 and lands in bucket 0
+		long future = System.nanoTime() + 1_000_000_000_000L;
+		for( int i = 0; i < 99; i++)
+			GeometryMetrics.record( GeometryMetrics.VISIBILITY, future, 1);
+		// start far in the past so the latency lands in a high bucket
+		GeometryMetrics.record( GeometryMetrics.VISIBILITY, System.nanoTime() - (1L << 40), 1);
+		assertEquals( 0, GeometryMetrics.percentile( GeometryMetrics.VISIBILITY, 50));
+		assertEquals( 0, GeometryMetrics.percentile( GeometryMetrics.VISIBILITY, 99));
+		assertEquals( (1L << 41) - 1, GeometryMetrics.percentile( GeometryMetrics.VISIBILITY, 100));
+		assertThrows( IllegalArgumentException.class, () -> GeometryMetrics.percentile( GeometryMetrics.VISIBILITY, 101));
+		assertThrows( IllegalArgumentException.class, () -> GeometryMetrics.percentile( GeometryMetrics.VISIBILITY, Double.NaN));
+	}
+
+	/**
+	 * the MXBean reports one value per kind.
+	 */
+	@Test
+	final void testMXBean(){
+		GeometryMetrics.reset();
+		GeometryMetricsMXBean bean = new GeometryMetrics.MXBean();
+		GeometryMetrics.count( GeometryMetrics.ANY, 1);
+		GeometryMetrics.count( GeometryMetrics.ANY, 0);
+		GeometryMetrics.record( GeometryMetrics.LINE_OF_SIGHT, System.nanoTime(), 3);
+		assertArrayEquals( GeometryMetrics.KINDS, bean.getKinds());
+		assertEquals( 2, bean.getCalls()[GeometryMetrics.ANY]);
+		assertEquals( 1, bean.getHits()[GeometryMetrics.ANY]);
+		assertEquals( 0.5, bean.getHitRates()[GeometryMetrics.ANY], 0);
+		assertEquals( 0, bean.getHitRates()[GeometryMetrics.CLOSEST], 0);
+		assertEquals( 0, bean.getMeanNanos()[GeometryMetrics.ANY], 0);
+		assertEquals( 3, bean.getHits()[GeometryMetrics.LINE_OF_SIGHT]);
+		assertEquals( GeometryMetrics.KINDS.length, bean.getP99Nanos().length);
+		bean.reset();
+		assertEquals( 0, bean.getCalls()[GeometryMetrics.ANY]);
+	}
+
+	/**
+	 * real queries update the counters when the JVM is started with -Dutility.metrics=true. every timed query is slow
+	 * enough to be a flight recorder event, found by reflection in the jfr source folder.
+	 */
+	@Test
+	final void testEnabledQueries() throws IOException, InterruptedException, ReflectiveOperationException, URISyntaxException{
+		String java = Paths.get( System.getProperty( "java.home"), "bin", "java").toString();
+		Process process = new ProcessBuilder( java, "-Dutility.metrics=true", "-Dutility.metrics.slowNanos=0", "-cp", classPath(),
+				EnabledQueries.class.getName()).redirectErrorStream( true).start();
+		String output;
+		try( BufferedReader reader = new BufferedReader( new InputStreamReader( process.getInputStream(), StandardCharsets.UTF_8))){
+			output = reader.lines().collect( Collectors.joining( System.lineSeparator()));
+		}
+		assertEquals( 0, process.waitFor(), output);
+	}
+
+	/**
+	 * class path of the child JVM, the folders or jars this test, the library, the flight recorder events and JUnit were
+	 * loaded from. the class path of this JVM is not enough, a launcher can load tests with its own class loader.
+	 */
+	private static String classPath() throws ReflectiveOperationException, URISyntaxException{
+		Set< String> paths = new LinkedHashSet<>();
+		for( Class< ?> type : new Class< ?>[]{ GeometryMetricsTest.class, GeometryMetrics.class, Class.forName( "utility.GeometryQueryEvent"),
+				Assertions.class, AssertionFailedError.class})
+			paths.add( Paths.get( type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+		return String.join( File.pathSeparator, paths);
+	}
+
+	/**
+	 * run by {@link GeometryMetricsTest#testEnabledQueries()} in a JVM with metrics enabled, a failed assertion
+	 * exits with a stack trace and a non zero code.
+	 */
+	static final class EnabledQueries{
+
+		public static void main( String[] args){
+			assertTrue( GeometryMetrics.ENABLED, "utility.metrics=true must enable metrics");
+			assertTrue( GeometryMetrics.JFR, "the flight recorder events must be found");
+			SegmentSet segments = new SegmentSet();
+			segments.add( 10, 0, 10, 10);
+			GeometryMetrics.reset();
+
+			double[] result = new double[4];
+			assertEquals( 0, IntersectUtil.getClosestIntersection( result, 0, 5, 20, 5, segments));
+			assertEquals( -1, IntersectUtil.getClosestIntersection( result, 0, 20, 20, 20, segments));
+			assertEquals( 2, GeometryMetrics.calls( GeometryMetrics.CLOSEST));
+			assertEquals( 1, GeometryMetrics.hits( GeometryMetrics.CLOSEST));
+			assertEquals( 2, new GeometryMetrics.MXBean().getCalls()[GeometryMetrics.CLOSEST]);
+
+			LineOfSight sight = new LineOfSight( segments);
+			BitSet visible = sight.canSee( new double[]{ 0, 5, 0, 20}, new double[]{ 20, 5, 20, 20});
+			assertEquals( 1, visible.cardinality());
+			assertEquals( 1, GeometryMetrics.calls( GeometryMetrics.LINE_OF_SIGHT));
+			assertEquals( 1, GeometryMetrics.hits( GeometryMetrics.LINE_OF_SIGHT));
+			assertTrue( GeometryMetrics.nanos( GeometryMetrics.LINE_OF_SIGHT) > 0, "batches are timed");
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link IncrementalVisibility}. after every change the polygon must be exactly the one
+ * {@link VisibilityPolygon#compute(double, double, SegmentSet)} finds from scratch.
+ */
+class IncrementalVisibilityTest{
+
+	private SegmentSet segments;
+	private VisibilityPolygon expected;
+
+	/**
+	 * strip of the map the next wall added through {@link IncrementalVisibility} goes in
+	 */
+	private int strip;
+
+	@BeforeEach
+	void setUp() throws Exception{
+		segments = new SegmentSet();
+		segments.add( 0, 0, 1000, 0);
+		segments.add( 1000, 0, 1000, 1000);
+		segments.add( 1000, 1000, 0, 1000);
+		segments.add( 0, 1000, 0, 0);
+		expected = new VisibilityPolygon();
+	}
+
+	/**
+	 * a light bound to an entity which walks a few pixels each frame and sometimes jumps across the map,
+	 * so the events are re sorted with few swaps and sometimes sorted from scratch.
+	 */
+	@Test
+	final void testMovingLight(){
+		Random rand = new Random( 21);
+		for( int cell = 0; cell < 100; cell++)
+			addItem( rand, cell);
+		Point entity = new Point( 505, 505);
+		Point light = new Point().bind( entity);
+		IncrementalVisibility incremental = new IncrementalVisibility( light, segments);
+		for( int step = 0; step < 3000; step++){
+			if( rand.nextInt( 100) == 0)
+				entity.set( 1 + rand.nextDouble() * 998, 1 + rand.nextDouble() * 998);
+			else
+				entity.set( clamp( entity.x() + rand.nextGaussian() * 3), clamp( entity.y() + rand.nextGaussian() * 3));
+			assertPolygon( incremental, "step " + step);
+		}
+		// nothing changed, the same polygon is returned
+		double[] last = incremental.update().toArray();
+		assertArrayEquals( last, incremental.update().toArray());
+		incremental.dispose();
+		entity.set( 3, 3);
+		assertArrayEquals( last, incremental.update().toArray(), "light is not followed after dispose");
+	}
+
+	/**
+	 * walls added and removed while the light moves, with the last segment moved into the place of
+	 * removed ones. segments changed on the set directly rebuild everything.
+	 */
+	@Test
+	final void testAddRemove(){
+		Random rand = new Random( 22);
+		Point light = new Point( 505, 505);
+		IncrementalVisibility incremental = new IncrementalVisibility( light, segments);
+		assertSame( segments, incremental.segments());
+		for( int step = 0; step < 3000; step++){
+			int action = rand.nextInt( 10);
+			if( action < 3)
+				addWall( rand, incremental);
+			else if( action < 5 && segments.size() > 4){
+				int index = 4 + rand.nextInt( segments.size() - 4);
+				int last = segments.size() - 1;
+				assertEquals( index == last ? -1 : last, incremental.removeSegment( index));
+			}else if( action < 6 && segments.size() > 4){
+				int index = 4 + rand.nextInt( segments.size() - 4);
+				double y = segments.ssy( index);
+				segments.set( index, segments.ssx( index), y, segments.sex( index), y + 5 + rand.nextDouble() * 80);
+			}
+			if( rand.nextBoolean())
+				light.set( clamp( light.x() + rand.nextGaussian() * 5), clamp( light.y() + rand.nextGaussian() * 5));
+			assertPolygon( incremental, "step " + step);
+		}
+	}
+
+	/**
+	 * boxes and walls on an integer lattice, with shared corners, walls touching end to end in line and diagonal
+	 * walls, and a light walked half a unit at a time. light positions on a wall are skipped.
+	 */
+	@Test
+	final void testLattice(){
+		Random rand = new Random( 24);
+		for( int scene = 0; scene < 40; scene++){
+			int size = 10 + rand.nextInt( 21);
+			segments = new SegmentSet();
+			segments.add( 0, 0, size, 0);
+			segments.add( size, 0, size, size);
+			segments.add( size, size, 0, size);
+			segments.add( 0, size, 0, 0);
+			for( int x = 1; x < size - 1; x++){
+				for( int y = 1; y < size - 1; y++){
+					int item = rand.nextInt( 12);
+					if( item == 0)
+						segments.add( x, y, x + 1, y);
+					else if( item == 1)
+						segments.add( x, y, x, y + 1);
+					else if( item == 2)
+						segments.add( x, y, x + 1, y + 1);
+					else if( item == 3)
+						segments.add( x + 1, y, x, y + 1);
+				}
+			}
+			Point light = new Point( size / 2, size / 2);
+			IncrementalVisibility incremental = new IncrementalVisibility( light, segments);
+			for( int step = 0; step < 200; step++){
+				double x = light.x() + (rand.nextInt( 3) - 1) * 0.5, y = light.y() + (rand.nextInt( 3) - 1) * 0.5;
+				light.set( Math.max( 0.5, Math.min( size - 0.5, x)), Math.max( 0.5, Math.min( size - 0.5, y)));
+				if( !onWall( light.x(), light.y()))
+					assertPolygon( incremental, "scene " + scene + " step " + step);
+			}
+			incremental.dispose();
+		}
+	}
+
+	/**
+	 * events of added and removed segments patched into sorted events, then swept, against events built from scratch
+	 */
+	@Test
+	final void testPatchedEvents(){
+		Random rand = new Random( 23);
+		for( int cell = 0; cell < 100; cell += 2)
+			addItem( rand, cell);
+		VisibilityPolygon visibility = new VisibilityPolygon().compute( 250, 250, segments);
+		for( int cell = 1; cell < 100; cell += 2){
+			int index = segments.add( (cell % 10) * 100 + 10, (cell / 10) * 100 + 10, (cell % 10) * 100 + 90, (cell / 10) * 100 + 10 + rand.nextDouble() * 80);
+			visibility.ensureSegmentCapacity( index + 1);
+			visibility.segmentCount = index + 1;
+			visibility.prepare( index, segments.ssx( index), segments.ssy( index), segments.sex( index), segments.sey( index));
+			visibility.insertSegmentEvents( index);
+			visibility.sweep();
+			assertArrayEquals( expected.compute( 250, 250, segments).toArray(), visibility.toArray(), "add " + index);
+		}
+		while( segments.size() > 4){
+			int index = 4 + rand.nextInt( segments.size() - 4);
+			visibility.removeSegmentEvents( index, segments.remove( index));
+			assertEquals( segments.size(), visibility.segmentCount);
+			assertEquals( segments.size() * 2, visibility.eventCount);
+			visibility.sweep();
+			assertArrayEquals( expected.compute( 250, 250, segments).toArray(), visibility.toArray(), "remove " + index);
+		}
+		assertEquals( 4, visibility.size());
+	}
+
+	/**
+	 * {@link SegmentSet#remove(int)} moves the last segment into the removed place and changes the version.
+	 */
+	@Test
+	final void testSegmentSetRemove(){
+		segments.add( 1, 2, 3, 4);
+		segments.add( 5, 6, 7, 8);
+		long version = segments.version();
+		assertEquals( 5, segments.remove( 4));
+		assertEquals( 5, segments.size());
+		assertEquals( 5, segments.ssx( 4), 0);
+		assertEquals( 8, segments.sey( 4), 0);
+		assertEquals( version + 1, segments.version());
+		assertEquals( -1, segments.remove( 4));
+		assertEquals( version + 2, segments.version());
+		assertThrows( IndexOutOfBoundsException.class, () -> segments.remove( 4));
+		assertThrows( IndexOutOfBoundsException.class, () -> segments.remove( -1));
+		assertEquals( version + 2, segments.version());
+		assertThrows( NullPointerException.class, () -> new IncrementalVisibility( null, segments));
+	}
+
+	private void assertPolygon( IncrementalVisibility incremental, String message){
+		VisibilityPolygon actual = incremental.update();
+		assertArrayEquals( expected.compute( actual.lightX(), actual.lightY(), segments).toArray(), actual.toArray(), message);
+	}
+
+	/**
+	 * check if a point is exactly on one of the segments
+	 */
+	private boolean onWall( double x, double y){
+		for( int i = 0; i < segments.size(); i++){
+			double sx = segments.ssx( i), sy = segments.ssy( i), ex = segments.sex( i), ey = segments.sey( i);
+			if( (ex - sx) * (y - sy) == (ey - sy) * (x - sx) && Math.min( sx, ex) <= x && x <= Math.max( sx, ex)
+					&& Math.min( sy, ey) <= y && y <= Math.max( sy, ey))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * add a wall or a box in one cell of a 10 by 10 grid over the map, items in different cells never cross
+	 */
+	private void addItem( Random rand, int cell){
+		double x = (cell % 10) * 100 + 10 + rand.nextDouble() * 40, y = (cell / 10) * 100 + 10 + rand.nextDouble() * 40;
+		double w = 5 + rand.nextDouble() * 40, h = 5 + rand.nextDouble() * 40;
+		if( rand.nextBoolean())
+			segments.add( x, y, x + w, y + h);
+		else{
+			// corners are shared so ends of segments tie
+			segments.add( x, y, x + w, y);
+			segments.add( x + w, y, x + w, y + h);
+			segments.add( x + w, y + h, x, y + h);
+			segments.add( x, y + h, x, y);
+		}
+	}
+
+	/**
+	 * add a wall through the incremental visibility, each wall gets its own strip one unit wide so walls never cross
+	 */
+	private void addWall( Random rand, IncrementalVisibility incremental){
+		double x = strip++ + 0.1 + rand.nextDouble() * 0.3, y = 10 + rand.nextDouble() * 900;
+		incremental.addSegment( x, y, x + rand.nextDouble() * 0.4, y + 5 + rand.nextDouble() * 80);
+	}
+
+	private static double clamp( double v){
+		return Math.max( 1, Math.min( 999, v));
+	}
+}
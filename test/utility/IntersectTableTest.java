@@ -0,0 +1,113 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link IntersectTable} using test/resources/data.csv and generated files.
+ */
+class IntersectTableTest{
+
+	private static final Path DATA = Paths.get( "./test/resources/data.csv");
+
+	/**
+	 * data.csv has a byte order mark, two header lines and windows line ends.
+	 */
+	@Test
+	final void testReadData() throws IOException{
+		IntersectTable table = IntersectTable.read( DATA);
+		assertEquals( 20, table.size());
+		assertEquals( 100, table.rays().ssx( 0));
+		assertEquals( 200, table.rays().sex( 0));
+		assertEquals( 150, table.segments().ssx( 1));
+		assertTrue( table.intersects( 1));
+		assertEquals( 150, table.px( 1));
+		assertEquals( 0.5, table.rayScaler( 1));
+		assertFalse( table.intersects( 19));
+		assertEquals( 0, table.verify( 0.0000001));
+	}
+
+	/**
+	 * parallel read must give the same rows in the same order as streaming read.
+	 */
+	@Test
+	final void testParallelMatchesStreaming() throws IOException{
+		Random rand = new Random( 3);
+		StringBuilder csv = new StringBuilder( "Intersect Table,,,,,,,,Results,,,\nRSx,RSy,REx,REy,SSx,SSy,SEx,SEy,Intersects,Px,Py,Ray Scalar\n");
+		double[] result = new double[4];
+		for( int i = 0; i < 5000; i++){
+			double[] v = new double[8];
+			for( int j = 0; j < v.length; j++)
+				v[j] = i % 7 == 0 ? rand.nextInt( 1000) : (rand.nextDouble() - 0.5) * 2000;
+			boolean hit = IntersectUtil.getIntersection( result, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+			for( double d : v)
+				csv.append( d).append( ',');
+			csv.append( hit ? "TRUE," : "false,");
+			if( hit)
+				csv.append( result[0]).append( ',').append( result[1]).append( ',').append( result[2]);
+			else
+				csv.append( ",,");
+			csv.append( i % 2 == 0 ? "\r\n" : "\n");
+		}
+		Path file = Files.createTempFile( "intersect", ".csv");
+		try{
+			Files.write( file, csv.toString().getBytes( StandardCharsets.US_ASCII));
+			IntersectTable streamed = IntersectTable.read( file);
+			IntersectTable parallel = IntersectTable.readParallel( file, 7);
+			assertEquals( 5000, streamed.size());
+			assertEquals( 5000, parallel.size());
+			for( int i = 0; i < streamed.size(); i++){
+				assertEquals( streamed.rays().ssx( i), parallel.rays().ssx( i));
+				assertEquals( streamed.segments().sey( i), parallel.segments().sey( i));
+				assertEquals( streamed.intersects( i), parallel.intersects( i));
+				assertEquals( streamed.rayScaler( i), parallel.rayScaler( i));
+			}
+			// numbers written by Double.toString must parse back to the same bits
+			assertEquals( 0, streamed.verify( 0));
+		}finally{
+			Files.delete( file);
+		}
+	}
+
+	/**
+	 * malformed values are reported.
+	 */
+	@Test
+	final void testMalformed(){
+		assertThrows( IllegalArgumentException.class, () -> IntersectTable.read(
+				new ByteArrayInputStream( "1,2,3,4,5,6,7,8,MAYBE,0,0,0\n".getBytes( StandardCharsets.US_ASCII))));
+		assertThrows( IllegalArgumentException.class, () -> IntersectTable.read(
+				new ByteArrayInputStream( "1,2,3,x4,5,6,7,8,TRUE,0,0,0\n".getBytes( StandardCharsets.US_ASCII))));
+	}
+
+	/**
+	 * empty and missing coordinates are rejected, only the point of a row which does not intersect may be empty.
+	 * a row with an empty first value is not skipped like a title line.
+	 */
+	@Test
+	final void testEmptyValues() throws IOException{
+		for( String row : new String[]{ "1,,3,4,5,6,7,8,FALSE,,,", "1,2,3,4,5,6,7,,FALSE,,,", "1,2,3,4,5,6,7\n", "1,2,3,4,5,6,7,8,TRUE,,,",
+				"1,2,3,4,5,6,7,8,TRUE,1,2", "1,2,3,4,-,6,7,8,FALSE,,,", "1,2,3,4,5,6,7,8,FALSE,-,,",
+				"100,100,200,100,150,100,150,200,TRUE,150,100,0.5\n,100,200,100,150,100,150,200,TRUE,150,100,0.5", " 1,2,3,4,5,6,7,8,FALSE,,,"})
+			assertThrows( IllegalArgumentException.class, () -> IntersectTable.read(
+					new ByteArrayInputStream( row.getBytes( StandardCharsets.US_ASCII))), row);
+		IntersectTable table = IntersectTable.read( new ByteArrayInputStream( "RSx,RSy\r\n1,2,3,4,5,6,7,8,FALSE,,,\r\n\r\n1,2,3,4,5,6,7,8,FALSE\n"
+				.getBytes( StandardCharsets.US_ASCII)));
+		assertEquals( 2, table.size());
+		assertEquals( 2, table.rays().ssy( 0));
+		assertFalse( table.intersects( 1));
+		assertEquals( 0, table.rayScaler( 1));
+	}
+}
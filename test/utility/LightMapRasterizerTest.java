@@ -0,0 +1,80 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link LightMapRasterizer}.
+ */
+class LightMapRasterizerTest{
+
+	/**
+	 * a square on pixel edges covers exactly its pixels, overlapping lights add up.
+	 */
+	@Test
+	final void testSquares(){
+		LightMapRasterizer map = new LightMapRasterizer( 20, 10, ForkJoinPool.commonPool(), 4);
+		double[] square = { 2, 2, 8, 2, 8, 6, 2, 6};
+		double[] shifted = { 5, 0, 12, 0, 12, 4, 5, 4};
+		map.add( new double[][]{ square, shifted}, new double[]{ 5, 8}, new double[]{ 4, 2}, new float[]{ 1, 0.5f}, 0);
+		for( int y = 0; y < 10; y++){
+			for( int x = 0; x < 20; x++){
+				float expected = (x >= 2 && x < 8 && y >= 2 && y < 6 ? 1 : 0) + (x >= 5 && x < 12 && y < 4 ? 0.5f : 0);
+				assertEquals( expected, map.get( x, y), "pixel " + x + "," + y);
+			}
+		}
+		map.clear();
+		assertEquals( 0f, map.get( 3, 3));
+	}
+
+	/**
+	 * two triangles sharing an edge light every pixel of their square once.
+	 */
+	@Test
+	final void testSharedEdge(){
+		LightMapRasterizer map = new LightMapRasterizer( 16, 16);
+		double[] a = { 1.3, 1.7, 14.2, 1.7, 14.2, 13.1};
+		double[] b = { 1.3, 1.7, 14.2, 13.1, 1.3, 13.1};
+		map.add( new double[][]{ a, b}, new double[2], new double[2], new float[]{ 1, 1}, 0);
+		for( int y = 0; y < 16; y++)
+			for( int x = 0; x < 16; x++)
+				assertEquals( x >= 1 && x < 14 && y >= 2 && y < 13 ? 1f : 0f, map.get( x, y), "pixel " + x + "," + y);
+	}
+
+	/**
+	 * lights in a room with walls give the same image for any tile size, fall off stays within the radius.
+	 */
+	@Test
+	final void testTilesMatchSingleTile(){
+		Random rand = new Random( 6);
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 200, 0);
+		segments.add( 200, 0, 200, 120);
+		segments.add( 200, 120, 0, 120);
+		segments.add( 0, 120, 0, 0);
+		for( int i = 0; i < 30; i++){
+			double x = 10 + rand.nextDouble() * 180, y = 10 + rand.nextDouble() * 100;
+			segments.add( x, y, x + rand.nextDouble() * 20 - 10, y + rand.nextDouble() * 20 - 10);
+		}
+		double[] lightX = { 37.5, 150.25, 101}, lightY = { 60.5, 20.75, 99.5};
+		float[] intensity = { 1, 0.75f, 0.5f};
+		LightMapRasterizer tiled = new LightMapRasterizer( 200, 120, ForkJoinPool.commonPool(), 16);
+		LightMapRasterizer single = new LightMapRasterizer( 200, 120, ForkJoinPool.commonPool(), 256);
+		tiled.addLights( lightX, lightY, intensity, 80, segments);
+		single.addLights( lightX, lightY, intensity, 80, segments);
+		assertArrayEquals( single.pixels(), tiled.pixels());
+		assertTrue( tiled.get( 37, 60) > 0.9f);
+		// corner is farther than the radius from every light
+		assertEquals( 0f, tiled.get( 199, 119));
+
+		int[] argb = tiled.toArgb( null, 0xFF8040);
+		assertEquals( 0xFF000000, argb[119 * 200 + 199]);
+		assertEquals( 0xFF, argb[60 * 200 + 37] >>> 24);
+	}
+}
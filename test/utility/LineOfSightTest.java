@@ -0,0 +1,74 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link LineOfSight} against a brute force loop over all segments.
+ */
+class LineOfSightTest{
+
+	/**
+	 * random walls and random queries, many of them grazing wall ends, for several cell sizes.
+	 */
+	@Test
+	final void testMatchesBruteForce(){
+		Random rand = new Random( 13);
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i < 200; i++){
+			double x = rand.nextDouble() * 1000, y = rand.nextDouble() * 1000;
+			if( i % 3 == 0)
+				segments.add( x, y, x + 40, y);
+			else
+				segments.add( x, y, x + rand.nextDouble() * 80 - 40, y + rand.nextDouble() * 80 - 40);
+		}
+		int count = 5000;
+		double[] from = new double[count * 2], to = new double[count * 2];
+		for( int q = 0; q < count; q++){
+			from[q * 2] = rand.nextDouble() * 1200 - 100;
+			from[q * 2 + 1] = rand.nextDouble() * 1200 - 100;
+			if( q % 4 == 0){
+				// aimed at a wall end
+				int s = rand.nextInt( segments.size());
+				to[q * 2] = segments.sex( s);
+				to[q * 2 + 1] = segments.sey( s);
+			}else{
+				to[q * 2] = from[q * 2] + rand.nextDouble() * 200 - 100;
+				to[q * 2 + 1] = from[q * 2 + 1] + rand.nextDouble() * 200 - 100;
+			}
+		}
+		for( double cellSize : new double[]{ 1, 7.5, 100}){
+			LineOfSight sight = new LineOfSight( segments, cellSize, ForkJoinPool.commonPool());
+			BitSet visible = sight.canSee( from, to);
+			for( int q = 0; q < count; q++){
+				boolean expected = segments.getAnyIntersection( from[q * 2], from[q * 2 + 1], to[q * 2], to[q * 2 + 1], 1) == -1;
+				assertEquals( expected, visible.get( q), "query " + q + " cell " + cellSize);
+				assertEquals( expected, sight.canSee( from[q * 2], from[q * 2 + 1], to[q * 2], to[q * 2 + 1]), "query " + q + " cell " + cellSize);
+			}
+			assertTrue( sight.occupancy() > 0 && sight.occupancy() < 1);
+		}
+	}
+
+	/**
+	 * a wall blocks lines through it, not lines beside it or lines which end at it.
+	 */
+	@Test
+	final void testWall(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 50, 0, 50, 100);
+		LineOfSight sight = new LineOfSight( segments);
+		assertFalse( sight.canSee( 0, 50, 100, 50));
+		assertTrue( sight.canSee( 0, 50, 40, 50));
+		assertTrue( sight.canSee( 0, 50, 50, 50));
+		assertTrue( sight.canSee( 0, 101, 100, 101));
+		assertFalse( sight.canSee( 0, 0, 100, 100));
+		assertEquals( 0, sight.canSee( new double[0], new double[0]).length());
+	}
+}
@@ -0,0 +1,161 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link MultiLightCaster}. rays and polygons computed in parallel must be the same as casting each
+ * ray and computing each polygon one after another on this thread.
+ */
+class MultiLightCasterTest{
+
+	private SegmentSet segments;
+	private ForkJoinPool pool;
+
+	@BeforeEach
+	void setUp() throws Exception{
+		segments = scene( new Random( 11));
+		pool = new ForkJoinPool( 3);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception{
+		pool.shutdown();
+	}
+
+	/**
+	 * a chunk which does not divide the number of rays, so tasks cut through the rays of a light.
+	 */
+	@Test
+	final void testCastOddChunk(){
+		double[][] lights = lights( new Random( 12), 5);
+		MultiLightCaster caster = new MultiLightCaster( pool, 7);
+		assertCast( lights, 90, new SegmentBVH( segments), caster.cast( lights[0], lights[1], 90, new SegmentBVH( segments)));
+		double[][] hits = new double[5][200];
+		caster.cast( lights[0], lights[1], 90, segments, hits);
+		for( int light = 0; light < 5; light++)
+			assertEquals( 0, hits[light][199], 0, "rays past the given number are not written");
+		assertCast( lights, 90, segments, hits);
+	}
+
+	/**
+	 * no light and one light, on the common pool and on a pool of one thread.
+	 */
+	@Test
+	final void testNoneAndOne(){
+		MultiLightCaster common = new MultiLightCaster();
+		assertEquals( 0, common.cast( new double[0], new double[0], 16, segments).length);
+		assertEquals( 0, common.computePolygons( new double[0], new double[0], segments).length);
+		double[][] lights = lights( new Random( 13), 1);
+		assertCast( lights, 33, segments, common.cast( lights[0], lights[1], 33, segments));
+		assertPolygons( lights, segments, common.computePolygons( lights[0], lights[1], segments));
+		ForkJoinPool single = new ForkJoinPool( 1);
+		try{
+			MultiLightCaster caster = new MultiLightCaster( single, 1);
+			assertCast( lights, 33, segments, caster.cast( lights[0], lights[1], 33, segments));
+			assertPolygons( lights, segments, caster.computePolygons( lights[0], lights[1], segments));
+		}finally{
+			single.shutdown();
+		}
+	}
+
+	/**
+	 * polygons of many lights, then of other lights in another scene with the same caster, so the engine each
+	 * thread keeps is used again for a different scene.
+	 */
+	@Test
+	final void testPolygonsReuse(){
+		MultiLightCaster caster = new MultiLightCaster( pool, 5);
+		Random rand = new Random( 14);
+		double[][] lights = lights( rand, 13);
+		assertPolygons( lights, segments, caster.computePolygons( lights[0], lights[1], segments));
+		SegmentSet other = scene( rand);
+		double[][] moved = lights( rand, 7);
+		assertPolygons( moved, other, caster.computePolygons( moved[0], moved[1], other));
+		assertPolygons( lights, segments, caster.computePolygons( lights[0], lights[1], segments));
+	}
+
+	/**
+	 * light arrays of different length and bad arguments.
+	 */
+	@Test
+	final void testArguments(){
+		MultiLightCaster caster = new MultiLightCaster( pool);
+		assertThrows( IllegalArgumentException.class, () -> caster.cast( new double[2], new double[1], 4, segments));
+		assertThrows( IllegalArgumentException.class, () -> caster.cast( new double[2], new double[2], 4, segments, new double[1][8]));
+		assertThrows( IllegalArgumentException.class, () -> caster.computePolygons( new double[2], new double[1], segments));
+		assertThrows( IllegalArgumentException.class, () -> new MultiLightCaster( pool, 0));
+		assertThrows( NullPointerException.class, () -> new MultiLightCaster( null));
+	}
+
+	/**
+	 * check hits against casting each ray in order
+	 * @param lights - x and y of each light
+	 * @param rays - number of rays per light
+	 * @param index - segments rays were cast against
+	 * @param hits - result of {@link MultiLightCaster#cast(double[], double[], int, SegmentIndex)}
+	 */
+	private void assertCast( double[][] lights, int rays, SegmentIndex index, double[][] hits){
+		double[] result = new double[4];
+		for( int light = 0; light < lights[0].length; light++){
+			double lx = lights[0][light], ly = lights[1][light];
+			for( int ray = 0; ray < rays; ray++){
+				double angle = 2 * Math.PI * ray / rays;
+				double x = Double.NaN, y = Double.NaN;
+				if( index.getClosestIntersection( result, lx, ly, lx + Math.cos( angle), ly + Math.sin( angle)) != -1){
+					x = result[0];
+					y = result[1];
+				}
+				assertEquals( x, hits[light][ray * 2], 0, "light " + light + " ray " + ray);
+				assertEquals( y, hits[light][ray * 2 + 1], 0, "light " + light + " ray " + ray);
+			}
+		}
+	}
+
+	/**
+	 * check polygons against computing each one in order
+	 */
+	private void assertPolygons( double[][] lights, SegmentSet segments, double[][] polygons){
+		assertEquals( lights[0].length, polygons.length);
+		VisibilityPolygon visibility = new VisibilityPolygon();
+		for( int light = 0; light < lights[0].length; light++)
+			assertArrayEquals( visibility.compute( lights[0][light], lights[1][light], segments).toArray(), polygons[light]);
+	}
+
+	/**
+	 * a box of 1000 with random walls which do not cross each other
+	 */
+	private static SegmentSet scene( Random rand){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 1000, 0);
+		segments.add( 1000, 0, 1000, 1000);
+		segments.add( 1000, 1000, 0, 1000);
+		segments.add( 0, 1000, 0, 0);
+		// one wall in each cell of a 5 by 5 grid so walls never cross
+		for( int i = 0; i < 25; i++){
+			double x = (i % 5) * 200 + 20 + rand.nextDouble() * 60, y = (i / 5) * 200 + 20 + rand.nextDouble() * 60;
+			segments.add( x, y, x + rand.nextDouble() * 100, y + rand.nextDouble() * 100);
+		}
+		return segments;
+	}
+
+	/**
+	 * x and y of lights inside the box, in the gaps between walls
+	 */
+	private static double[][] lights( Random rand, int count){
+		double[][] lights = new double[2][count];
+		for( int i = 0; i < count; i++){
+			lights[0][i] = rand.nextInt( 5) * 200 + 5 + rand.nextDouble() * 10;
+			lights[1][i] = rand.nextDouble() * 990 + 5;
+		}
+		return lights;
+	}
+}
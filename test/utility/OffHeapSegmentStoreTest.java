@@ -0,0 +1,124 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link OffHeapSegmentStore}, growing, writing and mapping scene files and rejecting broken ones.
+ */
+class OffHeapSegmentStoreTest{
+
+	/**
+	 * a store which grew from no capacity is written to a file and mapped back with the same segments.
+	 */
+	@Test
+	final void testRoundTrip() throws IOException{
+		Random rand = new Random( 8);
+		OffHeapSegmentStore store = new OffHeapSegmentStore( 0);
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i < 100; i++){
+			double[] v = { rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000};
+			assertEquals( i, store.add( v[0], v[1], v[2], v[3]));
+			segments.add( v[0], v[1], v[2], v[3]);
+		}
+		store.set( 7, 1, 2, 3, 4);
+		segments.set( 7, 1, 2, 3, 4);
+		assertEquals( 100, store.size());
+
+		Path file = Files.createTempFile( "scene", ".segs");
+		Path copy = Files.createTempFile( "scene", ".segs");
+		try{
+			store.write( file);
+			assertEquals( OffHeapSegmentStore.HEADER + 100 * 4 * Double.BYTES, Files.size( file));
+			OffHeapSegmentStore.write( copy, segments);
+			OffHeapSegmentStore mapped = OffHeapSegmentStore.map( file);
+			assertEquals( 100, mapped.size());
+			assertSameSegments( segments, mapped.toSegmentSet());
+			assertSameSegments( segments, OffHeapSegmentStore.map( copy).toSegmentSet());
+			assertEquals( 3, mapped.sex( 7));
+
+			double[] expected = new double[4], actual = new double[4];
+			for( int r = 0; r < 200; r++){
+				double rsx = rand.nextDouble() * 1000, rsy = rand.nextDouble() * 1000;
+				double rex = rand.nextDouble() * 1000, rey = rand.nextDouble() * 1000;
+				int index = segments.getClosestIntersection( expected, rsx, rsy, rex, rey);
+				assertEquals( index, mapped.getClosestIntersection( actual, rsx, rsy, rex, rey));
+				if( index != -1)
+					assertEquals( expected[2], actual[2]);
+				assertEquals( index == -1, mapped.getAnyIntersection( rsx, rsy, rex, rey, Double.POSITIVE_INFINITY) == -1);
+			}
+
+			// a mapped file is read only
+			assertThrows( IllegalStateException.class, () -> mapped.add( 0, 0, 1, 1));
+			assertThrows( IllegalStateException.class, () -> mapped.set( 0, 0, 0, 1, 1));
+		}finally{
+			Files.delete( file);
+			Files.delete( copy);
+		}
+	}
+
+	/**
+	 * only segments which were added can be replaced.
+	 */
+	@Test
+	final void testSetBounds(){
+		OffHeapSegmentStore store = new OffHeapSegmentStore( 4);
+		store.add( 0, 0, 1, 1);
+		assertThrows( IndexOutOfBoundsException.class, () -> store.set( 1, 0, 0, 1, 1));
+		assertThrows( IndexOutOfBoundsException.class, () -> store.set( -1, 0, 0, 1, 1));
+		assertThrows( IllegalArgumentException.class, () -> new OffHeapSegmentStore( -1));
+		assertEquals( 1, store.size());
+	}
+
+	/**
+	 * files with a bad magic number, another version, fewer segments than their count or no header are rejected.
+	 */
+	@Test
+	final void testBadHeader() throws IOException{
+		assertBadHeader( 0x12345678, OffHeapSegmentStore.VERSION, 0, 0);
+		assertBadHeader( OffHeapSegmentStore.MAGIC, OffHeapSegmentStore.VERSION + 1, 0, 0);
+		assertBadHeader( OffHeapSegmentStore.MAGIC, OffHeapSegmentStore.VERSION, 3, 2);
+		assertBadHeader( OffHeapSegmentStore.MAGIC, OffHeapSegmentStore.VERSION, -1, 0);
+		Path file = Files.createTempFile( "scene", ".segs");
+		try{
+			Files.write( file, new byte[]{ 'S', 'G', 'E', 'S'});
+			assertThrows( IllegalArgumentException.class, () -> OffHeapSegmentStore.map( file));
+		}finally{
+			Files.delete( file);
+		}
+	}
+
+	/**
+	 * write a scene file with given header and number of segments, mapping it must fail
+	 */
+	private static void assertBadHeader( int magic, int version, int count, int segments) throws IOException{
+		ByteBuffer buffer = ByteBuffer.allocate( OffHeapSegmentStore.HEADER + segments * 4 * Double.BYTES).order( ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt( magic).putInt( version).putInt( count).putInt( 0);
+		Path file = Files.createTempFile( "scene", ".segs");
+		try{
+			Files.write( file, buffer.array());
+			assertThrows( IllegalArgumentException.class, () -> OffHeapSegmentStore.map( file));
+		}finally{
+			Files.delete( file);
+		}
+	}
+
+	private static void assertSameSegments( SegmentSet expected, SegmentSet actual){
+		assertEquals( expected.size(), actual.size());
+		for( int i = 0; i < expected.size(); i++){
+			assertEquals( expected.ssx( i), actual.ssx( i));
+			assertEquals( expected.ssy( i), actual.ssy( i));
+			assertEquals( expected.sex( i), actual.sex( i));
+			assertEquals( expected.sey( i), actual.sey( i));
+		}
+	}
+}
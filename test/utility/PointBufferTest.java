@@ -0,0 +1,132 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link PointBuffer}.
+ */
+class PointBufferTest{
+
+	/**
+	 * points added one by one grow the buffer and are read back by index.
+	 */
+	@Test
+	final void testAddAndGet(){
+		PointBuffer points = new PointBuffer( 0);
+		for( int i = 0; i < 100; i++)
+			assertEquals( i, points.add( i, -i));
+		assertEquals( 100, points.size());
+		assertEquals( 42, points.x( 42), 0);
+		assertEquals( -42, points.y( 42), 0);
+		points.set( 42, 1, 2);
+		assertEquals( 1, points.x( 42), 0);
+		assertEquals( 2, points.y( 42), 0);
+		assertThrows( IllegalArgumentException.class, () -> new PointBuffer( -1));
+	}
+
+	/**
+	 * bulk add, copy between buffers and copy inside one buffer.
+	 */
+	@Test
+	final void testBulk(){
+		PointBuffer points = new PointBuffer( new double[]{ 1, 2, 3, 4, 5, 6});
+		assertEquals( 3, points.size());
+		assertEquals( 3, points.add( new double[]{ 7, 8}));
+		assertArrayEquals( new double[]{ 1, 2, 3, 4, 5, 6, 7, 8}, points.toArray());
+		assertThrows( IllegalArgumentException.class, () -> points.add( new double[]{ 1}));
+
+		PointBuffer copy = new PointBuffer( 1);
+		assertEquals( 0, copy.add( points, 1, 2));
+		assertArrayEquals( new double[]{ 3, 4, 5, 6}, copy.toArray());
+
+		assertEquals( 4, points.add( points, 0, 4));
+		assertArrayEquals( new double[]{ 1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8}, points.toArray());
+		points.set( 0, copy, 0, 2);
+		assertArrayEquals( new double[]{ 3, 4, 5, 6, 5, 6, 7, 8}, Arrays.copyOf( points.toArray(), 8));
+		points.set( 1, points, 0, 3);
+		assertArrayEquals( new double[]{ 3, 4, 3, 4, 5, 6, 5, 6}, Arrays.copyOf( points.toArray(), 8));
+
+		assertThrows( IndexOutOfBoundsException.class, () -> copy.add( points, 7, 2));
+		assertThrows( IndexOutOfBoundsException.class, () -> copy.set( 1, points, 0, 2));
+		assertThrows( IndexOutOfBoundsException.class, () -> copy.add( points, -1, 1));
+	}
+
+	/**
+	 * conversion to and from {@link Point}.
+	 */
+	@Test
+	final void testPoints(){
+		List< Point> list = Arrays.asList( new Point( 1, 2), new Point( 3, 4), new Point( 5, 6));
+		PointBuffer points = new PointBuffer();
+		assertEquals( 0, points.add( new Point( -1, -2)));
+		assertEquals( 1, points.addAll( list));
+		assertEquals( 4, points.size());
+		assertEquals( new Point( 3, 4), points.toPoint( 2));
+		Point p = new Point();
+		assertSame( p, points.get( 3, p));
+		assertEquals( new Point( 5, 6), p);
+		points.set( 0, new Point( 9, 9));
+		List< Point> back = points.toPoints();
+		assertEquals( Arrays.asList( new Point( 9, 9), new Point( 1, 2), new Point( 3, 4), new Point( 5, 6)), back);
+	}
+
+	/**
+	 * remove moves the last point into the hole.
+	 */
+	@Test
+	final void testRemove(){
+		PointBuffer points = new PointBuffer( new double[]{ 0, 0, 1, 1, 2, 2});
+		assertEquals( 2, points.remove( 0));
+		assertArrayEquals( new double[]{ 2, 2, 1, 1}, points.toArray());
+		assertEquals( -1, points.remove( 1));
+		assertEquals( 1, points.size());
+		assertThrows( IndexOutOfBoundsException.class, () -> points.remove( 1));
+		points.clear();
+		assertEquals( 0, points.size());
+		assertEquals( 0, points.toArray().length);
+	}
+
+	/**
+	 * points left over after remove or clear can not be read or written.
+	 */
+	@Test
+	final void testIndexBounds(){
+		PointBuffer points = new PointBuffer( new double[]{ 0, 0, 1, 1});
+		points.remove( 1);
+		for( int index : new int[]{ 1, -1}){
+			assertThrows( IndexOutOfBoundsException.class, () -> points.x( index));
+			assertThrows( IndexOutOfBoundsException.class, () -> points.y( index));
+			assertThrows( IndexOutOfBoundsException.class, () -> points.set( index, 5, 5));
+			assertThrows( IndexOutOfBoundsException.class, () -> points.get( index, new Point( 0, 0)));
+			assertThrows( IndexOutOfBoundsException.class, () -> points.toPoint( index));
+		}
+		points.clear();
+		assertThrows( IndexOutOfBoundsException.class, () -> points.x( 0));
+		assertThrows( IndexOutOfBoundsException.class, () -> points.set( 0, 5, 5));
+	}
+
+	/**
+	 * get moves a point with one notification, not one per coordinate.
+	 */
+	@Test
+	final void testGetNotifiesOnce(){
+		PointBuffer points = new PointBuffer( new double[]{ 1, 2});
+		Point p = new Point( 0, 0);
+		int[] notified = new int[1];
+		p.addListener( o -> {
+			notified[0]++;
+			p.x();
+		});
+		assertSame( p, points.get( 0, p));
+		assertEquals( new Point( 1, 2), p);
+		assertEquals( 1, notified[0]);
+	}
+}
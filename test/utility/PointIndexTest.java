@@ -0,0 +1,227 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link PointKdTree} and {@link PointHash}. both must find the same points as a scan over every point,
+ * nearest points in the same order and radius and rectangle queries as the same set.
+ */
+class PointIndexTest{
+
+	/**
+	 * points spread evenly over the map.
+	 */
+	@Test
+	final void testEvenlySpread(){
+		Random rand = new Random( 1);
+		PointBuffer points = new PointBuffer();
+		for( int i = 0; i < 3000; i++)
+			points.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000);
+		assertSameResults( rand, points, new PointKdTree( points));
+		assertSameResults( rand, points, new PointHash( points, 25));
+		assertSameResults( rand, points, new PointHash( points, 400));
+	}
+
+	/**
+	 * points packed in a few clusters, on a grid with many equal coordinates and many copies of one point,
+	 * so ties are broken by index.
+	 */
+	@Test
+	final void testClusteredAndEqual(){
+		Random rand = new Random( 2);
+		PointBuffer points = new PointBuffer();
+		for( int c = 0; c < 4; c++){
+			double cx = rand.nextDouble() * 1000, cy = rand.nextDouble() * 1000;
+			for( int i = 0; i < 300; i++)
+				points.add( cx + rand.nextGaussian() * 10, cy + rand.nextGaussian() * 10);
+		}
+		for( int i = 0; i < 400; i++)
+			points.add( (i % 20) * 50, (i / 20) * 50);
+		for( int i = 0; i < 50; i++)
+			points.add( 500, 500);
+		assertSameResults( rand, points, new PointKdTree( points));
+		assertSameResults( rand, points, new PointHash( points, 50));
+		assertSameResults( rand, points, new PointHash( points, 0.5));
+	}
+
+	/**
+	 * points added, moved and removed one by one, the hash must match a scan over the points it still holds.
+	 */
+	@Test
+	final void testMovingPoints(){
+		Random rand = new Random( 3);
+		PointHash hash = new PointHash( 30, 0);
+		PointBuffer points = new PointBuffer();
+		boolean[] removed = new boolean[2000];
+		for( int i = 0; i < 2000; i++)
+			assertEquals( i, hash.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000));
+		for( int step = 0; step < 5000; step++){
+			int id = rand.nextInt( 2000);
+			if( removed[id]){
+				// ids of removed points are given out again
+				int back = hash.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000);
+				assertTrue( removed[back]);
+				removed[back] = false;
+			}else if( rand.nextInt( 4) == 0){
+				hash.remove( id);
+				removed[id] = true;
+			}else
+				hash.move( id, hash.x( id) + rand.nextGaussian() * 40, hash.y( id) + rand.nextGaussian() * 40);
+		}
+		// removed points are moved far away in the copy, queries below never reach them
+		for( int id = 0; id < 2000; id++)
+			points.add( removed[id] ? 1e12 : hash.x( id), removed[id] ? 1e12 : hash.y( id));
+		int live = 0;
+		for( boolean r : removed)
+			live += r ? 0 : 1;
+		assertEquals( live, hash.size());
+		assertSameResults( rand, points, hash);
+		assertFalse( hash.contains( -1));
+		for( int id = 0; id < 2000; id++){
+			if( removed[id]){
+				int gone = id;
+				assertThrows( IndexOutOfBoundsException.class, () -> hash.move( gone, 0, 0));
+				assertThrows( IndexOutOfBoundsException.class, () -> hash.remove( gone));
+			}
+		}
+		hash.clear();
+		assertEquals( 0, hash.size());
+		assertEquals( -1, hash.nearest( 0, 0));
+		assertEquals( 0, hash.add( 1, 1));
+	}
+
+	/**
+	 * results which do not fit, k larger than the number of points, empty indices and bad arguments.
+	 */
+	@Test
+	final void testEdges(){
+		PointBuffer points = new PointBuffer( new double[]{ 0, 0, 1, 0, 2, 0, 3, 0});
+		PointIndex[] indices = { new PointKdTree( points), new PointHash( points, 1)};
+		for( PointIndex index : indices){
+			int[] result = new int[2];
+			assertEquals( 4, index.inRadius( result, 0, 0, 10));
+			assertEquals( 4, index.inRect( result, -1, -1, 5, 5));
+			assertEquals( 0, index.inRect( result, 5, 5, -1, -1));
+			assertEquals( 2, index.inRadius( result, 0, 0, 1));
+			Arrays.sort( result);
+			assertArrayEquals( new int[]{ 0, 1}, result);
+			result = new int[10];
+			assertEquals( 4, index.nearest( result, 2.5, 0, 10));
+			assertArrayEquals( new int[]{ 2, 3, 1, 0}, Arrays.copyOf( result, 4));
+			assertEquals( 0, index.nearest( result, 0, 0, 0));
+			assertEquals( 1, index.nearest( 1.5, 0));
+			int[] small = result;
+			assertThrows( IllegalArgumentException.class, () -> index.nearest( small, 0, 0, 11));
+			assertThrows( IllegalArgumentException.class, () -> index.inRadius( small, 0, 0, -1));
+		}
+		assertEquals( -1, new PointKdTree( new PointBuffer()).nearest( 0, 0));
+		assertThrows( IllegalArgumentException.class, () -> new PointKdTree( new PointBuffer( new double[]{ Double.NaN, 0})));
+		assertThrows( IllegalArgumentException.class, () -> new PointHash( 0));
+		assertThrows( IllegalArgumentException.class, () -> new PointHash( 1).add( 0, Double.NaN));
+	}
+
+	/**
+	 * queries far larger than the map: huge and infinite radii and rectangles, and points and queries so far out
+	 * that their cells saturate at the ends of int. each must finish and find every point a scan finds.
+	 */
+	@Test
+	final void testHugeQueries(){
+		PointBuffer points = new PointBuffer( new double[]{ 0, 0, 1, 1, 1e12, 0, -1e12, 1e12, 1e300, -1e300, 5, 5});
+		PointIndex[] indices = { new PointKdTree( points), new PointHash( points, 1), new PointHash( points, 1e-3)};
+		double inf = Double.POSITIVE_INFINITY;
+		for( PointIndex index : indices){
+			int[] result = new int[6];
+			String message = index.toString();
+			assertEquals( 6, index.inRadius( result, 0, 0, inf), message);
+			assertEquals( 6, index.inRect( result, -inf, -inf, inf, inf), message);
+			assertEquals( 6, index.inRect( result, -1e300, -1e300, 1e300, 1e300), message);
+			assertEquals( 5, index.inRadius( result, 0, 0, 1e13), message);
+			assertEquals( 3, index.inRect( result, -1e300, -1, 1e300, 1), message);
+			Arrays.sort( result, 0, 3);
+			assertArrayEquals( new int[]{ 0, 1, 2}, Arrays.copyOf( result, 3), message);
+			assertEquals( 2, index.inRect( result, 1e11, -inf, inf, 1), message);
+			assertEquals( 1, index.inRadius( result, 1e300, -1e300, 1e150), message);
+			assertEquals( 4, result[0], message);
+			int count = nearest( result, points, 1e12, 1, 6);
+			int[] actual = new int[6];
+			assertEquals( count, index.nearest( actual, 1e12, 1, 6), message);
+			assertArrayEquals( result, actual, message);
+			assertEquals( 4, index.nearest( 1e300, -1e300), message);
+			assertEquals( 2, index.nearest( 1e15, 0), message);
+			// every point is infinitely far, ties are broken by index
+			assertEquals( 6, index.nearest( actual, inf, 0, 6), message);
+			assertArrayEquals( new int[]{ 0, 1, 2, 3, 4, 5}, actual, message);
+		}
+	}
+
+	/**
+	 * compare random queries on an index with a scan over every point
+	 * @param rand - source of query locations
+	 * @param points - points of index, index i must be point i
+	 * @param index - index to test
+	 */
+	private void assertSameResults( Random rand, PointBuffer points, PointIndex index){
+		int[] expected = new int[points.size()], actual = new int[points.size()];
+		for( int q = 0; q < 200; q++){
+			double x = rand.nextDouble() * 1200 - 100, y = rand.nextDouble() * 1200 - 100;
+			String message = index + " at " + x + "," + y;
+
+			int k = 1 + rand.nextInt( 20);
+			int count = nearest( expected, points, x, y, k);
+			assertEquals( count, index.nearest( actual, x, y, k), message);
+			assertArrayEquals( Arrays.copyOf( expected, count), Arrays.copyOf( actual, count), message);
+			assertEquals( expected[0], index.nearest( x, y), message);
+
+			double radius = rand.nextDouble() * 100;
+			count = 0;
+			for( int i = 0; i < points.size(); i++){
+				double dx = points.x( i) - x, dy = points.y( i) - y;
+				if( dx * dx + dy * dy <= radius * radius)
+					expected[count++] = i;
+			}
+			assertEquals( count, index.inRadius( actual, x, y, radius), message);
+			Arrays.sort( actual, 0, count);
+			assertArrayEquals( Arrays.copyOf( expected, count), Arrays.copyOf( actual, count), message);
+
+			double w = rand.nextDouble() * 200, h = rand.nextDouble() * 200;
+			count = 0;
+			for( int i = 0; i < points.size(); i++)
+				if( points.x( i) >= x && points.x( i) <= x + w && points.y( i) >= y && points.y( i) <= y + h)
+					expected[count++] = i;
+			assertEquals( count, index.inRect( actual, x, y, x + w, y + h), message);
+			Arrays.sort( actual, 0, count);
+			assertArrayEquals( Arrays.copyOf( expected, count), Arrays.copyOf( actual, count), message);
+		}
+	}
+
+	/**
+	 * k nearest points by sorting every point on distance and index
+	 */
+	private int nearest( int[] result, PointBuffer points, double x, double y, int k){
+		Integer[] order = new Integer[points.size()];
+		for( int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort( order, ( a, b) -> {
+			double da = distance( points, a, x, y), db = distance( points, b, x, y);
+			return da != db ? Double.compare( da, db) : Integer.compare( a, b);
+		});
+		int count = Math.min( k, order.length);
+		for( int i = 0; i < count; i++)
+			result[i] = order[i];
+		return count;
+	}
+
+	private static double distance( PointBuffer points, int i, double x, double y){
+		double dx = points.x( i) - x, dy = points.y( i) - y;
+		return dx * dx + dy * dy;
+	}
+}
@@ -14,6 +14,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 import java.lang.RuntimeException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
@@ -388,4 +390,162 @@ class PointTest{
 		
 		
 	}
+
+	/**
+	 * create a {@link Point} called p1 and initialize to 10,11 and move it before
+	 * its properties are created. xProperty and yProperty must start at the values set so far
+	 * and a point with properties must still equal and hash the same as one without.
+	 * a listener added to the new property sees later changes.
+	 */
+	@Test
+	final void testLazyProperty(){
+		Point p1 = new Point(10,11);
+		p1.translate(1, 1);
+		Point p2 = new Point(11,12);
+		assertEquals(11, p1.xProperty().get());
+		assertEquals(12, p1.yProperty().get());
+		assertEquals(p1, p2);
+		assertEquals(p2, p1);
+		assertEquals(p1.hashCode(), p2.hashCode());
+		double[] seen = new double[1];
+		p1.xProperty().addListener((o, before, after) -> seen[0] = after.doubleValue());
+		p1.x(20);
+		assertEquals(20, seen[0]);
+		assertEquals(20, p1.x());
+	}
+
+	/**
+	 * unbind on points which were never bound must do nothing.
+	 * bindBidirectional then unbindBidirectional leaves both points free to change.
+	 */
+	@Test
+	final void testUnbindWithoutProperty(){
+		Point p1 = new Point(1,2);
+		Point p2 = new Point(3,4);
+		p1.unbind();
+		p1.unbindBidirectional(p2);
+		assertEquals(new Point(1,2), p1);
+		p1.bindBidirectional(p2);
+		assertEquals(3, p1.x());
+		p1.unbindBidirectional(p2);
+		p1.x(7);
+		assertEquals(3, p2.x());
+	}
+
+	/**
+	 * set on a point writes x and y before any listener runs. listeners of the point
+	 * are invalidated once, listeners of x and y once each.
+	 */
+	@Test
+	final void testSetNotifiesOnce(){
+		Point p1 = new Point(1,2);
+		int[] count = new int[1];
+		p1.addListener(o -> count[0]++);
+		p1.set(3,4);
+		assertEquals(1, count[0]);
+		p1.set(3,4);
+		assertEquals(1, count[0]);
+		double[] seen = new double[2];
+		p1.xProperty().addListener((o, before, after) -> { seen[0] = p1.x(); seen[1] = p1.y(); });
+		p1.translate(1,1);
+		assertEquals(2, count[0]);
+		assertEquals(4, seen[0]);
+		assertEquals(5, seen[1]);
+		p1.y(6);
+		assertEquals(3, count[0]);
+	}
+
+	/**
+	 * inside a batch no listener runs until the outer batch is closed, then each
+	 * changed point is invalidated once. closing twice is an error.
+	 */
+	@Test
+	final void testBatch(){
+		Point p1 = new Point(1,2);
+		Point p2 = new Point(3,4);
+		int[] count = new int[2];
+		p1.addListener(o -> count[0]++);
+		p2.addListener(o -> count[1]++);
+		Point.Batch batch = Point.batch();
+		try(Point.Batch inner = Point.batch()){
+			assertSame(batch, inner);
+			p1.x(5);
+			p1.y(6);
+			p2.translate(1,1);
+		}
+		assertEquals(0, count[0]);
+		assertEquals(0, count[1]);
+		batch.close();
+		assertEquals(1, count[0]);
+		assertEquals(1, count[1]);
+		assertEquals(new Point(5,6), p1);
+		assertThrows(IllegalStateException.class, batch::close);
+		p1.x(7);
+		assertEquals(2, count[0]);
+	}
+
+	/**
+	 * p3 is bound to p2 which is bound to p1. moving p1 changes x and y of the others one after another,
+	 * yet each bound point is invalidated once per move, with or without a batch. listeners read the
+	 * points so their bound properties are valid again for the next move.
+	 */
+	@Test
+	final void testBoundChainNotifiesOnce(){
+		Point p1 = new Point(1,2);
+		Point p2 = new Point().bind(p1);
+		Point p3 = new Point().bind(p2);
+		int[] count = new int[2];
+		double[] seen = new double[2];
+		p2.addListener(o -> { count[0]++; p2.x(); p2.y(); });
+		p3.addListener(o -> { count[1]++; seen[0] = p3.x(); seen[1] = p3.y(); });
+		assertEquals(p1, p2);
+		assertEquals(p1, p3);
+		p1.set(3,4);
+		assertEquals(1, count[0]);
+		assertEquals(1, count[1]);
+		assertArrayEquals(new double[]{3,4}, seen);
+		p1.translate(1,1);
+		assertEquals(2, count[1]);
+		Point.Batch batch = Point.batch();
+		p1.x(7);
+		p1.y(8);
+		assertEquals(2, count[1]);
+		batch.close();
+		assertEquals(3, count[0]);
+		assertEquals(3, count[1]);
+		assertArrayEquals(new double[]{7,8}, seen);
+	}
+
+	/**
+	 * a listener which throws goes to the uncaught exception handler of the thread. the other listeners
+	 * and the other points of the batch are still notified and later changes notify again.
+	 */
+	@Test
+	final void testThrowingListener(){
+		Thread thread = Thread.currentThread();
+		Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+		List<Throwable> thrown = new ArrayList<>();
+		thread.setUncaughtExceptionHandler((t, e) -> thrown.add(e));
+		try{
+			Point p1 = new Point(1,2);
+			Point p2 = new Point(3,4);
+			int[] count = new int[2];
+			p1.addListener(o -> { throw new IllegalStateException("listener"); });
+			p1.addListener(o -> count[0]++);
+			p2.addListener(o -> count[1]++);
+			Point.Batch batch = Point.batch();
+			p1.x(5);
+			p2.x(6);
+			batch.close();
+			assertEquals(1, thrown.size());
+			assertEquals("listener", thrown.get(0).getMessage());
+			assertEquals(1, count[0]);
+			assertEquals(1, count[1]);
+			p1.x(7);
+			assertEquals(2, thrown.size());
+			assertEquals(2, count[0]);
+		}finally{
+			thread.setUncaughtExceptionHandler(handler);
+		}
+	}
 }
@@ -0,0 +1,135 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link Predicates} and {@link IntersectUtil#getIntersectionRobust(double[], double, double, double, double, double, double, double, double)}.
+ */
+class PredicatesTest{
+
+	/**
+	 * plain turns, collinear points and values which are not finite.
+	 */
+	@Test
+	final void testOrientation(){
+		assertEquals( 1, Predicates.orient2d( 0, 0, 1, 0, 0, 1));
+		assertEquals( -1, Predicates.orient2d( 0, 0, 0, 1, 1, 0));
+		assertEquals( 0, Predicates.orient2d( 0, 0, 1, 1, 2, 2));
+		assertEquals( 0, Predicates.orient2d( 3, 5, 3, 5, 7, 1));
+		assertEquals( 0, Predicates.orient2d( 0, 0, 1, 0, 2, 0));
+		assertEquals( 1, Predicates.orient2d( 0, 0, 1e300, 0, 0, 1e300));
+		assertEquals( 1, Predicates.orient2d( 0, 0, 1e-300, 0, 0, 1e-300));
+		assertEquals( 0, Predicates.orient2d( 0, 0, Double.NaN, 0, 0, 1));
+		assertEquals( 0, Predicates.orient2d( 0, 0, Double.POSITIVE_INFINITY, 0, 0, 1));
+	}
+
+	/**
+	 * points a few ulps off the line through (12, 12) and (24, 24), where the plain cross product often has the wrong sign.
+	 */
+	@Test
+	final void testNearlyCollinear(){
+		int wrong = 0;
+		double ulp = Math.ulp( 0.5);
+		for( int i = 0; i < 256; i++){
+			for( int j = 0; j < 256; j++){
+				double ax = 0.5 + i * ulp, ay = 0.5 + j * ulp;
+				int exact = Predicates.orient2dExact( ax, ay, 12, 12, 24, 24);
+				assertEquals( exact, Predicates.orient2d( ax, ay, 12, 12, 24, 24), i + ", " + j);
+				double naive = (12 - ax) * (24 - ay) - (12 - ay) * (24 - ax);
+				if( (naive > 0 ? 1 : naive < 0 ? -1 : 0) != exact)
+					wrong++;
+			}
+		}
+		assertTrue( wrong > 0, "the test points should defeat the plain cross product");
+	}
+
+	/**
+	 * random inputs, with some coordinates shared to make collinear cases, always agree with the exact orientation.
+	 */
+	@Test
+	final void testRandom(){
+		Random rand = new Random( 20);
+		for( int i = 0; i < 20000; i++){
+			double[] v = new double[6];
+			for( int k = 0; k < 6; k++)
+				v[k] = rand.nextInt( 4) == 0 ? v[rand.nextInt( 6)] : (rand.nextDouble() - 0.5) * Math.pow( 10, rand.nextInt( 12) - 6);
+			assertEquals( Predicates.orient2dExact( v[0], v[1], v[2], v[3], v[4], v[5]), Predicates.orient2d( v[0], v[1], v[2], v[3], v[4], v[5]));
+		}
+	}
+
+	/**
+	 * a ray through an end shared by two segments hits both, snapped exactly to that end.
+	 */
+	@Test
+	final void testSharedEnds(){
+		double[] result = new double[4];
+		Random rand = new Random( 7);
+		for( int i = 0; i < 1000; i++){
+			double ox = rand.nextDouble() * 10, oy = rand.nextDouble() * 10;
+			double vx = ox + 0.1 + rand.nextDouble() * 30, vy = oy + 0.3 + rand.nextDouble() * 30;
+			double ax = vx + 1 + rand.nextDouble(), ay = vy - 3 - rand.nextDouble();
+			double bx = vx - 3 - rand.nextDouble(), by = vy + 1 + rand.nextDouble();
+			assertTrue( IntersectUtil.getIntersectionRobust( result, ox, oy, vx, vy, ax, ay, vx, vy));
+			assertEquals( vx, result[0], 0);
+			assertEquals( vy, result[1], 0);
+			assertEquals( 1, result[3], 0);
+			assertEquals( 1, result[2], 1e-12);
+			assertTrue( IntersectUtil.getIntersectionRobust( result, ox, oy, vx, vy, vx, vy, bx, by));
+			assertEquals( 0, result[3], 0);
+			// a ray passing just beside the shared end hits exactly one of them
+			double nx = Math.nextUp( vx);
+			boolean first = IntersectUtil.getIntersectionRobust( result, ox, oy, nx, vy, ax, ay, vx, vy);
+			boolean second = IntersectUtil.getIntersectionRobust( result, ox, oy, nx, vy, vx, vy, bx, by);
+			assertTrue( first != second, "ray " + i);
+		}
+	}
+
+	/**
+	 * away from ends and parallel cases the answer is the same as getIntersection.
+	 */
+	@Test
+	final void testMatchesGetIntersection(){
+		double[] expected = new double[4], actual = new double[4];
+		Random rand = new Random( 3);
+		for( int i = 0; i < 20000; i++){
+			double[] v = new double[8];
+			for( int k = 0; k < 8; k++)
+				v[k] = rand.nextDouble() * 100;
+			boolean hit = IntersectUtil.getIntersection( expected, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+			boolean robust = IntersectUtil.getIntersectionRobust( actual, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+			if( expected[2] > 1e-9 && expected[3] > 1e-9 && expected[3] < 1 - 1e-9){
+				assertEquals( hit, robust);
+				if( hit)
+					for( int k = 0; k < 4; k++)
+						assertEquals( expected[k], actual[k], 0);
+			}
+		}
+	}
+
+	/**
+	 * rays starting on a segment, pointing away from it, parallel or along it.
+	 */
+	@Test
+	final void testDegenerate(){
+		double[] result = new double[4];
+		assertTrue( IntersectUtil.getIntersectionRobust( result, 0.1, 0.1, 5, 7, 0, 0, 0.3, 0.3));
+		assertEquals( 0, result[2], 0);
+		assertEquals( 0.1, result[0], 0);
+		assertEquals( 1 / 3.0, result[3], 1e-15);
+		assertFalse( IntersectUtil.getIntersectionRobust( result, 0, 0, -1, 0, 1, -1, 1, 1));
+		assertFalse( IntersectUtil.getIntersectionRobust( result, 0, 0, 1, 0, 0, 1, 1, 1));
+		assertFalse( IntersectUtil.getIntersectionRobust( result, 0, 0, 1, 0, 2, 0, 3, 0));
+		assertFalse( IntersectUtil.getIntersectionRobust( result, 0, 0, 0, 0, -1, -1, 1, 1));
+		assertTrue( IntersectUtil.getIntersectionRobust( result, 0, 0, 1, 0, 2, -1, 2, 1));
+		assertEquals( 2, result[0], 0);
+		assertEquals( 0, result[1], 0);
+		assertEquals( 2, result[2], 0);
+		assertEquals( 0.5, result[3], 0);
+	}
+}
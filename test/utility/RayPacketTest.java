@@ -0,0 +1,143 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link RayPacket}, every ray must give exactly what
+ * {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet, double)} gives.
+ */
+class RayPacketTest{
+
+	/**
+	 * compare every ray of a packet with the scalar loop.
+	 */
+	private static void assertSameAsScalar( RayPacket packet, double[] ends, double ox, double oy, SegmentSet segments, double tMax){
+		double[] expected = new double[4], actual = new double[4];
+		int hits = 0;
+		for( int i = 0; i < packet.size(); i++){
+			int index = IntersectUtil.getClosestIntersection( expected, ox, oy, ends[i * 2], ends[i * 2 + 1], segments, tMax);
+			assertEquals( index, packet.getClosestIntersection( actual, i), "ray " + i);
+			if( index == -1)
+				continue;
+			hits++;
+			for( int k = 0; k < 4; k++)
+				assertEquals( expected[k], actual[k], "ray " + i);
+		}
+		assertEquals( hits, packet.cast( segments, tMax));
+	}
+
+	/**
+	 * fans of every width in a random scene, with and without bound.
+	 */
+	@Test
+	final void testFans(){
+		Random rand = new Random( 10);
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i < 300; i++){
+			double x = rand.nextDouble() * 1000, y = rand.nextDouble() * 1000;
+			segments.add( x, y, x + rand.nextDouble() * 100 - 50, y + rand.nextDouble() * 100 - 50);
+		}
+		RayPacket packet = new RayPacket();
+		double[] ends = new double[RayPacket.MAX_RAYS * 2];
+		for( int n = 0; n < 400; n++){
+			double ox = rand.nextDouble() * 1000, oy = rand.nextDouble() * 1000;
+			int count = 1 + rand.nextInt( RayPacket.MAX_RAYS);
+			double angle = rand.nextDouble() * Math.PI * 2, step = rand.nextDouble() * (n % 2 == 0 ? 0.05 : 1);
+			double length = rand.nextDouble() * 1500;
+			packet.fan( ox, oy, angle, step, count, length);
+			for( int i = 0; i < count; i++){
+				ends[i * 2] = ox + Math.cos( angle + i * step) * length;
+				ends[i * 2 + 1] = oy + Math.sin( angle + i * step) * length;
+			}
+			double tMax = n % 3 == 0 ? 1 : Double.POSITIVE_INFINITY;
+			packet.cast( segments, tMax);
+			assertSameAsScalar( packet, ends, ox, oy, segments, tMax);
+		}
+	}
+
+	/**
+	 * rays aimed exactly at segment ends, along axes and from a segment end, where culls are most likely to be wrong.
+	 */
+	@Test
+	final void testGrazing(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 10, 0, 10, 10);
+		segments.add( 10, 10, 0, 20);
+		segments.add( 20, 5, 30, 5);
+		segments.add( -5, -5, -5, 5);
+		segments.add( 0.1, 0.3, 0.7, 0.3);
+		double[] ends = { 10, 0, 10, 10, 0, 20, 20, 5, 30, 5, -5, -5, -5, 5, 40, 0, 0, 40, -40, 0, 0, -40, 0.1, 0.3, 0.7, 0.3};
+		RayPacket packet = new RayPacket();
+		for( double[] origin : new double[][]{ { 0, 0}, { 10, 0}, { 10, 10}, { 3, 1e-12}}){
+			packet.reset( origin[0], origin[1]);
+			for( int i = 0; i < ends.length; i += 2)
+				packet.add( ends[i], ends[i + 1]);
+			packet.cast( segments);
+			assertSameAsScalar( packet, ends, origin[0], origin[1], segments, Double.POSITIVE_INFINITY);
+			packet.cast( segments, 1);
+			assertSameAsScalar( packet, ends, origin[0], origin[1], segments, 1);
+			// only the first 4 rays, a narrow wedge
+			packet.reset( origin[0], origin[1]);
+			for( int i = 0; i < 8; i += 2)
+				packet.add( ends[i], ends[i + 1]);
+			packet.cast( segments);
+			assertSameAsScalar( packet, ends, origin[0], origin[1], segments, Double.POSITIVE_INFINITY);
+		}
+	}
+
+	/**
+	 * a ray in line with a segment which it does not reach, the scalar loop hits it at ray scaler 0 through rounding.
+	 * then packets on a fine lattice, where starts are often in line with segments.
+	 */
+	@Test
+	final void testInLine(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( -0.007, -0.009, -0.009, -0.003);
+		segments.add( -0.016, -0.011, -0.008, -0.007);
+		double[] ends = { -0.01, -0.008};
+		RayPacket packet = new RayPacket().reset( -0.002, -0.004).add( ends[0], ends[1]);
+		packet.cast( segments);
+		assertSameAsScalar( packet, ends, -0.002, -0.004, segments, Double.POSITIVE_INFINITY);
+
+		Random rand = new Random( 16);
+		ends = new double[RayPacket.MAX_RAYS * 2];
+		for( int scene = 0; scene < 200; scene++){
+			segments = new SegmentSet();
+			for( int i = 0; i < 40; i++)
+				segments.add( lattice( rand), lattice( rand), lattice( rand), lattice( rand));
+			for( int n = 0; n < 20; n++){
+				double ox = lattice( rand), oy = lattice( rand);
+				packet.reset( ox, oy);
+				for( int i = 0; i < RayPacket.MAX_RAYS; i++){
+					ends[i * 2] = lattice( rand);
+					ends[i * 2 + 1] = lattice( rand);
+					packet.add( ends[i * 2], ends[i * 2 + 1]);
+				}
+				packet.cast( segments);
+				assertSameAsScalar( packet, ends, ox, oy, segments, Double.POSITIVE_INFINITY);
+			}
+		}
+	}
+
+	/**
+	 * a coordinate between -0.02 and 0.02 on a lattice of 0.001, not exact in binary
+	 */
+	private static double lattice( Random rand){
+		return (rand.nextInt( 41) - 20) / 1000.0;
+	}
+
+	/**
+	 * a packet holds at most {@link RayPacket#MAX_RAYS} rays.
+	 */
+	@Test
+	final void testFull(){
+		RayPacket packet = new RayPacket().fan( 0, 0, 0, 0.1, RayPacket.MAX_RAYS, 1);
+		assertThrows( IllegalStateException.class, () -> packet.add( 1, 1));
+		assertThrows( IndexOutOfBoundsException.class, () -> packet.index( RayPacket.MAX_RAYS));
+	}
+}
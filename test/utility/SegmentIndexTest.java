@@ -0,0 +1,125 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link SegmentGrid} and {@link SegmentBVH}. both must find the same closest segment as {@link SegmentSet}
+ * which tests every segment, with and without a bound on the ray.
+ */
+class SegmentIndexTest{
+
+	/**
+	 * short segments spread evenly over the map.
+	 */
+	@Test
+	final void testEvenlySpread(){
+		Random rand = new Random( 1);
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i < 2000; i++){
+			double x = rand.nextDouble() * 1000, y = rand.nextDouble() * 1000;
+			segments.add( x, y, x + rand.nextDouble() * 40 - 20, y + rand.nextDouble() * 40 - 20);
+		}
+		assertSameHits( rand, segments, new SegmentGrid( segments));
+		assertSameHits( rand, segments, new SegmentBVH( segments));
+		assertSameHits( rand, segments, OffHeapSegmentStore.of( segments));
+		assertSameHits( rand, segments, segments);
+	}
+
+	/**
+	 * segments packed in a few clusters with long walls around the map.
+	 */
+	@Test
+	final void testClustered(){
+		Random rand = new Random( 2);
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 1000, 0);
+		segments.add( 1000, 0, 1000, 1000);
+		segments.add( 1000, 1000, 0, 1000);
+		segments.add( 0, 1000, 0, 0);
+		for( int c = 0; c < 5; c++){
+			double cx = rand.nextDouble() * 1000, cy = rand.nextDouble() * 1000;
+			for( int i = 0; i < 300; i++){
+				double x = cx + rand.nextGaussian() * 20, y = cy + rand.nextGaussian() * 20;
+				segments.add( x, y, x + rand.nextGaussian() * 5, y + rand.nextGaussian() * 5);
+			}
+		}
+		assertSameHits( rand, segments, new SegmentGrid( segments));
+		assertSameHits( rand, segments, new SegmentGrid( segments, 7));
+		assertSameHits( rand, segments, new SegmentBVH( segments));
+	}
+
+	/**
+	 * axis aligned rays and segments, including rays starting outside of the map and touching segment ends.
+	 */
+	@Test
+	final void testAxisAligned(){
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i <= 10; i++){
+			segments.add( i * 100, 0, i * 100, 1000);
+			segments.add( 0, i * 100, 1000, i * 100);
+		}
+		segments.add( 150, 150, 150, 250);
+		SegmentIndex[] indices = { new SegmentGrid( segments), new SegmentGrid( segments, 100), new SegmentBVH( segments)};
+		double[] expected = new double[4], actual = new double[4];
+		for( int x = -50; x <= 1050; x += 50){
+			for( int y = -50; y <= 1050; y += 50){
+				for( int d = 0; d < 4; d++){
+					double dx = d == 0 ? 1 : d == 1 ? -1 : 0, dy = d == 2 ? 1 : d == 3 ? -1 : 0;
+					int index = segments.getClosestIntersection( expected, x, y, x + dx, y + dy);
+					for( SegmentIndex segmentIndex : indices){
+						int found = segmentIndex.getClosestIntersection( actual, x, y, x + dx, y + dy);
+						assertEquals( index == -1, found == -1, "ray from " + x + "," + y);
+						if( index != -1)
+							assertEquals( expected[2], actual[2], 1e-9, "ray from " + x + "," + y);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * an index over no segments finds nothing.
+	 */
+	@Test
+	final void testEmpty(){
+		SegmentSet segments = new SegmentSet();
+		SegmentIndex[] indices = { new SegmentGrid( segments), new SegmentBVH( segments), OffHeapSegmentStore.of( segments), segments};
+		double[] result = new double[4];
+		for( SegmentIndex index : indices){
+			assertEquals( 0, index.size());
+			assertEquals( -1, index.getClosestIntersection( result, 0, 0, 1, 1));
+			assertEquals( -1, index.getClosestIntersection( result, 0, 0, 1, 0, 10));
+			assertEquals( -1, index.getAnyIntersection( 0, 0, 0, 1, 10));
+		}
+	}
+
+	private static void assertSameHits( Random rand, SegmentSet segments, SegmentIndex index){
+		double[] expected = new double[4], actual = new double[4];
+		for( int r = 0; r < 2000; r++){
+			double rsx = rand.nextDouble() * 1200 - 100, rsy = rand.nextDouble() * 1200 - 100;
+			double angle = rand.nextDouble() * 2 * Math.PI;
+			double rex = rsx + Math.cos( angle), rey = rsy + Math.sin( angle);
+			int expectedIndex = segments.getClosestIntersection( expected, rsx, rsy, rex, rey);
+			assertEquals( expectedIndex, index.getClosestIntersection( actual, rsx, rsy, rex, rey));
+			if( expectedIndex != -1)
+				for( int i = 0; i < 4; i++)
+					assertEquals( expected[i], actual[i], 1e-9);
+
+			// bounded queries see only hits before tMax
+			double tMax = rand.nextDouble() * 300;
+			int bounded = expectedIndex != -1 && expected[2] < tMax ? expectedIndex : -1;
+			assertEquals( bounded, index.getClosestIntersection( actual, rsx, rsy, rex, rey, tMax));
+			int any = index.getAnyIntersection( rsx, rsy, rex, rey, tMax);
+			assertEquals( bounded == -1, any == -1);
+			if( any != -1){
+				assertTrue( IntersectUtil.getIntersection( actual, rsx, rsy, rex, rey, segments.ssx( any), segments.ssy( any), segments.sex( any), segments.sey( any)));
+				assertTrue( actual[2] < tMax);
+			}
+		}
+	}
+}
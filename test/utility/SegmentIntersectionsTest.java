@@ -0,0 +1,187 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link SegmentIntersections}. the sweep must report the same pairs as testing every pair
+ * with {@link IntersectUtil#getIntersection(double[], double, double, double, double, double, double, double, double)}.
+ * pairs which only touch within rounding of an end may be reported either way, and the crossing of nearly parallel
+ * segments which overlap can be anywhere along the overlap.
+ */
+class SegmentIntersectionsTest{
+
+	/**
+	 * two crossing segments and one far away.
+	 */
+	@Test
+	final void testCross(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 100, 100);
+		segments.add( 0, 100, 100, 0);
+		segments.add( 200, 200, 300, 200);
+		SegmentIntersections crossings = SegmentIntersections.find( segments);
+		assertEquals( 1, crossings.size());
+		assertEquals( 0, crossings.first( 0));
+		assertEquals( 1, crossings.second( 0));
+		assertEquals( 50, crossings.x( 0), 1e-9);
+		assertEquals( 50, crossings.y( 0), 1e-9);
+	}
+
+	/**
+	 * random long segments with many crossings.
+	 */
+	@Test
+	final void testRandom(){
+		Random rand = new Random( 11);
+		for( int round = 0; round < 10; round++){
+			SegmentSet segments = new SegmentSet();
+			for( int i = 0; i < 150; i++)
+				segments.add( rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000, rand.nextDouble() * 1000);
+			assertSamePairs( segments);
+		}
+	}
+
+	/**
+	 * segments on a lattice, many share ends, are vertical or horizontal, or cross at the same point.
+	 */
+	@Test
+	final void testLattice(){
+		Random rand = new Random( 12);
+		for( int round = 0; round < 20; round++){
+			SegmentSet segments = new SegmentSet();
+			for( int i = 0; i < 60; i++)
+				segments.add( rand.nextInt( 8) * 10, rand.nextInt( 8) * 10, rand.nextInt( 8) * 10, rand.nextInt( 8) * 10);
+			assertSamePairs( segments);
+		}
+	}
+
+	/**
+	 * a sloped segment crossing a vertical one, x interpolated along the sloped segment is off by one ulp.
+	 */
+	@Test
+	final void testVertical(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 1, 14, 26, 0);
+		segments.add( 15, 5, 15, 27);
+		SegmentIntersections crossings = SegmentIntersections.find( segments);
+		assertEquals( 1, crossings.size());
+		assertEquals( 15, crossings.x( 0), 0);
+		assertEquals( 14 - 14 * 14 / 25.0, crossings.y( 0), 1e-12);
+		assertSamePairs( segments);
+	}
+
+	/**
+	 * segments on a dense integer lattice, most crossings are not on lattice points.
+	 */
+	@Test
+	final void testDenseLattice(){
+		Random rand = new Random( 13);
+		for( int round = 0; round < 2000; round++){
+			SegmentSet segments = new SegmentSet();
+			for( int i = 0; i < 30; i++)
+				segments.add( rand.nextInt( 30), rand.nextInt( 30), rand.nextInt( 30), rand.nextInt( 30));
+			assertSamePairs( segments);
+		}
+	}
+
+	/**
+	 * a wall one ulp off vertical, its x extent is too small to interpolate a crossing on the sweep line.
+	 */
+	@Test
+	final void testNearlyVertical(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 10, 0, 10 + Math.cos( Math.PI / 2) * 50, 50);
+		segments.add( 0, 20, 30, 25);
+		SegmentIntersections crossings = SegmentIntersections.find( segments);
+		assertEquals( 1, crossings.size());
+		assertEquals( 10, crossings.x( 0), 1e-9);
+		assertEquals( 20 + 5 * 10 / 30.0, crossings.y( 0), 1e-9);
+		assertSamePairs( segments);
+	}
+
+	/**
+	 * walls at multiples of 30 degrees built with cos and sin, so those at 90 and 270 are a few ulps off vertical.
+	 */
+	@Test
+	final void testAngles(){
+		Random rand = new Random( 14);
+		for( int round = 0; round < 3000; round++){
+			SegmentSet segments = new SegmentSet();
+			for( int i = 0; i < 30; i++){
+				double angle = Math.toRadians( rand.nextInt( 12) * 30), length = 10 + rand.nextInt( 100);
+				double x = rand.nextInt( 100), y = rand.nextInt( 100);
+				segments.add( x, y, x + Math.cos( angle) * length, y + Math.sin( angle) * length);
+			}
+			assertSamePairs( segments);
+		}
+	}
+
+	/**
+	 * many lines through one point.
+	 */
+	@Test
+	final void testStar(){
+		SegmentSet segments = new SegmentSet();
+		for( int i = 0; i < 12; i++){
+			double angle = Math.PI * i / 12;
+			segments.add( 500 - 300 * Math.cos( angle), 500 - 300 * Math.sin( angle), 500 + 300 * Math.cos( angle), 500 + 300 * Math.sin( angle));
+		}
+		SegmentIntersections crossings = SegmentIntersections.find( segments);
+		assertEquals( 12 * 11 / 2, crossings.size());
+		for( int i = 0; i < crossings.size(); i++){
+			assertEquals( 500, crossings.x( i), 1e-6);
+			assertEquals( 500, crossings.y( i), 1e-6);
+		}
+	}
+
+	private static void assertSamePairs( SegmentSet segments){
+		TreeMap< Long, double[]> expected = new TreeMap<>();
+		HashSet< Long> touching = new HashSet<>();
+		double[] result = new double[4];
+		for( int a = 0; a < segments.size(); a++){
+			for( int b = a + 1; b < segments.size(); b++){
+				boolean hit = IntersectUtil.getIntersection( result, segments.ssx( a), segments.ssy( a), segments.sex( a), segments.sey( a),
+						segments.ssx( b), segments.ssy( b), segments.sex( b), segments.sey( b)) && result[2] <= 1;
+				if( nearEnd( result[2]) || nearEnd( result[3]))
+					touching.add( (long) a << 32 | b);
+				if( !hit)
+					continue;
+				double rx = segments.sex( a) - segments.ssx( a), ry = segments.sey( a) - segments.ssy( a);
+				double qx = segments.sex( b) - segments.ssx( b), qy = segments.sey( b) - segments.ssy( b);
+				boolean parallel = Math.abs( rx * qy - qx * ry) <= 1e-9 * Math.hypot( rx, ry) * Math.hypot( qx, qy);
+				expected.put( (long) a << 32 | b, parallel ? null : new double[]{ result[0], result[1]});
+			}
+		}
+		SegmentIntersections crossings = SegmentIntersections.find( segments);
+		HashSet< Long> found = new HashSet<>();
+		for( int i = 0; i < crossings.size(); i++){
+			long pair = (long) crossings.first( i) << 32 | crossings.second( i);
+			assertTrue( found.add( pair), "pair reported twice " + crossings.first( i) + "," + crossings.second( i));
+			if( !expected.containsKey( pair)){
+				assertTrue( touching.contains( pair), "unexpected pair " + crossings.first( i) + "," + crossings.second( i));
+				continue;
+			}
+			double[] point = expected.get( pair);
+			if( point == null)
+				continue;
+			assertEquals( point[0], crossings.x( i), 1e-6);
+			assertEquals( point[1], crossings.y( i), 1e-6);
+		}
+		for( long pair : expected.keySet())
+			assertTrue( found.contains( pair) || touching.contains( pair), "missing pair " + (pair >>> 32) + "," + (int) pair);
+	}
+
+	/**
+	 * check if a scaler is within rounding of a segment end without being exactly on it
+	 */
+	private static boolean nearEnd( double scaler){
+		return scaler != 0 && scaler != 1 && (Math.abs( scaler) <= 1e-9 || Math.abs( scaler - 1) <= 1e-9);
+	}
+}
@@ -0,0 +1,179 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for the circle, box and polygon intersects of {@link IntersectUtil} and the broad phase of {@link ShapeScene}.
+ */
+class ShapeSceneTest{
+
+	/**
+	 * known hits on each shape, from outside and from inside.
+	 */
+	@Test
+	final void testShapes(){
+		double[] result = new double[4];
+		assertTrue( IntersectUtil.getCircleIntersection( result, 0, 0, 10, 0, 5, 0, 1));
+		assertEquals( 4, result[0], 1e-12);
+		assertEquals( 0, result[1], 1e-12);
+		assertEquals( 0.4, result[2], 1e-12);
+		assertEquals( 0.5, result[3], 1e-12);
+		// from the center it leaves at the far side
+		assertTrue( IntersectUtil.getCircleIntersection( result, 5, 0, 5, 10, 5, 0, 1));
+		assertEquals( 0.1, result[2], 1e-12);
+		assertEquals( 0.25, result[3], 1e-12);
+		assertFalse( IntersectUtil.getCircleIntersection( result, 0, 2, 10, 2, 5, 0, 1));
+		assertFalse( IntersectUtil.getCircleIntersection( result, 0, 0, -10, 0, 5, 0, 1));
+
+		assertTrue( IntersectUtil.getBoxIntersection( result, 0, 5, 10, 5, 2, 4, 6, 8));
+		assertEquals( 2, result[0], 1e-12);
+		assertEquals( 0.2, result[2], 1e-12);
+		assertEquals( 3.75, result[3], 1e-12);
+		assertTrue( IntersectUtil.getBoxIntersection( result, 4, 6, 4, 0, 2, 4, 6, 8));
+		assertEquals( 4, result[1], 1e-12);
+		assertEquals( 0.5, result[3], 1e-12);
+		assertFalse( IntersectUtil.getBoxIntersection( result, 0, 0, 0, 10, 2, 4, 6, 8));
+
+		double[] triangle = { 0, 0, 4, 0, 0, 4};
+		double[] clockwise = { 0, 0, 0, 4, 4, 0};
+		assertTrue( IntersectUtil.getPolygonIntersection( result, 3, 3, 0, 0, triangle));
+		assertEquals( 2, result[0], 1e-12);
+		assertEquals( 2, result[1], 1e-12);
+		assertEquals( 1.5, result[3], 1e-12);
+		assertTrue( IntersectUtil.getPolygonIntersection( result, 3, 3, 0, 0, clockwise));
+		assertEquals( 2, result[0], 1e-12);
+		assertTrue( IntersectUtil.getPolygonIntersection( result, 1, 1, 1, 10, triangle));
+		assertEquals( 3, result[1], 1e-12);
+		assertFalse( IntersectUtil.getPolygonIntersection( result, 5, 5, 10, 10, triangle));
+	}
+
+	/**
+	 * outlines must cross where their segment outline does.
+	 */
+	@Test
+	final void testMatchesSegments(){
+		Random rand = new Random( 11);
+		double[] polygon = new double[64];
+		for( int i = 0; i < 32; i++){
+			polygon[i * 2] = 50 + Math.cos( i * Math.PI / 16) * 20;
+			polygon[i * 2 + 1] = 50 + Math.sin( i * Math.PI / 16) * 10;
+		}
+		SegmentSet outline = new SegmentSet(), box = new SegmentSet();
+		for( int i = 0; i < 32; i++)
+			outline.add( polygon[i * 2], polygon[i * 2 + 1], polygon[(i + 1) % 32 * 2], polygon[(i + 1) % 32 * 2 + 1]);
+		box.add( 30, 40, 70, 40);
+		box.add( 70, 40, 70, 60);
+		box.add( 70, 60, 30, 60);
+		box.add( 30, 60, 30, 40);
+		double[] expected = new double[4], actual = new double[4];
+		for( int n = 0; n < 5000; n++){
+			double rsx = rand.nextDouble() * 100, rsy = rand.nextDouble() * 100, rex = rand.nextDouble() * 100, rey = rand.nextDouble() * 100;
+			boolean hit = IntersectUtil.getClosestIntersection( expected, rsx, rsy, rex, rey, outline) != -1;
+			assertEquals( hit, IntersectUtil.getPolygonIntersection( actual, rsx, rsy, rex, rey, polygon), "polygon " + n);
+			if( hit)
+				assertEquals( expected[2], actual[2], 1e-9, "polygon " + n);
+			hit = IntersectUtil.getClosestIntersection( expected, rsx, rsy, rex, rey, box) != -1;
+			assertEquals( hit, IntersectUtil.getBoxIntersection( actual, rsx, rsy, rex, rey, 30, 40, 70, 60), "box " + n);
+			if( hit)
+				assertEquals( expected[2], actual[2], 1e-9, "box " + n);
+			if( IntersectUtil.getCircleIntersection( actual, rsx, rsy, rex, rey, 50, 50, 15))
+				assertEquals( 15, Math.hypot( actual[0] - 50, actual[1] - 50), 1e-9, "circle " + n);
+		}
+	}
+
+	/**
+	 * a shape as tested by its public routine in {@link IntersectUtil}.
+	 */
+	@FunctionalInterface
+	private interface Shape{
+		boolean hit( double[] result, double rsx, double rsy, double rex, double rey);
+	}
+
+	/**
+	 * a scene with no shapes finds nothing, before and after shapes are added.
+	 */
+	@Test
+	final void testEmpty(){
+		ShapeScene scene = new ShapeScene();
+		double[] result = new double[4];
+		assertEquals( 0, scene.size());
+		assertEquals( -1, scene.getClosestIntersection( result, 0, 0, 1, 1));
+		assertEquals( -1, scene.getClosestIntersection( result, 0, 0, 1, 0, 10));
+		assertEquals( -1, scene.getAnyIntersection( 0, 0, 0, 1, 10));
+		scene.addCircle( 5, 0, 1);
+		assertEquals( 0, scene.getClosestIntersection( result, 0, 0, 1, 0));
+		assertEquals( 4, result[0], 1e-12);
+	}
+
+	/**
+	 * the broad phase finds the same shape as testing every shape in order.
+	 */
+	@Test
+	final void testBroadPhase(){
+		Random rand = new Random( 12);
+		ShapeScene scene = new ShapeScene();
+		List< Shape> shapes = new ArrayList<>();
+		double[][] walls = { { 0, 0, 1000, 0}, { 1000, 0, 1000, 1000}, { 1000, 1000, 0, 1000}, { 0, 1000, 0, 0}};
+		for( double[] w : walls){
+			scene.addSegment( w[0], w[1], w[2], w[3]);
+			shapes.add( ( result, rsx, rsy, rex, rey) -> IntersectUtil.getIntersection( result, rsx, rsy, rex, rey, w[0], w[1], w[2], w[3]));
+		}
+		for( int i = 0; i < 400; i++){
+			double x = 50 + rand.nextDouble() * 900, y = 50 + rand.nextDouble() * 900, r = 1 + rand.nextDouble() * 20;
+			switch( i % 4){
+				case 0:
+					double ex = x + rand.nextDouble() * 60 - 30, ey = y + rand.nextDouble() * 60 - 30;
+					scene.addSegment( x, y, ex, ey);
+					shapes.add( ( result, rsx, rsy, rex, rey) -> IntersectUtil.getIntersection( result, rsx, rsy, rex, rey, x, y, ex, ey));
+					break;
+				case 1:
+					scene.addCircle( x, y, r);
+					shapes.add( ( result, rsx, rsy, rex, rey) -> IntersectUtil.getCircleIntersection( result, rsx, rsy, rex, rey, x, y, r));
+					break;
+				case 2:
+					scene.addBox( x - r, y - r / 2, x + r, y + r / 2);
+					shapes.add( ( result, rsx, rsy, rex, rey) -> IntersectUtil.getBoxIntersection( result, rsx, rsy, rex, rey, x - r, y - r / 2, x + r, y + r / 2));
+					break;
+				default:
+					// clockwise, the scene stores it counter clockwise
+					double[] triangle = { x, y, x - r, y + r, x + r, y + r};
+					scene.addPolygon( triangle);
+					shapes.add( ( result, rsx, rsy, rex, rey) -> IntersectUtil.getPolygonIntersection( result, rsx, rsy, rex, rey, triangle));
+			}
+			assertEquals( i % 4 == 0 ? ShapeScene.SEGMENT : i % 4, scene.kind( i + 4));
+		}
+		double[] expected = new double[4], actual = new double[4], single = new double[4];
+		for( int n = 0; n < 2000; n++){
+			double rsx = rand.nextDouble() * 1000, rsy = rand.nextDouble() * 1000;
+			double a = rand.nextDouble() * Math.PI * 2, length = rand.nextDouble() * 500;
+			double rex = rsx + Math.cos( a) * length, rey = rsy + Math.sin( a) * length;
+			for( double tMax : new double[]{ 1, Double.POSITIVE_INFINITY}){
+				int closest = -1;
+				for( int s = 0; s < shapes.size(); s++){
+					if( !shapes.get( s).hit( single, rsx, rsy, rex, rey) || !(single[2] < tMax))
+						continue;
+					if( closest == -1 || single[2] < expected[2]){
+						closest = s;
+						System.arraycopy( single, 0, expected, 0, 4);
+					}
+				}
+				assertEquals( closest, scene.getClosestIntersection( actual, rsx, rsy, rex, rey, tMax), "ray " + n);
+				assertEquals( closest == -1, scene.getAnyIntersection( rsx, rsy, rex, rey, tMax) == -1, "ray " + n);
+				if( closest != -1)
+					for( int k = 0; k < 3; k++)
+						assertEquals( expected[k], actual[k], 1e-12, "ray " + n);
+			}
+		}
+		assertThrows( IllegalArgumentException.class, () -> scene.addPolygon( new double[]{ 0, 0, 4, 0, 1, 1, 0, 4}));
+		assertThrows( IllegalArgumentException.class, () -> scene.addBox( 1, 0, 0, 1));
+	}
+}
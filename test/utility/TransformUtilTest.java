@@ -0,0 +1,144 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link TransformUtil}.
+ */
+class TransformUtilTest{
+
+	/**
+	 * translate, scale and rotate a buffer against the same math on each point.
+	 */
+	@Test
+	final void testPointBuffer(){
+		PointBuffer points = new PointBuffer( new double[]{ 0, 0, 1, 0, 2, 3, -4, 5});
+		TransformUtil.translate( points, 1, -1);
+		assertArrayEquals( new double[]{ 1, -1, 2, -1, 3, 2, -3, 4}, points.toArray());
+		TransformUtil.scale( points, 2, -1);
+		assertArrayEquals( new double[]{ 2, 1, 4, 1, 6, -2, -6, -4}, points.toArray());
+		TransformUtil.rotate( points, Math.PI / 2, 2, 1);
+		assertArrayEquals( new double[]{ 2, 1, 2, 3, 5, 5, 7, -7}, points.toArray(), 1e-12);
+	}
+
+	/**
+	 * infinite coordinates stay on their axis when translated or scaled.
+	 */
+	@Test
+	final void testInfinity(){
+		PointBuffer points = new PointBuffer( new double[]{ Double.POSITIVE_INFINITY, 1});
+		TransformUtil.translate( points, 1, 1);
+		TransformUtil.scale( points, 2, 2);
+		assertArrayEquals( new double[]{ Double.POSITIVE_INFINITY, 4}, points.toArray());
+	}
+
+	/**
+	 * affine into another buffer leaves the source alone and resizes the target.
+	 */
+	@Test
+	final void testAffineCopy(){
+		PointBuffer source = new PointBuffer( new double[]{ 1, 2, 3, 4});
+		PointBuffer target = new PointBuffer( new double[]{ 9, 9, 9, 9, 9, 9});
+		TransformUtil.affine( source, target, 1, 2, 3, 4, 5, 6);
+		assertArrayEquals( new double[]{ 1, 2, 3, 4}, source.toArray());
+		assertArrayEquals( new double[]{ 8, 20, 14, 38}, target.toArray());
+		// a target with no capacity grows to hold every point
+		PointBuffer empty = new PointBuffer( 0);
+		TransformUtil.affine( source, empty, 1, 0, 0, 0, 1, 0);
+		assertEquals( 2, empty.size());
+		assertArrayEquals( new double[]{ 1, 2, 3, 4}, empty.toArray());
+	}
+
+	/**
+	 * a buffer large enough to run in parallel gives the same answer as one point at a time.
+	 */
+	@Test
+	final void testParallel(){
+		Random rand = new Random( 5);
+		int count = TransformUtil.PARALLEL_THRESHOLD * 2 + 17;
+		PointBuffer points = new PointBuffer( count);
+		for( int i = 0; i < count; i++)
+			points.add( rand.nextDouble() * 100, rand.nextDouble() * 100);
+		double[] before = points.toArray();
+		TransformUtil.affine( points, 0.5, -1.5, 2, 3, 0.25, -7);
+		for( int i = 0; i < count; i++){
+			double x = before[i * 2], y = before[i * 2 + 1];
+			assertEquals( 0.5 * x + -1.5 * y + 2, points.x( i), 0);
+			assertEquals( 3 * x + 0.25 * y + -7, points.y( i), 0);
+		}
+	}
+
+	/**
+	 * both ends of segments move and the version of the set changes.
+	 */
+	@Test
+	final void testSegmentSet(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 1, 0);
+		segments.add( 2, 2, 2, 3);
+		long version = segments.version();
+		TransformUtil.translate( segments, 10, 20);
+		assertTrue( segments.version() != version);
+		assertEquals( 10, segments.ssx( 0), 0);
+		assertEquals( 20, segments.ssy( 0), 0);
+		assertEquals( 12, segments.sex( 1), 0);
+		assertEquals( 23, segments.sey( 1), 0);
+		TransformUtil.rotate( segments, Math.PI, 11, 20);
+		assertEquals( 12, segments.ssx( 0), 1e-12);
+		assertEquals( 20, segments.ssy( 0), 1e-12);
+		assertEquals( 11, segments.sex( 0), 1e-12);
+		TransformUtil.scale( segments, 2, 0.5);
+		assertEquals( 24, segments.ssx( 0), 1e-12);
+		assertEquals( 10, segments.ssy( 0), 1e-12);
+	}
+
+	/**
+	 * points are moved by the same math as a buffer.
+	 */
+	@Test
+	final void testPoints(){
+		List< Point> points = Arrays.asList( new Point( 1, 2), new Point( -3, 4));
+		TransformUtil.translate( points, 1, 1);
+		TransformUtil.scale( points, 2, 3);
+		assertEquals( new Point( 4, 9), points.get( 0));
+		TransformUtil.rotate( points, Math.PI / 2, 0, 0);
+		assertEquals( -9, points.get( 0).x(), 1e-12);
+		assertEquals( 4, points.get( 0).y(), 1e-12);
+		TransformUtil.affine( points, 0, 1, 0, 1, 0, 0);
+		assertEquals( 4, points.get( 0).x(), 1e-12);
+		assertEquals( -9, points.get( 0).y(), 1e-12);
+	}
+
+	/**
+	 * a listener on one point sees every point already moved, and each point notifies once per transform.
+	 */
+	@Test
+	final void testPointsBatch(){
+		Point first = new Point( 0, 0), second = new Point( 10, 0);
+		List< Point> points = Arrays.asList( first, second);
+		double[] seen = new double[2];
+		int[] notified = new int[1];
+		first.addListener( o -> {
+			notified[0]++;
+			seen[0] = first.x();
+			seen[1] = second.x();
+		});
+		TransformUtil.translate( points, 1, 0);
+		assertArrayEquals( new double[]{ 1, 11}, seen);
+		TransformUtil.scale( points, 2, 1);
+		assertArrayEquals( new double[]{ 2, 22}, seen);
+		TransformUtil.rotate( points, Math.PI, 0, 0);
+		assertArrayEquals( new double[]{ -2, -22}, seen, 1e-12);
+		TransformUtil.affine( points, 1, 0, 5, 0, 1, 0);
+		assertArrayEquals( new double[]{ 3, -17}, seen, 1e-12);
+		assertEquals( 4, notified[0]);
+	}
+}
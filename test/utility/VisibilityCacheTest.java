@@ -0,0 +1,115 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link VisibilityCache}.
+ */
+class VisibilityCacheTest{
+
+	/**
+	 * a room with one wall in the middle.
+	 */
+	private static SegmentSet room(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 100, 0);
+		segments.add( 100, 0, 100, 100);
+		segments.add( 100, 100, 0, 100);
+		segments.add( 0, 100, 0, 0);
+		segments.add( 50, 40, 50, 60);
+		return segments;
+	}
+
+	/**
+	 * lights in the same cell share one polygon computed from the snapped position.
+	 */
+	@Test
+	final void testHitsAndMisses(){
+		SegmentSet segments = room();
+		VisibilityCache cache = new VisibilityCache( segments, 0.5, 16, 1000);
+		double[] first = cache.get( 20.1, 30.2);
+		assertSame( first, cache.get( 19.9, 29.8));
+		assertArrayEquals( new VisibilityPolygon().compute( 20, 30, segments).toArray(), first);
+		assertNotSame( first, cache.get( 20.4, 30));
+		assertEquals( 1, cache.hits());
+		assertEquals( 2, cache.misses());
+		assertEquals( 2, cache.size());
+		assertEquals( 1 / 3.0, cache.hitRate(), 1e-12);
+		cache.resetStatistics();
+		assertEquals( 0, cache.hitRate(), 0);
+	}
+
+	/**
+	 * changing segments drops every cached polygon.
+	 */
+	@Test
+	final void testInvalidate(){
+		SegmentSet segments = room();
+		VisibilityCache cache = new VisibilityCache( segments, 1, 16, 1000);
+		double[] before = cache.get( 20, 50);
+		cache.get( 80, 50);
+		segments.add( 30, 45, 30, 55);
+		double[] after = cache.get( 20, 50);
+		assertNotSame( before, after);
+		assertArrayEquals( new VisibilityPolygon().compute( 20, 50, segments).toArray(), after);
+		assertEquals( 1, cache.invalidations());
+		assertEquals( 1, cache.size());
+		assertEquals( 3, cache.misses());
+	}
+
+	/**
+	 * least recently used polygons are evicted by count and by total vertices.
+	 */
+	@Test
+	final void testEviction(){
+		SegmentSet segments = room();
+		VisibilityCache cache = new VisibilityCache( segments, 1, 2, 1000);
+		double[] a = cache.get( 10, 10);
+		cache.get( 20, 20);
+		cache.get( 10, 10);
+		cache.get( 30, 30);
+		assertEquals( 2, cache.size());
+		assertEquals( 1, cache.evictions());
+		// a was used after the second light so it must still be there
+		assertSame( a, cache.get( 10, 10));
+		assertEquals( 2, cache.hits());
+
+		int vertices = a.length / 2;
+		VisibilityCache small = new VisibilityCache( segments, 1, 100, vertices);
+		small.get( 10, 10);
+		small.get( 90, 90);
+		assertEquals( 1, small.size());
+		assertTrue( small.vertices() <= Math.max( vertices, small.get( 90, 90).length / 2));
+	}
+
+	/**
+	 * a light next to a wall whose cell centre is on the other side gets the polygon of its own side, not cached.
+	 */
+	@Test
+	final void testNextToWall(){
+		SegmentSet segments = new SegmentSet();
+		segments.add( 0, 0, 20, 0);
+		segments.add( 20, 0, 20, 20);
+		segments.add( 20, 20, 0, 20);
+		segments.add( 0, 20, 0, 0);
+		segments.add( 10.1, 0, 10.1, 20);
+		VisibilityCache cache = new VisibilityCache( segments, 0.5, 16, 1000);
+		double[] polygon = cache.get( 10.2, 5);
+		assertArrayEquals( new VisibilityPolygon().compute( 10.2, 5, segments).toArray(), polygon);
+		for( int i = 0; i < polygon.length; i += 2)
+			assertTrue( polygon[i] >= 10.1, "x " + polygon[i]);
+		assertEquals( 0, cache.size());
+		assertEquals( 1, cache.misses());
+		// the other side of the wall sees the cell centre and is cached
+		double[] left = cache.get( 9.9, 5);
+		assertArrayEquals( new VisibilityPolygon().compute( 10, 5, segments).toArray(), left);
+		assertEquals( 1, cache.size());
+		assertNotSame( left, cache.get( 10.2, 5));
+	}
+}
@@ -0,0 +1,179 @@
+package utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * tests for {@link VisibilityPolygon}. every ray cast with {@link IntersectUtil#getClosestIntersection(double[], double, double, double, double, SegmentSet)}
+ * from the light must end on the boundary of the polygon.
+ */
+class VisibilityPolygonTest{
+
+	private SegmentSet segments;
+	private VisibilityPolygon visibility;
+
+	@BeforeEach
+	void setUp() throws Exception{
+		segments = new SegmentSet();
+		segments.add( 0, 0, 100, 0);
+		segments.add( 100, 0, 100, 100);
+		segments.add( 100, 100, 0, 100);
+		segments.add( 0, 100, 0, 0);
+		visibility = new VisibilityPolygon();
+	}
+
+	/**
+	 * light inside an empty box sees the four corners.
+	 */
+	@Test
+	final void testEmptyBox(){
+		visibility.compute( new Point( 30, 60), segments);
+		assertEquals( 4, visibility.size());
+		assertBoundary( visibility, segments, 360);
+	}
+
+	/**
+	 * a single wall in the box casts a shadow, polygon gets the two wall ends and their shadows.
+	 */
+	@Test
+	final void testWall(){
+		segments.add( 40, 20, 60, 20);
+		visibility.compute( 50, 50, segments);
+		assertEquals( 8, visibility.size());
+		assertBoundary( visibility, segments, 720);
+	}
+
+	/**
+	 * random boxes which do not cross each other.
+	 */
+	@Test
+	final void testRandomBoxes(){
+		Random rand = new Random( 7);
+		segments = new SegmentSet();
+		segments.add( 0, 0, 1000, 0);
+		segments.add( 1000, 0, 1000, 1000);
+		segments.add( 1000, 1000, 0, 1000);
+		segments.add( 0, 1000, 0, 0);
+		// boxes on a 10 by 10 lattice never overlap
+		for( int i = 0; i < 10; i++){
+			for( int j = 0; j < 10; j++){
+				if( rand.nextInt( 3) != 0)
+					continue;
+				double x = i * 100 + 10 + rand.nextDouble() * 40, y = j * 100 + 10 + rand.nextDouble() * 40;
+				double w = 10 + rand.nextDouble() * 40, h = 10 + rand.nextDouble() * 40;
+				segments.add( x, y, x + w, y);
+				segments.add( x + w, y, x + w, y + h);
+				segments.add( x + w, y + h, x, y + h);
+				segments.add( x, y + h, x, y);
+			}
+		}
+		for( int l = 0; l < 20; l++){
+			visibility.compute( 5 + rand.nextDouble() * 990, 5 + rand.nextDouble() * 990, segments);
+			assertBoundary( visibility, segments, 2000);
+		}
+	}
+
+	/**
+	 * two walls from one shared vertex which are a few ulps apart at their far ends. past the shared vertex the light
+	 * hits the wall in front, so the far end of the wall behind it is hidden and is never a vertex.
+	 */
+	@Test
+	final void testThinWedge(){
+		Random rand = new Random( 8);
+		for( int n = 0; n < 2000; n++){
+			segments = new SegmentSet();
+			segments.add( -500, -500, 500, -500);
+			segments.add( 500, -500, 500, 500);
+			segments.add( 500, 500, -500, 500);
+			segments.add( -500, 500, -500, -500);
+			double vx = 50 + rand.nextDouble() * 100, vy = rand.nextDouble() * 100 - 50;
+			double ex = vx + 50 + rand.nextDouble() * 50, ey1 = vy + rand.nextDouble() * 10 - 5;
+			double ey2 = ey1 + Math.ulp( ey1) * (4 << rand.nextInt( 4));
+			if( rand.nextBoolean()){
+				segments.add( vx, vy, ex, ey1);
+				segments.add( vx, vy, ex, ey2);
+			}else{
+				segments.add( ex, ey2, vx, vy);
+				segments.add( ex, ey1, vx, vy);
+			}
+			visibility.compute( 0, 0, segments);
+			boolean hidden1 = isBehind( vx, vy, ex, ey2, ex, ey1), hidden2 = isBehind( vx, vy, ex, ey1, ex, ey2);
+			for( int i = 0; i < visibility.size(); i++){
+				if( visibility.x( i) == ex){
+					assertTrue( !hidden1 || visibility.y( i) != ey1, "case " + n + " hidden end " + ey1 + " is a vertex");
+					assertTrue( !hidden2 || visibility.y( i) != ey2, "case " + n + " hidden end " + ey2 + " is a vertex");
+				}
+			}
+		}
+	}
+
+	/**
+	 * a wall almost in line with the light, a few ulps off, blocks nothing. a rounded cross product can give it the
+	 * wrong side and turn it into a wall around the light, then most of the box would be lost.
+	 */
+	@Test
+	final void testWallInLineWithLight(){
+		Random rand = new Random( 9);
+		segments = new SegmentSet();
+		segments.add( 0, 0, 1000, 0);
+		segments.add( 1000, 0, 1000, 1000);
+		segments.add( 1000, 1000, 0, 1000);
+		segments.add( 0, 1000, 0, 0);
+		segments.add( 0, 0, 0, 0);
+		for( int n = 0; n < 2000; n++){
+			double lx = 200 + rand.nextDouble() * 100, ly = 200 + rand.nextDouble() * 100;
+			double dx = (rand.nextDouble() - 0.5) * 200, dy = (rand.nextDouble() - 0.5) * 200;
+			double t1 = 0.1 + rand.nextDouble(), t2 = t1 + 0.1 + rand.nextDouble();
+			double y2 = ly + dy * t2;
+			segments.set( 4, lx + dx * t1, ly + dy * t1, lx + dx * t2, y2 + Math.ulp( y2) * (rand.nextInt( 5) - 2));
+			visibility.compute( lx, ly, segments);
+			double area = 0;
+			for( int i = 0, j = visibility.size() - 1; i < visibility.size(); j = i++)
+				area += visibility.x( j) * visibility.y( i) - visibility.x( i) * visibility.y( j);
+			assertEquals( 1e6, area / 2, 1, "case " + n);
+		}
+	}
+
+	/**
+	 * cast rays around the light and make sure each hit lies on an edge of the polygon.
+	 */
+	private static void assertBoundary( VisibilityPolygon polygon, SegmentSet segments, int rays){
+		double[] hit = new double[4];
+		double lx = polygon.lightX(), ly = polygon.lightY();
+		for( int r = 0; r < rays; r++){
+			double angle = (r + 0.5) * 2 * Math.PI / rays;
+			int index = IntersectUtil.getClosestIntersection( hit, lx, ly, lx + Math.cos( angle), ly + Math.sin( angle), segments);
+			assertTrue( index != -1, "ray escaped the scene");
+			double closest = Double.POSITIVE_INFINITY;
+			for( int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++)
+				closest = Math.min( closest, distance( hit[0], hit[1], polygon.x( j), polygon.y( j), polygon.x( i), polygon.y( i)));
+			assertEquals( 0, closest, 1e-6, "hit (" + hit[0] + "," + hit[1] + ") is not on the polygon");
+		}
+	}
+
+	/**
+	 * check exactly if point p is hidden from the light at the origin by segment vf
+	 */
+	private static boolean isBehind( double vx, double vy, double fx, double fy, double px, double py){
+		int light = Predicates.orient2d( vx, vy, fx, fy, 0, 0), point = Predicates.orient2d( vx, vy, fx, fy, px, py);
+		if( light == 0 || point == 0 || light == point)
+			return false;
+		// the ray from the light to p must pass through segment vf
+		return Predicates.orient2d( 0, 0, px, py, vx, vy) * Predicates.orient2d( 0, 0, px, py, fx, fy) <= 0;
+	}
+
+	/**
+	 * distance of point p from line segment ab.
+	 */
+	private static double distance( double px, double py, double ax, double ay, double bx, double by){
+		double sx = bx - ax, sy = by - ay;
+		double length = sx * sx + sy * sy;
+		double u = length == 0 ? 0 : Math.max( 0, Math.min( 1, ((px - ax) * sx + (py - ay) * sy) / length));
+		return Math.hypot( px - ax - u * sx, py - ay - u * sy);
+	}
+}